@@ -0,0 +1,1882 @@
+package retailstore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmark driver for the Retail Store.
+ * Runs the named scenario against synthetic catalogs and prints the measured results.
+ * Usage: java -cp jmh/target/benchmarks.jar retailstore.Benchmark [scenario]
+ * It lives in the jmh module next to the suite of the hot paths over catalog sizes and thread counts,
+ * which generates its catalogs and item ids with generateItems and randomIds, so neither ships in the shop jar.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class Benchmark {
+
+	/** the catalog sizes used by the scaling scenario */
+	private static final int[] SCALING_SIZES = { 40, 5_000, 500_000, 5_000_000 };
+
+	/** the number of operations timed for each measurement */
+	private static final int OPERATIONS = 2_000_000;
+
+	/** one in this many operations of the suite is timed on its own for the latency percentiles, a power of two */
+	private static final int LATENCY_SAMPLE = 8;
+
+	/** the time each cell of the suite is warmed up for and then measured for, in milliseconds */
+	private static final long SUITE_MILLIS = 1000;
+
+	/** collects results of timed operations so that they cannot be optimized away */
+	private static long sink;
+
+	/**
+	 * Main method, runs the scenario named in the arguments.
+	 *
+	 * @param args the scenario to run (defaults to scaling).
+	 */
+	public static void main(String[] args) throws IOException {
+		String scenario = args.length > 0 ? args[0] : "scaling";
+
+		switch (scenario) {
+		case "scaling":
+			scaling();
+			break;
+		case "names":
+			names();
+			break;
+		case "orders":
+			orders();
+			break;
+		case "memory":
+			memory();
+			break;
+		case "concurrent":
+			concurrent();
+			break;
+		case "baskets":
+			baskets();
+			break;
+		case "parse":
+			parse(args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000);
+			break;
+		case "startup":
+			startup(args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000);
+			break;
+		case "snapshot":
+			snapshot(args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000);
+			break;
+		case "journal":
+			journal();
+			break;
+		case "stats":
+			stats();
+			break;
+		case "batch":
+			batch(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+			break;
+		case "http":
+			http();
+			break;
+		case "listing":
+			listing();
+			break;
+		case "writeback":
+			writeBack(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+			break;
+		case "lowstock":
+			lowStock();
+			break;
+		case "sharded":
+			sharded(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+			break;
+		case "replication":
+			replication(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+			break;
+		case "history":
+			history(args.length > 1 ? Integer.parseInt(args[1]) : 3650);
+			break;
+		case "mvcc":
+			mvcc(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+			break;
+		case "fuzzy":
+			fuzzy(args.length > 1 ? Integer.parseInt(args[1]) : 3_000_000);
+			break;
+		default:
+			System.out.println("Unknown scenario: " + scenario);
+			break;
+		}
+		System.out.println("(checksum " + sink + ")");
+	}
+
+	/**
+	 * Measures the per-operation latency of id lookups, quantity checks and decrements
+	 * as the catalog grows, the cost per operation should stay flat.
+	 */
+	private static void scaling() {
+		System.out.println("catalog size | searchItem(id) ns/op | checkQty ns/op | removeItem+addItem ns/op");
+
+		for (int size : SCALING_SIZES) {
+			Inventory inventory = new Inventory(generateItems(size));
+			int[] ids = randomIds(size, new Random(size));
+
+			for (int round = 0; round < 2; round++) { //first round warms up the code paths
+				long search = timeSearch(inventory, ids);
+				long check = timeCheckQty(inventory, ids);
+				long remove = timeRemoveAdd(inventory, ids);
+
+				if (round == 1) {
+					System.out.printf("%12d | %20.1f | %14.1f | %24.1f%n", size,
+							(double) search / OPERATIONS, (double) check / OPERATIONS, (double) remove / OPERATIONS);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures the per-operation latency of exact name lookups and prefix searches
+	 * as the catalog grows.
+	 */
+	private static void names() {
+		System.out.println("catalog size | searchItem(name) ns/op | searchItemsByPrefix(10) ns/op");
+
+		for (int size : SCALING_SIZES) {
+			Inventory inventory = new Inventory(generateItems(size));
+			Random random = new Random(size);
+			String[] queries = new String[1024];
+			for (int i = 0; i < queries.length; i++) {
+				queries[i] = "ITEM " + random.nextInt(size); //upper case so every lookup has to fold case
+			}
+
+			for (int round = 0; round < 2; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < OPERATIONS; i++) {
+					sink += inventory.searchItem(queries[i & 1023]).getQty();
+				}
+				long exact = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < OPERATIONS / 10; i++) {
+					sink += inventory.searchItemsByPrefix(queries[i & 1023], 10).size();
+				}
+				long prefix = System.nanoTime() - start;
+
+				if (round == 1) {
+					System.out.printf("%12d | %22.1f | %29.1f%n", size,
+							(double) exact / OPERATIONS, (double) prefix / (OPERATIONS / 10));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures building an order whose lines are resolved against a growing list of suppliers,
+	 * the time should grow linearly with the number of lines and suppliers. Then measures reading the
+	 * totals of one supplier and of the whole order, kept up to date by the order, against adding up
+	 * the lines of the order again.
+	 */
+	private static void orders() {
+		System.out.println("order lines | suppliers | createOrder ms | supplier totals ns | rescan supplier us | order totals ns | rescan order us");
+
+		int[][] shapes = { { 10_000, 5_000 }, { 100_000, 50_000 }, { 1_000_000, 500_000 } };
+		for (int[] shape : shapes) {
+			int lines = shape[0];
+			int supplierCount = shape[1];
+
+			Shop shop = new Shop();
+			for (int i = 0; i < supplierCount; i++) {
+				shop.addSupplier(8001 + i, "Supplier " + i, "Address " + i, "Contact " + i);
+			}
+
+			Inventory inventory = shop.getInventory();
+			for (int i = 0; i < lines; i++) {
+				inventory.addItem(1000 + i, "Item " + i, 45, 1.0, 8001 + (i % supplierCount));
+				inventory.removeItem(1000 + i, 10); //drops below 40, so every item raises an order line
+			}
+
+			long start = System.nanoTime();
+			shop.createOrder();
+			long elapsed = System.nanoTime() - start;
+			Order order = shop.getOrder();
+			sink += order.getOrderLines().size();
+
+			Random random = new Random(lines);
+			int lookups = 1_000_000, rescans = Math.max(10_000_000 / lines, 10);
+			long supplier = 0, rescanSupplier = 0, totals = 0, rescanOrder = 0;
+			for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+				start = System.nanoTime();
+				for (int i = 0; i < lookups; i++) {
+					SupplierOrder so = order.getSupplierOrder(8001 + random.nextInt(supplierCount));
+					sink += so.getLineCount() + so.getTotalQty() + (long) so.getTotalCost();
+				}
+				supplier = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < rescans; i++) {
+					int supplierId = 8001 + random.nextInt(supplierCount);
+					long qty = 0;
+					double cost = 0;
+					for (OrderLine ol : order.getOrderLines()) {
+						if (ol.getSupplierId() == supplierId) {
+							qty += ol.getQty();
+							cost += ol.getPrice() * ol.getQty();
+						}
+					}
+					sink += qty + (long) cost;
+				}
+				rescanSupplier = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < lookups; i++) {
+					sink += order.getLineCount() + order.getTotalQty() + (long) order.getTotalCost();
+				}
+				totals = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < rescans; i++) {
+					long qty = 0;
+					double cost = 0;
+					for (OrderLine ol : order.getOrderLines()) {
+						qty += ol.getQty();
+						cost += ol.getPrice() * ol.getQty();
+					}
+					sink += qty + (long) cost;
+				}
+				rescanOrder = System.nanoTime() - start;
+			}
+
+			System.out.printf("%11d | %9d | %14.1f | %18.1f | %18.1f | %15.1f | %15.1f%n", lines, supplierCount, elapsed / 1e6,
+					(double) supplier / lookups, rescanSupplier / 1e3 / rescans, (double) totals / lookups, rescanOrder / 1e3 / rescans);
+		}
+	}
+
+	/**
+	 * Compares the heap used by the ArrayList of Item objects layout of Inventory
+	 * with the parallel arrays layout of CompactInventory, both including their indexes.
+	 */
+	private static void memory() {
+		System.out.println("catalog size | Inventory MB | CompactInventory MB | bytes/item Inventory | bytes/item Compact");
+
+		for (int size : new int[] { 100_000, 1_000_000, 5_000_000 }) {
+			long before = usedHeap();
+			Inventory inventory = new Inventory(generateItems(size));
+			long listBytes = usedHeap() - before;
+			sink += inventory.checkQty(1000);
+			inventory = null;
+
+			before = usedHeap();
+			CompactInventory compact = new CompactInventory(size);
+			for (int i = 0; i < size; i++) {
+				compact.addItem(1000 + i, "Item " + i, 100 + (i % 400), 1 + (i % 5000) / 100.0, 8001 + (i % 19));
+			}
+			long compactBytes = usedHeap() - before;
+			sink += compact.checkQty(1000);
+			compact = null;
+
+			System.out.printf("%12d | %12.1f | %19.1f | %20.1f | %18.1f%n", size, listBytes / 1e6, compactBytes / 1e6,
+					(double) listBytes / size, (double) compactBytes / size);
+		}
+	}
+
+	/**
+	 * Returns the heap in use after running the garbage collector.
+	 *
+	 * @return the number of bytes of heap in use.
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Measures the throughput of decrements and restocks on a concurrent inventory as
+	 * the number of threads grows up to twice the number of cores, then checks that
+	 * concurrent decrements of one item lose no updates and raise exactly one order line.
+	 */
+	private static void concurrent() {
+		int size = 1_000_000;
+		int cores = Runtime.getRuntime().availableProcessors();
+		Inventory inventory = new Inventory(generateItems(size), true);
+		System.out.println("cores: " + cores);
+		System.out.println("threads | removeItem+addItem Mops/s");
+
+		for (int threads = 1; threads <= Math.max(2 * cores, 4); threads *= 2) {
+			for (int round = 0; round < 2; round++) {
+				double opsPerSecond = runThreads(inventory, size, threads, 1000);
+				if (round == 1)
+					System.out.printf("%7d | %25.2f%n", threads, opsPerSecond / 1e6);
+			}
+		}
+
+		//correctness: 4 threads take 9980 units of one item starting at 10000, leaving 20 (below the reorder level)
+		Inventory single = new Inventory(new ArrayList<Item>(), true);
+		single.addItem(1, "Contended", 10_000, 1.0, 8001);
+		Thread[] workers = new Thread[4];
+		for (int t = 0; t < workers.length; t++) {
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < 2495; i++) {
+					single.removeItem(1, 1);
+				}
+			});
+			workers[t].start();
+		}
+		joinAll(workers);
+		System.out.println("contended item qty " + single.checkQty(1) + " (expected 20), order lines "
+				+ single.getOrderLines().size() + " (expected 1)");
+
+		//handoff: 4 threads raise one line for each of 400000 items while another thread keeps draining
+		int lineItems = 400_000;
+		ArrayList<Item> stock = generateItems(lineItems);
+		for (Item item : stock) {
+			item.setQty(45);
+		}
+		Inventory selling = new Inventory(stock, true);
+		for (int t = 0; t < workers.length; t++) {
+			final int first = t;
+			workers[t] = new Thread(() -> {
+				for (int i = first; i < lineItems; i += workers.length) {
+					selling.removeItem(1000 + i, 10);
+				}
+			});
+			workers[t].start();
+		}
+
+		boolean[] seen = new boolean[lineItems];
+		int drained = 0;
+		int duplicates = 0;
+		boolean running = true;
+		while (running) {
+			running = false;
+			for (Thread worker : workers) {
+				running |= worker.isAlive();
+			}
+			for (OrderLine line : selling.drainOrderLines()) {
+				duplicates += seen[line.getId() - 1000] ? 1 : 0;
+				seen[line.getId() - 1000] = true;
+				drained++;
+			}
+		}
+		System.out.println("drained order lines " + drained + " (expected " + lineItems + "), duplicates " + duplicates);
+	}
+
+	/**
+	 * Compares posting 50-line baskets (and restocking them) one line at a time
+	 * against the batch removeItems and addItems calls, in both inventory modes.
+	 */
+	private static void baskets() {
+		int size = 1_000_000;
+		int basketSize = 50;
+		int baskets = 200_000;
+		System.out.println("mode       | single calls lines/s | batch calls lines/s | speedup");
+
+		for (boolean concurrentMode : new boolean[] { false, true }) {
+			Inventory inventory = new Inventory(generateItems(size), concurrentMode);
+			int[] ids = randomIds(size, new Random(7));
+			int[] basketIds = new int[basketSize];
+			int[] basketQtys = new int[basketSize];
+			Arrays.fill(basketQtys, 1);
+
+			for (int round = 0; round < 2; round++) {
+				long start = System.nanoTime();
+				for (int b = 0; b < baskets; b++) {
+					for (int i = 0; i < basketSize; i++) {
+						inventory.removeItem(ids[(b * basketSize) % (ids.length - basketSize) + i], 1);
+					}
+					for (int i = 0; i < basketSize; i++) {
+						inventory.addItem(ids[(b * basketSize) % (ids.length - basketSize) + i], null, 1, 0, 0);
+					}
+				}
+				long single = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int b = 0; b < baskets; b++) {
+					System.arraycopy(ids, (b * basketSize) % (ids.length - basketSize), basketIds, 0, basketSize);
+					sink += inventory.removeItems(basketIds, basketQtys).size();
+					inventory.addItems(basketIds, basketQtys);
+				}
+				long batch = System.nanoTime() - start;
+
+				if (round == 1) {
+					double lines = (double) baskets * basketSize;
+					System.out.printf("%-10s | %20.0f | %19.0f | %6.2fx%n", concurrentMode ? "concurrent" : "default",
+							lines * 1e9 / single, lines * 1e9 / batch, (double) single / batch);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures loading a large items file: the streaming parser (records passed to a callback),
+	 * the list returning readItems, and the line by line Scanner and split approach for reference.
+	 *
+	 * @param lines the number of lines of the generated items file.
+	 */
+	private static void parse(int lines) throws IOException {
+		String fileName = "bench_items.txt";
+		writeItemsFile(fileName, lines);
+		long bytes = new File(fileName).length();
+		FileHandler fh = new FileHandler();
+		System.out.println("file: " + lines + " lines, " + bytes / 1_000_000 + " MB");
+
+		for (int round = 0; round < 3; round++) { //the parser is only fully compiled after a couple of passes
+			long allocatedBefore = allocatedBytes();
+			long start = System.nanoTime();
+			long[] total = new long[1];
+			long records = fh.readItems(fileName, (id, name, qty, price, supplierId) -> total[0] += qty);
+			long elapsed = System.nanoTime() - start;
+			long allocated = allocatedBytes() - allocatedBefore;
+			sink += total[0];
+
+			if (round == 2) {
+				System.out.printf("streaming readItems: %.2f s, %.1f M lines/s, %.0f MB/s, %.1f bytes allocated per line%n",
+						elapsed / 1e9, records / (elapsed / 1e3), bytes / (elapsed / 1e3), (double) allocated / records);
+			}
+		}
+
+		if (lines <= 2_000_000) { //whole lists of Items need a lot of heap, only compare them on smaller files
+			long start = System.nanoTime();
+			sink += fh.readItems(fileName).size();
+			System.out.printf("list readItems: %.2f s%n", (System.nanoTime() - start) / 1e9);
+
+			start = System.nanoTime();
+			Scanner reader = new Scanner(new File(fileName));
+			while (reader.hasNextLine()) {
+				String[] data = reader.nextLine().split(";");
+				sink += Integer.parseInt(data[0]) + Integer.parseInt(data[2]) + (long) Double.parseDouble(data[3])
+						+ Integer.parseInt(data[4]) + data[1].length();
+			}
+			reader.close();
+			System.out.printf("Scanner and split (previous parser): %.2f s%n", (System.nanoTime() - start) / 1e9);
+		}
+		new File(fileName).delete();
+	}
+
+	/**
+	 * Measures the time to read an items file and build the inventory from it, reading
+	 * the file in one piece and in parallel chunks on pools of 1 up to all available cores.
+	 *
+	 * @param lines the number of items in the generated file.
+	 */
+	private static void startup(int lines) throws IOException {
+		String fileName = "bench_items.txt";
+		writeItemsFile(fileName, lines);
+		FileHandler fh = new FileHandler();
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println("file: " + lines + " lines, " + cores + " cores available");
+
+		ArrayList<Item> expected = null;
+		for (int round = 0; round < 3; round++) { //warm up the parser before the timed round
+			long start = System.nanoTime();
+			expected = fh.readItems(fileName);
+			sink += new Inventory(expected).searchItem(1000).getQty();
+			if (round == 2)
+				System.out.printf("sequential: %.2f s%n", (System.nanoTime() - start) / 1e9);
+		}
+
+		for (int parallelism = 1; parallelism <= cores; parallelism = parallelism < cores ? Math.min(parallelism * 2, cores) : cores + 1) {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			for (int round = 0; round < 3; round++) {
+				long start = System.nanoTime();
+				ArrayList<Item> items = fh.readItems(fileName, pool);
+				sink += new Inventory(items).searchItem(1000).getQty();
+				long elapsed = System.nanoTime() - start;
+
+				for (int i = 0; i < items.size(); i += 997) { //chunks must be joined back in file order
+					if (items.get(i).getId() != expected.get(i).getId())
+						throw new IllegalStateException("Chunked read out of order at line " + i);
+				}
+				if (round == 2)
+					System.out.printf("parallel, %d threads: %.2f s (%d items)%n", parallelism, elapsed / 1e9, items.size());
+			}
+			pool.shutdown();
+		}
+		new File(fileName).delete();
+	}
+
+	/**
+	 * Measures the time to save a shop into a snapshot file and to restore it, compared with
+	 * reading the same items from a text file.
+	 *
+	 * @param size the number of items of the shop.
+	 */
+	private static void snapshot(int size) throws IOException {
+		String fileName = "bench_shop.dat";
+		Inventory inventory = new Inventory(generateItems(size));
+		for (int i = 0; i < size; i += 10) {
+			inventory.removeItem(1000 + i, 70 + (i % 400)); //some items drop below the reorder level
+		}
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		for (int i = 0; i < 19; i++) {
+			suppliers.add(new Supplier(8001 + i, "Supplier " + i, "Address " + i, "Contact " + i));
+		}
+
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			SnapshotFile.write(fileName, inventory, suppliers, 0);
+			long saved = System.nanoTime();
+			Inventory restored = Shop.loadSnapshot(fileName, false).getInventory();
+			long loaded = System.nanoTime();
+			sink += restored.checkQty(1000) + restored.getOrderLines().size();
+
+			if (round == 2) {
+				System.out.printf("%d items, %d pending order lines, %d MB: save %.2f s, restore %.2f s%n", size,
+						restored.getOrderLines().size(), new File(fileName).length() / 1_000_000,
+						(saved - start) / 1e9, (loaded - saved) / 1e9);
+			}
+		}
+		new File(fileName).delete();
+
+		String textFileName = "bench_items.txt";
+		writeItemsFile(textFileName, size);
+		long start = System.nanoTime();
+		sink += new Inventory(new FileHandler().readItems(textFileName)).checkQty(1000);
+		System.out.printf("text file import for comparison: %.2f s%n", (System.nanoTime() - start) / 1e9);
+		new File(textFileName).delete();
+	}
+
+	/**
+	 * Measures the throughput of journaled decrements in each durability mode as the number of
+	 * threads grows, together with the number of decrements sharing each fsync.
+	 */
+	private static void journal() throws IOException {
+		int size = 100_000;
+		System.out.println("mode  | threads | removeItem ops/s | ops per fsync");
+
+		for (Journal.Durability durability : Journal.Durability.values()) {
+			for (int threads = 1; threads <= 64; threads *= 4) {
+				SnapshotFile.write("bench_shop.dat", new Inventory(generateItems(size)), new ArrayList<Supplier>(), 0);
+				Shop shop = Shop.loadSnapshot("bench_shop.dat", true);
+				shop.startJournal("bench_shop.dat", "bench.jnl", durability);
+				Inventory inventory = shop.getInventory();
+				long forcesBefore = inventory.getJournal().getForceCount();
+
+				long[] counts = new long[threads * 16]; //each thread counts into its own cache line
+				long deadline = System.nanoTime() + 2_000_000_000L;
+				Thread[] workers = new Thread[threads];
+				for (int t = 0; t < threads; t++) {
+					final int slot = t * 16;
+					final int[] ids = randomIds(size, new Random(t));
+					workers[t] = new Thread(() -> {
+						long done = 0;
+						while (System.nanoTime() < deadline) {
+							inventory.removeItem(ids[(int) done & (ids.length - 1)], 1);
+							done++;
+						}
+						counts[slot] = done;
+					});
+				}
+				long start = System.nanoTime();
+				for (Thread worker : workers) {
+					worker.start();
+				}
+				joinAll(workers);
+				long elapsed = System.nanoTime() - start;
+
+				long total = 0;
+				for (long count : counts) {
+					total += count;
+				}
+				long forces = inventory.getJournal().getForceCount() - forcesBefore;
+				shop.closeJournal();
+				System.out.printf("%-5s | %7d | %16.0f | %13.1f%n", durability, threads, total * 1e9 / elapsed,
+						(double) total / Math.max(forces, 1));
+			}
+		}
+
+		for (String name : new File(".").list()) {
+			if (name.startsWith("bench.jnl.") || name.equals("bench_shop.dat"))
+				new File(name).delete();
+		}
+	}
+
+	/**
+	 * An operation measured by the suite, run in a loop by each thread on its own random items.
+	 */
+	private interface SuiteOperation {
+
+		/**
+		 * Runs the operation once.
+		 *
+		 * @param ids the random item ids of the thread, a power of two sized array.
+		 * @param names the names of random items of the thread, a power of two sized array.
+		 * @param i the number of times the thread ran the operation before.
+		 */
+		void run(int[] ids, String[] names, int i) throws IOException;
+	}
+
+	/**
+	 * Runs threads repeating an operation of the suite for the measurement time, then prints their results.
+	 *
+	 * @param operation the name of the operation.
+	 * @param size the number of items in the generated catalog.
+	 * @param threads the number of threads running the operation (or the parallelism of the operation if it is slow).
+	 * @param slow true if a single thread runs the operation, timing each one.
+	 * @param background a task run every 10 ms while the threads run (or null if there is none).
+	 * @param op the operation to run.
+	 * @param quiet true if the results are not printed, e.g. while warming up.
+	 * @return the number of operations per second over all threads.
+	 */
+	private static double suiteRun(String operation, int size, int threads, boolean slow, Runnable background, SuiteOperation op, boolean quiet) {
+		int workerCount = slow ? 1 : threads;
+		long[] counts = new long[workerCount * 16]; //each thread counts into its own cache line
+		long[] allocated = new long[workerCount * 16];
+		LatencyHistogram[] histograms = new LatencyHistogram[workerCount];
+		int clockMask = slow ? 0 : 255;
+		int sampleMask = slow ? 0 : LATENCY_SAMPLE - 1;
+		long deadline = System.nanoTime() + SUITE_MILLIS * 1_000_000L;
+		Thread[] workers = new Thread[workerCount];
+
+		for (int t = 0; t < workerCount; t++) {
+			final int slot = t * 16;
+			final LatencyHistogram histogram = histograms[t] = new LatencyHistogram();
+			final Random random = new Random(t);
+			final int[] ids = randomIds(size, random);
+			final String[] names = new String[1 << 14];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = "Item " + (ids[i] - 1000);
+			}
+			workers[t] = new Thread(() -> {
+				long bytes = allocatedBytes();
+				int done = 0;
+				try {
+					while ((done & clockMask) != 0 || System.nanoTime() < deadline) {
+						if ((done & sampleMask) == 0) {
+							long start = System.nanoTime();
+							op.run(ids, names, done);
+							histogram.record(System.nanoTime() - start);
+						} else {
+							op.run(ids, names, done);
+						}
+						done++;
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				allocated[slot] = allocatedBytes() - bytes;
+				counts[slot] = done;
+			});
+		}
+
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long[] otherThreads = threadBean.getAllThreadIds(); //pools and background tasks allocate on other threads
+		Arrays.sort(otherThreads);
+		long[] otherBytes = threadBean.getThreadAllocatedBytes(otherThreads);
+		long start = System.nanoTime();
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		while (background != null && System.nanoTime() < deadline) {
+			background.run();
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		joinAll(workers);
+		long elapsed = System.nanoTime() - start;
+
+		long total = 0;
+		long bytes = 0;
+		long[] endThreads = threadBean.getAllThreadIds();
+		long[] endBytes = threadBean.getThreadAllocatedBytes(endThreads);
+		for (int i = 0; i < endThreads.length; i++) {
+			int before = Arrays.binarySearch(otherThreads, endThreads[i]); //threads started meanwhile count from 0
+			if (endBytes[i] > 0)
+				bytes += endBytes[i] - (before >= 0 ? Math.max(otherBytes[before], 0) : 0);
+		}
+		LatencyHistogram latency = new LatencyHistogram();
+		for (int t = 0; t < workerCount; t++) {
+			total += counts[t * 16];
+			bytes += allocated[t * 16];
+			latency.add(histograms[t]);
+		}
+		if (quiet)
+			return total * 1e9 / elapsed;
+
+		System.out.printf("%-12s | %8d | %7d | %12.1f | %9d | %9d | %9d | %11d | %.0f%n", operation, size, threads,
+				total * 1e9 / elapsed, latency.getPercentile(50), latency.getPercentile(99), latency.getPercentile(99.9),
+				latency.getMax(), (double) bytes / Math.max(total, 1));
+		return total * 1e9 / elapsed;
+	}
+
+	/**
+	 * Measures the cost of the operation statistics: the throughput of the fastest operations with
+	 * statistics recorded and not, in alternating rounds so that both see the same machine, and the
+	 * time of recording one operation as a share of the time of the operation itself. The difference
+	 * in throughput is within the noise of a run for all but the fastest operations, the share is not.
+	 */
+	private static void stats() {
+		OperationStats probe = new OperationStats("probe", 256);
+		double recordNanos = Double.MAX_VALUE;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < 20_000_000; i++) {
+				long sample = probe.begin();
+				sink += i;
+				probe.end(sample);
+			}
+			recordNanos = Math.min(recordNanos, (System.nanoTime() - start) / 20e6);
+		}
+		System.out.printf("recording one operation: %.1f ns%n", recordNanos);
+
+		System.out.println("operation    | items    | threads | stats on ops/s | stats off ops/s | difference | recording share");
+		for (int size : new int[] { 40, 500_000 }) {
+			ArrayList<Item> items = generateItems(size);
+			for (Item item : items) {
+				item.setQty(Item.REORDER_LEVEL);
+			}
+			Inventory inventory = new Inventory(items, true);
+			String[] operations = { "searchById", "checkQty", "removeItem" };
+			SuiteOperation[] ops = {
+					(ids, names, i) -> sink += inventory.searchItem(ids[i & (ids.length - 1)]).getId(),
+					(ids, names, i) -> sink += inventory.checkQty(ids[i & (ids.length - 1)]),
+					(ids, names, i) -> {
+						int id = ids[i & (ids.length - 1)];
+						inventory.removeItem(id, 1);
+						inventory.addItem(id, null, 1, 0, 0);
+					} };
+
+			for (int threads : new int[] { 1, 16 }) {
+				for (int o = 0; o < ops.length; o++) {
+					Runnable drain = o == 2 ? () -> inventory.drainOrderLines() : null;
+					suiteRun(operations[o], size, threads, false, drain, ops[o], true); //warm up
+					double[] on = new double[5];
+					double[] off = new double[5];
+					for (int round = 0; round < 2 * on.length; round++) {
+						boolean enabled = (round & 1) == (round >> 1 & 1); //on, off, off, on, ... so neither goes first every time
+						OperationStats.setEnabled(enabled);
+						double rate = suiteRun(operations[o], size, threads, false, drain, ops[o], true);
+						if (enabled)
+							on[round >> 1] = rate;
+						else
+							off[round >> 1] = rate;
+					}
+					OperationStats.setEnabled(true);
+					Arrays.sort(on);
+					Arrays.sort(off);
+					double share = recordNanos * (o == 2 ? 2 : 1) * off[2] / 1e9; //removeItem adds the item back, two operations
+					System.out.printf("%-12s | %8d | %7d | %14.0f | %15.0f | %9.1f%% | %14.1f%%%n", operations[o], size, threads,
+							on[2], off[2], 100 * (off[2] - on[2]) / off[2], 100 * share);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Measures the throughput of batch mode on a day of till transactions: mostly decreases of popular
+	 * items, with restocks, quantity checks and searches in between, without a journal and in each
+	 * durability mode. The same changes applied one call at a time are shown for comparison, for at most
+	 * a few seconds as each call waits for the disk on its own in the SYNC and GROUP modes.
+	 *
+	 * @param commands the number of commands to run.
+	 */
+	private static void batch(int commands) throws IOException {
+		int size = 500_000;
+		Random random = new Random(42);
+		ZipfDistribution popularity = new ZipfDistribution(size, 1.0, random);
+		StringBuilder text = new StringBuilder(commands * 16);
+		for (int i = 0; i < commands; i++) {
+			int id = 1000 + popularity.next() - 1;
+			int kind = random.nextInt(100);
+			if (kind < 70)
+				text.append("decrease ").append(id).append(' ').append(1 + random.nextInt(3));
+			else if (kind < 80)
+				text.append("restock ").append(id).append(" 50");
+			else if (kind < 95)
+				text.append("qty ").append(id);
+			else
+				text.append("search ").append(id);
+			text.append('\n');
+		}
+		String script = text.toString();
+		Writer discard = new Writer() { //counts the characters instead of printing them
+			public void write(char[] chars, int offset, int length) { sink += length; }
+			public void flush() { }
+			public void close() { }
+		};
+
+		System.out.println("journal | batch commands/s | one at a time commands/s");
+		for (int mode = -1; mode < Journal.Durability.values().length; mode++) {
+			SnapshotFile.write("bench_shop.dat", new Inventory(generateItems(size)), new ArrayList<Supplier>(), 0);
+			Shop shop = Shop.loadSnapshot("bench_shop.dat", true);
+			if (mode >= 0)
+				shop.startJournal("bench_shop.dat", "bench.jnl", Journal.Durability.values()[mode]);
+
+			double batched = 0;
+			for (int round = 0; round < 2; round++) { //the last round is timed
+				CommandBatch batch = new CommandBatch(shop);
+				long start = System.nanoTime();
+				batch.run(new BufferedReader(new StringReader(script), 1 << 16), new BufferedWriter(discard, 1 << 16));
+				batched = batch.getCommandCount() * 1e9 / (System.nanoTime() - start);
+			}
+
+			Inventory inventory = shop.getInventory();
+			long deadline = System.nanoTime() + 3_000_000_000L;
+			long start = System.nanoTime();
+			int done = 0;
+			for (int i = 0; i < script.length() && System.nanoTime() < deadline; done++) {
+				int end = script.indexOf('\n', i);
+				String[] words = script.substring(i, end).split(" ");
+				int id = Integer.parseInt(words[1]);
+				if (words[0].equals("decrease"))
+					inventory.removeItem(id, Integer.parseInt(words[2]));
+				else if (words[0].equals("restock"))
+					inventory.addItem(id, null, Integer.parseInt(words[2]), 0, 0);
+				else if (words[0].equals("qty"))
+					sink += inventory.checkQty(id);
+				else
+					sink += inventory.searchItem(id).toString().length();
+				i = end + 1;
+			}
+			double single = done * 1e9 / (System.nanoTime() - start);
+
+			if (mode >= 0)
+				shop.closeJournal();
+			System.out.printf("%-7s | %16.0f | %24.0f%n", mode >= 0 ? Journal.Durability.values()[mode] : "none", batched, single);
+		}
+
+		for (String name : new File(".").list()) {
+			if (name.startsWith("bench.jnl.") || name.equals("bench_shop.dat"))
+				new File(name).delete();
+		}
+	}
+
+	/**
+	 * Load tests the HTTP interface over the loopback: each client thread keeps one connection alive and
+	 * sends item lookups, quantity checks and decreases of random items one after the other, as a till
+	 * would. Reports the requests per second and the latency percentiles seen by the clients as the number
+	 * of connections grows.
+	 */
+	private static void http() throws IOException {
+		int size = 500_000;
+		Shop shop = new Shop(new Inventory(generateItems(size), true), new ArrayList<Supplier>());
+		ShopServer server = new ShopServer(shop, 0);
+		server.start();
+		System.out.println("requests run on " + (server.isVirtualThreads() ? "virtual threads" : "a thread pool"));
+		System.out.println("connections | requests/s | p50 us | p99 us | p99.9 us");
+
+		for (int connections : new int[] { 1, 4, 16, 64 }) {
+			for (int round = 0; round < 2; round++) { //the first round warms up
+				long millis = round == 0 ? 1000 : 3000;
+				long deadline = System.nanoTime() + millis * 1_000_000L;
+				LatencyHistogram[] latencies = new LatencyHistogram[connections];
+				long[] counts = new long[connections * 16]; //each thread counts into its own cache line
+				IOException[] failures = new IOException[1];
+				Thread[] clients = new Thread[connections];
+				for (int c = 0; c < connections; c++) {
+					final int slot = c;
+					latencies[c] = new LatencyHistogram();
+					clients[c] = new Thread(() -> {
+						int[] ids = randomIds(size, new Random(slot));
+						try (Socket socket = new Socket("localhost", server.getPort())) {
+							socket.setTcpNoDelay(true);
+							OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 1 << 12);
+							InputStream in = new BufferedInputStream(socket.getInputStream(), 1 << 14);
+							long done = 0;
+							while (System.nanoTime() < deadline) {
+								int id = ids[(int) done & (ids.length - 1)];
+								int kind = (int) (done % 20);
+								String request = kind < 12 ? "GET /items/" + id + " HTTP/1.1\r\n"
+										: kind < 17 ? "GET /items/" + id + "/qty HTTP/1.1\r\n"
+										: "POST /items/" + id + "/decrease?qty=1 HTTP/1.1\r\nContent-Length: 0\r\n";
+								long start = System.nanoTime();
+								out.write((request + "Host: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+								out.flush();
+								int status = readResponse(in);
+								latencies[slot].record(System.nanoTime() - start);
+								if (status != 200)
+									throw new IOException("Status " + status + " for " + request);
+								done++;
+							}
+							counts[slot * 16] = done;
+						} catch (IOException e) {
+							failures[0] = e;
+						}
+					});
+				}
+				long start = System.nanoTime();
+				for (Thread client : clients) {
+					client.start();
+				}
+				joinAll(clients);
+				long elapsed = System.nanoTime() - start;
+				if (failures[0] != null)
+					throw failures[0];
+				if (round == 0)
+					continue;
+
+				long total = 0;
+				LatencyHistogram latency = new LatencyHistogram();
+				for (int c = 0; c < connections; c++) {
+					total += counts[c * 16];
+					latency.add(latencies[c]);
+				}
+				System.out.printf("%11d | %10.0f | %6.1f | %6.1f | %8.1f%n", connections, total * 1e9 / elapsed,
+						latency.getPercentile(50) / 1e3, latency.getPercentile(99) / 1e3, latency.getPercentile(99.9) / 1e3);
+			}
+		}
+		server.stop();
+	}
+
+	/**
+	 * Reads an HTTP response from a kept alive connection, skipping its body.
+	 *
+	 * @param in the connection.
+	 * @return the status of the response.
+	 */
+	private static int readResponse(InputStream in) throws IOException {
+		int status = -1;
+		long length = 0;
+		StringBuilder line = new StringBuilder(64);
+		while (true) {
+			line.setLength(0);
+			for (int b = in.read(); b != '\n'; b = in.read()) {
+				if (b < 0)
+					throw new IOException("Connection closed");
+				if (b != '\r')
+					line.append((char) b);
+			}
+			if (line.length() == 0)
+				break; //end of the headers
+			if (status < 0)
+				status = Integer.parseInt(line.substring(9, 12)); //HTTP/1.1 200 OK
+			else if (line.length() > 15 && line.substring(0, 15).equalsIgnoreCase("Content-Length:"))
+				length = Long.parseLong(line.substring(15).trim());
+		}
+		while (length > 0) {
+			long skipped = in.skip(length);
+			if (skipped <= 0) {
+				if (in.read() < 0)
+					throw new IOException("Connection closed");
+				skipped = 1;
+			}
+			length -= skipped;
+		}
+		return status;
+	}
+
+	/**
+	 * Measures the time and allocation of listing the whole inventory, streamed a page at a time and
+	 * built as one string, compared with the previous string concatenation for the smaller catalogs.
+	 */
+	private static void listing() throws IOException {
+		System.out.println("items     | streamed ms | streamed MB alloc | string ms | string MB alloc | concatenated ms");
+		Writer discard = new Writer() { //counts the characters instead of printing them
+			public void write(char[] chars, int offset, int length) { sink += length; }
+			public void flush() { }
+			public void close() { }
+		};
+
+		for (int size : new int[] { 10_000, 100_000, 1_000_000 }) {
+			Inventory inventory = new Inventory(generateItems(size), true);
+			long streamed = 0, streamedBytes = 0, built = 0, builtBytes = 0;
+			for (int round = 0; round < 3; round++) { //the last round is timed
+				long bytes = allocatedBytes();
+				long start = System.nanoTime();
+				Writer out = new BufferedWriter(discard, 1 << 16);
+				inventory.writeTo(out);
+				out.flush();
+				streamed = System.nanoTime() - start;
+				streamedBytes = allocatedBytes() - bytes;
+
+				bytes = allocatedBytes();
+				start = System.nanoTime();
+				sink += inventory.toString().length();
+				built = System.nanoTime() - start;
+				builtBytes = allocatedBytes() - bytes;
+			}
+
+			String concatenated = "-";
+			if (size <= 10_000) { //quadratic, too slow for the larger catalogs
+				long start = System.nanoTime();
+				String outString = new String();
+				for (Item item : inventory.listItems(0, size)) {
+					outString = outString + item.toString() + "\n";
+				}
+				sink += outString.length();
+				concatenated = String.format("%.0f", (System.nanoTime() - start) / 1e6);
+			}
+			System.out.printf("%9d | %11.0f | %17.1f | %9.0f | %15.1f | %s%n", size, streamed / 1e6, streamedBytes / 1e6,
+					built / 1e6, builtBytes / 1e6, concatenated);
+		}
+	}
+
+	/**
+	 * Measures the low-stock queries answered from the low-stock index against a scan of every item,
+	 * with one item in a hundred below its reorder level, and the cost of a decrement and restock
+	 * which keep the index up to date.
+	 */
+	private static void lowStock() {
+		System.out.println("items     | below | below us | scan below us | closest(10) us | scan closest(10) us | removeItem+addItem ns/op");
+
+		for (int size : new int[] { 10_000, 100_000, 1_000_000 }) {
+			Inventory inventory = new Inventory(generateItems(size), true);
+			Random random = new Random(size);
+			for (int i = 0; i < size / 100; i++) {
+				int id = 1000 + random.nextInt(size);
+				inventory.removeItem(id, inventory.checkQty(id) - random.nextInt(Item.REORDER_LEVEL));
+			}
+			int[] ids = randomIds(size, random);
+			int queries = Math.max(10_000_000 / size, 20);
+
+			long below = 0, scanBelow = 0, closest = 0, scanClosest = 0, change = 0;
+			for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+				long start = System.nanoTime();
+				for (int i = 0; i < queries; i++) {
+					sink += inventory.getItemsBelowReorderLevel().size();
+				}
+				below = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < queries; i++) {
+					sink += scanClosest(inventory, Integer.MAX_VALUE, true).size();
+				}
+				scanBelow = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < queries * 10; i++) {
+					sink += inventory.getItemsClosestToStockOut(10).get(9).getId();
+				}
+				closest = System.nanoTime() - start;
+
+				start = System.nanoTime();
+				for (int i = 0; i < queries; i++) {
+					sink += scanClosest(inventory, 10, false).get(9).getId();
+				}
+				scanClosest = System.nanoTime() - start;
+
+				change = timeRemoveAdd(inventory, ids);
+			}
+			System.out.printf("%9d | %5d | %8.1f | %13.1f | %14.2f | %19.1f | %24.1f%n", size, inventory.getBelowReorderLevelCount(),
+					below / 1e3 / queries, scanBelow / 1e3 / queries, closest / 1e3 / (queries * 10),
+					scanClosest / 1e3 / queries, (double) change / OPERATIONS);
+		}
+	}
+
+	/**
+	 * Compares a shop over the lock-based concurrent inventory with a shop over the sharded single-writer
+	 * one as the number of threads grows, the shops routing the operations to their stores: the throughput
+	 * of changes (a removeItem and an addItem of the same item, counted once they have run) and of checkQty
+	 * round trips, with one shard per core.
+	 *
+	 * @param size the number of items.
+	 */
+	private static void sharded(int size) {
+		int cores = Runtime.getRuntime().availableProcessors();
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		for (int i = 0; i < 19; i++) {
+			suppliers.add(new Supplier(8001 + i, "Supplier " + i, "Address " + i, "Contact " + i));
+		}
+		Shop locked = new Shop(new Inventory(generateItems(size), true), suppliers);
+		ShardedInventory shards = new ShardedInventory(generateItems(size), cores);
+		Shop sharded = new Shop(shards, suppliers);
+		System.out.println("cores: " + cores + ", shards: " + shards.getShardCount());
+		System.out.println("threads | locked changes Mops/s | sharded changes Mops/s | locked checkQty Mops/s | sharded checkQty Mops/s");
+
+		for (int threads = 1; threads <= Math.max(2 * cores, 4); threads *= 2) {
+			double[] results = new double[4];
+			for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+				results[0] = runMix(threads, size, 1000, false, (id) -> {
+					locked.removeItem(id, 1);
+					locked.addItem(id, null, 1, 0, 0);
+				}, null);
+				results[1] = runMix(threads, size, 1000, false, (id) -> {
+					sharded.removeItem(id, 1);
+					sharded.addItem(id, null, 1, 0, 0);
+				}, shards::getItemCount); //waits for the changes still in the inboxes
+				results[2] = runMix(threads, size, 1000, true, (id) -> sink += locked.checkQty(id), null);
+				results[3] = runMix(threads, size, 1000, true, (id) -> sink += sharded.checkQty(id), null);
+			}
+			System.out.printf("%7d | %21.2f | %22.2f | %21.2f | %23.2f%n", threads, results[0] / 1e6, results[1] / 1e6,
+					results[2] / 1e6, results[3] / 1e6);
+		}
+
+		//correctness: 4 threads take 9980 units of one item starting at 10000, leaving 20 and one order line
+		ShardedInventory singleShards = new ShardedInventory(new ArrayList<Item>(), cores);
+		Shop single = new Shop(singleShards, suppliers);
+		single.addItem(1, "Contended", 10_000, 1.0, 8001);
+		Thread[] workers = new Thread[4];
+		for (int t = 0; t < workers.length; t++) {
+			workers[t] = new Thread(() -> {
+				for (int i = 0; i < 2495; i++) {
+					single.removeItem(1, 1);
+				}
+			});
+			workers[t].start();
+		}
+		joinAll(workers);
+		single.createOrder();
+		System.out.println("contended item qty " + single.checkQty(1) + " (expected 20), order lines "
+				+ single.getOrder().getLineCount() + " (expected 1) from " + single.getOrder().getSupplierOrders().get(0).getSupplierName()
+				+ ", items " + singleShards.getItemCount() + " (expected 1), found by name " + (single.getItemStore().searchItem("contended") != null));
+		ArrayList<Item> page = shards.listItems(size - 10, 20);
+		System.out.println("last page " + page.size() + " items (expected 10), closest to stock out "
+				+ shards.getItemsClosestToStockOut(5).size() + " (expected 5)");
+		singleShards.close();
+		shards.close();
+	}
+
+	/**
+	 * Runs an operation on random items from several threads for a time.
+	 *
+	 * @param threads the number of threads.
+	 * @param size the number of items, with ids from 1000.
+	 * @param millis the time to run for, in milliseconds.
+	 * @param reads true if the operation is a read, counted as one operation instead of two.
+	 * @param op the operation, given an item id.
+	 * @param barrier run once the threads are done and before the clock stops (or null).
+	 * @return the number of operations per second.
+	 */
+	private static double runMix(int threads, int size, long millis, boolean reads, IntConsumer op, Runnable barrier) {
+		long[] counts = new long[threads * 16]; //each thread counts into its own cache line
+		long deadline = System.nanoTime() + millis * 1_000_000L;
+		Thread[] workers = new Thread[threads];
+
+		for (int t = 0; t < threads; t++) {
+			final int slot = t * 16;
+			final int[] ids = randomIds(size, new Random(t));
+			workers[t] = new Thread(() -> {
+				int mask = ids.length - 1;
+				long done = 0;
+				while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+					op.accept(ids[(int) done & mask]);
+					done++;
+				}
+				counts[slot] = done;
+			});
+		}
+
+		long start = System.nanoTime();
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		joinAll(workers);
+		if (barrier != null)
+			barrier.run();
+		long elapsed = System.nanoTime() - start;
+
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		return (reads ? total : 2 * total) * 1e9 / elapsed;
+	}
+
+	/**
+	 * Measures the replication of a shop to a follower over loopback, in one JVM: the time a new
+	 * follower takes to catch up from a snapshot, the lag of the follower while threads keep changing
+	 * the leader, the time a single change takes to be visible on the follower, and the catch-up after
+	 * a short outage (from the records kept) and a long one (from a snapshot).
+	 *
+	 * @param size the number of items.
+	 */
+	private static void replication(int size) throws IOException {
+		String snapshotFile = "bench_repl.dat";
+		String journalFile = "bench_repl.jnl";
+		String replicaFile = "bench_replica.dat";
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		for (int i = 0; i < 19; i++) {
+			suppliers.add(new Supplier(8001 + i, "Supplier " + i, "Address " + i, "Contact " + i));
+		}
+		Shop leaderShop = new Shop(new Inventory(generateItems(size), true), suppliers);
+		leaderShop.startJournal(snapshotFile, journalFile, Journal.Durability.ASYNC);
+		ReplicationLeader leader = leaderShop.startReplication(0, 8L << 20, snapshotFile + ".follower");
+		Inventory inventory = leaderShop.getInventory();
+
+		Shop followerShop = new Shop();
+		long start = System.nanoTime();
+		ReplicationFollower follower = new ReplicationFollower(followerShop, "localhost", leader.getPort(), replicaFile);
+		while (follower.getSnapshotCount() == 0) {
+			Thread.onSpinWait();
+		}
+		System.out.printf("%d items, new follower caught up from a snapshot in %.0f ms%n", size, (System.nanoTime() - start) / 1e6);
+
+		System.out.println("threads | leader changes Mops/s | records behind avg | max | batch lag p50 ms | p99 ms | drained after stop ms");
+		for (int threads = 1; threads <= 4; threads *= 2) {
+			long[] behind = new long[100_000];
+			long[] lags = new long[100_000];
+			int[] samples = new int[1];
+			boolean[] running = { true };
+			Thread sampler = new Thread(() -> {
+				while (running[0] && samples[0] < behind.length) {
+					behind[samples[0]] = Math.max(leader.getLastSequence() - follower.getAppliedSequence(), 0);
+					lags[samples[0]++] = follower.getLagNanos();
+					try {
+						Thread.sleep(1);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			});
+			sampler.start();
+			double opsPerSecond = runThreads(inventory, size, threads, 2000);
+			long stopped = System.nanoTime();
+			long last = leader.getLastSequence();
+			while (follower.getAppliedSequence() < last) {
+				Thread.onSpinWait();
+			}
+			long drained = System.nanoTime() - stopped;
+			running[0] = false;
+			joinAll(new Thread[] { sampler });
+
+			int count = samples[0];
+			long sum = 0, max = 0;
+			for (int i = 0; i < count; i++) {
+				sum += behind[i];
+				max = Math.max(max, behind[i]);
+			}
+			long[] sorted = Arrays.copyOf(lags, count);
+			Arrays.sort(sorted);
+			System.out.printf("%7d | %21.2f | %18d | %3d | %16.2f | %6.2f | %21.1f%n", threads, opsPerSecond / 1e6,
+					sum / Math.max(count, 1), max, sorted[count / 2] / 1e6, sorted[count * 99 / 100] / 1e6, drained / 1e6);
+		}
+
+		//a single change, until the follower answers the new quantity
+		Inventory replica = followerShop.getInventory();
+		long[] visible = new long[1000];
+		for (int i = 0; i < visible.length; i++) {
+			int id = 1000 + i;
+			int expected = inventory.checkQty(id) - 1;
+			long changed = System.nanoTime();
+			inventory.removeItem(id, 1);
+			while (replica.checkQty(id) != expected) {
+				Thread.onSpinWait();
+			}
+			visible[i] = System.nanoTime() - changed;
+		}
+		Arrays.sort(visible);
+		System.out.printf("single change visible on the follower: p50 %.0f us, p99 %.0f us%n", visible[500] / 1e3, visible[990] / 1e3);
+
+		//outages: a short one is resumed from the records kept, a long one needs a snapshot
+		int[] ids = randomIds(size, new Random(7));
+		for (int changes : new int[] { 10_000, 1_000_000 }) {
+			long snapshots = follower.getSnapshotCount();
+			follower.disconnect();
+			for (int i = 0; i < changes; i++) {
+				inventory.removeItem(ids[i & (ids.length - 1)], 1);
+			}
+			long last = leader.getLastSequence();
+			start = System.nanoTime();
+			while (follower.getAppliedSequence() < last || follower.getSnapshotCount() == snapshots && changes > 100_000) {
+				Thread.onSpinWait();
+			}
+			System.out.printf("outage of %d changes: caught up %.0f ms after they were made (including the 1 s retry), %s%n",
+					changes, (System.nanoTime() - start) / 1e6,
+					follower.getSnapshotCount() > snapshots ? "from a snapshot" : "from the records kept");
+		}
+		System.out.println("follower matches the leader: "
+				+ (replica = followerShop.getInventory()).checkQty(ids[0]) + " = " + inventory.checkQty(ids[0]) + ", "
+				+ replica.getOrderLines().size() + " = " + inventory.getOrderLines().size() + " pending order lines");
+
+		follower.close();
+		leaderShop.stopReplication();
+		leaderShop.closeJournal();
+		for (String name : new String[] { snapshotFile, replicaFile, journalFile + ".1", journalFile + ".2" }) {
+			new File(name).delete();
+		}
+		for (File file : new File(".").listFiles((dir, name) -> name.startsWith(journalFile))) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Measures the order history with one order per day over many days and a small memory budget:
+	 * the time to add an order, the time of queries by date range, order id and supplier against
+	 * reading every order back, and the heap kept against keeping every order in memory.
+	 *
+	 * @param days the number of daily orders added.
+	 */
+	private static void history(int days) throws IOException {
+		String fileName = "bench_orders.hist";
+		new File(fileName).delete();
+		long day = 24L * 60 * 60 * 1000;
+		long first = System.currentTimeMillis() - days * day;
+		Random random = new Random(days);
+
+		OrderHistory history = new OrderHistory(fileName, 1 << 20);
+		long allBytes = 0, added = 0;
+		for (int d = 0; d < days; d++) {
+			Order order = new Order(d + 1, new Date(first + d * day));
+			for (int i = 0; i < 200; i++) {
+				OrderLine ol = new OrderLine();
+				ol.setId(1000 + random.nextInt(100_000));
+				ol.setName("Item " + ol.getId());
+				ol.setQty(1 + random.nextInt(500));
+				ol.setPrice(random.nextInt(10_000) / 100.0);
+				ol.setSupplierId(8001 + random.nextInt(50));
+				ol.setSupplierName("Supplier " + (ol.getSupplierId() - 8001));
+				order.addOrderLine(ol);
+			}
+			allBytes += OrderHistory.estimateBytes(order);
+			long start = System.nanoTime();
+			history.add(order);
+			added += System.nanoTime() - start;
+		}
+		long kept = history.getMemoryBytes();
+		int keptCount = history.getOrderCount() - history.getSpilledCount();
+		history.close();
+
+		long opened = System.nanoTime();
+		history = new OrderHistory(fileName, 1 << 20);
+		opened = System.nanoTime() - opened;
+		long range = 0, byId = 0, bySupplier = 0, all = 0;
+		int queries = 200;
+		for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+			long start = System.nanoTime();
+			for (int i = 0; i < queries; i++) {
+				long from = first + random.nextInt(days - 30) * day;
+				sink += history.findOrders(new Date(from), new Date(from + 30 * day)).size();
+			}
+			range = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < queries; i++) {
+				sink += history.findOrder(1 + random.nextInt(days)).getLineCount();
+			}
+			byId = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < queries; i++) {
+				long from = first + random.nextInt(days - 365) * day;
+				sink += history.findSupplierOrders(8001 + random.nextInt(50), new Date(from), new Date(from + 365 * day)).size();
+			}
+			bySupplier = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < 5; i++) {
+				sink += history.findOrders(new Date(0), new Date(Long.MAX_VALUE)).size();
+			}
+			all = System.nanoTime() - start;
+		}
+
+		System.out.printf("%d orders, %d in the file (%d MB), reopened in %.1f ms%n", days, history.getSpilledCount(),
+				new File(fileName).length() / 1_000_000, opened / 1e6);
+		System.out.printf("add %.1f us/order, %d recent orders kept in %d KB of heap against %d KB for every order%n",
+				added / 1e3 / days, keptCount, kept / 1024, allBytes / 1024);
+		System.out.printf("30 days %.2f ms, order id %.3f ms, supplier over a year %.2f ms, every order %.1f ms%n",
+				range / 1e6 / queries, byId / 1e6 / queries, bySupplier / 1e6 / queries, all / 1e6 / 5);
+		history.close();
+		new File(fileName).delete();
+	}
+
+	/**
+	 * Measures sales running while the inventory is listed over and over by a reporting thread, with
+	 * no listing, with the listing paged out of the live items as it was done before snapshots (torn
+	 * by the sales), with a copy taken under every lock (stopping the sales) and with the listing read
+	 * from a snapshot. Then checks that opening a snapshot does not grow with the inventory, that a
+	 * snapshot reads the same while sales carry on, and that its earlier states are released on close.
+	 *
+	 * @param size the number of items.
+	 */
+	private static void mvcc(int size) throws IOException {
+		Writer discard = new Writer() { //counts the characters instead of printing them
+			public void write(char[] chars, int offset, int length) { sink += length; }
+			public void flush() { }
+			public void close() { }
+		};
+		String[] reports = { "none", "paged", "locked", "snapshot" };
+		Inventory inventory = new Inventory(generateItems(size), true);
+		System.out.println("items: " + size + ", cores: " + Runtime.getRuntime().availableProcessors());
+		System.out.println("sellers | report   | sales Mops/s | reports/s | ms/report");
+
+		for (int threads = 1; threads <= 4; threads *= 2) {
+			for (String report : reports) {
+				double sales = 0;
+				long[] done = new long[1];
+				long elapsed = 0;
+				for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+					AtomicBoolean stop = new AtomicBoolean();
+					done[0] = 0;
+					Thread reporter = new Thread(() -> {
+						try {
+							while (!stop.get() && !report.equals("none")) {
+								Writer out = new BufferedWriter(discard, 1 << 16);
+								if (report.equals("paged")) {
+									ArrayList<Item> page;
+									int offset = 0;
+									do {
+										page = inventory.listItems(offset, 4096);
+										for (Item item : page) {
+											out.append(item.toString()).append('\n');
+										}
+										offset += page.size();
+									} while (page.size() == 4096);
+								} else if (report.equals("locked")) {
+									inventory.writeSnapshot(new DataOutputStream(OutputStream.nullOutputStream()));
+								} else {
+									inventory.writeTo(out);
+								}
+								out.flush();
+								done[0]++;
+							}
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					});
+					long start = System.nanoTime();
+					reporter.start();
+					sales = runMix(threads, size, 2000, false, (id) -> {
+						inventory.removeItem(id, 1);
+						inventory.addItem(id, null, 1, 0, 0);
+					}, null);
+					stop.set(true);
+					joinAll(new Thread[] { reporter });
+					elapsed = System.nanoTime() - start;
+				}
+				System.out.printf("%7d | %-8s | %12.2f | %9.2f | %s%n", threads, report, sales / 1e6, done[0] * 1e9 / elapsed,
+						done[0] > 0 ? String.format("%.0f", elapsed / 1e6 / done[0]) : "-");
+			}
+		}
+
+		for (int items : new int[] { 10_000, size }) {
+			Inventory sized = new Inventory(generateItems(items), true);
+			long start = System.nanoTime();
+			for (int i = 0; i < 1_000_000; i++) {
+				try (InventorySnapshot snapshot = sized.openSnapshot()) {
+					sink += snapshot.getItemCount();
+				}
+			}
+			System.out.printf("open+close snapshot of %d items: %.0f ns%n", items, (System.nanoTime() - start) / 1e6);
+		}
+
+		//a snapshot reads the same twice while sales carry on, and keeps no earlier state once closed
+		AtomicBoolean stop = new AtomicBoolean();
+		Thread seller = new Thread(() -> {
+			Random random = new Random(1);
+			while (!stop.get()) {
+				int id = 1000 + random.nextInt(size);
+				inventory.removeItem(id, 1);
+				inventory.addItem(id, null, 1, 0, 0);
+			}
+		});
+		seller.start();
+		boolean repeatable;
+		long kept = 0;
+		try (InventorySnapshot snapshot = inventory.openSnapshot()) {
+			String first = snapshot.toString();
+			String second = snapshot.toString();
+			repeatable = first.equals(second);
+			for (Item item : inventory.listItems(0, size)) {
+				for (Item older = item.older; older != null; older = older.older) {
+					kept++;
+				}
+			}
+		}
+		stop.set(true);
+		joinAll(new Thread[] { seller });
+		long left = 0;
+		for (Item item : inventory.listItems(0, size)) {
+			left += item.older != null ? 1 : 0;
+		}
+		System.out.println("snapshot repeatable under sales: " + repeatable + ", earlier states kept while open " + kept
+				+ ", left after close " + left + " (expected 0)");
+	}
+
+	/**
+	 * Measures the trigram index of item names: the time to build it, the size of its posting lists,
+	 * and the latency of searches for misspelled names (a letter dropped, doubled, swapped or replaced)
+	 * against a scan scoring every name, with how often the misspelled item is ranked among the top 10.
+	 * Names are made of random words; the catalog of "Item n" names, whose words all share their
+	 * trigrams, is measured as well.
+	 *
+	 * @param maxSize the largest number of names.
+	 */
+	private static void fuzzy(int maxSize) {
+		System.out.println("names     | kind   | build ms | postings MB | search us | p99 us | scan ms | found in top 10");
+
+		for (int size = 100_000; size <= maxSize; size *= 10) {
+			for (String kind : new String[] { "words", "item n" }) {
+				Random random = new Random(size);
+				String[] names = new String[size];
+				for (int i = 0; i < size; i++) {
+					names[i] = kind.equals("words") ? randomName(random) : "Item " + i;
+				}
+
+				long start = System.nanoTime();
+				TrigramIndex index = new TrigramIndex(size);
+				for (int i = 0; i < size; i++) {
+					index.add(names[i], i);
+				}
+				long build = System.nanoTime() - start;
+
+				int queries = 2000;
+				int[] targets = new int[queries];
+				String[] misspelled = new String[queries];
+				for (int q = 0; q < queries; q++) {
+					targets[q] = random.nextInt(size);
+					misspelled[q] = misspell(names[targets[q]], random);
+				}
+
+				long[] latencies = new long[queries];
+				int hits = 0;
+				for (int round = 0; round < 2; round++) { //the first round warms up the code paths
+					hits = 0;
+					for (int q = 0; q < queries; q++) {
+						long begin = System.nanoTime();
+						int[] found = index.findSimilar(misspelled[q], 10);
+						latencies[q] = System.nanoTime() - begin;
+						for (int position : found) {
+							hits += names[position].equalsIgnoreCase(names[targets[q]]) ? 1 : 0; //a duplicate name counts too
+							if (names[position].equalsIgnoreCase(names[targets[q]]))
+								break;
+						}
+					}
+				}
+				long total = 0;
+				for (long latency : latencies) {
+					total += latency;
+				}
+				Arrays.sort(latencies);
+
+				//the scan scores every name for a few queries, the index must rank the same best name
+				long[] queryGrams = new long[64];
+				long[] nameGrams = new long[64];
+				start = System.nanoTime();
+				for (int q = 0; q < 5; q++) {
+					int queryCount = TrigramIndex.distinctGrams(misspelled[q], queryGrams);
+					double best = -1;
+					for (int i = 0; i < size; i++) {
+						int nameCount = TrigramIndex.distinctGrams(names[i], nameGrams);
+						int shared = 0;
+						for (int a = 0, b = 0; a < queryCount && b < nameCount;) {
+							if (queryGrams[a] == nameGrams[b]) {
+								shared++;
+								a++;
+								b++;
+							} else if (queryGrams[a] < nameGrams[b]) {
+								a++;
+							} else {
+								b++;
+							}
+						}
+						best = Math.max(best, 2.0 * shared / (queryCount + nameCount));
+					}
+					sink += (long) (best * 1000);
+				}
+				long scan = (System.nanoTime() - start) / 5;
+
+				System.out.printf("%9d | %-6s | %8.0f | %11.1f | %9.1f | %6.1f | %7.1f | %.1f%%%n", size, kind, build / 1e6,
+						index.getPostingBytes() / 1e6, total / 1e3 / queries, latencies[queries * 99 / 100] / 1e3,
+						scan / 1e6, 100.0 * hits / queries);
+			}
+		}
+	}
+
+	/**
+	 * Makes up an item name of two or three random words, e.g. "Vosk Trimable Lug".
+	 *
+	 * @param random the source of the letters.
+	 * @return the name.
+	 */
+	private static String randomName(Random random) {
+		StringBuilder name = new StringBuilder();
+		int words = 2 + random.nextInt(2);
+		for (int w = 0; w < words; w++) {
+			if (w > 0)
+				name.append(' ');
+			int length = 3 + random.nextInt(6);
+			for (int i = 0; i < length; i++) {
+				char c = (char) ('a' + random.nextInt(26));
+				name.append(i == 0 ? Character.toUpperCase(c) : c);
+			}
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Misspells a name the way a clerk would: a letter dropped, doubled, swapped with the next or replaced.
+	 *
+	 * @param name the name.
+	 * @param random the source of the mistakes.
+	 * @return the misspelled name.
+	 */
+	private static String misspell(String name, Random random) {
+		StringBuilder typed = new StringBuilder(name);
+		int at = random.nextInt(name.length() - 1);
+		switch (random.nextInt(4)) {
+		case 0:
+			typed.deleteCharAt(at);
+			break;
+		case 1:
+			typed.insert(at, name.charAt(at));
+			break;
+		case 2:
+			typed.setCharAt(at, name.charAt(at + 1));
+			typed.setCharAt(at + 1, name.charAt(at));
+			break;
+		default:
+			typed.setCharAt(at, (char) ('a' + random.nextInt(26)));
+			break;
+		}
+		return typed.toString();
+	}
+
+	/**
+	 * Finds the items closest to running out by reading every item of the inventory, as it was done
+	 * without the low-stock index: the items are read a page at a time and the best ones kept in a heap.
+	 *
+	 * @param inventory the inventory to scan.
+	 * @param count the number of items to return.
+	 * @param belowOnly true to return only the items below their reorder level.
+	 * @return at most count items, closest to running out first.
+	 */
+	private static ArrayList<Item> scanClosest(Inventory inventory, int count, boolean belowOnly) {
+		Comparator<Item> closer = Comparator.comparingInt((Item item) -> item.getQty() - item.getReorderLevel())
+				.thenComparingInt(Item::getId);
+		PriorityQueue<Item> best = new PriorityQueue<Item>(closer.reversed());
+		int offset = 0;
+		ArrayList<Item> page;
+		do {
+			page = inventory.listItems(offset, 4096);
+			for (Item item : page) {
+				if (belowOnly && item.getQty() >= item.getReorderLevel())
+					continue;
+				best.add(item);
+				if (best.size() > count)
+					best.poll();
+			}
+			offset += page.size();
+		} while (page.size() == 4096);
+
+		ArrayList<Item> found = new ArrayList<Item>(best);
+		found.sort(closer);
+		return found;
+	}
+
+	/**
+	 * Measures the throughput of concurrent decrements and restocks with and without the items file
+	 * written back in the background, together with the time each write-back takes.
+	 *
+	 * @param size the number of items in the items file.
+	 */
+	private static void writeBack(int size) throws IOException {
+		String fileName = "bench_items.txt";
+		System.out.println("threads | write-back | ops/s      | write-backs | items written | ms per write-back");
+
+		for (int threads = 1; threads <= 16; threads *= 4) {
+			for (long period : new long[] { 0, 200 }) {
+				writeItemsFile(fileName, size);
+				Inventory inventory = new Inventory(new FileHandler().readItems(fileName), true);
+				ItemFileFlusher flusher = period > 0 ? new ItemFileFlusher(inventory, fileName, period) : null;
+
+				double opsPerSecond = runThreads(inventory, size, threads, 2000);
+
+				String written = "";
+				if (flusher != null) {
+					flusher.close(); //writes back everything changed since the last periodic write-back
+					written = String.format("%11d | %13d | %17.1f", flusher.getFlushCount(), flusher.getFlushedCount(),
+							flusher.getFlushNanos() / 1e6 / Math.max(flusher.getFlushCount(), 1));
+					Item item = new FileHandler().readItems(fileName).get(size / 2); //the file must be current after close
+					if (item.getQty() != inventory.searchItem(item.getId()).getQty())
+						throw new IllegalStateException("Items file not current for item " + item.getId());
+				}
+				System.out.printf("%7d | %-10s | %10.0f | %s%n", threads, period > 0 ? period + " ms" : "off", opsPerSecond, written);
+			}
+		}
+		new File(fileName).delete();
+	}
+
+	/**
+	 * Writes an items file of generated items in the semicolon separated format.
+	 *
+	 * @param fileName the name of the file to write.
+	 * @param lines the number of items to write.
+	 */
+	static void writeItemsFile(String fileName, int lines) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName), 1 << 16)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write((1000 + i) + ";Item " + i + ";" + (100 + (i % 400)) + ";" + (1 + (i % 5000) / 100.0) + ";"
+						+ (8001 + (i % 19)) + "\r\n");
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 *
+	 * @return the number of bytes allocated (or 0 if the JVM does not report it).
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+		return 0;
+	}
+
+	/**
+	 * Runs threads decreasing and restocking random items for the specified time.
+	 *
+	 * @param inventory the inventory to update.
+	 * @param size the number of items in the generated catalog.
+	 * @param threads the number of threads to run.
+	 * @param millis how long the threads run for.
+	 * @return the number of operations per second over all threads.
+	 */
+	private static double runThreads(Inventory inventory, int size, int threads, long millis) {
+		long[] counts = new long[threads * 16]; //each thread counts into its own cache line
+		long deadline = System.nanoTime() + millis * 1_000_000L;
+		Thread[] workers = new Thread[threads];
+
+		for (int t = 0; t < threads; t++) {
+			final int slot = t * 16;
+			final int[] ids = randomIds(size, new Random(t));
+			workers[t] = new Thread(() -> {
+				int mask = ids.length - 1;
+				long done = 0;
+				while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+					int id = ids[(int) done & mask];
+					inventory.removeItem(id, 1);
+					inventory.addItem(id, null, 1, 0, 0);
+					done++;
+				}
+				counts[slot] = done;
+			});
+		}
+
+		long start = System.nanoTime();
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		joinAll(workers);
+		long elapsed = System.nanoTime() - start;
+
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		return total * 1e9 / elapsed;
+	}
+
+	/**
+	 * Waits for all threads to finish.
+	 *
+	 * @param threads the threads to wait for.
+	 */
+	private static void joinAll(Thread[] threads) {
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Times searching items by id.
+	 *
+	 * @param inventory the inventory to search.
+	 * @param ids the item ids to search for, used in a cycle.
+	 * @return the elapsed time in nanoseconds.
+	 */
+	private static long timeSearch(Inventory inventory, int[] ids) {
+		int mask = ids.length - 1;
+		long start = System.nanoTime();
+		for (int i = 0; i < OPERATIONS; i++) {
+			sink += inventory.searchItem(ids[i & mask]).getQty();
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Times checking item quantities by id.
+	 *
+	 * @param inventory the inventory to check.
+	 * @param ids the item ids to check, used in a cycle.
+	 * @return the elapsed time in nanoseconds.
+	 */
+	private static long timeCheckQty(Inventory inventory, int[] ids) {
+		int mask = ids.length - 1;
+		long start = System.nanoTime();
+		for (int i = 0; i < OPERATIONS; i++) {
+			sink += inventory.checkQty(ids[i & mask]);
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Times decreasing an item and restocking it again so that quantities stay level.
+	 *
+	 * @param inventory the inventory to update.
+	 * @param ids the item ids to update, used in a cycle.
+	 * @return the elapsed time in nanoseconds.
+	 */
+	private static long timeRemoveAdd(Inventory inventory, int[] ids) {
+		int mask = ids.length - 1;
+		long start = System.nanoTime();
+		for (int i = 0; i < OPERATIONS; i++) {
+			int id = ids[i & mask];
+			inventory.removeItem(id, 1);
+			inventory.addItem(id, null, 1, 0, 0);
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Generates a catalog of items with consecutive id numbers starting at 1000,
+	 * in the same shape as the items file.
+	 *
+	 * @param count the number of items to generate.
+	 * @return the list of generated items.
+	 */
+	static ArrayList<Item> generateItems(int count) {
+		ArrayList<Item> items = new ArrayList<Item>(count);
+		for (int i = 0; i < count; i++) {
+			Item item = new Item();
+			item.setId(1000 + i);
+			item.setName("Item " + i);
+			item.setQty(100 + (i % 400));
+			item.setPrice(1 + (i % 5000) / 100.0);
+			item.setSupplierId(8001 + (i % 19));
+			items.add(item);
+		}
+		return items;
+	}
+
+	/**
+	 * Picks random id numbers from a generated catalog.
+	 *
+	 * @param count the number of items in the generated catalog.
+	 * @param random the random number generator to use.
+	 * @return a power of two sized array of item ids.
+	 */
+	static int[] randomIds(int count, Random random) {
+		int[] ids = new int[1 << 20];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = 1000 + random.nextInt(count);
+		}
+		return ids;
+	}
+}
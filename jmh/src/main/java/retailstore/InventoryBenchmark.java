@@ -0,0 +1,198 @@
+package retailstore;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Benchmarks of the hot paths of the inventory and shop for the Retail Store.
+ * Searching by id and by name, checking quantities, decrements raising order lines and creating
+ * orders, over catalog sizes and thread counts. The threads share one inventory and shop, each
+ * working on its own random items. Run them with Suite, which runs each thread count with as many
+ * benchmark threads and the gc profiler for the bytes allocated per operation.
+ * Each benchmark is measured for its throughput and for the distribution of its latencies, the
+ * percentiles of the sampled operations showing the slow tail a mean hides. The forked JVM is
+ * given a heap large enough for the largest catalog.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class InventoryBenchmark {
+
+	/** the number of decrements after which a thread takes the order lines, a power of two */
+	private static final int DRAIN_INTERVAL = 4096;
+
+	/** the number of items in the generated catalog */
+	@Param({ "40", "5000", "500000", "10000000" })
+	public int size;
+
+	/** the number of threads running the benchmark, Suite runs it with as many */
+	@Param({ "1", "4", "16" })
+	public int threads;
+
+	/** the inventory of the generated catalog */
+	private Inventory inventory;
+
+	/** the shop over the inventory */
+	private Shop shop;
+
+	/**
+	 * The random items a thread works on.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		/** the random item ids of the thread, a power of two sized array */
+		private int[] ids;
+
+		/** the names of random items of the thread, a power of two sized array */
+		private String[] names;
+
+		/** the number of times the thread ran the benchmark before */
+		private int next;
+
+		/**
+		 * Picks the random items of the thread.
+		 *
+		 * @param benchmark the benchmark state holding the catalog size.
+		 * @param thread the parameters of the thread.
+		 */
+		@Setup
+		public void setUp(InventoryBenchmark benchmark, ThreadParams thread) {
+			ids = Benchmark.randomIds(benchmark.size, new Random(thread.getThreadIndex()));
+			names = new String[1 << 14];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = "Item " + (ids[i] - CatalogGenerator.FIRST_ITEM_ID);
+			}
+		}
+
+		/**
+		 * Returns the next random item id of the thread.
+		 *
+		 * @return the id number of an item.
+		 */
+		int nextId() {
+			return ids[next++ & (ids.length - 1)];
+		}
+
+		/**
+		 * Returns the next random item name of the thread.
+		 *
+		 * @return the name of an item.
+		 */
+		String nextName() {
+			return names[next++ & (names.length - 1)];
+		}
+	}
+
+	/**
+	 * Generates the catalog, with every item at its reorder level so that each decrement of an item
+	 * without an active order raises a line.
+	 *
+	 * @param params the parameters of the run, to check the number of threads against.
+	 */
+	@Setup
+	public void setUp(BenchmarkParams params) {
+		if (params.getThreads() != threads)
+			throw new IllegalStateException("threads is " + threads + " but " + params.getThreads()
+					+ " threads run the benchmark, run it with Suite or -t " + threads);
+
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		for (int i = 0; i < 19; i++) {
+			suppliers.add(new Supplier(CatalogGenerator.FIRST_SUPPLIER_ID + i, "Supplier " + i, "Address " + i, "Contact " + i));
+		}
+		ArrayList<Item> items = Benchmark.generateItems(size);
+		for (Item item : items) {
+			item.setQty(Item.REORDER_LEVEL);
+		}
+		inventory = new Inventory(items, true);
+		shop = new Shop(inventory, suppliers);
+	}
+
+	/**
+	 * Searches an item by its id number.
+	 *
+	 * @param cursor the random items of the thread.
+	 * @return the item found.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public Item searchById(Cursor cursor) {
+		return inventory.searchItem(cursor.nextId());
+	}
+
+	/**
+	 * Searches an item by its name.
+	 *
+	 * @param cursor the random items of the thread.
+	 * @return the item found.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public Item searchByName(Cursor cursor) {
+		return inventory.searchItem(cursor.nextName());
+	}
+
+	/**
+	 * Checks the quantity of an item.
+	 *
+	 * @param cursor the random items of the thread.
+	 * @return the quantity of the item.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public int checkQty(Cursor cursor) {
+		return inventory.checkQty(cursor.nextId());
+	}
+
+	/**
+	 * Decrements an item and restocks it, the thread takes the order lines now and then so that the
+	 * items raise lines again.
+	 *
+	 * @param cursor the random items of the thread.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public void removeItem(Cursor cursor) {
+		int id = cursor.nextId();
+		inventory.removeItem(id, 1);
+		inventory.addItem(id, null, 1, 0, 0);
+		if ((cursor.next & (DRAIN_INTERVAL - 1)) == 0)
+			inventory.drainOrderLines();
+	}
+
+	/**
+	 * Makes eight decrements raising lines, then creates the order from them. The order is submitted
+	 * now and then, so that it does not grow.
+	 *
+	 * @param cursor the random items of the thread.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public void createOrder(Cursor cursor) {
+		for (int k = 0; k < 8; k++) {
+			int id = cursor.nextId();
+			inventory.removeItem(id, 1);
+			inventory.addItem(id, null, 1, 0, 0);
+		}
+		shop.createOrder();
+		if ((cursor.next & 511) == 0)
+			shop.submitOrder();
+	}
+}
@@ -0,0 +1,93 @@
+package retailstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Benchmark of reading the items file for the Retail Store.
+ * A single benchmark thread reads a generated items file with the threads as the parallelism of
+ * the pool reading its chunks. Run it with Suite, which runs it with the gc profiler for the
+ * bytes allocated per read, measured for its throughput and the distribution of its latencies.
+ * The forked JVM is given a heap large enough for the largest file.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx6g" })
+public class ReadItemsBenchmark {
+
+	/** the name of the generated items file */
+	private static final String FILE_NAME = "bench_items.txt";
+
+	/** the number of items in the generated items file */
+	@Param({ "40", "5000", "500000", "10000000" })
+	public int size;
+
+	/** the parallelism of the pool reading the chunks of the file */
+	@Param({ "1", "4", "16" })
+	public int threads;
+
+	/** the pool reading the chunks of the file */
+	private ForkJoinPool pool;
+
+	/** the file handler reading the file */
+	private FileHandler fh;
+
+	/**
+	 * Writes the items file and starts the pool.
+	 *
+	 * @param params the parameters of the run, to check the number of threads against.
+	 */
+	@Setup
+	public void setUp(BenchmarkParams params) throws IOException {
+		if (params.getThreads() != 1)
+			throw new IllegalStateException("one thread reads the file with a pool of " + threads
+					+ " threads, run it with Suite or -t 1");
+
+		Benchmark.writeItemsFile(FILE_NAME, size);
+		pool = new ForkJoinPool(threads);
+		fh = new FileHandler();
+	}
+
+	/**
+	 * Stops the pool and deletes the items file.
+	 */
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+		new File(FILE_NAME).delete();
+	}
+
+	/**
+	 * Reads the items file.
+	 *
+	 * @return the items read.
+	 */
+	@org.openjdk.jmh.annotations.Benchmark
+	public ArrayList<Item> readItems() throws IOException {
+		return fh.readItems(FILE_NAME, pool);
+	}
+}
@@ -0,0 +1,103 @@
+package retailstore;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runner of the benchmark suite for the Retail Store.
+ * JMH sets the number of benchmark threads per run rather than per parameter, so this runs
+ * InventoryBenchmark once for each value of its threads parameter with as many benchmark threads,
+ * and ReadItemsBenchmark with one benchmark thread and the threads as the parallelism of its pool.
+ * The gc profiler is added unless other profilers are given, for the bytes allocated per operation.
+ * Usage: java -jar jmh/target/benchmarks.jar [JMH options], e.g. -p size=40,5000 -p threads=1,4
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class Suite {
+
+	/** the thread counts run unless the threads parameter is given */
+	private static final String[] THREADS = { "1", "4", "16" };
+
+	/**
+	 * Main method, runs the benchmarks selected by the options.
+	 *
+	 * @param args the JMH command line options.
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp()) {
+			options.showHelp();
+			return;
+		}
+		Collection<String> threads = options.getParameter("threads").orElse(Arrays.asList(THREADS));
+
+		if (selected(options, InventoryBenchmark.class)) {
+			for (String count : threads) {
+				ChainedOptionsBuilder run = builder(options, InventoryBenchmark.class)
+						.exclude(ReadItemsBenchmark.class.getSimpleName())
+						.threads(Integer.parseInt(count))
+						.param("threads", count);
+				new Runner(run.build()).run();
+			}
+		}
+		if (selected(options, ReadItemsBenchmark.class)) {
+			ChainedOptionsBuilder run = builder(options, ReadItemsBenchmark.class)
+					.exclude(InventoryBenchmark.class.getSimpleName())
+					.threads(1)
+					.param("threads", threads.toArray(new String[0]));
+			new Runner(run.build()).run();
+		}
+	}
+
+	/**
+	 * Returns the options of a run of a benchmark class: the command line options, the class if no
+	 * benchmarks are selected by them and the gc profiler if no profilers are given.
+	 *
+	 * @param options the command line options.
+	 * @param benchmarks the benchmark class to run.
+	 * @return the options of the run.
+	 */
+	private static ChainedOptionsBuilder builder(CommandLineOptions options, Class<?> benchmarks) {
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (options.getIncludes().isEmpty())
+			builder.include(benchmarks.getSimpleName());
+		if (options.getProfilers().isEmpty())
+			builder.addProfiler(GCProfiler.class);
+		return builder;
+	}
+
+	/**
+	 * Checks if any benchmark of a class is selected by the command line options.
+	 *
+	 * @param options the command line options.
+	 * @param benchmarks the benchmark class.
+	 * @return true if no benchmarks are selected by the options or one of the class is.
+	 */
+	private static boolean selected(CommandLineOptions options, Class<?> benchmarks) {
+		if (options.getIncludes().isEmpty())
+			return true;
+		for (Method method : benchmarks.getMethods()) {
+			if (!method.isAnnotationPresent(org.openjdk.jmh.annotations.Benchmark.class))
+				continue;
+			for (String include : options.getIncludes()) {
+				if (Pattern.compile(include).matcher(benchmarks.getName() + "." + method.getName()).find())
+					return true;
+			}
+		}
+		return false;
+	}
+}
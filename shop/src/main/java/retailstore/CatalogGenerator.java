@@ -0,0 +1,184 @@
+package retailstore;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generator of synthetic items and suppliers files for the Retail Store.
+ * Writes files of any size in the same semicolon separated format as items.txt and suppliers.txt.
+ * Item names are built from words drawn with a Zipf distribution, so a few words are shared by
+ * many items the way "Bits" or "Widgets" are in a real catalog, and items are spread over the
+ * suppliers with a Zipf distribution as well, so a few suppliers supply most of the items.
+ * Quantities and prices are skewed towards small values, with some items already below the
+ * reorder level.
+ * Usage: java retailstore.CatalogGenerator [items file] [suppliers file] [items] [suppliers] [skew] [seed]
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class CatalogGenerator {
+
+	/** the id number of the first item, same as items.txt */
+	public static final int FIRST_ITEM_ID = 1000;
+
+	/** the id number of the first supplier, same as suppliers.txt */
+	public static final int FIRST_SUPPLIER_ID = 8001;
+
+	/** the words describing items, the first ones are drawn most often */
+	private static final String[] ADJECTIVES = { "Steel", "Small", "Large", "Brass", "Heavy", "Mini", "Round", "Flat",
+			"Long", "Short", "Double", "Plastic", "Copper", "Wide", "Narrow", "Square", "Twin", "Rubber", "Light",
+			"Coated", "Hex", "Galvanized", "Spring", "Locking", "Threaded", "Swivel", "Folding", "Magnetic", "Precision",
+			"Industrial", "Compact", "Adjustable", "Titanium", "Aluminum", "Nylon", "Ceramic", "Carbon", "Zinc", "Chrome",
+			"Black", "White", "Red", "Blue", "Green", "Yellow", "Knock", "Wing", "Pong", "Wiley", "Grommet" };
+
+	/** the words naming items, the first ones are drawn most often */
+	private static final String[] NOUNS = { "Bolts", "Nuts", "Screws", "Washers", "Bits", "Widgets", "Grommets", "Wedges",
+			"Bats", "Hinges", "Brackets", "Clamps", "Nails", "Rivets", "Pins", "Springs", "Gears", "Pulleys", "Chains",
+			"Hooks", "Anchors", "Couplers", "Fittings", "Valves", "Pipes", "Tubes", "Sprockets", "Bearings", "Bushings",
+			"Spacers", "Studs", "Dowels", "Latches", "Knobs", "Handles", "Plates", "Rods", "Shims", "Clips", "Straps",
+			"Cables", "Pliers", "Wrenches", "Sockets", "Drills", "Blades", "Files", "Chisels", "Levels", "Gauges",
+			"Pumps", "Filters", "Seals", "Gaskets", "Belts", "Wheels", "Casters", "Rails", "Tracks", "Sleeves" };
+
+	/** the words naming suppliers */
+	private static final String[] COMPANY_WORDS = { "Grommet", "Pong", "Wiley", "Allied", "Northern", "Prairie",
+			"Summit", "Pioneer", "Apex", "Bow River", "Chinook", "Foothills", "Maple", "Granite", "Frontier", "Cascade",
+			"Keystone", "Liberty", "Meridian", "Redwood" };
+
+	/** the words ending supplier names */
+	private static final String[] COMPANY_SUFFIXES = { "Builders", "Works", "Inc.", "Supply", "Ltd.", "Industries",
+			"Hardware", "Manufacturing", "Trading", "Tools" };
+
+	/** the streets of supplier addresses */
+	private static final String[] STREETS = { "30th St.", "Dufferin Blvd.", "40th St.", "Macleod Trail", "Centre St.",
+			"17th Ave.", "Crowchild Trail", "Memorial Dr.", "Edmonton Trail", "Blackfoot Trail" };
+
+	/** the quadrants and cities of supplier addresses */
+	private static final String[] CITIES = { "SE, Calgary", "NE, Calgary", "SW, Calgary", "NW, Calgary", "Edmonton",
+			"Red Deer", "Lethbridge" };
+
+	/** the contact names of suppliers */
+	private static final String[] CONTACTS = { "Fred", "Bart", "BillyBob", "Lisa", "Homer", "Marge", "Ned", "Edna",
+			"Waylon", "Seymour", "Patty", "Selma", "Moe", "Barney", "Otto", "Lenny", "Carl", "Agnes", "Martin" };
+
+	/** the number of items to generate */
+	private final int itemCount;
+
+	/** the number of suppliers to generate */
+	private final int supplierCount;
+
+	/** the exponent of the Zipf distributions of name words and suppliers */
+	private final double skew;
+
+	/** the seed of the random number generator, the same seed generates the same files */
+	private final long seed;
+
+	/**
+	 * CatalogGenerator Class Constructor
+	 *
+	 * @param itemCount the number of items to generate.
+	 * @param supplierCount the number of suppliers to generate.
+	 * @param skew the exponent of the Zipf distributions of name words and suppliers (0 for uniform, about 1 for realistic).
+	 * @param seed the seed of the random number generator.
+	 */
+	public CatalogGenerator(int itemCount, int supplierCount, double skew, long seed) {
+		this.itemCount = itemCount;
+		this.supplierCount = supplierCount;
+		this.skew = skew;
+		this.seed = seed;
+	}
+
+	/**
+	 * Writes the items file.
+	 * Each item gets a distinct name, the words drawn are followed by a model number.
+	 *
+	 * @param fileName the name of the items file.
+	 */
+	public void writeItems(String fileName) throws IOException {
+		Random random = new Random(seed);
+		ZipfDistribution adjectives = new ZipfDistribution(ADJECTIVES.length, skew, random);
+		ZipfDistribution nouns = new ZipfDistribution(NOUNS.length, skew, random);
+		ZipfDistribution suppliers = new ZipfDistribution(supplierCount, skew, random);
+
+		try (Writer out = open(fileName)) {
+			StringBuilder line = new StringBuilder(96);
+			for (int i = 0; i < itemCount; i++) {
+				line.setLength(0);
+				line.append(FIRST_ITEM_ID + i).append(';');
+				line.append(ADJECTIVES[adjectives.next() - 1]).append(' ').append(NOUNS[nouns.next() - 1]);
+				line.append(' ').append((char) ('A' + i % 26)).append('-').append(i / 26 + 100).append(';');
+
+				int qty = (int) (-Math.log(1 - random.nextDouble()) * 150); //mostly small quantities, some below the reorder level
+				line.append(qty).append(';');
+
+				long cents = Math.max(1, Math.round(100 * Math.exp(2.5 + random.nextGaussian()))); //a few expensive items, most under $30
+				line.append(cents / 100).append('.').append((char) ('0' + cents % 100 / 10)).append((char) ('0' + cents % 10)).append(';');
+
+				line.append(FIRST_SUPPLIER_ID + suppliers.next() - 1).append("\r\n");
+				out.append(line);
+			}
+		}
+	}
+
+	/**
+	 * Writes the suppliers file.
+	 *
+	 * @param fileName the name of the suppliers file.
+	 */
+	public void writeSuppliers(String fileName) throws IOException {
+		Random random = new Random(seed + 1);
+
+		try (Writer out = open(fileName)) {
+			for (int i = 0; i < supplierCount; i++) {
+				String name = COMPANY_WORDS[i % COMPANY_WORDS.length] + " "
+						+ COMPANY_SUFFIXES[(i / COMPANY_WORDS.length) % COMPANY_SUFFIXES.length];
+				if (i >= COMPANY_WORDS.length * COMPANY_SUFFIXES.length)
+					name += " " + (i / (COMPANY_WORDS.length * COMPANY_SUFFIXES.length) + 1); //keeps the names distinct
+
+				String address = (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)] + ", "
+						+ CITIES[random.nextInt(CITIES.length)];
+
+				out.append(Integer.toString(FIRST_SUPPLIER_ID + i)).append(';').append(name).append(';').append(address)
+						.append(';').append(CONTACTS[random.nextInt(CONTACTS.length)]).append("\r\n");
+			}
+		}
+	}
+
+	/**
+	 * Opens a file for writing, replacing it if it exists.
+	 *
+	 * @param fileName the name of the file.
+	 * @return a buffered writer to the file.
+	 */
+	private static Writer open(String fileName) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/**
+	 * Main method, writes the items and suppliers files named in the arguments.
+	 *
+	 * @param args the items file, the suppliers file, the number of items, the number of suppliers,
+	 * the skew and the seed, all optional.
+	 */
+	public static void main(String[] args) throws IOException {
+		String itemsFileName = args.length > 0 ? args[0] : "items_generated.txt";
+		String suppliersFileName = args.length > 1 ? args[1] : "suppliers_generated.txt";
+		int itemCount = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+		int supplierCount = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+		double skew = args.length > 4 ? Double.parseDouble(args[4]) : 1.0;
+		long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+
+		long start = System.nanoTime();
+		CatalogGenerator generator = new CatalogGenerator(itemCount, supplierCount, skew, seed);
+		generator.writeSuppliers(suppliersFileName);
+		generator.writeItems(itemsFileName);
+		System.out.printf("Wrote %d items to %s and %d suppliers to %s in %.2f s%n", itemCount, itemsFileName,
+				supplierCount, suppliersFileName, (System.nanoTime() - start) / 1e9);
+	}
+}
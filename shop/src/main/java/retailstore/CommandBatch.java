@@ -0,0 +1,416 @@
+package retailstore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Implementation of the CommandBatch Class for the Retail Store.
+ * Runs commands read one per line, e.g. a day of till transactions, against a shop without any prompts.
+ * Decreases and restocks are collected and applied to the inventory together, a batch at a time, so that
+ * their lookups overlap and they wait for the journal once. A command reading an item first applies the
+ * batch holding a change of that item, and a name search or order applies all batches, so every command
+ * sees the effect of the commands before it.
+ *
+ * Commands, one per line, blank lines and lines starting with # are skipped:
+ *   search id          prints the item
+ *   name prefix        prints the items whose name starts with the prefix, or else the most similar names ranked
+ *   qty id             prints the quantity of the item
+ *   decrease id qty    reduces the quantity of the item, unknown items are ignored
+ *   restock id qty     increases the quantity of the item, unknown items are ignored
+ *   order              prints today's order
+ *   submit             submits today's order into the order history
+ *   history from [to]  prints the submitted orders of the days from and to (yyyy-mm-dd), both included
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class CommandBatch {
+
+	/** the highest number of decreases or restocks applied to the inventory together */
+	private static final int BATCH_SIZE = 1024;
+
+	/** the maximum number of items printed for a name search */
+	private static final int MAX_SEARCH_RESULTS = 20;
+
+	/** the shop the commands are run against */
+	private Shop shop;
+
+	/**
+	 * Changes of one kind not applied to the inventory yet, with a set of their item ids.
+	 * An item has changes in at most one batch, so the order of its changes is kept.
+	 */
+	private static final class Batch {
+
+		/** the item ids of the changes, in the order they were read */
+		final int[] ids = new int[BATCH_SIZE];
+
+		/** the quantities of the changes, at the same index as their ids */
+		final int[] qtys = new int[BATCH_SIZE];
+
+		/** the number of changes */
+		int count;
+
+		/** the item ids of the changes, open addressed, 0 for a free slot */
+		final int[] idSet = new int[2 * BATCH_SIZE];
+
+		/**
+		 * Adds a change.
+		 *
+		 * @param itemId id number of the item, positive.
+		 * @param itemQty quantity of the change.
+		 */
+		void add(int itemId, int itemQty) {
+			ids[count] = itemId;
+			qtys[count] = itemQty;
+			count++;
+
+			int slot = slot(itemId);
+			while (idSet[slot] != 0 && idSet[slot] != itemId) {
+				slot = (slot + 1) & (idSet.length - 1);
+			}
+			idSet[slot] = itemId;
+		}
+
+		/**
+		 * Returns whether the batch holds a change of an item.
+		 *
+		 * @param itemId id number of the item.
+		 * @return true if the item has a change in the batch.
+		 */
+		boolean contains(int itemId) {
+			if (count == 0)
+				return false;
+			for (int slot = slot(itemId); idSet[slot] != 0; slot = (slot + 1) & (idSet.length - 1)) {
+				if (idSet[slot] == itemId)
+					return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Empties the batch once applied.
+		 *
+		 */
+		void clear() {
+			count = 0;
+			Arrays.fill(idSet, 0);
+		}
+
+		/**
+		 * Returns the first slot of an item id in the set.
+		 */
+		private int slot(int itemId) {
+			return (itemId * 0x9E3779B9 >>> 16) & (idSet.length - 1); //consecutive ids spread over the set
+		}
+	}
+
+	/** the decreases not applied yet */
+	private final Batch decreases = new Batch();
+
+	/** the restocks not applied yet */
+	private final Batch restocks = new Batch();
+
+	/** the line being parsed */
+	private String line;
+
+	/** the position of the next word in the line being parsed */
+	private int position;
+
+	/** the number of commands run so far */
+	private long commandCount;
+
+	/** the number of lines which were not valid commands so far */
+	private long invalidCount;
+
+	/**
+	 * CommandBatch Class Constructor
+	 *
+	 * @param shop the shop the commands are run against.
+	 */
+	public CommandBatch(Shop shop) {
+		this.shop = shop;
+	}
+
+	/**
+	 * Runs all commands from the reader and writes their results to the writer.
+	 * Lines which are not valid commands are reported in the results and skipped.
+	 * The writer is flushed at the end but not closed.
+	 *
+	 * @param in the commands, one per line.
+	 * @param out where the results are written to, should be buffered.
+	 * @return the number of commands run.
+	 */
+	public long run(BufferedReader in, Writer out) throws IOException {
+		long lineNumber = 0;
+		long before = commandCount;
+
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			position = 0;
+			String command = nextWord();
+			if (command.isEmpty() || command.charAt(0) == '#')
+				continue;
+
+			try {
+				runCommand(command, out);
+				commandCount++;
+			} catch (IllegalArgumentException e) { //including NumberFormatException for the numbers
+				invalidCount++;
+				out.append("Invalid command at line ").append(String.valueOf(lineNumber)).append(": ").append(line).append('\n');
+			}
+		}
+
+		applyAll();
+		out.flush();
+		return commandCount - before;
+	}
+
+	/**
+	 * Runs one command of the line being parsed.
+	 *
+	 * @param command the first word of the line.
+	 * @param out where the result is written to.
+	 * @throws IllegalArgumentException if the command or its arguments are not valid.
+	 */
+	private void runCommand(String command, Writer out) throws IOException {
+		switch (command) {
+		case "decrease": {
+			int id = nextPositiveInt();
+			queue(decreases, restocks, id, nextPositiveInt());
+			return;
+		}
+		case "restock": {
+			int id = nextPositiveInt();
+			queue(restocks, decreases, id, nextPositiveInt());
+			return;
+		}
+		case "search": {
+			int id = nextPositiveInt();
+			applyChangesOf(id);
+			Item item = shop.getInventory().searchItem(id);
+			if (item != null)
+				out.append(item.toString()).append('\n');
+			else
+				out.append("No item found with ID: ").append(String.valueOf(id)).append('\n');
+			return;
+		}
+		case "name": {
+			String prefix = line.substring(position).trim();
+			if (prefix.isEmpty())
+				throw new IllegalArgumentException("Missing name");
+			applyAll();
+			ArrayList<Item> found = shop.getInventory().searchItemsByPrefix(prefix, MAX_SEARCH_RESULTS);
+			if (found.isEmpty()) {
+				found = shop.getInventory().searchItemsBySimilarity(prefix, MAX_SEARCH_RESULTS);
+				if (found.isEmpty())
+					out.append("No items found.\n");
+				for (int i = 0; i < found.size(); i++) {
+					out.append(String.valueOf(i + 1)).append(". ").append(found.get(i).toString()).append('\n'); //ranked, closest first
+				}
+				return;
+			}
+			for (Item item : found) {
+				out.append(item.toString()).append('\n');
+			}
+			return;
+		}
+		case "qty": {
+			int id = nextPositiveInt();
+			applyChangesOf(id);
+			out.append("ID: ").append(String.valueOf(id)).append(" Qty: ")
+					.append(String.valueOf(shop.getInventory().checkQty(id))).append('\n');
+			return;
+		}
+		case "order":
+			applyAll();
+			shop.createOrder();
+			shop.getOrder().writeTo(out);
+			out.append('\n');
+			return;
+		case "submit": {
+			applyAll();
+			shop.createOrder();
+			Order submitted = shop.submitOrder();
+			if (submitted == null) {
+				out.append("No order to submit.\n");
+				return;
+			}
+			out.append("Order ").append(String.valueOf(submitted.getId())).append(" submitted with ")
+					.append(String.valueOf(submitted.getLineCount())).append(" lines.\n");
+			return;
+		}
+		case "history": {
+			OrderHistory history = shop.getOrderHistory();
+			LocalDate from = nextDate();
+			String to = nextWord();
+			LocalDate until = to.isEmpty() ? from : parseDate(to);
+			if (history == null) {
+				out.append("Orders are not kept.\n");
+				return;
+			}
+			ZoneId zone = ZoneId.systemDefault();
+			ArrayList<Order> found = history.findOrders(Date.from(from.atStartOfDay(zone).toInstant()),
+					Date.from(until.plusDays(1).atStartOfDay(zone).toInstant()));
+			if (found.isEmpty())
+				out.append("No orders found.\n");
+			for (Order order : found) {
+				order.writeTo(out);
+				out.append('\n');
+			}
+			return;
+		}
+		default:
+			throw new IllegalArgumentException("Unknown command " + command);
+		}
+	}
+
+	/**
+	 * Adds a change to its batch. The other batch is applied first if it holds a change of the same item,
+	 * and the batch itself if it is full.
+	 *
+	 * @param batch the batch of the kind of change.
+	 * @param other the batch of the other kind of change.
+	 * @param itemId id number of the item to change.
+	 * @param itemQty quantity to reduce or add.
+	 */
+	private void queue(Batch batch, Batch other, int itemId, int itemQty) {
+		if (other.contains(itemId))
+			apply(other);
+		if (batch.count == BATCH_SIZE)
+			apply(batch);
+		batch.add(itemId, itemQty);
+	}
+
+	/**
+	 * Applies the batch holding a change of an item, if any, before the item is read.
+	 *
+	 * @param itemId id number of the item.
+	 */
+	private void applyChangesOf(int itemId) {
+		if (decreases.contains(itemId))
+			apply(decreases);
+		else if (restocks.contains(itemId))
+			apply(restocks);
+	}
+
+	/**
+	 * Applies all changes not applied yet.
+	 *
+	 */
+	private void applyAll() {
+		apply(decreases);
+		apply(restocks);
+	}
+
+	/**
+	 * Applies a batch to the inventory, in the order its changes were read.
+	 *
+	 * @param batch the decreases or restocks to apply.
+	 */
+	private void apply(Batch batch) {
+		if (batch.count == 0)
+			return;
+
+		int[] ids = batch.count == BATCH_SIZE ? batch.ids : Arrays.copyOf(batch.ids, batch.count);
+		int[] qtys = batch.count == BATCH_SIZE ? batch.qtys : Arrays.copyOf(batch.qtys, batch.count);
+		if (batch == restocks)
+			shop.getInventory().addItems(ids, qtys);
+		else
+			shop.getInventory().removeItems(ids, qtys);
+		batch.clear();
+	}
+
+	/**
+	 * Returns the next word of the line being parsed, words are separated by spaces or tabs.
+	 *
+	 * @return the next word (or an empty string at the end of the line).
+	 */
+	private String nextWord() {
+		int start = skipSpaces();
+		while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+			position++;
+		}
+		return line.substring(start, position);
+	}
+
+	/**
+	 * Parses the next word of the line being parsed as a date.
+	 *
+	 * @return the date parsed.
+	 * @throws IllegalArgumentException if the next word is missing or not a date.
+	 */
+	private LocalDate nextDate() {
+		return parseDate(nextWord());
+	}
+
+	/**
+	 * Parses a date written as yyyy-mm-dd.
+	 *
+	 * @param text the date.
+	 * @return the date parsed.
+	 * @throws IllegalArgumentException if the text is not a date.
+	 */
+	private static LocalDate parseDate(String text) {
+		try {
+			return LocalDate.parse(text);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("Invalid date " + text, e);
+		}
+	}
+
+	/**
+	 * Parses the next word of the line being parsed as a positive number, without copying it out of the line.
+	 *
+	 * @return the number parsed.
+	 * @throws NumberFormatException if the next word is missing, not a number or not positive.
+	 */
+	private int nextPositiveInt() {
+		int start = skipSpaces();
+		while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+			position++;
+		}
+		int value = Integer.parseInt(line, start, position, 10);
+		if (value <= 0)
+			throw new NumberFormatException("Not a positive number: " + value);
+		return value;
+	}
+
+	/**
+	 * Moves the position past the spaces or tabs at it.
+	 *
+	 * @return the new position.
+	 */
+	private int skipSpaces() {
+		while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the number of commands run so far.
+	 *
+	 * @return the number of commands run.
+	 */
+	public long getCommandCount() {
+		return commandCount;
+	}
+
+	/**
+	 * Returns the number of lines which were not valid commands so far.
+	 *
+	 * @return the number of invalid lines.
+	 */
+	public long getInvalidCount() {
+		return invalidCount;
+	}
+}
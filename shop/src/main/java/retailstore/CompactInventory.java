@@ -0,0 +1,538 @@
+package retailstore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Implementation of a compact Inventory for the Retail Store, meant for very large catalogs.
+ * Instead of one Item object per item, the fields of all items are kept in parallel primitive
+ * arrays and the names are packed one after the other into a single byte array (UTF-8).
+ * Searches return a plain Item copied out of these arrays, changes are made through the inventory.
+ *
+ * It is an ItemStore with the rules of Inventory: items with the same id are all stored and the first
+ * one is found, quantities are stored as given and reductions follow Item.reduceQty. Unlike Inventory
+ * it is used by one thread at a time and keeps no statistics, journal, snapshots or low-stock index.
+ * The reorder level and target of each item are kept in arrays of their own, like its other fields.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class CompactInventory implements ItemStore {
+
+	/** the id numbers of the items, by position */
+	private int[] ids;
+
+	/** the quantities of the items, by position */
+	private int[] qtys;
+
+	/** the unit prices of the items, by position */
+	private double[] prices;
+
+	/** the supplier id numbers of the items, by position */
+	private int[] supplierIds;
+
+	/** the order active flags of the items, by position */
+	private boolean[] orderActive;
+
+	/** the quantities below which order lines are raised for the items, by position */
+	private int[] reorderLevels;
+
+	/** the quantities the items are ordered up to, by position */
+	private int[] reorderTargets;
+
+	/** the names of all items encoded one after the other */
+	private byte[] nameArena;
+
+	/** the start of each item name inside the name arena, the name of position i ends where position i + 1 starts */
+	private int[] nameStarts;
+
+	/** the number of items stored */
+	private int count;
+
+	/** the index of item id numbers to their positions */
+	private IntIndex itemIndex;
+
+	/** the hash table of item positions by name, the first position of a name is kept */
+	private int[] nameTable;
+
+	/** the case-insensitive hash of the name stored at the same slot of the name table */
+	private int[] nameTableHashes;
+
+	/** the number of slots of the name table in use */
+	private int nameTableSize;
+
+	/** the order lines captured so far within this inventory */
+	private ArrayList<OrderLine> orderLines;
+
+	/**
+	 * Default CompactInventory Class Constructor
+	 * Initializes member variables
+	 */
+	public CompactInventory() {
+		this(16);
+	}
+
+	/**
+	 * Overloaded CompactInventory Class Constructor
+	 * Initializes member variables sized to hold the expected number of items without growing.
+	 *
+	 * @param expectedSize the number of items expected to be stored.
+	 */
+	public CompactInventory(int expectedSize) {
+		int capacity = Math.max(expectedSize, 16);
+		this.ids = new int[capacity];
+		this.qtys = new int[capacity];
+		this.prices = new double[capacity];
+		this.supplierIds = new int[capacity];
+		this.orderActive = new boolean[capacity];
+		this.reorderLevels = new int[capacity];
+		this.reorderTargets = new int[capacity];
+		this.nameStarts = new int[capacity + 1];
+		this.nameArena = new byte[capacity * 16];
+		this.itemIndex = new IntIndex(expectedSize);
+		this.nameTable = newTable(tableCapacity(expectedSize));
+		this.nameTableHashes = new int[this.nameTable.length];
+		this.orderLines = new ArrayList<OrderLine>();
+	}
+
+	/**
+	 * Overloaded CompactInventory Class Constructor
+	 * Copies the list of items into the compact arrays, with their order active flags and reorder levels.
+	 * Only the first item with a given id is indexed, same as Inventory does.
+	 *
+	 * @param items the list of items to be copied into the inventory
+	 */
+	public CompactInventory(ArrayList<Item> items) {
+		this(items.size());
+
+		for (Item item : items) {
+			this.append(item.getId(), item.getName(), item.getQty(), item.getPrice(), item.getSupplierId());
+			orderActive[count - 1] = item.isOrderActive();
+			reorderLevels[count - 1] = item.getReorderLevel();
+			reorderTargets[count - 1] = item.getReorderTarget();
+		}
+	}
+
+	/**
+	 * Searches and returns the item in the inventory by its name, ignoring case.
+	 *
+	 * @param itemName the name of the item to look for
+	 * @return a copy of the item which was found or null if it was not found
+	 */
+	@Override
+	public Item searchItem(String itemName) {
+		int position = findName(itemName);
+		if (position != IntIndex.NOT_FOUND)
+			return itemAt(position);
+
+		return null; //item not found, return null
+	}
+
+	/**
+	 * Searches and returns the item in the inventory by its id number
+	 *
+	 * @param itemId the id number of the item to look for
+	 * @return a copy of the item which was found or null if it was not found
+	 */
+	@Override
+	public Item searchItem(int itemId) {
+		int position = itemIndex.get(itemId);
+		if (position != IntIndex.NOT_FOUND)
+			return itemAt(position);
+
+		return null; //item not found, return null
+	}
+
+	/**
+	 * Searches the inventory for an item by its id number and returns the quantity of the item.
+	 * If not found or item quantity was 0, returns 0.
+	 *
+	 * @param itemId id number of the item to search for.
+	 * @return the quantity of the item found (or 0 if not found).
+	 */
+	@Override
+	public int checkQty(int itemId) {
+		int position = itemIndex.get(itemId);
+		if (position != IntIndex.NOT_FOUND)
+			return qtys[position];
+
+		return 0;
+	}
+
+	/**
+	 * Searches the inventory and adds an item to it if no item with specified parameters found.
+	 * If item already exists, then increases the item's quantity only (other args are ignored).
+	 *
+	 * @param itemId id number of the item to add.
+	 * @param itemName name of the item to add.
+	 * @param itemQty quantity of the item to add (for existing items, this is used to increase the actual quantity by).
+	 * @param itemPrice price of the item to add.
+	 * @param itemSupId supplier id number of the item to add.
+	 */
+	@Override
+	public void addItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		int position = itemIndex.get(itemId);
+
+		if (position == IntIndex.NOT_FOUND) {
+			//item id does not exist, therefore add it as a new item
+			this.append(itemId, itemName, itemQty, itemPrice, itemSupId);
+		} else {
+			// item id already exists, therefore only add the quantity on top of the existing.
+			// the other parameters will be ignored.
+			setQtyAt(position, qtys[position] + itemQty);
+		}
+	}
+
+	/**
+	 * Reduces quantity of the specified item from the inventory.
+	 * If item reduction results an order line, then captures it into
+	 * the order lines array of the inventory.
+	 *
+	 * @param itemId id number of the item to reduce.
+	 * @param itemQty quantity to reduce from the item.
+	 */
+	@Override
+	public void removeItem(int itemId, int itemQty) {
+		int position = itemIndex.get(itemId);
+		if (position != IntIndex.NOT_FOUND) {
+			OrderLine ol = reduceQtyAt(position, itemQty); //reduce item quantity and check if results an order line.
+			if (ol != null) {
+				this.orderLines.add(ol); //there is an order line active for this item so register it into the list.
+			}
+		}
+	}
+
+	/**
+	 * Sets the reorder level and target of an item. If the quantity of the item is already below
+	 * the new level, an order line is raised for it at once, as a sale would have done.
+	 *
+	 * @param itemId id number of the item.
+	 * @param level quantity below which an order line is raised for the item, not negative.
+	 * @param target quantity the item is ordered up to, at least the level.
+	 * @return true if the item was found, false otherwise.
+	 * @throws IllegalArgumentException if the level is negative or above the target.
+	 */
+	public boolean setReorderLevels(int itemId, int level, int target) {
+		if (level < 0 || target < level)
+			throw new IllegalArgumentException("Reorder level " + level + " must not be negative or above the target " + target + ".");
+
+		int position = itemIndex.get(itemId);
+		if (position == IntIndex.NOT_FOUND)
+			return false;
+
+		setReorderLevelsAt(position, level, target);
+		OrderLine ol = reduceQtyAt(position, 0);
+		if (ol != null)
+			this.orderLines.add(ol);
+		return true;
+	}
+
+	/**
+	 * Returns the order lines saved so far to the inventory, without taking them.
+	 *
+	 * @return array of order lines captured so far inside inventory, oldest first.
+	 */
+	@Override
+	public ArrayList<OrderLine> getOrderLines() {
+		return new ArrayList<OrderLine>(orderLines);
+	}
+
+	/**
+	 * Takes all order lines saved so far from the inventory.
+	 * Also clears the order active flags of the items those lines were raised for, so that they can raise a new line.
+	 *
+	 * @return array of order lines taken from the inventory, oldest first.
+	 */
+	@Override
+	public ArrayList<OrderLine> drainOrderLines() {
+		ArrayList<OrderLine> drained = this.orderLines;
+		this.orderLines = new ArrayList<OrderLine>();
+		for (OrderLine ol : drained) {
+			int position = itemIndex.get(ol.getId());
+			if (position != IntIndex.NOT_FOUND)
+				orderActive[position] = false;
+		}
+		return drained;
+	}
+
+	/**
+	 * Clears the order lines saved so far from the inventory.
+	 * Also clears the order active flags of the items those lines were raised for.
+	 *
+	 */
+	public void clearOrderLines() {
+		this.drainOrderLines();
+	}
+
+	/**
+	 * Returns the number of items stored in the inventory, including items shadowed by an earlier item with the same id.
+	 *
+	 * @return the number of items stored in the inventory.
+	 */
+	@Override
+	public int getItemCount() {
+		return count;
+	}
+
+	/**
+	 * Outputs a string representation of this inventory.
+	 *
+	 * @return String representation of the inventory.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			out.append(itemAt(i)).append('\n');
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Copies the item at the specified position out of the arrays.
+	 *
+	 * @param position the position of the item.
+	 * @return a copy of the item, changing it does not change the inventory.
+	 */
+	private Item itemAt(int position) {
+		Item item = new Item();
+		item.setId(ids[position]);
+		item.setName(nameAt(position));
+		item.setQty(qtys[position]);
+		item.setPrice(prices[position]);
+		item.setSupplierId(supplierIds[position]);
+		item.setReorderLevels(reorderLevels[position], reorderTargets[position]);
+		if (orderActive[position])
+			item.setOrderFlag();
+		return item;
+	}
+
+	/**
+	 * Decodes and returns the name of the item at the specified position.
+	 *
+	 * @param position the position of the item.
+	 * @return the name of the item (or null if the item was stored without a name).
+	 */
+	private String nameAt(int position) {
+		int start = nameStarts[position];
+		int length = nameStarts[position + 1] - start;
+		if (length == 0)
+			return null;
+		return new String(nameArena, start, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Sets the quantity of the item at the specified position.
+	 *
+	 * @param position the position of the item.
+	 * @param qty quantity to be set for the item. Cannot be a negative integer.
+	 */
+	private void setQtyAt(int position, int qty) {
+		if (qty >= 0)
+			qtys[position] = qty;
+	}
+
+	/**
+	 * Sets the reorder level and target of the item at the specified position.
+	 *
+	 * @param position the position of the item.
+	 * @param level quantity below which an order line is raised, not negative.
+	 * @param target quantity the item is ordered up to, at least the level.
+	 */
+	private void setReorderLevelsAt(int position, int level, int target) {
+		if (level < 0 || target < level)
+			throw new IllegalArgumentException("Reorder level " + level + " must not be negative or above the target " + target + ".");
+		reorderLevels[position] = level;
+		reorderTargets[position] = target;
+	}
+
+	/**
+	 * Reduces the quantity of the item at the specified position, following the same rules as Item.reduceQty.
+	 *
+	 * @param position the position of the item.
+	 * @param qty quantity to be reduced for the item.
+	 * @return the order line (if item quantity was dropped below the reorder level, otherwise null).
+	 */
+	private OrderLine reduceQtyAt(int position, int qty) {
+		if (qtys[position] >= qty && qty > 0)
+			//do not allow reducing item qty below 0.
+			qtys[position] -= qty;
+
+		if (qtys[position] < reorderLevels[position] && !orderActive[position]) {
+			orderActive[position] = true;
+
+			OrderLine orderLine = new OrderLine();
+			orderLine.setId(ids[position]);
+			orderLine.setName(nameAt(position));
+			orderLine.setQty(reorderTargets[position] - qtys[position]);
+			orderLine.setPrice(prices[position]);
+			orderLine.setSupplierId(supplierIds[position]);
+
+			return orderLine;
+		}
+		return null;
+	}
+
+	/**
+	 * Appends a new item at the end of the arrays and indexes it.
+	 *
+	 * @param itemId id number of the item.
+	 * @param itemName name of the item.
+	 * @param itemQty quantity of the item.
+	 * @param itemPrice price of the item.
+	 * @param itemSupId supplier id number of the item.
+	 */
+	private void append(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		if (count == ids.length)
+			grow(ids.length * 2);
+
+		int position = count;
+		ids[position] = itemId;
+		qtys[position] = itemQty;
+		prices[position] = itemPrice;
+		supplierIds[position] = itemSupId;
+		orderActive[position] = false;
+		reorderLevels[position] = Item.REORDER_LEVEL;
+		reorderTargets[position] = Item.REORDER_TARGET;
+
+		byte[] encoded = itemName != null ? itemName.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		int start = nameStarts[position];
+		if (start + encoded.length > nameArena.length)
+			nameArena = Arrays.copyOf(nameArena, Math.max(start + encoded.length, nameArena.length * 2));
+		System.arraycopy(encoded, 0, nameArena, start, encoded.length);
+		nameStarts[position + 1] = start + encoded.length;
+
+		count++;
+		itemIndex.putIfAbsent(itemId, position); //only the first item with a given id is indexed
+		if (itemName != null)
+			indexName(itemName, position);
+	}
+
+	/**
+	 * Grows all per item arrays to the specified capacity.
+	 *
+	 * @param capacity the new number of items the arrays can hold.
+	 */
+	private void grow(int capacity) {
+		ids = Arrays.copyOf(ids, capacity);
+		qtys = Arrays.copyOf(qtys, capacity);
+		prices = Arrays.copyOf(prices, capacity);
+		supplierIds = Arrays.copyOf(supplierIds, capacity);
+		orderActive = Arrays.copyOf(orderActive, capacity);
+		reorderLevels = Arrays.copyOf(reorderLevels, capacity);
+		reorderTargets = Arrays.copyOf(reorderTargets, capacity);
+		nameStarts = Arrays.copyOf(nameStarts, capacity + 1);
+	}
+
+	/**
+	 * Adds the name of the item at the specified position into the name table,
+	 * unless an item with the same name is already there.
+	 *
+	 * @param name the name of the item.
+	 * @param position the position of the item.
+	 */
+	private void indexName(String name, int position) {
+		int hash = NameIndex.hash(name);
+		int mask = nameTable.length - 1;
+		int slot = hash & mask;
+		while (nameTable[slot] != IntIndex.NOT_FOUND) {
+			if (nameTableHashes[slot] == hash && nameEquals(nameTable[slot], name))
+				return; //the first item with this name stays indexed
+			slot = (slot + 1) & mask;
+		}
+		nameTable[slot] = position;
+		nameTableHashes[slot] = hash;
+		nameTableSize++;
+
+		if (nameTableSize * 2 > nameTable.length) {
+			int[] oldTable = nameTable;
+			int[] oldHashes = nameTableHashes;
+			nameTable = newTable(oldTable.length << 1);
+			nameTableHashes = new int[nameTable.length];
+			mask = nameTable.length - 1;
+			for (int i = 0; i < oldTable.length; i++) {
+				if (oldTable[i] != IntIndex.NOT_FOUND) {
+					slot = oldHashes[i] & mask;
+					while (nameTable[slot] != IntIndex.NOT_FOUND) {
+						slot = (slot + 1) & mask;
+					}
+					nameTable[slot] = oldTable[i];
+					nameTableHashes[slot] = oldHashes[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the position of the first item with the specified name, ignoring case.
+	 *
+	 * @param name the name to look for.
+	 * @return the position of the item (or IntIndex.NOT_FOUND if not found).
+	 */
+	private int findName(String name) {
+		int hash = NameIndex.hash(name);
+		int mask = nameTable.length - 1;
+		for (int slot = hash & mask; nameTable[slot] != IntIndex.NOT_FOUND; slot = (slot + 1) & mask) {
+			if (nameTableHashes[slot] == hash && nameEquals(nameTable[slot], name))
+				return nameTable[slot];
+		}
+		return IntIndex.NOT_FOUND;
+	}
+
+	/**
+	 * Compares the packed name of the item at the specified position to a name, ignoring case.
+	 * Plain ASCII names are compared byte by byte without decoding them.
+	 *
+	 * @param position the position of the item.
+	 * @param name the name to compare to.
+	 * @return true if the names are equal ignoring case.
+	 */
+	private boolean nameEquals(int position, String name) {
+		int start = nameStarts[position];
+		int length = nameStarts[position + 1] - start;
+		if (length != name.length()) {
+			//lengths can only differ for names with non-ASCII characters
+			return length > name.length() && name.equalsIgnoreCase(nameAt(position));
+		}
+
+		for (int i = 0; i < length; i++) {
+			int b = nameArena[start + i];
+			if (b < 0)
+				return name.equalsIgnoreCase(nameAt(position)); //non-ASCII byte, compare the decoded name
+
+			char c = name.charAt(i);
+			if (b != c && Character.toLowerCase(Character.toUpperCase((char) b)) != Character.toLowerCase(Character.toUpperCase(c)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of hash table slots needed for the expected number of names.
+	 *
+	 * @param expectedSize the number of names expected to be stored.
+	 * @return a power of two number of slots.
+	 */
+	private static int tableCapacity(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Allocates an empty hash table.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 * @return the empty table.
+	 */
+	private static int[] newTable(int capacity) {
+		int[] table = new int[capacity];
+		Arrays.fill(table, IntIndex.NOT_FOUND);
+		return table;
+	}
+}
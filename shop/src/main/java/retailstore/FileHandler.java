@@ -0,0 +1,565 @@
+package retailstore;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * File Handler for Items and Suppliers files.
+ * Reads them and parses them into correct objects.
+ * 
+ * @author Burak Gulseren
+ * @since 2020-10-8
+ * 
+ */
+
+public class FileHandler {
+	
+	/** the initial size of the buffer files are read through, grown only for longer lines */
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	/** the smallest chunk a file is split into for parallel reading, smaller files are read in one piece */
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	
+	/** the powers of ten which are exact as doubles, used to parse prices */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+	
+	/**
+	 * Parser of one line of a file, called with the bytes of the line without its line ending.
+	 */
+	private interface LineParser {
+		
+		/**
+		 * Parses one line of a file.
+		 * 
+		 * @param buffer the buffer holding the line.
+		 * @param start the index of the first byte of the line (inclusive).
+		 * @param end the index of the last byte of the line (exclusive).
+		 * @param offset the position of the line inside the file, used in error messages.
+		 */
+		void parse(byte[] buffer, int start, int end, long offset) throws IOException;
+	}
+	
+	/**
+	 * Opens the specified file name using file io.
+	 * Checks if the file name conforms to the restrictions of the application.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @return the file object which was opened (or null if file was not found).
+	 */
+	private File openFile(String inputfilename) throws IOException {
+		System.err.println("Reading " + inputfilename + ", please wait ..."); //a line of its own, files may be read at the same time, kept out of the results of batch mode
+		inputfilename = inputfilename.trim(); //trim the leading and trailing white spaces
+		
+		//file name arguments validity check
+		if (!inputfilename.endsWith(".txt") || inputfilename.length() > 24) {
+			
+			System.err.println("File name not entered correctly, it must end with .txt and must be maximum 24 characters long.");
+			return null;
+		}
+		return new File(inputfilename);
+	}
+
+	/**
+	 * Opens the specified file name using file io and parses each line in the text
+	 * file to be converted into an Item.
+	 * When all lines are parsed, returns the array of items parsed from each line.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @return the array list of items read from the file (or null if no item was found).
+	 */
+	public ArrayList<Item> readItems(String inputfilename) throws IOException {
+		ArrayList<Item> items = new ArrayList<Item>();
+		
+		long records = readItems(inputfilename, itemCollector(items));
+		
+		return records >= 0 ? items : null;
+	}
+	
+	/**
+	 * Opens the specified file name, splits it into chunks which start and end at line boundaries
+	 * and parses the chunks in parallel on the pool. The items of the chunks are joined in file order,
+	 * so the result (including which of several items with the same id comes first) is the same
+	 * as reading the file from start to end.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @param pool the pool to parse the chunks on.
+	 * @return the array list of items read from the file in file order (or null if no item was found).
+	 */
+	public ArrayList<Item> readItems(String inputfilename, ForkJoinPool pool) throws IOException {
+		File file = openFile(inputfilename);
+		
+		if (file != null) {
+			long sample = ShopStats.READ_ITEMS.begin();
+			ArrayList<Item> items = readChunks(file, pool, chunk -> itemParser(itemCollector(chunk)));
+			System.err.println("... File read complete.");
+			ShopStats.READ_ITEMS.end(sample);
+			
+			return items;
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens the specified file name and parses each line in the text file as an item record,
+	 * passing the records to the handler as they are parsed. The file is read in blocks through
+	 * a file channel and numbers are parsed straight from the bytes, so memory used does not
+	 * grow with the size of the file.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @param handler the callback receiving each item record.
+	 * @return the number of records read from the file (or -1 if the file name was not valid).
+	 */
+	public long readItems(String inputfilename, ItemRecordHandler handler) throws IOException {
+		File file = openFile(inputfilename);
+		
+		if (file != null) {
+			long sample = ShopStats.READ_ITEMS.begin();
+			long records;
+			
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				records = parseLines(channel, 0, channel.size(), itemParser(handler));
+			}
+			System.err.println("... File read complete.");
+			ShopStats.READ_ITEMS.end(sample);
+			
+			return records;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Opens the specified file name using file io and parses each line in the text
+	 * file to be converted into a Supplier.
+	 * When all lines are parsed, returns the array of suppliers parsed from each line.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @return the array list of suppliers read from the file (or null if no supplier was found).
+	 */
+	public ArrayList<Supplier> readSuppliers(String inputfilename) throws IOException {
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		
+		long records = readSuppliers(inputfilename, supplierCollector(suppliers));
+		
+		return records >= 0 ? suppliers : null;
+	}
+	
+	/**
+	 * Opens the specified file name, splits it into chunks which start and end at line boundaries
+	 * and parses the chunks in parallel on the pool. The suppliers of the chunks are joined in file order.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @param pool the pool to parse the chunks on.
+	 * @return the array list of suppliers read from the file in file order (or null if no supplier was found).
+	 */
+	public ArrayList<Supplier> readSuppliers(String inputfilename, ForkJoinPool pool) throws IOException {
+		File file = openFile(inputfilename);
+		
+		if (file != null) {
+			long sample = ShopStats.READ_SUPPLIERS.begin();
+			ArrayList<Supplier> suppliers = readChunks(file, pool, chunk -> supplierParser(supplierCollector(chunk)));
+			System.err.println("... File read complete.");
+			ShopStats.READ_SUPPLIERS.end(sample);
+			
+			return suppliers;
+		}
+		return null;
+	}
+	
+	/**
+	 * Opens the specified file name and parses each line in the text file as a supplier record,
+	 * passing the records to the handler as they are parsed.
+	 * 
+	 * @param inputfilename the name of the file to open.
+	 * @param handler the callback receiving each supplier record.
+	 * @return the number of records read from the file (or -1 if the file name was not valid).
+	 */
+	public long readSuppliers(String inputfilename, SupplierRecordHandler handler) throws IOException {
+		File file = openFile(inputfilename);
+		
+		if (file != null) {
+			long sample = ShopStats.READ_SUPPLIERS.begin();
+			long records;
+			
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				records = parseLines(channel, 0, channel.size(), supplierParser(handler));
+			}
+			System.err.println("... File read complete.");
+			ShopStats.READ_SUPPLIERS.end(sample);
+			
+			return records;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns a parser of item lines (id;name;qty;price;supplierId) passing records to the handler.
+	 * 
+	 * @param handler the callback receiving each item record.
+	 * @return the line parser.
+	 */
+	private static LineParser itemParser(ItemRecordHandler handler) {
+		return (buffer, start, end, offset) -> {
+			int s1 = separator(buffer, start, end, offset);
+			int s2 = separator(buffer, s1 + 1, end, offset);
+			int s3 = separator(buffer, s2 + 1, end, offset);
+			int s4 = separator(buffer, s3 + 1, end, offset);
+			int s5 = fieldEnd(buffer, s4 + 1, end);
+			
+			handler.accept(parseInt(buffer, start, s1, offset),
+					new String(buffer, s1 + 1, s2 - s1 - 1, StandardCharsets.UTF_8),
+					parseInt(buffer, s2 + 1, s3, offset),
+					parsePrice(buffer, s3 + 1, s4, offset),
+					parseInt(buffer, s4 + 1, s5, offset));
+		};
+	}
+	
+	/**
+	 * Returns a parser of supplier lines (id;name;address;contact) passing records to the handler.
+	 * 
+	 * @param handler the callback receiving each supplier record.
+	 * @return the line parser.
+	 */
+	private static LineParser supplierParser(SupplierRecordHandler handler) {
+		return (buffer, start, end, offset) -> {
+			int s1 = separator(buffer, start, end, offset);
+			int s2 = separator(buffer, s1 + 1, end, offset);
+			int s3 = separator(buffer, s2 + 1, end, offset);
+			int s4 = fieldEnd(buffer, s3 + 1, end);
+			
+			handler.accept(parseInt(buffer, start, s1, offset),
+					new String(buffer, s1 + 1, s2 - s1 - 1, StandardCharsets.UTF_8),
+					new String(buffer, s2 + 1, s3 - s2 - 1, StandardCharsets.UTF_8),
+					new String(buffer, s3 + 1, s4 - s3 - 1, StandardCharsets.UTF_8));
+		};
+	}
+	
+	/**
+	 * Returns a handler which creates an Item for each record and adds it to the list.
+	 * 
+	 * @param items the list receiving the items.
+	 * @return the record handler.
+	 */
+	private static ItemRecordHandler itemCollector(ArrayList<Item> items) {
+		return (id, name, qty, price, supplierId) -> {
+			Item item = new Item();
+			item.setId(id);
+			item.setName(name);
+			item.setQty(qty);
+			item.setPrice(price);
+			item.setSupplierId(supplierId);
+			
+			items.add(item);
+		};
+	}
+	
+	/**
+	 * Returns a handler which creates a Supplier for each record and adds it to the list.
+	 * 
+	 * @param suppliers the list receiving the suppliers.
+	 * @return the record handler.
+	 */
+	private static SupplierRecordHandler supplierCollector(ArrayList<Supplier> suppliers) {
+		return (id, name, address, contact) -> suppliers.add(new Supplier(id, name, address, contact));
+	}
+	
+	/**
+	 * Splits a file into chunks at line boundaries, parses each chunk into its own list on the pool
+	 * and joins the lists in file order.
+	 * 
+	 * @param file the file to read.
+	 * @param pool the pool to parse the chunks on.
+	 * @param parserFor returns the parser filling the list of one chunk.
+	 * @return the records of all chunks in file order.
+	 */
+	private static <T> ArrayList<T> readChunks(File file, ForkJoinPool pool, Function<ArrayList<T>, LineParser> parserFor) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			int chunkCount = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, size / MIN_CHUNK_SIZE));
+			
+			//move each even split point forward to the start of the next line
+			long[] bounds = new long[chunkCount + 1];
+			bounds[chunkCount] = size;
+			for (int i = 1; i < chunkCount; i++) {
+				bounds[i] = Math.max(bounds[i - 1], lineStartAfter(channel, size * i / chunkCount, size));
+			}
+			
+			ArrayList<Future<ArrayList<T>>> tasks = new ArrayList<Future<ArrayList<T>>>(chunkCount);
+			for (int i = 0; i < chunkCount; i++) {
+				long from = bounds[i];
+				long to = bounds[i + 1];
+				tasks.add(pool.submit(() -> {
+					ArrayList<T> chunk = new ArrayList<T>();
+					parseLines(channel, from, to, parserFor.apply(chunk)); //positional reads, channel is shared safely
+					return chunk;
+				}));
+			}
+			
+			ArrayList<T> records = new ArrayList<T>();
+			for (Future<ArrayList<T>> task : tasks) {
+				records.addAll(await(task));
+			}
+			return records;
+		}
+	}
+	
+	/**
+	 * Waits for a task reading a file and returns its result, passing on the error
+	 * of a file which could not be read or parsed as it was thrown inside the task.
+	 * 
+	 * @param task the task to wait for.
+	 * @return the result of the task.
+	 */
+	static <T> T await(Future<T> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading a file.");
+		} catch (ExecutionException e) {
+			for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+				if (cause instanceof IOException)
+					throw (IOException) cause; //tasks wrap checked exceptions, find the original one
+			}
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Finds the start of the first line beginning at or after a position of the file.
+	 * 
+	 * @param channel the channel of the file.
+	 * @param position the position to look from.
+	 * @param size the size of the file.
+	 * @return the position right after the next line feed (or the size of the file if there is none).
+	 */
+	private static long lineStartAfter(FileChannel channel, long position, long size) throws IOException {
+		if (position == 0)
+			return 0;
+		
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long at = position - 1; //a line feed just before the position means a line starts right there
+		while (at < size) {
+			buffer.clear();
+			int read = channel.read(buffer, at);
+			if (read <= 0)
+				break;
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n')
+					return at + i + 1;
+			}
+			at += read;
+		}
+		return size;
+	}
+	
+	/**
+	 * Reads a range of the file block by block and passes each complete line to the parser.
+	 * Line endings (LF or CRLF) are removed and blank lines are skipped.
+	 * 
+	 * @param channel the channel of the file to read.
+	 * @param from the position to start reading from, must be the start of a line.
+	 * @param to the position to stop reading at, must be the end of a line or of the file.
+	 * @param parser the parser of each line.
+	 * @return the number of lines parsed.
+	 */
+	private static long parseLines(FileChannel channel, long from, long to, LineParser parser) throws IOException {
+		byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(to - from, 16))];
+		long bufferPosition = from; //position inside the file of the first byte in the buffer
+		int filled = 0;
+		long lines = 0;
+		
+		while (true) {
+			//fill the rest of the buffer from the file
+			boolean finished = false;
+			while (filled < buffer.length) {
+				long remaining = to - (bufferPosition + filled);
+				if (remaining <= 0) {
+					finished = true;
+					break;
+				}
+				ByteBuffer target = ByteBuffer.wrap(buffer, filled, (int) Math.min(buffer.length - filled, remaining));
+				int read = channel.read(target, bufferPosition + filled);
+				if (read < 0) {
+					finished = true;
+					break;
+				}
+				filled += read;
+			}
+			
+			//parse every complete line in the buffer
+			int lineStart = 0;
+			for (int i = 0; i < filled; i++) {
+				if (buffer[i] == '\n') {
+					lines += parseLine(parser, buffer, lineStart, i, bufferPosition + lineStart);
+					lineStart = i + 1;
+				}
+			}
+			
+			if (finished) {
+				if (lineStart < filled) //last line of the file has no line ending
+					lines += parseLine(parser, buffer, lineStart, filled, bufferPosition + lineStart);
+				return lines;
+			}
+			
+			if (lineStart == 0) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2); //a single line is longer than the buffer
+			} else {
+				//move the incomplete last line to the front of the buffer
+				System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+				filled -= lineStart;
+				bufferPosition += lineStart;
+			}
+		}
+	}
+	
+	/**
+	 * Removes the carriage return from the end of a line and parses it unless it is blank.
+	 * 
+	 * @param parser the parser of the line.
+	 * @param buffer the buffer holding the line.
+	 * @param start the index of the first byte of the line (inclusive).
+	 * @param end the index of the line feed ending the line (or the end of the data).
+	 * @param offset the position of the line inside the file.
+	 * @return 1 if the line was parsed, 0 if it was blank.
+	 */
+	private static int parseLine(LineParser parser, byte[] buffer, int start, int end, long offset) throws IOException {
+		if (end > start && buffer[end - 1] == '\r')
+			end--;
+		if (end == start)
+			return 0;
+		
+		parser.parse(buffer, start, end, offset);
+		return 1;
+	}
+	
+	/**
+	 * Returns the index of the next field separator inside a line.
+	 * 
+	 * @param buffer the buffer holding the line.
+	 * @param from the index to start looking from.
+	 * @param end the end of the line.
+	 * @param offset the position of the line inside the file, used in error messages.
+	 * @return the index of the separator.
+	 */
+	private static int separator(byte[] buffer, int from, int end, long offset) throws IOException {
+		for (int i = from; i < end; i++) {
+			if (buffer[i] == ';')
+				return i;
+		}
+		throw malformed(offset, "missing field");
+	}
+	
+	/**
+	 * Returns the end of the last expected field of a line, ignoring any extra fields after it.
+	 * 
+	 * @param buffer the buffer holding the line.
+	 * @param from the start of the field.
+	 * @param end the end of the line.
+	 * @return the index after the last byte of the field.
+	 */
+	private static int fieldEnd(byte[] buffer, int from, int end) {
+		for (int i = from; i < end; i++) {
+			if (buffer[i] == ';')
+				return i;
+		}
+		return end;
+	}
+	
+	/**
+	 * Parses a whole number written in decimal digits (with an optional sign).
+	 * 
+	 * @param buffer the buffer holding the number.
+	 * @param start the index of the first byte of the number (inclusive).
+	 * @param end the index of the last byte of the number (exclusive).
+	 * @param offset the position of the line inside the file, used in error messages.
+	 * @return the number parsed.
+	 */
+	private static int parseInt(byte[] buffer, int start, int end, long offset) throws IOException {
+		boolean negative = start < end && buffer[start] == '-';
+		int i = (start < end && (buffer[start] == '-' || buffer[start] == '+')) ? start + 1 : start;
+		if (i == end || end - i > 10)
+			throw malformed(offset, "not a whole number");
+		
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = buffer[i] - '0';
+			if (digit < 0 || digit > 9)
+				throw malformed(offset, "not a whole number");
+			value = value * 10 + digit;
+		}
+		
+		value = negative ? -value : value;
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+			throw malformed(offset, "number out of range");
+		return (int) value;
+	}
+	
+	/**
+	 * Parses a price written as decimal digits with an optional fraction (e.g. 12.67).
+	 * Up to 15 significant digits are parsed directly, which gives exactly the same value as
+	 * Double.parseDouble since both the digits and the power of ten are exact doubles.
+	 * Other forms are passed to Double.parseDouble.
+	 * 
+	 * @param buffer the buffer holding the price.
+	 * @param start the index of the first byte of the price (inclusive).
+	 * @param end the index of the last byte of the price (exclusive).
+	 * @param offset the position of the line inside the file, used in error messages.
+	 * @return the price parsed.
+	 */
+	private static double parsePrice(byte[] buffer, int start, int end, long offset) throws IOException {
+		boolean negative = start < end && buffer[start] == '-';
+		int i = (start < end && (buffer[start] == '-' || buffer[start] == '+')) ? start + 1 : start;
+		long digits = 0;
+		int digitCount = 0;
+		int fractionDigits = -1; //-1 until the decimal point is seen
+		boolean simple = i < end;
+		
+		for (; i < end && simple; i++) {
+			byte b = buffer[i];
+			if (b >= '0' && b <= '9') {
+				digits = digits * 10 + (b - '0');
+				digitCount++;
+				if (fractionDigits >= 0)
+					fractionDigits++;
+			} else if (b == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else {
+				simple = false;
+			}
+		}
+		
+		if (simple && digitCount > 0 && digitCount <= 15) {
+			double value = fractionDigits > 0 ? digits / POWERS_OF_TEN[fractionDigits] : digits;
+			return negative ? -value : value;
+		}
+		
+		try {
+			return Double.parseDouble(new String(buffer, start, end - start, StandardCharsets.US_ASCII));
+		} catch (NumberFormatException e) {
+			throw malformed(offset, "not a price");
+		}
+	}
+	
+	/**
+	 * Creates the exception thrown for a line which cannot be parsed.
+	 * 
+	 * @param offset the position of the line inside the file.
+	 * @param reason the reason the line cannot be parsed.
+	 * @return the exception to throw.
+	 */
+	private static IOException malformed(long offset, String reason) {
+		return new IOException("Malformed record at byte " + offset + ": " + reason + ".");
+	}
+}
@@ -0,0 +1,483 @@
+package retailstore;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Scanner;  // Import the Scanner class
+
+/**
+ * Implementation of the FrontEnd Class for the Retail Store.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 9th, 2020
+ */
+
+public class FrontEnd {
+	
+	/** the maximum number of items displayed for a name search */
+	private static final int MAX_SEARCH_RESULTS = 20;
+	
+	/** the directory the files written while the shop runs are kept in, so that the bundled items and suppliers files are not changed */
+	private static final String DATA_DIRECTORY = "data";
+	
+	/** the snapshot file the shop is saved into on quit and restored from on the next start */
+	private static final String SNAPSHOT_FILE = DATA_DIRECTORY + File.separator + "shop.dat";
+	
+	/** the file name of the journal segments holding the changes made since the snapshot was saved */
+	private static final String JOURNAL_FILE = DATA_DIRECTORY + File.separator + "shop.jnl";
+	
+	/** the items file the shop is imported from when there is no snapshot */
+	private static final String ITEMS_FILE = "items.txt";
+	
+	/** the copy of the items file kept current with the inventory while the shop runs */
+	private static final String WRITE_BACK_FILE = DATA_DIRECTORY + File.separator + "items.txt";
+	
+	/** the file the submitted orders are kept in, the most recent ones are also kept in memory */
+	private static final String HISTORY_FILE = DATA_DIRECTORY + File.separator + "orders.hist";
+	
+	/** the estimated heap size the most recent orders of the history may take, in bytes */
+	private static final long HISTORY_MEMORY_BUDGET = 16L << 20;
+	
+	/** the time between two write-backs of the changed items into the items file, in milliseconds */
+	private static final long WRITE_BACK_PERIOD = 1000;
+	
+	/** the port the HTTP interface listens on unless another one is given */
+	private static final int DEFAULT_HTTP_PORT = 8080;
+	
+	/** the size of the latest changes a leader keeps for followers which fall behind or reconnect, in bytes */
+	private static final long REPLICATION_BACKLOG = 64L << 20;
+	
+	/** the snapshot files a leader writes for followers which fall further behind, numbered after it */
+	private static final String LEADER_SNAPSHOT_FILE = DATA_DIRECTORY + File.separator + "shop.dat.follower";
+	
+	/** the snapshot file a follower writes the snapshots sent by its leader into */
+	private static final String FOLLOWER_SNAPSHOT_FILE = DATA_DIRECTORY + File.separator + "replica.dat";
+	
+	/** the size of the buffers commands are read through and results written through in batch mode */
+	private static final int BATCH_BUFFER_SIZE = 1 << 16;
+	
+	/** the shop object to be instantiated when front end exists, used to manipulate shop functions */
+	private Shop shop;
+	/** the scanner object to be instantiated to capture user inputs */
+	private Scanner scan;
+	/** the statistics of the shop operations, also published over JMX */
+	private ShopStats stats;
+	/** the HTTP interface serving the shop next to the menu (or null if it is not served) */
+	private ShopServer server;
+	
+	/**
+	 * Default FrontEnd Class Constructor
+	 * 
+	 * Initializes the shop from the last snapshot and the changes journaled since, or by importing files if there is none
+	 * Keeps a copy of the items file in the data directory current with the changed items in the background
+	 * Keeps the submitted orders in the order history file
+	 * Initializes the scanner object to capture user inputs
+	 * Registers the statistics of the shop operations over JMX
+	 * 
+	 */
+	public FrontEnd() throws IOException {
+		this(false);
+	}
+	
+	/**
+	 * Overloaded FrontEnd Class Constructor
+	 * 
+	 * Initializes the front end as the default constructor does, with an inventory which can be used
+	 * by several threads at the same time if requested, e.g. to serve it over HTTP next to the menu
+	 * 
+	 * @param concurrent true if the inventory will be used by several threads at the same time
+	 */
+	public FrontEnd(boolean concurrent) throws IOException {
+		Files.createDirectories(Paths.get(DATA_DIRECTORY));
+		if (new File(SNAPSHOT_FILE).exists()) {
+			System.err.println("Restoring " + SNAPSHOT_FILE + ", please wait ..."); //kept out of the results of batch mode
+			this.shop = Shop.recover(SNAPSHOT_FILE, JOURNAL_FILE, Journal.Durability.GROUP, concurrent);
+		} else {
+			this.shop = new Shop(ITEMS_FILE, "suppliers.txt", concurrent);
+			Files.copy(Paths.get(ITEMS_FILE), Paths.get(WRITE_BACK_FILE), StandardCopyOption.REPLACE_EXISTING); //the copy starts as the file imported
+			this.shop.startJournal(SNAPSHOT_FILE, JOURNAL_FILE, Journal.Durability.GROUP);
+		}
+		this.shop.startItemsWriteBack(WRITE_BACK_FILE, WRITE_BACK_PERIOD);
+		this.shop.openOrderHistory(HISTORY_FILE, HISTORY_MEMORY_BUDGET);
+		this.scan = new Scanner(System.in);
+		this.stats = ShopStats.register();
+	}
+	
+	/**
+	 * Displays a menu of options to the user
+	 * 
+	 */
+	private void printMenu() {
+		System.out.println("Please choose one of the following options:");
+		System.out.println("1. List all tools in the inventory.");
+		System.out.println("2. Search for tool by name.");
+		System.out.println("3. Search for tool by id");
+		System.out.println("4. Check item quantity.");
+		System.out.println("5. Decrease item quantity.");
+		System.out.println("6. Print today's order.");
+		System.out.println("7. List all suppliers.");
+		System.out.println("8. Show statistics.");
+		System.out.println("9. Quit.");
+		System.out.println();
+	}
+	
+	/**
+	 * Captures user input as the menu action and calls the subsequent function.
+	 * 
+	 */
+	private void menu() {
+		while (true) {
+			printMenu();
+			int choice = scan.nextInt();
+			scan.nextLine();
+			
+			switch (choice) {
+			case 1:
+				this.listItems();
+				break;
+			case 2:
+				this.searchItemByName();
+				break;
+			case 3:
+				this.searchItemById();
+				break;
+			case 4:
+				this.checkItemQty();
+				break;
+			case 5:
+				this.decreaseItem();
+				break;
+			case 6:
+				this.getTodaysOrder();
+				break;
+			case 7:
+				this.listSuppliers();
+				break;
+			case 8:
+				System.out.println(this.stats.toString());
+				break;
+			case 9:
+				if (this.server != null)
+					this.server.stop();
+				this.saveShop();
+				System.out.println("Terminated!");
+				scan.close();
+				return;
+			default:
+				System.out.println("Invalid selection.");
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Starts serving the shop over HTTP, next to the menu.
+	 * 
+	 * @param port the port to listen on.
+	 */
+	private void startServer(int port) throws IOException {
+		this.server = new ShopServer(this.shop, port);
+		this.server.start();
+		System.out.println("Serving the shop on http://localhost:" + this.server.getPort() + "/ ("
+				+ (this.server.isVirtualThreads() ? "virtual threads" : "thread pool") + ")");
+	}
+	
+	/**
+	 * Runs the commands of a file (or of the standard input) without prompts, writing the results to the
+	 * standard output through a buffered stream, then saves the shop.
+	 * A summary of the run is written to the standard error, so the results can be piped on.
+	 * 
+	 * @param fileName the file of commands, or - for the standard input.
+	 */
+	private void runBatch(String fileName) throws IOException {
+		BufferedReader in = fileName.equals("-")
+				? new BufferedReader(new InputStreamReader(System.in), BATCH_BUFFER_SIZE)
+				: new BufferedReader(new FileReader(fileName), BATCH_BUFFER_SIZE);
+		//the standard output itself, without the line flushing and locking of System.out
+		Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_BUFFER_SIZE));
+		CommandBatch batch = new CommandBatch(this.shop);
+		
+		long start = System.nanoTime();
+		try {
+			batch.run(in, out);
+		} finally {
+			in.close();
+			out.flush();
+		}
+		long elapsed = Math.max(System.nanoTime() - start, 1);
+		System.err.printf("Ran %d commands (%d invalid lines) in %.1f ms, %.0f commands per second%n",
+				batch.getCommandCount(), batch.getInvalidCount(), elapsed / 1e6, batch.getCommandCount() * 1e9 / elapsed);
+		this.saveShop();
+	}
+	
+	/**
+	 * Saves the shop into the snapshot file, so that the next start does not need to replay the journal.
+	 * 
+	 */
+	private void saveShop() {
+		try {
+			this.shop.closeOrderHistory(); //first, so that the snapshot does not hold the lines of the order submitted as pending
+		} catch (IOException e) {
+			System.out.println("Could not save " + HISTORY_FILE + ": " + e.getMessage());
+		}
+		try {
+			this.shop.stopReplication();
+			this.shop.saveSnapshot(SNAPSHOT_FILE);
+			this.shop.closeJournal();
+		} catch (IOException e) {
+			System.out.println("Could not save " + SNAPSHOT_FILE + ": " + e.getMessage());
+		}
+		try {
+			this.shop.stopItemsWriteBack();
+		} catch (IOException e) {
+			System.out.println("Could not write back " + WRITE_BACK_FILE + ": " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns the entered user string as item name.
+	 * 
+	 * @return captured item name, must be a string.
+	 */
+	private String getItemName() {
+		System.out.println("Please enter the name of the item: ");
+		
+		String line = scan.nextLine().trim();
+		return line;
+	}
+	
+	/**
+	 * Returns the entered user integer as item id.
+	 * 
+	 * @return captured item id, must be an integer.
+	 */
+	private int getItemId() {
+		System.out.println("Please enter the id number of the item: ");
+		
+		int num = scan.nextInt();
+		scan.nextLine();
+		return num;
+	}
+	
+	/**
+	 * Returns the entered user integer as item quantity.
+	 * 
+	 * @return captured item quantity, must be an integer.
+	 */
+	private int getItemQty() {
+		System.out.println("Please enter the quantity to reduce: ");
+		
+		int num = scan.nextInt();
+		scan.nextLine();
+		return num;
+	}
+	
+	/**
+	 * Prompts user to enter item id and displays the quantity result from inventory
+	 * 
+	 */
+	private void checkItemQty() {
+		int id = getItemId();
+		System.out.println("There is " + this.shop.getInventory().checkQty(id) + " of this item.\n");
+	}
+	
+	/**
+	 * Prompts user to enter item id and quantity to reduce for that item.
+	 * Displays the quantity result afterwards.
+	 *  
+	 */
+	private void decreaseItem() {
+		int id = getItemId();
+		System.out.println("There is " + this.shop.getInventory().checkQty(id) + " of this item.");
+		int qty = getItemQty();
+		this.shop.getInventory().removeItem(id, qty);
+		
+		System.out.println("The quantity is now " + this.shop.getInventory().checkQty(id) + " for this item.\n");
+	}
+	
+	/**
+	 * Prompts user to enter item id to look among the shop inventory.
+	 * Displays the found item (or none if not found).
+	 *  
+	 */
+	private void searchItemById() {
+		int id = getItemId();
+		System.out.println("Searching for item ID: " + id + "...");
+		System.out.println(this.shop.getInventory().searchItem(id));
+	}
+	
+	/**
+	 * Prompts user to enter item name (or the start of it) to look among the shop inventory.
+	 * Displays the found items in alphabetical order, or if no name starts with the text,
+	 * the items with the most similar names ranked best first (or none if not found).
+	 *  
+	 */
+	private void searchItemByName() {
+		String name = getItemName();
+		System.out.println("Searching for item name: " + name + "...");
+		
+		ArrayList<Item> found = this.shop.getInventory().searchItemsByPrefix(name, MAX_SEARCH_RESULTS);
+		if (found.isEmpty()) {
+			found = this.shop.getInventory().searchItemsBySimilarity(name, MAX_SEARCH_RESULTS);
+			System.out.println(found.isEmpty() ? "No items found." : "No name starts with \"" + name + "\", closest names:");
+			for (int i = 0; i < found.size(); i++) {
+				System.out.println((i + 1) + ". " + found.get(i));
+			}
+			return;
+		}
+		for (Item item : found) {
+			System.out.println(item);
+		}
+	}
+	
+	/**
+	 * Calls the shop generate order function to generate a report of the 
+	 * order lines raised so far.
+	 *  
+	 */
+	private void getTodaysOrder() {
+		this.shop.createOrder();
+		try {
+			Writer out = this.consoleWriter();
+			this.shop.getOrder().writeTo(out);
+			this.endListing(out);
+		} catch (IOException e) {
+			System.out.println("Could not print the order: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Lists all items in the inventory as they were when the listing started, streamed to the console
+	 * a page at a time while the tills carry on.
+	 * 
+	 */
+	private void listItems() {
+		try {
+			Writer out = this.consoleWriter();
+			this.shop.getInventory().writeTo(out);
+			this.endListing(out);
+		} catch (IOException e) {
+			System.out.println("Could not list the items: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Lists all suppliers, streamed to the console.
+	 * 
+	 */
+	private void listSuppliers() {
+		try {
+			Writer out = this.consoleWriter();
+			this.shop.writeSuppliers(out);
+			this.endListing(out);
+		} catch (IOException e) {
+			System.out.println("Could not list the suppliers: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns a buffered writer to the console, so that long listings are not built up in memory first.
+	 * 
+	 * @return a writer to the console, to be ended with endListing.
+	 */
+	private Writer consoleWriter() {
+		return new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+	}
+	
+	/**
+	 * Ends a listing with a blank line and flushes it to the console, leaving the console open.
+	 * 
+	 * @param out the writer returned by consoleWriter.
+	 */
+	private void endListing(Writer out) throws IOException {
+		out.write(System.lineSeparator());
+		out.flush();
+	}
+
+	/**
+	 * Main method, calls front end methods.
+	 * With --batch runs the commands of the file named next (or of the standard input) instead of the menu.
+	 * With --http also serves the shop over HTTP on the port named next (or 8080) while the menu runs.
+	 * With --lead also streams the changes of the shop to followers connecting on the port named next,
+	 * and serves it over HTTP on the port named after it (or 8080).
+	 * With --follow keeps a copy of the leader named next (host:port) instead of the menu, served
+	 * read-only over HTTP on the port named after it (or 8080), until quit is entered.
+	 * 
+	 * @param args optional arguments to be called: --batch [file of commands], --http [port],
+	 *             --lead port [http port] or --follow host:port [http port].
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length > 0 && args[0].equals("--batch")) {
+			FrontEnd fe = new FrontEnd();
+			fe.runBatch(args.length > 1 ? args[1] : "-");
+			return;
+		}
+		
+		if (args.length > 1 && args[0].equals("--follow")) {
+			follow(args[1], args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HTTP_PORT);
+			return;
+		}
+		
+		boolean lead = args.length > 1 && args[0].equals("--lead");
+		boolean http = lead || args.length > 0 && args[0].equals("--http");
+		System.out.println("Initializing shop application, please wait...");
+		
+		FrontEnd fe = new FrontEnd(http);
+		if (lead) {
+			ReplicationLeader leader = fe.shop.startReplication(Integer.parseInt(args[1]), REPLICATION_BACKLOG, LEADER_SNAPSHOT_FILE);
+			System.out.println("Streaming the shop to followers on port " + leader.getPort());
+			fe.startServer(args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HTTP_PORT);
+		} else if (http) {
+			fe.startServer(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT);
+		}
+		System.out.println("Ready");
+		fe.menu();
+		
+	}
+	
+	/**
+	 * Keeps a copy of a leader shop and serves it read-only over HTTP, printing how far behind the
+	 * leader it is each time a line is entered, until quit is entered or the input ends.
+	 * 
+	 * @param leader the host and port of the leader, as host:port.
+	 * @param httpPort the port the copy is served on.
+	 */
+	private static void follow(String leader, int httpPort) throws IOException {
+		int colon = leader.lastIndexOf(':');
+		if (colon < 0)
+			throw new IllegalArgumentException("The leader must be given as host:port.");
+		Shop shop = new Shop();
+		ReplicationFollower follower = new ReplicationFollower(shop, leader.substring(0, colon),
+				Integer.parseInt(leader.substring(colon + 1)), FOLLOWER_SNAPSHOT_FILE);
+		ShopServer server = new ShopServer(shop, httpPort, true);
+		server.start();
+		System.out.println("Following " + leader + ", serving the copy on http://localhost:" + server.getPort() + "/");
+		System.out.println("Press enter for the replication status, or enter quit.");
+		
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while ((line = in.readLine()) != null && !line.trim().equals("quit")) {
+			System.out.printf("%s, %d items, applied record %d of %d, last batch %.2f ms after it was sent, %d snapshots%n",
+					follower.isConnected() ? "connected" : "not connected", shop.getInventory().getItemCount(),
+					follower.getAppliedSequence(), follower.getLeaderSequence(), follower.getLagNanos() / 1e6,
+					follower.getSnapshotCount());
+		}
+		server.stop();
+		follower.close();
+	}
+	
+
+}
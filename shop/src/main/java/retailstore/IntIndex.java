@@ -0,0 +1,237 @@
+package retailstore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implementation of a primitive int-keyed hash index for the Retail Store.
+ * Maps id numbers to positions (e.g. the position of an item inside the inventory list)
+ * using open addressing with linear probing, so no Integer objects are created per lookup.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class IntIndex {
+
+	/** the value stored in empty slots, values kept in the index must not be negative */
+	public static final int NOT_FOUND = -1;
+
+	/** the smallest number of slots allocated for the index */
+	private static final int MIN_CAPACITY = 16;
+
+	/** the keys of the index, a slot is in use when its value is not NOT_FOUND */
+	private int[] keys;
+
+	/** the values of the index, stored at the same slot as their keys */
+	private int[] values;
+
+	/** the number of keys stored in the index */
+	private int size;
+
+	/**
+	 * Default IntIndex Class Constructor
+	 * Initializes an empty index.
+	 */
+	public IntIndex() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Overloaded IntIndex Class Constructor
+	 * Initializes an empty index sized to hold the expected number of keys without growing.
+	 *
+	 * @param expectedSize the number of keys expected to be stored.
+	 */
+	public IntIndex(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+			capacity <<= 1; //keep the load factor at or below one half
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Restores an index written into a snapshot by writeTo, copying its tables in bulk instead of rehashing the keys.
+	 *
+	 * @param buffer the contents of the snapshot file at the start of the index.
+	 * @return the restored index.
+	 */
+	static IntIndex readFrom(ByteBuffer buffer) {
+		int size = buffer.getInt();
+		int capacity = buffer.getInt();
+		if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1 || size < 0 || size > capacity / 2)
+			throw new IllegalArgumentException("Invalid index of " + size + " keys in " + capacity + " slots");
+
+		IntIndex index = new IntIndex(0);
+		index.keys = SnapshotFile.readInts(buffer, capacity);
+		index.values = SnapshotFile.readInts(buffer, capacity);
+		index.size = size;
+		return index;
+	}
+
+	/**
+	 * Copies the tables of the index, e.g. so they can be written into a snapshot while the index keeps changing.
+	 *
+	 * @return the copy.
+	 */
+	IntIndex copy() {
+		IntIndex index = new IntIndex(0);
+		index.keys = keys.clone();
+		index.values = values.clone();
+		index.size = size;
+		return index;
+	}
+
+	/**
+	 * Writes the tables of the index into a snapshot, so that it can be restored without rehashing the keys.
+	 *
+	 * @param out the stream of the snapshot file.
+	 */
+	void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(size);
+		out.writeInt(keys.length);
+		SnapshotFile.writeInts(out, keys, keys.length);
+		SnapshotFile.writeInts(out, values, values.length);
+	}
+
+	/**
+	 * Returns the value stored for the specified key.
+	 *
+	 * @param key the key to look for.
+	 * @return the value stored for the key (or NOT_FOUND if the key is not in the index).
+	 */
+	public int get(int key) {
+		int[] k = this.keys; //read the tables once so a lookup always probes a single table
+		int[] v = this.values;
+		int mask = k.length - 1;
+
+		if (v.length != k.length)
+			return NOT_FOUND;
+
+		int slot = hash(key) & mask;
+		for (int probes = 0; probes < k.length; probes++) { //bounded, a reader racing a writer must not spin forever
+			int value = v[slot];
+			if (value == NOT_FOUND)
+				return NOT_FOUND; //reached an empty slot, key is not in the index
+			if (k[slot] == key)
+				return value;
+			slot = (slot + 1) & mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Stores the value for the specified key, replacing any value stored before.
+	 *
+	 * @param key the key to store.
+	 * @param value the value to store for the key, cannot be negative.
+	 */
+	public void put(int key, int value) {
+		if (value < 0)
+			throw new IllegalArgumentException("Index values cannot be negative: " + value);
+
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (values[slot] != NOT_FOUND) {
+			if (keys[slot] == key) {
+				values[slot] = value; //key already exists, replace its value
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+
+		if (size * 2 > keys.length)
+			resize(keys.length << 1);
+	}
+
+	/**
+	 * Stores the value for the specified key only if the key is not in the index yet.
+	 *
+	 * @param key the key to store.
+	 * @param value the value to store for the key, cannot be negative.
+	 * @return true if the value was stored, false if the key already existed.
+	 */
+	public boolean putIfAbsent(int key, int value) {
+		if (get(key) != NOT_FOUND)
+			return false;
+
+		put(key, value);
+		return true;
+	}
+
+	/**
+	 * Returns the number of keys stored in the index.
+	 *
+	 * @return the number of keys stored in the index.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all keys from the index.
+	 */
+	public void clear() {
+		allocate(MIN_CAPACITY);
+		size = 0;
+	}
+
+	/**
+	 * Allocates empty tables with the specified number of slots.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 */
+	private void allocate(int capacity) {
+		int[] newValues = new int[capacity];
+		Arrays.fill(newValues, NOT_FOUND);
+		this.values = newValues;
+		this.keys = new int[capacity];
+	}
+
+	/**
+	 * Moves all keys into new tables with the specified number of slots.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		int[] newKeys = new int[capacity];
+		int[] newValues = new int[capacity];
+		Arrays.fill(newValues, NOT_FOUND);
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != NOT_FOUND) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (newValues[slot] != NOT_FOUND) {
+					slot = (slot + 1) & mask;
+				}
+				newKeys[slot] = oldKeys[i];
+				newValues[slot] = oldValues[i];
+			}
+		}
+
+		this.values = newValues;
+		this.keys = newKeys;
+	}
+
+	/**
+	 * Spreads the bits of a key so that sequential id numbers do not cluster in the table.
+	 *
+	 * @param key the key to hash.
+	 * @return the hash of the key.
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,1701 @@
+package retailstore;
+
+/**
+ * Implementation of the Inventory Class for the Retail Store.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 9th, 2020
+ */
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+public class Inventory implements ItemStore {
+	
+	/** the number of locks the items are spread over in concurrent mode, must be a power of two*/
+	private static final int STRIPE_COUNT = 256;
+	
+	/** the number of item positions covered by one chunk of the dirty bitmap, as a power of two*/
+	private static final int DIRTY_CHUNK_BITS = 16;
+	
+	/** the id of the last order submitted when it is not known, e.g. restored from an older snapshot*/
+	public static final int UNKNOWN_ORDER = -1;
+	
+	/** the array list of items belonging to this inventory*/
+	private ArrayList<Item> items;
+	
+	/** the index of item id numbers to their positions inside the items list*/
+	private IntIndex itemIndex;
+	
+	/** the case-insensitive index of item names to their positions inside the items list*/
+	private NameIndex nameIndex;
+	
+	/** the trigram index of item names to their positions, built by the first search by similarity (or null until then)*/
+	private volatile TrigramIndex similarNames;
+	
+	/** the order lines captured so far within this inventory, waiting to be taken into an order*/
+	private final OrderLineQueue orderLines;
+	
+	/** the order lines taken into an order which was not submitted yet, still pending as far as the journal and snapshots are concerned*/
+	private final ArrayList<OrderLine> takenLines = new ArrayList<OrderLine>();
+	
+	/** the id of the last order whose lines were committed, journaled and kept in snapshots with them*/
+	private volatile int lastSubmittedOrder = UNKNOWN_ORDER;
+	
+	/** true if the inventory can be used by several threads at the same time*/
+	private final boolean concurrent;
+	
+	/** the locks guarding item quantities and order flags in concurrent mode, chosen by item id*/
+	private final Object[] stripes;
+	
+	/** the lock guarding the items list and indexes in concurrent mode, only taken exclusively to add new items*/
+	private final StampedLock structureLock;
+	
+	/** the journal every change is appended to (or null if changes are not journaled), set before the inventory is shared*/
+	private Journal journal;
+	
+	/** the bitmap of item positions changed since they were last written back, chunks are added but never replaced*/
+	private volatile AtomicLongArray[] dirtyChunks;
+	
+	/** the items ordered by how far their quantity is above their reorder level */
+	private final LowStockIndex lowStock;
+	
+	/** the version of the inventory, moved on by every snapshot opened, the items changed since are tagged with it*/
+	private final AtomicLong version;
+	
+	/** the versions of the open snapshots, each with the number of snapshots open at it*/
+	private final TreeMap<Long, Integer> openSnapshots;
+	
+	/** the version of the oldest open snapshot (or Long.MAX_VALUE if none), no older state of an item is read*/
+	private volatile long oldestSnapshot = Long.MAX_VALUE;
+	
+	/** the items holding older states for the open snapshots, released when the last one is closed*/
+	private final ConcurrentLinkedQueue<Item> versionedItems;
+	
+	/**
+	 * What a snapshot file holds, taken at a single point while every change is held off
+	 * and written once the changes carry on.
+	 */
+	private static final class SnapshotCut {
+		
+		/** the items as they were */
+		InventorySnapshot items;
+		
+		/** a copy of the item id index */
+		IntIndex itemIndex;
+		
+		/** a copy of the item name index */
+		NameIndex nameIndex;
+		
+		/** the pending order lines, the lines taken into an order which was not submitted yet first */
+		ArrayList<OrderLine> orderLines;
+		
+		/** the id of the last order submitted */
+		int lastSubmittedOrder;
+		
+		/** the journal segment started (or -1 if no journal is attached) */
+		long segment;
+	}
+	
+	/**
+	 * Default Inventory Class Constructor
+	 * Initializes member variables
+	 */
+	public Inventory() {
+		this(new ArrayList<Item>(), false);
+	}
+	
+	/**
+	 * Overloaded Inventory Class Constructor
+	 * Initializes member variables and gets the list of items from argument
+	 * @param items the list of items to be passed into the constructor 
+	 */
+	public Inventory(ArrayList<Item> items) {
+		this(items, false);
+	}
+	
+	/**
+	 * Overloaded Inventory Class Constructor
+	 * Initializes member variables and gets the list of items from argument.
+	 * In concurrent mode, quantity changes are atomic per item (using a lock chosen by item id, so
+	 * sales of different items do not wait for each other) and an order line is generated only once
+	 * per item until the order lines are cleared.
+	 * 
+	 * @param items the list of items to be passed into the constructor 
+	 * @param concurrent true if the inventory will be used by several threads at the same time
+	 */
+	public Inventory(ArrayList<Item> items, boolean concurrent) {
+		this(items, null, null, concurrent);
+	}
+	
+	/**
+	 * Overloaded Inventory Class Constructor
+	 * Initializes member variables from a list of items and, when restoring a snapshot,
+	 * the indexes which were saved with it (otherwise the indexes are built from the list).
+	 * 
+	 * @param items the list of items to be passed into the constructor 
+	 * @param itemIndex the id index of the items list (or null to build it)
+	 * @param nameIndex the name index of the items list (or null to build it)
+	 * @param concurrent true if the inventory will be used by several threads at the same time
+	 */
+	Inventory(ArrayList<Item> items, IntIndex itemIndex, NameIndex nameIndex, boolean concurrent) {
+		this.items = items != null ? items : new ArrayList<Item>(); //items file could not be read, start empty
+		boolean restored = itemIndex != null && nameIndex != null;
+		this.itemIndex = restored ? itemIndex : new IntIndex(this.items.size());
+		this.nameIndex = restored ? nameIndex : new NameIndex(this.items.size());
+		this.orderLines = new OrderLineQueue();
+		this.lowStock = new LowStockIndex(concurrent);
+		this.version = new AtomicLong();
+		this.openSnapshots = new TreeMap<Long, Integer>();
+		this.versionedItems = new ConcurrentLinkedQueue<Item>();
+		this.concurrent = concurrent;
+		this.stripes = concurrent ? new Object[STRIPE_COUNT] : null;
+		this.structureLock = concurrent ? new StampedLock() : null;
+		this.dirtyChunks = new AtomicLongArray[(this.items.size() >>> DIRTY_CHUNK_BITS) + 1];
+		for (int i = 0; i < this.dirtyChunks.length; i++) {
+			this.dirtyChunks[i] = new AtomicLongArray(1 << (DIRTY_CHUNK_BITS - 6));
+		}
+		
+		for (int i = 0; concurrent && i < STRIPE_COUNT; i++) {
+			this.stripes[i] = new Object();
+		}
+		
+		for (int i = 0; !restored && i < this.items.size(); i++) {
+			//only the first item with a given id is indexed, same as a search over the list would find
+			this.itemIndex.putIfAbsent(this.items.get(i).getId(), i);
+			this.nameIndex.add(this.items.get(i).getName(), i);
+		}
+		
+		for (int i = 0; i < this.items.size(); i++) {
+			if (this.itemIndex.get(this.items.get(i).getId()) == i)
+				this.lowStock.update(this.items.get(i)); //an item shadowed by an earlier one with its id never changes
+		}
+	}
+	
+	/**
+	 * Searches and returns the item in the inventory by its name
+	 * 
+	 * @param itemName the name of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	@Override
+	public Item searchItem(String itemName) {
+		long sample = ShopStats.SEARCH_BY_NAME.begin();
+		Item foundItem = this.findItem(itemName);
+		ShopStats.SEARCH_BY_NAME.end(sample);
+		return foundItem;
+	}
+	
+	/**
+	 * Looks up the item by its name, without counting it in the statistics.
+	 * 
+	 * @param itemName the name of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	private Item findItem(String itemName) {
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			int position = nameIndex.get(itemName);
+			if (position != NameIndex.NOT_FOUND)
+				return items.get(position); //matching name found in the index, return the item at that position.
+			
+			return null; //item not found, return null
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Searches and returns the items in the inventory whose names start with the specified text, ignoring case.
+	 * Items are returned in alphabetical order of their names.
+	 * 
+	 * @param prefix the start of the item names to look for
+	 * @param limit the maximum number of items to return
+	 * @return the list of items found (empty if no item was found)
+	 */
+	public ArrayList<Item> searchItemsByPrefix(String prefix, int limit) {
+		long sample = ShopStats.SEARCH_BY_PREFIX.begin();
+		ArrayList<Item> found = this.findItemsByPrefix(prefix, limit);
+		ShopStats.SEARCH_BY_PREFIX.end(sample);
+		return found;
+	}
+	
+	/**
+	 * Looks up the items whose names start with the specified text, without counting it in the statistics.
+	 * 
+	 * @param prefix the start of the item names to look for
+	 * @param limit the maximum number of items to return
+	 * @return the list of items found (empty if no item was found)
+	 */
+	private ArrayList<Item> findItemsByPrefix(String prefix, int limit) {
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			int[] positions;
+			synchronized (nameIndex) { //the first prefix search after new items were added sorts the index
+				positions = nameIndex.findPrefix(prefix, limit);
+			}
+			
+			ArrayList<Item> found = new ArrayList<Item>(positions.length);
+			for (int position : positions) {
+				found.add(items.get(position));
+			}
+			return found;
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Searches and returns the items in the inventory whose names are most similar to the specified
+	 * text, ignoring case, e.g. to find an item whose name was misspelled. Items are ranked by the
+	 * share of the trigrams (runs of three characters) of their names found in the text, most similar first.
+	 * 
+	 * @param name the name of the item to look for, possibly misspelled
+	 * @param limit the maximum number of items to return
+	 * @return the list of items found, most similar first (empty if no name was similar enough)
+	 */
+	public ArrayList<Item> searchItemsBySimilarity(String name, int limit) {
+		long sample = ShopStats.SEARCH_BY_SIMILARITY.begin();
+		ArrayList<Item> found = this.findItemsBySimilarity(name, limit);
+		ShopStats.SEARCH_BY_SIMILARITY.end(sample);
+		return found;
+	}
+	
+	/**
+	 * Looks up the items whose names are most similar to the specified text, without counting it in the statistics.
+	 * 
+	 * @param name the name of the item to look for
+	 * @param limit the maximum number of items to return
+	 * @return the list of items found, most similar first (empty if no name was similar enough)
+	 */
+	private ArrayList<Item> findItemsBySimilarity(String name, int limit) {
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			int[] positions = this.similarNames().findSimilar(name, limit);
+			
+			ArrayList<Item> found = new ArrayList<Item>(positions.length);
+			for (int position : positions) {
+				found.add(items.get(position));
+			}
+			return found;
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns the trigram index of the item names, building it on first use so that an inventory
+	 * never searched by similarity does not pay for it. Called while new items are held off in concurrent mode.
+	 * 
+	 * @return the trigram index of the item names.
+	 */
+	private TrigramIndex similarNames() {
+		TrigramIndex index = similarNames;
+		if (index != null)
+			return index;
+		
+		synchronized (this) { //readers share the lock holding off new items, only one of them builds the index
+			if (similarNames == null) {
+				index = new TrigramIndex(items.size());
+				for (int i = 0; i < items.size(); i++) {
+					index.add(items.get(i).getName(), i);
+				}
+				similarNames = index;
+			}
+			return similarNames;
+		}
+	}
+	
+	/**
+	 * Searches and returns the item in the inventory by its id number
+	 * 
+	 * @param itemId the id number of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	@Override
+	public Item searchItem(int itemId) {
+		long sample = ShopStats.SEARCH_BY_ID.begin();
+		Item foundItem = this.findItem(itemId);
+		ShopStats.SEARCH_BY_ID.end(sample);
+		return foundItem;
+	}
+	
+	/**
+	 * Looks up the item by its id number, without counting it in the statistics.
+	 * Used by the other operations, which are counted on their own.
+	 * 
+	 * @param itemId the id number of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	private Item findItem(int itemId) {
+		if (!concurrent)
+			return indexedItem(itemId);
+		
+		//optimistic read, only falls back to the read lock if a new item was added meanwhile
+		long stamp = structureLock.tryOptimisticRead();
+		if (stamp != 0L) {
+			try {
+				Item foundItem = indexedItem(itemId);
+				if (structureLock.validate(stamp))
+					return foundItem;
+			} catch (RuntimeException e) {
+				//the list or index was being grown while reading it, read again under the lock
+			}
+		}
+		
+		stamp = structureLock.readLock();
+		try {
+			return indexedItem(itemId);
+		} finally {
+			structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Looks up the item by its id number in the index.
+	 * 
+	 * @param itemId the id number of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	private Item indexedItem(int itemId) {
+		int position = itemIndex.get(itemId);
+		if (position != IntIndex.NOT_FOUND)
+			return items.get(position); //matching id found in the index, return the item at that position.
+		
+		return null; //item not found, return null
+	}
+	
+	/**
+	 * Returns the lock guarding the quantity and order flag of an item in concurrent mode.
+	 * 
+	 * @param itemId the id number of the item.
+	 * @return the lock object for the item.
+	 */
+	private Object stripe(int itemId) {
+		int h = itemId * 0x9E3779B9;
+		return stripes[(h ^ (h >>> 16)) & (STRIPE_COUNT - 1)];
+	}
+	
+	/**
+	 * Searches the inventory for an item by its id number and returns the quantity of the item.
+	 * If not found or item quantity was 0, returns 0.
+	 * 
+	 * @param itemId id number of the item to search for.
+	 * @return the quantity of the item found (or 0 if not found).
+	 */
+	@Override
+	public int checkQty(int itemId) {
+		long sample = ShopStats.CHECK_QTY.begin();
+		int qty = this.findQty(itemId);
+		ShopStats.CHECK_QTY.end(sample);
+		return qty;
+	}
+	
+	/**
+	 * Looks up the quantity of an item, without counting it in the statistics.
+	 * 
+	 * @param itemId id number of the item to search for.
+	 * @return the quantity of the item found (or 0 if not found).
+	 */
+	private int findQty(int itemId) {
+		Item foundItem = this.findItem(itemId);
+		
+		if (foundItem != null) {
+			if (!concurrent)
+				return foundItem.getQty();
+			
+			synchronized (stripe(itemId)) {
+				return foundItem.getQty();
+			}
+		}
+		
+		return 0;
+	}
+	
+	/**
+	 * Searches the inventory and adds an item to it if no item with specified parameters found.
+	 * If item already exists, then increases the item's quantity only (other args are ignored).
+	 * 
+	 * @param itemId id number of the item to add.
+	 * @param itemName name of the item to add.
+	 * @param itemQty quantity of the item to add (for existing items, this is used to increase the actual quantity by).
+	 * @param itemPrice price of the item to add.
+	 * @param itemSupId supplier id number of the item to add.
+	 */
+	@Override
+	public void addItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		long sample = ShopStats.ADD_ITEM.begin();
+		this.addOrIncreaseItem(itemId, itemName, itemQty, itemPrice, itemSupId);
+		ShopStats.ADD_ITEM.end(sample);
+	}
+	
+	/**
+	 * Adds an item or increases its quantity, without counting it in the statistics.
+	 * 
+	 * @param itemId id number of the item to add.
+	 * @param itemName name of the item to add.
+	 * @param itemQty quantity of the item to add (or to increase an existing item by).
+	 * @param itemPrice price of the item to add.
+	 * @param itemSupId supplier id number of the item to add.
+	 */
+	private void addOrIncreaseItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		Item foundItem = this.findItem(itemId);
+		
+		if (foundItem == null) {
+			//item id does not exist, therefore add it as a new item
+			Item item = new Item();
+			item.setId(itemId);
+			item.setName(itemName);
+			item.setQty(itemQty);
+			item.setPrice(itemPrice);
+			item.setSupplierId(itemSupId);
+			
+			if (!concurrent) {
+				this.appendItem(item);
+				if (journal != null)
+					journal.sync(journal.appendNewItem(item));
+				return;
+			}
+			
+			long journaled = 0;
+			long stamp = structureLock.writeLock();
+			try {
+				foundItem = this.indexedItem(itemId); //another thread may have added the same id meanwhile
+				if (foundItem == null) {
+					this.appendItem(item);
+					if (journal != null)
+						journaled = journal.appendNewItem(item);
+				}
+			} finally {
+				structureLock.unlockWrite(stamp);
+			}
+			
+			if (foundItem == null) {
+				if (journaled > 0)
+					journal.sync(journaled); //wait for the disk after the lock is released
+				return;
+			}
+		}
+		
+		// item id already exists, therefore only add the quantity on top of the existing.
+		// the other parameters will be ignored.
+		long journaled = 0;
+		if (!concurrent) {
+			this.beginChange(foundItem);
+			foundItem.setQty(foundItem.getQty() + itemQty);
+			this.lowStock.update(foundItem);
+			if (journal != null)
+				journaled = journal.appendStock(itemId, foundItem.getQty(), null);
+		} else {
+			synchronized (stripe(itemId)) {
+				this.beginChange(foundItem);
+				foundItem.setQty(foundItem.getQty() + itemQty);
+				this.lowStock.update(foundItem);
+				if (journal != null)
+					journaled = journal.appendStock(itemId, foundItem.getQty(), null);
+			}
+		}
+		
+		this.markDirty(itemId);
+		if (journaled > 0)
+			journal.sync(journaled);
+	}
+	
+	/**
+	 * Adds a new item at the end of the items list and indexes it.
+	 * 
+	 * @param item the item to add.
+	 */
+	private void appendItem(Item item) {
+		int position = this.items.size();
+		if ((position >>> DIRTY_CHUNK_BITS) >= this.dirtyChunks.length) {
+			//chunks already in use are kept, so a bit set in one of them while growing is not lost
+			AtomicLongArray[] grown = Arrays.copyOf(this.dirtyChunks, this.dirtyChunks.length + 1);
+			grown[grown.length - 1] = new AtomicLongArray(1 << (DIRTY_CHUNK_BITS - 6));
+			this.dirtyChunks = grown;
+		}
+		
+		item.version = this.version.get(); //under the exclusive lock, so a snapshot sees the item exactly if it counts it
+		this.itemIndex.put(item.getId(), position);
+		this.nameIndex.add(item.getName(), position);
+		if (this.similarNames != null)
+			this.similarNames.add(item.getName(), position); //once built, kept up to date by every new item
+		this.items.add(item);
+		this.lowStock.update(item);
+		this.markDirtyAt(position);
+	}
+	
+	/**
+	 * Marks the item with the specified id as changed since it was last written back.
+	 * Lock-free, a bit already set is only read.
+	 * 
+	 * @param itemId the id number of the item.
+	 */
+	private void markDirty(int itemId) {
+		int position = itemIndex.get(itemId);
+		if (position == IntIndex.NOT_FOUND && concurrent) {
+			//items are never removed, so the index was being grown by a new item meanwhile, read it again
+			long stamp = structureLock.readLock();
+			try {
+				position = itemIndex.get(itemId);
+			} finally {
+				structureLock.unlockRead(stamp);
+			}
+		}
+		
+		if (position != IntIndex.NOT_FOUND)
+			this.markDirtyAt(position);
+	}
+	
+	/**
+	 * Marks the item at the specified position as changed since it was last written back.
+	 * 
+	 * @param position the position of the item inside the items list.
+	 */
+	private void markDirtyAt(int position) {
+		AtomicLongArray chunk = this.dirtyChunks[position >>> DIRTY_CHUNK_BITS];
+		int word = (position & ((1 << DIRTY_CHUNK_BITS) - 1)) >>> 6;
+		long bit = 1L << position;
+		
+		long current = chunk.get(word);
+		while ((current & bit) == 0 && !chunk.compareAndSet(word, current, current | bit)) {
+			current = chunk.get(word);
+		}
+	}
+	
+	/**
+	 * Takes the items changed since they were last written back and clears their marks.
+	 * Returns copies, so the caller can write them out without holding any lock of the inventory.
+	 * An item changed again while or after it is copied is marked again for the next call.
+	 * 
+	 * @return copies of the changed items, in the order of the items list.
+	 */
+	public ArrayList<Item> takeDirtyItems() {
+		ArrayList<Item> changed = new ArrayList<Item>();
+		
+		//the shared lock only holds off new items while the list is read, sales are not waited for
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			AtomicLongArray[] chunks = this.dirtyChunks;
+			for (int c = 0; c < chunks.length; c++) {
+				for (int w = 0; w < chunks[c].length(); w++) {
+					if (chunks[c].get(w) == 0)
+						continue;
+					
+					long bits = chunks[c].getAndSet(w, 0);
+					while (bits != 0) {
+						int position = (c << DIRTY_CHUNK_BITS) + (w << 6) + Long.numberOfTrailingZeros(bits);
+						bits &= bits - 1;
+						changed.add(this.copyItem(items.get(position)));
+					}
+				}
+			}
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+		return changed;
+	}
+	
+	/**
+	 * Marks items as changed again, e.g. when writing them back failed.
+	 * 
+	 * @param changed the items taken by takeDirtyItems.
+	 */
+	public void restoreDirtyItems(ArrayList<Item> changed) {
+		for (Item item : changed) {
+			this.markDirty(item.getId());
+		}
+	}
+	
+	/**
+	 * Copies the fields of an item, in concurrent mode under the lock of the item.
+	 * 
+	 * @param item the item to copy.
+	 * @return the copy.
+	 */
+	private Item copyItem(Item item) {
+		Item copy = new Item();
+		copy.setId(item.getId());
+		copy.setName(item.getName());
+		copy.setPrice(item.getPrice());
+		copy.setSupplierId(item.getSupplierId());
+		
+		if (!concurrent) {
+			copy.setQty(item.getQty());
+		} else {
+			synchronized (stripe(item.getId())) {
+				copy.setQty(item.getQty());
+			}
+		}
+		return copy;
+	}
+	
+	/**
+	 * Reduces quantity of the specified item from the inventory.
+	 * If item reduction results an order line, then captures it into
+	 * the order lines array of the inventory.
+	 * 
+	 * @param itemId id number of the item to reduce.
+	 * @param itemQty quantity to reduce from the item.
+	 */
+	@Override
+	public void removeItem(int itemId, int itemQty) {
+		long sample = ShopStats.REMOVE_ITEM.begin();
+		Item foundItem = this.findItem(itemId);
+		OrderLine ol = null;
+		long journaled = 0;
+		if (foundItem != null) {
+			if (!concurrent) {
+				this.beginChange(foundItem);
+				ol = foundItem.reduceQty(itemQty); //reduce item quantity and check if results an order line.
+				this.lowStock.update(foundItem);
+				if (journal != null)
+					journaled = journal.appendStock(itemId, foundItem.getQty(), ol);
+				
+				if (ol != null) {
+					this.orderLines.push(ol); //there is an order line active for this item so register it into the queue.
+				}
+			} else {
+				synchronized (stripe(itemId)) { //the check and set of the order flag happen under the same lock
+					this.beginChange(foundItem);
+					ol = foundItem.reduceQty(itemQty);
+					this.lowStock.update(foundItem);
+					if (journal != null)
+						journaled = journal.appendStock(itemId, foundItem.getQty(), ol); //journaled before the line can be taken
+					if (ol != null)
+						this.orderLines.push(ol); //pushed under the lock, so a snapshot never sees the flag without the line
+				}
+			}
+			this.markDirty(itemId);
+			if (ol != null)
+				ShopStats.REORDER_LINES.count(1);
+		}
+		
+		if (journaled > 0)
+			journal.sync(journaled); //wait for the disk after the lock is released, waiting threads share one write
+		ShopStats.REMOVE_ITEM.end(sample);
+	}
+	
+	/**
+	 * Reduces quantities of several items at once, e.g. all lines of a basket posted by a till.
+	 * All items of the batch are resolved first (in concurrent mode under a single optimistic read),
+	 * so the index and item lookups of different lines overlap instead of waiting on each other,
+	 * then the lines are applied in the order given, each following the rules of removeItem.
+	 * Order lines raised are captured into the inventory as well as returned.
+	 * 
+	 * @param itemIds id numbers of the items to reduce.
+	 * @param itemQtys quantities to reduce, at the same index as their item ids.
+	 * @return array of order lines raised by the reductions (empty if none).
+	 */
+	public ArrayList<OrderLine> removeItems(int[] itemIds, int[] itemQtys) {
+		long sample = ShopStats.REMOVE_ITEMS.begin();
+		int[] positions = new int[itemIds.length];
+		Item[] found = this.searchItems(itemIds, itemQtys, positions);
+		ArrayList<OrderLine> raised = new ArrayList<OrderLine>();
+		long journaled = 0;
+		
+		for (int i = 0; i < found.length; i++) {
+			if (found[i] == null)
+				continue;
+			
+			OrderLine ol;
+			if (!concurrent) {
+				this.beginChange(found[i]);
+				ol = found[i].reduceQty(itemQtys[i]);
+				this.lowStock.update(found[i]);
+				if (journal != null)
+					journaled = journal.appendStock(itemIds[i], found[i].getQty(), ol);
+				if (ol != null)
+					this.orderLines.push(ol);
+			} else {
+				synchronized (stripe(itemIds[i])) {
+					this.beginChange(found[i]);
+					ol = found[i].reduceQty(itemQtys[i]);
+					this.lowStock.update(found[i]);
+					if (journal != null)
+						journaled = journal.appendStock(itemIds[i], found[i].getQty(), ol);
+					if (ol != null)
+						this.orderLines.push(ol);
+				}
+			}
+			
+			if (ol != null)
+				raised.add(ol);
+			this.markDirtyAt(positions[i]); //resolved with the item, the index is not probed again
+		}
+		
+		if (journaled > 0)
+			journal.sync(journaled); //the whole batch waits for the disk once
+		if (!raised.isEmpty())
+			ShopStats.REORDER_LINES.count(raised.size());
+		ShopStats.REMOVE_ITEMS.end(sample);
+		return raised;
+	}
+	
+	/**
+	 * Increases quantities of several existing items at once, e.g. a pallet received from a supplier.
+	 * All items of the batch are resolved first, then the quantities are added in the order given.
+	 * Ids which are not in the inventory are ignored, new items must be added with addItem.
+	 * 
+	 * @param itemIds id numbers of the items to increase.
+	 * @param itemQtys quantities to add, at the same index as their item ids.
+	 */
+	public void addItems(int[] itemIds, int[] itemQtys) {
+		long sample = ShopStats.ADD_ITEMS.begin();
+		int[] positions = new int[itemIds.length];
+		Item[] found = this.searchItems(itemIds, itemQtys, positions);
+		long journaled = 0;
+		
+		for (int i = 0; i < found.length; i++) {
+			if (found[i] == null)
+				continue;
+			
+			if (!concurrent) {
+				this.beginChange(found[i]);
+				found[i].setQty(found[i].getQty() + itemQtys[i]);
+				this.lowStock.update(found[i]);
+				if (journal != null)
+					journaled = journal.appendStock(itemIds[i], found[i].getQty(), null);
+			} else {
+				synchronized (stripe(itemIds[i])) {
+					this.beginChange(found[i]);
+					found[i].setQty(found[i].getQty() + itemQtys[i]);
+					this.lowStock.update(found[i]);
+					if (journal != null)
+						journaled = journal.appendStock(itemIds[i], found[i].getQty(), null);
+				}
+			}
+			this.markDirtyAt(positions[i]);
+		}
+		
+		if (journaled > 0)
+			journal.sync(journaled);
+		ShopStats.ADD_ITEMS.end(sample);
+	}
+	
+	/**
+	 * Sets the reorder level and target of an item. If the quantity of the item is already below
+	 * the new level, an order line is raised for it at once, as a sale would have done.
+	 * 
+	 * @param itemId id number of the item.
+	 * @param level quantity below which an order line is raised for the item, not negative.
+	 * @param target quantity the item is ordered up to, at least the level.
+	 * @return true if the item was found, false otherwise.
+	 * @throws IllegalArgumentException if the level is negative or above the target.
+	 */
+	public boolean setReorderLevels(int itemId, int level, int target) {
+		if (level < 0 || target < level)
+			throw new IllegalArgumentException("Reorder level " + level + " must not be negative or above the target " + target + ".");
+		
+		Item foundItem = this.findItem(itemId);
+		if (foundItem == null)
+			return false;
+		
+		OrderLine ol;
+		long journaled = 0;
+		if (!concurrent) {
+			ol = this.applyReorderLevels(foundItem, level, target);
+			if (journal != null)
+				journaled = this.journalReorderLevels(foundItem, ol);
+			if (ol != null)
+				this.orderLines.push(ol);
+		} else {
+			synchronized (stripe(itemId)) {
+				ol = this.applyReorderLevels(foundItem, level, target);
+				if (journal != null)
+					journaled = this.journalReorderLevels(foundItem, ol);
+				if (ol != null)
+					this.orderLines.push(ol);
+			}
+		}
+		
+		this.markDirty(itemId);
+		if (ol != null)
+			ShopStats.REORDER_LINES.count(1);
+		if (journaled > 0)
+			journal.sync(journaled);
+		return true;
+	}
+	
+	/**
+	 * Sets the reorder level and target of all items of a supplier, one item at a time.
+	 * 
+	 * @param supplierId supplier id number of the items.
+	 * @param level quantity below which an order line is raised for an item, not negative.
+	 * @param target quantity an item is ordered up to, at least the level.
+	 * @return the number of items changed.
+	 * @throws IllegalArgumentException if the level is negative or above the target.
+	 */
+	public int setSupplierReorderLevels(int supplierId, int level, int target) {
+		if (level < 0 || target < level)
+			throw new IllegalArgumentException("Reorder level " + level + " must not be negative or above the target " + target + ".");
+		
+		ArrayList<Integer> itemIds = new ArrayList<Integer>();
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			for (int i = 0; i < items.size(); i++) {
+				Item item = items.get(i);
+				if (item.getSupplierId() == supplierId && itemIndex.get(item.getId()) == i)
+					itemIds.add(item.getId());
+			}
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+		
+		for (int itemId : itemIds) {
+			this.setReorderLevels(itemId, level, target); //not under the shared lock, an order line may wait for the disk
+		}
+		return itemIds.size();
+	}
+	
+	/**
+	 * Sets the reorder levels of an item, moves it in the low-stock index and checks whether it needs an order line.
+	 * Called while the item is locked in concurrent mode.
+	 * 
+	 * @param item the item.
+	 * @param level the reorder level.
+	 * @param target the reorder target.
+	 * @return the order line raised by the new level (or null).
+	 */
+	private OrderLine applyReorderLevels(Item item, int level, int target) {
+		this.beginChange(item);
+		item.setReorderLevels(level, target);
+		this.lowStock.update(item);
+		return item.reduceQty(0);
+	}
+	
+	/**
+	 * Appends new reorder levels of an item to the journal, followed by the order line they raised.
+	 * 
+	 * @param item the item.
+	 * @param ol the order line raised (or null).
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	private long journalReorderLevels(Item item, OrderLine ol) {
+		long journaled = journal.appendReorderLevels(item.getId(), item.getReorderLevel(), item.getReorderTarget());
+		if (ol != null)
+			journaled = journal.appendStock(item.getId(), item.getQty(), ol);
+		return journaled;
+	}
+	
+	/**
+	 * Returns the items whose quantity is below their reorder level, furthest below first.
+	 * Only these items are read, however large the inventory.
+	 * 
+	 * @return the items below their reorder level (empty if none).
+	 */
+	public ArrayList<Item> getItemsBelowReorderLevel() {
+		return lowStock.belowLevel();
+	}
+	
+	/**
+	 * Returns the items closest to running out, by how far their quantity is above their reorder level:
+	 * items below their level first, furthest below first. Only these items and those as far above
+	 * their level as the last of them are read, however large the inventory.
+	 * 
+	 * @param count the number of items to return.
+	 * @return at most count items, closest to running out first.
+	 */
+	public ArrayList<Item> getItemsClosestToStockOut(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Count must not be negative.");
+		return lowStock.closest(count);
+	}
+	
+	/**
+	 * Returns the number of items whose quantity is below their reorder level.
+	 * 
+	 * @return the number of items below their reorder level.
+	 */
+	public int getBelowReorderLevelCount() {
+		return lowStock.countBelowLevel();
+	}
+	
+	/**
+	 * Resolves the items of a batch, in concurrent mode under a single optimistic read.
+	 * 
+	 * @param itemIds id numbers of the items in the batch.
+	 * @param itemQtys quantities of the batch, at the same index as their item ids.
+	 * @param positions the array receiving the position of the item of each line inside the items list.
+	 * @return the item of each line (or null for ids not found).
+	 */
+	private Item[] searchItems(int[] itemIds, int[] itemQtys, int[] positions) {
+		if (itemIds.length != itemQtys.length)
+			throw new IllegalArgumentException("Every item id needs a quantity: " + itemIds.length + " ids, " + itemQtys.length + " quantities.");
+		
+		Item[] found = new Item[itemIds.length];
+		if (!concurrent) {
+			indexedItems(itemIds, positions, found);
+			return found;
+		}
+		
+		long stamp = structureLock.tryOptimisticRead();
+		if (stamp != 0L) {
+			try {
+				indexedItems(itemIds, positions, found);
+				if (structureLock.validate(stamp))
+					return found;
+			} catch (RuntimeException e) {
+				//the list or index was being grown while reading it, read again under the lock
+			}
+		}
+		
+		stamp = structureLock.readLock();
+		try {
+			indexedItems(itemIds, positions, found);
+		} finally {
+			structureLock.unlockRead(stamp);
+		}
+		return found;
+	}
+	
+	/**
+	 * Looks up the items of a batch in the index. The index is probed for every line first and
+	 * the items list read afterwards, so the memory accesses of different lines are independent.
+	 * 
+	 * @param itemIds id numbers of the items in the batch.
+	 * @param positions the array receiving the position of the item of each line (or NOT_FOUND).
+	 * @param found the array receiving the item of each line.
+	 */
+	private void indexedItems(int[] itemIds, int[] positions, Item[] found) {
+		for (int i = 0; i < itemIds.length; i++) {
+			positions[i] = itemIndex.get(itemIds[i]);
+		}
+		for (int i = 0; i < itemIds.length; i++) {
+			found[i] = positions[i] != IntIndex.NOT_FOUND ? items.get(positions[i]) : null;
+		}
+	}
+	
+	/**
+	 * Returns the order lines saved so far to the inventory, without taking them.
+	 * 
+	 * @return array of order lines captured so far inside inventory, oldest first.
+	 */
+	@Override
+	public ArrayList<OrderLine> getOrderLines() {
+		return orderLines.peekAll();
+	}
+	
+	/**
+	 * Takes all order lines saved so far from the inventory in one atomic step.
+	 * Also clears the order active flags of the items those lines were raised for, so that
+	 * they can raise a new line. Lines raised by other threads during the call are either
+	 * taken by it or left for the next call, never lost or taken twice.
+	 * The lines are journaled as taken at once, they are gone for good.
+	 * 
+	 * @return array of order lines taken from the inventory, oldest first.
+	 */
+	@Override
+	public ArrayList<OrderLine> drainOrderLines() {
+		return this.drainOrderLines(false);
+	}
+	
+	/**
+	 * Takes all order lines saved so far from the inventory into an order, as drainOrderLines does.
+	 * The order only lives on the heap, so the lines are not journaled as taken until commitOrderLines
+	 * is called with them, e.g. once the order is submitted. Until then snapshots hold them as pending
+	 * and a recovery puts them back, instead of losing them.
+	 * 
+	 * @return array of order lines taken from the inventory, oldest first.
+	 */
+	@Override
+	public ArrayList<OrderLine> takeOrderLines() {
+		return this.drainOrderLines(true);
+	}
+	
+	/**
+	 * Journals order lines taken by takeOrderLines as gone for good, once their order was submitted,
+	 * together with the id of the order. The order must be in the order history first: if the shop
+	 * stops before the record is on the disk, resumeOrderHistory takes the lines of the order again.
+	 * 
+	 * @param orderId the id number of the order submitted.
+	 * @param lines the order lines taken.
+	 */
+	@Override
+	public void commitOrderLines(int orderId, ArrayList<OrderLine> lines) {
+		Set<OrderLine> committed = Collections.newSetFromMap(new IdentityHashMap<OrderLine, Boolean>(lines.size() * 2));
+		committed.addAll(lines);
+		long journaled = 0;
+		
+		//a snapshot holds the lines as pending or the journal segments before it hold them as taken, not both
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			synchronized (takenLines) {
+				takenLines.removeIf(committed::contains);
+			}
+			lastSubmittedOrder = orderId;
+			if (journal != null)
+				journaled = journal.appendSubmit(orderId, lines);
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+		
+		if (journaled > 0)
+			journal.sync(journaled);
+	}
+	
+	/**
+	 * Returns the id of the last order whose lines were committed.
+	 * 
+	 * @return the id of the order (or UNKNOWN_ORDER if none was committed since the journal or snapshot
+	 * the inventory was restored from).
+	 */
+	public int getLastSubmittedOrder() {
+		return lastSubmittedOrder;
+	}
+	
+	/**
+	 * Sets the id of the last order whose lines were committed, e.g. read from a snapshot.
+	 * 
+	 * @param orderId the id of the order (or UNKNOWN_ORDER).
+	 */
+	void setLastSubmittedOrder(int orderId) {
+		this.lastSubmittedOrder = orderId;
+	}
+	
+	/**
+	 * Brings the inventory in line with the order history it is used with, when the shop starts.
+	 * An order added to the history whose lines were not committed, because the shop stopped in
+	 * between, has its lines taken out of the pending ones and committed now, so they are not
+	 * ordered twice. If the last order committed is not known, e.g. the inventory was restored from
+	 * an older snapshot, the last order of the history is taken as committed from now on.
+	 * Takes the lines the way a replay does, so it is called before the inventory is shared.
+	 * 
+	 * @param lastOrder the newest order of the history (or null if the history is empty).
+	 */
+	public void resumeOrderHistory(Order lastOrder) {
+		int lastOrderId = lastOrder != null ? lastOrder.getId() : 0;
+		if (lastSubmittedOrder == UNKNOWN_ORDER) {
+			this.commitOrderLines(lastOrderId, new ArrayList<OrderLine>());
+		} else if (lastOrderId > lastSubmittedOrder) {
+			ArrayList<OrderLine> lines = lastOrder.getOrderLines();
+			int[] itemIds = new int[lines.size()];
+			for (int i = 0; i < itemIds.length; i++) {
+				itemIds[i] = lines.get(i).getId();
+			}
+			this.replayDrain(itemIds);
+			this.commitOrderLines(lastOrderId, lines);
+		}
+	}
+	
+	/**
+	 * Takes all order lines saved so far from the inventory and clears the order flags of their items.
+	 * 
+	 * @param held true to hold the lines as taken until they are committed, false to journal them as taken at once.
+	 * @return array of order lines taken from the inventory, oldest first.
+	 */
+	private ArrayList<OrderLine> drainOrderLines(boolean held) {
+		long sample = ShopStats.DRAIN_ORDER_LINES.begin();
+		ArrayList<OrderLine> drained;
+		long journaled = 0;
+		
+		//a snapshot cannot be taken between the lines being taken and their flags being cleared
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			drained = orderLines.drain();
+			if (held) {
+				synchronized (takenLines) {
+					takenLines.addAll(drained);
+				}
+			} else if (journal != null && !drained.isEmpty()) {
+				journaled = journal.appendDrain(drained);
+			}
+			
+			//only the items whose lines were taken start a new cycle, an item which raised a line
+			//after the drain keeps its flag so that it does not raise a second one
+			for (OrderLine ol : drained) {
+				Item item = this.indexedItem(ol.getId());
+				if (item == null)
+					continue;
+				
+				if (!concurrent) {
+					this.beginChange(item);
+					item.clearOrderFlag();
+				} else {
+					synchronized (stripe(ol.getId())) {
+						this.beginChange(item);
+						item.clearOrderFlag();
+					}
+				}
+			}
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+		
+		if (journaled > 0)
+			journal.sync(journaled);
+		ShopStats.DRAIN_ORDER_LINES.end(sample);
+		return drained;
+	}
+	
+	/**
+	 * Puts order lines back into the inventory as pending, e.g. the lines of a restored snapshot.
+	 * The order active flags of their items are set, a line taken into an order which was not
+	 * submitted when the snapshot was saved is pending again.
+	 * The unit prices of the lines are taken from their items, snapshots do not hold them.
+	 * 
+	 * @param lines the order lines to add, oldest first.
+	 */
+	public void restoreOrderLines(ArrayList<OrderLine> lines) {
+		for (OrderLine ol : lines) {
+			Item item = this.indexedItem(ol.getId());
+			if (item != null) {
+				if (!concurrent) {
+					this.beginChange(item);
+					item.setOrderFlag();
+				} else {
+					synchronized (stripe(ol.getId())) {
+						this.beginChange(item);
+						item.setOrderFlag();
+					}
+				}
+				ol.setPrice(item.getPrice());
+			}
+			this.orderLines.push(ol);
+		}
+	}
+	
+	/**
+	 * Attaches a journal to the inventory, every following change is appended to it.
+	 * Must be called before the inventory is used by several threads.
+	 * 
+	 * @param journal the journal to append changes to (or null to stop journaling).
+	 */
+	public void setJournal(Journal journal) {
+		this.journal = journal;
+	}
+	
+	/**
+	 * Returns the journal changes of the inventory are appended to.
+	 * 
+	 * @return the journal of the inventory (or null if changes are not journaled).
+	 */
+	public Journal getJournal() {
+		return journal;
+	}
+	
+	/**
+	 * Writes the items and the pending order lines of the inventory into a snapshot file.
+	 * In concurrent mode every lock is held only while the snapshot is cut: an inventory snapshot
+	 * is opened, the indexes and pending lines are copied and, if a journal is attached, a new
+	 * segment of it is started at the same point, so the snapshot contains exactly the segments
+	 * before the new one and the order flags of the items match the pending lines. The records are
+	 * written after the locks are released, the items read through the inventory snapshot, so sales
+	 * carry on while the file is written.
+	 * 
+	 * @param out the stream of the snapshot file.
+	 * @return the number of the journal segment started (or -1 if no journal is attached).
+	 */
+	long writeSnapshot(DataOutputStream out) throws IOException {
+		SnapshotCut cut;
+		if (!concurrent) {
+			cut = this.cutSnapshot();
+		} else {
+			long stamp = structureLock.writeLock();
+			try {
+				cut = this.cutSnapshotHolding(0);
+			} finally {
+				structureLock.unlockWrite(stamp);
+			}
+		}
+		
+		try (InventorySnapshot snapshot = cut.items) {
+			snapshot.writeItems(out);
+			cut.itemIndex.writeTo(out);
+			cut.nameIndex.writeTo(out);
+			out.writeInt(cut.orderLines.size());
+			for (OrderLine ol : cut.orderLines) {
+				SnapshotFile.writeOrderLine(out, ol);
+			}
+			out.writeInt(cut.lastSubmittedOrder);
+			return cut.segment;
+		}
+	}
+	
+	/**
+	 * Takes the item locks from the specified one upwards, then cuts the snapshot.
+	 * Locks are always taken in the same order and no other method holds two of them, so this cannot deadlock.
+	 * 
+	 * @param stripe the first lock to take.
+	 * @return the snapshot cut.
+	 */
+	private SnapshotCut cutSnapshotHolding(int stripe) throws IOException {
+		if (stripe == STRIPE_COUNT)
+			return this.cutSnapshot();
+		
+		synchronized (stripes[stripe]) {
+			return this.cutSnapshotHolding(stripe + 1);
+		}
+	}
+	
+	/**
+	 * Cuts a snapshot while every change is held off, starting a new journal segment at the same point.
+	 * 
+	 * @return the snapshot cut, its inventory snapshot to be closed once written.
+	 */
+	private SnapshotCut cutSnapshot() throws IOException {
+		SnapshotCut cut = new SnapshotCut();
+		cut.segment = journal != null ? journal.rotate() : -1;
+		cut.itemIndex = itemIndex.copy();
+		synchronized (nameIndex) { //copying sorts the pending names, same as a prefix search
+			cut.nameIndex = nameIndex.copy();
+		}
+		synchronized (takenLines) {
+			cut.orderLines = new ArrayList<OrderLine>(takenLines);
+		}
+		cut.orderLines.addAll(orderLines.peekAll());
+		cut.lastSubmittedOrder = lastSubmittedOrder;
+		cut.items = this.registerSnapshot();
+		return cut;
+	}
+	
+	/**
+	 * Replays a new item read from the journal, ignored if the id already exists.
+	 * Replay methods are called by one thread at a time, at restart or by the follower of a replicated
+	 * shop. In concurrent mode they take the locks of the changes they replay, so the inventory can be
+	 * read meanwhile.
+	 * 
+	 * @param itemId id number of the item.
+	 * @param itemName name of the item.
+	 * @param itemQty quantity of the item.
+	 * @param itemPrice price of the item.
+	 * @param itemSupId supplier id number of the item.
+	 */
+	void replayNewItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		if (this.indexedItem(itemId) != null)
+			return;
+		
+		Item item = new Item();
+		item.setId(itemId);
+		item.setName(itemName);
+		item.setQty(itemQty);
+		item.setPrice(itemPrice);
+		item.setSupplierId(itemSupId);
+		if (!concurrent) {
+			this.appendItem(item);
+			return;
+		}
+		
+		long stamp = structureLock.writeLock();
+		try {
+			this.appendItem(item);
+		} finally {
+			structureLock.unlockWrite(stamp);
+		}
+	}
+	
+	/**
+	 * Replays the quantity of an item read from the journal.
+	 * 
+	 * @param itemId id number of the item.
+	 * @param itemQty quantity of the item after the change.
+	 */
+	void replayStock(int itemId, int itemQty) {
+		Item item = this.indexedItem(itemId);
+		if (item == null)
+			return;
+		
+		if (!concurrent) {
+			this.beginChange(item);
+			item.setQty(itemQty);
+			this.lowStock.update(item);
+		} else {
+			synchronized (stripe(itemId)) {
+				this.beginChange(item);
+				item.setQty(itemQty);
+				this.lowStock.update(item);
+			}
+		}
+		this.markDirty(itemId);
+	}
+	
+	/**
+	 * Replays the reorder level and target of an item read from the journal.
+	 * 
+	 * @param itemId id number of the item.
+	 * @param level reorder level of the item.
+	 * @param target reorder target of the item.
+	 */
+	void replayReorderLevels(int itemId, int level, int target) {
+		Item item = this.indexedItem(itemId);
+		if (item == null)
+			return;
+		
+		if (!concurrent) {
+			this.beginChange(item);
+			item.setReorderLevels(level, target); //the order line the new level raised is a record of its own
+			this.lowStock.update(item);
+		} else {
+			synchronized (stripe(itemId)) {
+				this.beginChange(item);
+				item.setReorderLevels(level, target);
+				this.lowStock.update(item);
+			}
+		}
+		this.markDirty(itemId);
+	}
+	
+	/**
+	 * Replays an order line raised, read from the journal. Its unit price is taken from its item.
+	 * 
+	 * @param ol the order line raised.
+	 */
+	void replayOrderLine(OrderLine ol) {
+		Item item = this.indexedItem(ol.getId());
+		if (item != null) {
+			if (!concurrent) {
+				this.beginChange(item);
+				item.setOrderFlag();
+			} else {
+				synchronized (stripe(ol.getId())) {
+					this.beginChange(item);
+					item.setOrderFlag();
+				}
+			}
+			ol.setPrice(item.getPrice());
+		}
+		this.orderLines.push(ol);
+	}
+	
+	/**
+	 * Replays order lines taken for good, read from the journal. The oldest pending line of
+	 * each specified item is removed, and the order flag of an item cleared unless it still
+	 * has a pending line, raised after the line taken was.
+	 * 
+	 * @param itemIds id numbers of the items whose order lines were taken, once for each line.
+	 */
+	void replayDrain(int[] itemIds) {
+		IntIndex taken = new IntIndex(itemIds.length); //the number of lines of each item to remove
+		for (int i = 0; i < itemIds.length; i++) {
+			int count = taken.get(itemIds[i]);
+			taken.put(itemIds[i], count == IntIndex.NOT_FOUND ? 1 : count + 1);
+		}
+		
+		IntIndex kept = new IntIndex();
+		for (OrderLine ol : this.orderLines.drain()) {
+			int count = taken.get(ol.getId());
+			if (count > 0) {
+				taken.put(ol.getId(), count - 1);
+				continue;
+			}
+			this.orderLines.push(ol); //raised after the lines which were taken, still pending
+			kept.putIfAbsent(ol.getId(), 0);
+		}
+		
+		for (int i = 0; i < itemIds.length; i++) {
+			Item item = this.indexedItem(itemIds[i]);
+			if (item == null || kept.get(itemIds[i]) != IntIndex.NOT_FOUND)
+				continue;
+			
+			if (!concurrent) {
+				this.beginChange(item);
+				item.clearOrderFlag();
+			} else {
+				synchronized (stripe(itemIds[i])) {
+					this.beginChange(item);
+					item.clearOrderFlag();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Replays an order submitted, read from the journal: its order lines are taken as replayDrain
+	 * takes them.
+	 * 
+	 * @param orderId the id number of the order.
+	 * @param itemIds id numbers of the items of its order lines, once for each line.
+	 */
+	void replaySubmit(int orderId, int[] itemIds) {
+		this.replayDrain(itemIds);
+		this.lastSubmittedOrder = orderId;
+	}
+	
+	/**
+	 * Clears the order lines saved so far from the inventory.
+	 * Also clears the order active flags of the items those lines were raised for.
+	 * 
+	 */
+	public void clearOrderLines() {
+		this.drainOrderLines();
+	}
+	
+	/**
+	 * Returns the number of items in the inventory.
+	 * 
+	 * @return the number of items in the inventory.
+	 */
+	@Override
+	public int getItemCount() {
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			return items.size();
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Returns a page of the items in the inventory, in the order they were added.
+	 * Items are only ever added at the end, so the position after a page is a stable cursor for the next one.
+	 * 
+	 * @param offset the position of the first item to return
+	 * @param limit the maximum number of items to return
+	 * @return the list of items in the page (empty if offset is past the last item)
+	 */
+	public ArrayList<Item> listItems(int offset, int limit) {
+		if (offset < 0 || limit < 0)
+			throw new IllegalArgumentException("Offset and limit must not be negative.");
+		
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			int end = (int) Math.min((long) offset + limit, items.size());
+			ArrayList<Item> page = new ArrayList<Item>(Math.max(end - offset, 0));
+			for (int i = offset; i < end; i++) {
+				page.add(items.get(i));
+			}
+			return page;
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Writes the inventory out one item per line, in the same format as its string representation.
+	 * The items are written as they were when the call started, read from a snapshot, so sales
+	 * carry on meanwhile and a slow output still lists a single point in time.
+	 * 
+	 * @param out where the items are written to
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		try (InventorySnapshot snapshot = this.openSnapshot()) {
+			snapshot.writeTo(out);
+		}
+	}
+	
+	/**
+	 * Opens a consistent point-in-time view of the inventory, in constant time whatever its size.
+	 * Changes made after it was opened are not seen through it and are not held off by it, the
+	 * items they change keep their earlier state until no open snapshot can read it any more.
+	 * The snapshot must be closed once read, so that those states are released.
+	 * In concurrent mode it waits for the changes in progress when the version moves on: they were
+	 * tagged with the version of the snapshot before it was registered, so it sees them whole.
+	 * 
+	 * @return the snapshot, to be closed after use.
+	 */
+	public InventorySnapshot openSnapshot() {
+		long stamp = concurrent ? structureLock.readLock() : 0L; //holds off new items, so the count matches the version
+		try {
+			InventorySnapshot snapshot = this.registerSnapshot();
+			if (concurrent) {
+				for (Object stripe : stripes) {
+					synchronized (stripe) {
+						//a change read the old version under this lock, it is complete once the lock is free
+					}
+				}
+			}
+			return snapshot;
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+	 * Registers a snapshot at the current version and moves the version on, while new items are held off.
+	 * 
+	 * @return the snapshot.
+	 */
+	private InventorySnapshot registerSnapshot() {
+		synchronized (openSnapshots) {
+			long snapshotVersion = version.get();
+			openSnapshots.merge(snapshotVersion, 1, Integer::sum);
+			if (snapshotVersion < oldestSnapshot)
+				oldestSnapshot = snapshotVersion; //set before the version moves on, so every later change sees it
+			version.incrementAndGet();
+			return new InventorySnapshot(this, snapshotVersion, items.size());
+		}
+	}
+	
+	/**
+	 * Closes a snapshot. Once the last open snapshot is closed, the older states kept for the
+	 * snapshots are released.
+	 * 
+	 * @param snapshotVersion the version of the snapshot.
+	 */
+	void closeSnapshot(long snapshotVersion) {
+		synchronized (openSnapshots) {
+			openSnapshots.merge(snapshotVersion, -1, (open, closed) -> open + closed == 0 ? null : open + closed);
+			if (!openSnapshots.isEmpty()) {
+				oldestSnapshot = openSnapshots.firstKey(); //states only the closed snapshot read are pruned by the next change
+				return;
+			}
+			
+			oldestSnapshot = Long.MAX_VALUE;
+			for (Item item = versionedItems.poll(); item != null; item = versionedItems.poll()) {
+				if (!concurrent) {
+					item.older = null;
+					item.versioned = false;
+				} else {
+					synchronized (stripe(item.getId())) {
+						item.older = null;
+						item.versioned = false;
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tags an item with the current version before it is changed. If a snapshot was opened since
+	 * the item was last changed, its state is kept for the snapshot first, and the states no open
+	 * snapshot reads any more are dropped. Called while the item is locked in concurrent mode.
+	 * 
+	 * @param item the item about to be changed.
+	 */
+	private void beginChange(Item item) {
+		long current = version.get();
+		long oldest = oldestSnapshot; //read after the version, so it is not older than the snapshot which moved it on
+		if (oldest == Long.MAX_VALUE) {
+			item.older = null; //no snapshot is open
+		} else if (item.version < current) {
+			Item state = copyState(item);
+			state.version = item.version;
+			state.older = item.older;
+			item.older = state;
+			for (Item older = state; older != null; older = older.older) {
+				if (older.version <= oldest) {
+					older.older = null; //the oldest snapshot reads this state, none reads past it
+					break;
+				}
+			}
+			if (!item.versioned) {
+				item.versioned = true;
+				versionedItems.add(item);
+			}
+		}
+		item.version = current;
+	}
+	
+	/**
+	 * Returns an item as it was at the version of a snapshot.
+	 * 
+	 * @param itemId the id number of the item.
+	 * @param snapshotVersion the version of the snapshot.
+	 * @param itemCount the number of items when the snapshot was opened.
+	 * @return a copy of the item (or null if it was not in the inventory then).
+	 */
+	Item searchItem(int itemId, long snapshotVersion, int itemCount) {
+		Item foundItem;
+		long stamp = concurrent ? structureLock.readLock() : 0L;
+		try {
+			int position = itemIndex.get(itemId);
+			foundItem = position != IntIndex.NOT_FOUND && position < itemCount ? items.get(position) : null;
+		} finally {
+			if (concurrent)
+				structureLock.unlockRead(stamp);
+		}
+		return foundItem != null ? this.itemAt(foundItem, snapshotVersion) : null;
+	}
+	
+	/**
+	 * Returns a page of the items as they were at the version of a snapshot.
+	 * 
+	 * @param offset the position of the first item to return.
+	 * @param limit the maximum number of items to return.
+	 * @param snapshotVersion the version of the snapshot.
+	 * @param itemCount the number of items when the snapshot was opened.
+	 * @return copies of the items in the page (empty if offset is past the last item of the snapshot).
+	 */
+	ArrayList<Item> listItems(int offset, int limit, long snapshotVersion, int itemCount) {
+		ArrayList<Item> page = this.listItems(offset, (int) Math.max(Math.min((long) offset + limit, itemCount) - offset, 0));
+		for (int i = 0; i < page.size(); i++) {
+			page.set(i, this.itemAt(page.get(i), snapshotVersion));
+		}
+		return page;
+	}
+	
+	/**
+	 * Copies the state of an item at the version of a snapshot, in concurrent mode under the lock of the item.
+	 * 
+	 * @param item the item.
+	 * @param snapshotVersion the version of the snapshot.
+	 * @return the copy.
+	 */
+	private Item itemAt(Item item, long snapshotVersion) {
+		if (!concurrent)
+			return copyState(stateAt(item, snapshotVersion));
+		
+		synchronized (stripe(item.getId())) {
+			return copyState(stateAt(item, snapshotVersion));
+		}
+	}
+	
+	/**
+	 * Finds the state of an item at the version of a snapshot: the item itself if it was not changed
+	 * since, otherwise the newest of its older states not changed since.
+	 * 
+	 * @param item the item.
+	 * @param snapshotVersion the version of the snapshot.
+	 * @return the state of the item.
+	 */
+	private static Item stateAt(Item item, long snapshotVersion) {
+		Item state = item;
+		while (state.version > snapshotVersion) {
+			state = state.older;
+		}
+		return state;
+	}
+	
+	/**
+	 * Copies every field of an item, including its reorder levels and order flag.
+	 * 
+	 * @param item the item to copy.
+	 * @return the copy.
+	 */
+	private static Item copyState(Item item) {
+		Item copy = new Item();
+		copy.setId(item.getId());
+		copy.setName(item.getName());
+		copy.setPrice(item.getPrice());
+		copy.setSupplierId(item.getSupplierId());
+		copy.setQty(item.getQty());
+		copy.setReorderLevels(item.getReorderLevel(), item.getReorderTarget());
+		if (item.isOrderActive())
+			copy.setOrderFlag();
+		return copy;
+	}
+	
+	/**
+	 * Outputs a string representation of this inventory, as it was when the call started.
+	 * 
+	 * @return String representation of the inventory.
+	 */
+	@Override
+	public String toString() {
+		try (InventorySnapshot snapshot = this.openSnapshot()) {
+			return snapshot.toString();
+		}
+	}
+
+}
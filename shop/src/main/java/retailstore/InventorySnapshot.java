@@ -0,0 +1,169 @@
+package retailstore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Implementation of a point-in-time view of the Inventory of the Retail Store.
+ * Opened by Inventory.openSnapshot in constant time, it reads every item as it was when it was
+ * opened while sales and restocks carry on: a change made afterwards keeps the earlier state of
+ * its item for the snapshot instead of waiting for it, so a long listing is neither torn by the
+ * changes nor holds them off. Items added afterwards are not seen.
+ * The snapshot must be closed once read, so that the earlier states kept for it are released.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class InventorySnapshot implements AutoCloseable {
+
+	/** the number of items copied out of the inventory at a time while writing the snapshot out */
+	private static final int WRITE_PAGE_SIZE = 4096;
+
+	/** the inventory viewed */
+	private final Inventory inventory;
+
+	/** the version of the inventory viewed, the changes made at it or later are not seen */
+	private final long version;
+
+	/** the number of items in the inventory when the snapshot was opened */
+	private final int itemCount;
+
+	/** true once the snapshot was closed */
+	private volatile boolean closed;
+
+	/**
+	 * InventorySnapshot Class Constructor
+	 *
+	 * @param inventory the inventory viewed.
+	 * @param version the version of the inventory viewed.
+	 * @param itemCount the number of items in the inventory when the snapshot was opened.
+	 */
+	InventorySnapshot(Inventory inventory, long version, int itemCount) {
+		this.inventory = inventory;
+		this.version = version;
+		this.itemCount = itemCount;
+	}
+
+	/**
+	 * Returns the version of the inventory viewed, snapshots opened later have higher versions.
+	 *
+	 * @return the version of the snapshot.
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the number of items in the inventory when the snapshot was opened.
+	 *
+	 * @return the number of items.
+	 */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * Searches the snapshot for an item by its id number.
+	 *
+	 * @param itemId the id number of the item to look for.
+	 * @return a copy of the item as it was (or null if it was not in the inventory).
+	 */
+	public Item searchItem(int itemId) {
+		this.checkOpen();
+		return inventory.searchItem(itemId, version, itemCount);
+	}
+
+	/**
+	 * Returns the quantity an item had when the snapshot was opened.
+	 *
+	 * @param itemId id number of the item.
+	 * @return the quantity of the item (or 0 if it was not in the inventory).
+	 */
+	public int checkQty(int itemId) {
+		Item item = this.searchItem(itemId);
+		return item != null ? item.getQty() : 0;
+	}
+
+	/**
+	 * Returns a page of the items as they were, in the order they were added.
+	 *
+	 * @param offset the position of the first item to return.
+	 * @param limit the maximum number of items to return.
+	 * @return copies of the items in the page (empty if offset is past the last item).
+	 */
+	public ArrayList<Item> listItems(int offset, int limit) {
+		if (offset < 0 || limit < 0)
+			throw new IllegalArgumentException("Offset and limit must not be negative.");
+		this.checkOpen();
+		return inventory.listItems(offset, limit, version, itemCount);
+	}
+
+	/**
+	 * Writes the items out one item per line, in the same format as the string representation of the inventory.
+	 * Items are copied out a page at a time, so the output can be slow without holding anything up.
+	 *
+	 * @param out where the items are written to.
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		for (int offset = 0; offset < itemCount; offset += WRITE_PAGE_SIZE) {
+			for (Item item : this.listItems(offset, WRITE_PAGE_SIZE)) {
+				out.append(item.toString()).append('\n');
+			}
+		}
+	}
+
+	/**
+	 * Writes the item records of a snapshot file, the number of items followed by each item as it was.
+	 * Items are copied out a page at a time, as writeTo does.
+	 *
+	 * @param out the stream of the snapshot file.
+	 */
+	void writeItems(DataOutputStream out) throws IOException {
+		out.writeInt(itemCount);
+		for (int offset = 0; offset < itemCount; offset += WRITE_PAGE_SIZE) {
+			for (Item item : this.listItems(offset, WRITE_PAGE_SIZE)) {
+				SnapshotFile.writeItem(out, item);
+			}
+		}
+	}
+
+	/**
+	 * Closes the snapshot, releasing the earlier states of the items kept for it. Closing it again has no effect.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed)
+				return;
+			closed = true;
+		}
+		inventory.closeSnapshot(version);
+	}
+
+	/**
+	 * Throws if the snapshot was closed, its earlier states may be gone.
+	 */
+	private void checkOpen() {
+		if (closed)
+			throw new IllegalStateException("The snapshot of version " + version + " is closed.");
+	}
+
+	/**
+	 * Outputs a string representation of the inventory as it was when the snapshot was opened.
+	 *
+	 * @return String representation of the snapshot.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder outString = new StringBuilder();
+		try {
+			this.writeTo(outString);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); //a StringBuilder does not throw
+		}
+		return outString.toString();
+	}
+}
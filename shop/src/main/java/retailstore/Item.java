@@ -0,0 +1,255 @@
+package retailstore;
+
+/**
+ * Implementation of the Item Class for the Retail Store.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 9th, 2020
+ */
+
+public class Item {
+
+	/** the quantity below which an order line is generated for an item, unless set for the item */
+	public static final int REORDER_LEVEL = 40;
+	
+	/** the quantity an item is ordered up to when an order line is generated, unless set for the item */
+	public static final int REORDER_TARGET = 50;
+	
+	/** the id number of the item */
+	private int id;
+	
+	/** the name of the item */
+	private String name;
+	
+	/** the quantity of the item */
+	private int qty;
+
+	/** the unit price of the item */
+	private double price;
+
+	/** the supplierId of the item */
+	private int supplierId;
+
+	/** an orderLine is active for the item */
+	private boolean orderActive;
+	
+	/** the quantity below which an order line is generated for the item */
+	private int reorderLevel = REORDER_LEVEL;
+	
+	/** the quantity the item is ordered up to when an order line is generated */
+	private int reorderTarget = REORDER_TARGET;
+	
+	/** the bucket of the low-stock index holding the item (or -1 if not indexed), kept by LowStockIndex */
+	int lowStockBucket = -1;
+	
+	/** the position of the item inside its low-stock bucket, kept by LowStockIndex */
+	int lowStockSlot;
+	
+	/** the version of the inventory the item was last changed in, kept by Inventory */
+	long version;
+	
+	/** the state of the item before its last change, kept while an open snapshot of the inventory may read it (or null) */
+	Item older;
+	
+	/** true while the item is listed among the items holding older states, kept by Inventory */
+	boolean versioned;
+	
+	/**
+	 * Item Class Constructor
+	 *
+	 */
+	public Item() {
+		this.orderActive = false;
+	}
+	
+	/**
+	 * Returns the id number of the item.
+	 * 
+	 * @return the id number of the item.
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Returns the name of the item.
+	 * 
+	 * @return the name of the item.
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the price of the item.
+	 * 
+	 * @return the price of the item.
+	 */
+	public double getPrice() {
+		return price;
+	}
+	
+	/**
+	 * Returns the quantity of the item.
+	 * 
+	 * @return the quantity of the item.
+	 */
+	public int getQty() {
+		return qty;
+	}
+	
+	/**
+	 * Returns the quantity below which an order line is generated for the item.
+	 * 
+	 * @return the reorder level of the item.
+	 */
+	public int getReorderLevel() {
+		return reorderLevel;
+	}
+	
+	/**
+	 * Returns the quantity the item is ordered up to when an order line is generated.
+	 * 
+	 * @return the reorder target of the item.
+	 */
+	public int getReorderTarget() {
+		return reorderTarget;
+	}
+	
+	/**
+	 * Returns the supplier id number of the item.
+	 * 
+	 * @return the supplier id number of the item.
+	 */
+	public int getSupplierId() {
+		return supplierId;
+	}
+	
+	/**
+	 * Sets the id number for the item.
+	 * 
+	 * @param id id number to be set for the item.
+	 */
+	public void setId(int id) {
+		this.id = id;
+	}
+	
+	/**
+	 * Sets the name for the item.
+	 * 
+	 * @param name name to be set for the item.
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Sets the price for the item.
+	 * 
+	 * @param price price to be set for the item.
+	 */
+	public void setPrice(double price) {
+		this.price = price;
+	}
+	
+	/**
+	 * Sets the quantity for the item.
+	 * 
+	 * @param qty quantity to be set for the item. Cannot be a negative integer.
+	 */
+	public void setQty(int qty) {
+		if (qty >= 0)
+			this.qty = qty;
+	}
+	
+	/**
+	 * Sets the reorder level and target for the item.
+	 * 
+	 * @param reorderLevel quantity below which an order line is generated, not negative.
+	 * @param reorderTarget quantity the item is ordered up to, at least the reorder level.
+	 */
+	public void setReorderLevels(int reorderLevel, int reorderTarget) {
+		if (reorderLevel < 0 || reorderTarget < reorderLevel)
+			throw new IllegalArgumentException("Reorder level " + reorderLevel + " must not be negative or above the target " + reorderTarget + ".");
+		this.reorderLevel = reorderLevel;
+		this.reorderTarget = reorderTarget;
+	}
+	
+	/**
+	 * Sets the supplier Id for the item.
+	 * 
+	 * @param supplierId supplier id number to be set for the item.
+	 */
+	public void setSupplierId(int supplierId) {
+		this.supplierId = supplierId;
+	}
+	
+	/**
+	 * Returns true if an order line was raised for the item and not yet taken into an order.
+	 * 
+	 * @return the order active flag of the item.
+	 */
+	public boolean isOrderActive() {
+		return this.orderActive;
+	}
+	
+	/**
+	 * Sets order active flag to false for the item.
+	 * 
+	 */
+	public void clearOrderFlag() {
+		this.orderActive = false;
+	}
+	
+	/**
+	 * Sets order active flag to true for the item, e.g. when restoring an item
+	 * whose order line is still pending.
+	 * 
+	 */
+	public void setOrderFlag() {
+		this.orderActive = true;
+	}
+	
+	/**
+	 * Reduces the quantity for the item by amount entered.
+	 * As a result of reduction, if item quantity drops below its reorder level (40 unless set),
+	 * then generates an order line for the item up to its reorder target (50 unless set).
+	 * Reducing by 0 only checks the quantity against the reorder level, e.g. after the level was raised.
+	 * 
+	 * @param qty quantity to be reduced for the item.
+	 * @return the order line (if item quantity was dropped below the reorder level, otherwise null).
+	 */
+	public OrderLine reduceQty(int qty) {
+		if (this.qty >= qty && qty > 0)
+			//do not allow reducing item qty below 0. 
+			this.qty = this.qty - qty;
+		
+		if (this.qty < this.reorderLevel && !this.orderActive) {
+			//The default quantity ordered by each item = 50 – number of existing items
+			this.orderActive = true;
+			
+			OrderLine orderLine = new OrderLine();
+			orderLine.setId(this.getId());
+			orderLine.setName(this.getName());
+			orderLine.setQty(this.reorderTarget - this.getQty());
+			orderLine.setPrice(this.price);
+			orderLine.setSupplierId(this.supplierId);
+			
+			return orderLine;
+		}
+		return null;
+	}
+	
+	/**
+	 * Outputs a string representation of this item object.
+	 * 
+	 * @return String representation of the item.
+	 */
+	@Override
+	public String toString() {
+		String output = "ID: " + getId() + " Name: " + getName() + " Qty: " + getQty() + " Unit $: " + getPrice(); 
+		return output;
+	}
+	
+}
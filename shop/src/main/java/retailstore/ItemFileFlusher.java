@@ -0,0 +1,329 @@
+package retailstore;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the items file write-back for the Retail Store.
+ * Keeps the items file current with the inventory by writing back only the items changed since
+ * the last write-back. A background thread takes the changed items every period and rewrites the
+ * file into a temporary copy (the quantity field of changed lines is replaced, every other byte is
+ * copied as it was and new items are added at the end), which is then moved over the items file.
+ * Sales never wait for the write-back, they only mark their item as changed.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ItemFileFlusher {
+
+	/** the line ending of files written on Windows */
+	private static final byte[] CRLF = { '\r', '\n' };
+
+	/** the line ending of files written elsewhere */
+	private static final byte[] LF = { '\n' };
+
+	/** the inventory whose changed items are written back */
+	private final Inventory inventory;
+
+	/** the name of the items file kept current */
+	private final String fileName;
+
+	/** the thread running the periodic write-back */
+	private final ScheduledExecutorService scheduler;
+
+	/** the number of items written back so far */
+	private long flushedCount;
+
+	/** the number of write-backs which wrote at least one item so far */
+	private long flushCount;
+
+	/** the time spent in those write-backs so far, in nanoseconds */
+	private long flushNanos;
+
+	/**
+	 * ItemFileFlusher Class Constructor
+	 * Starts writing back the changed items of the inventory every period.
+	 *
+	 * @param inventory the inventory whose changed items are written back.
+	 * @param fileName the name of the items file kept current.
+	 * @param periodMillis the time between two write-backs, in milliseconds.
+	 */
+	public ItemFileFlusher(Inventory inventory, String fileName, long periodMillis) {
+		this.inventory = inventory;
+		this.fileName = fileName;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "items-file-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				flush();
+			} catch (IOException e) {
+				System.err.println("Could not write back " + fileName + ": " + e.getMessage());
+			}
+		}, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes back the items changed since the last write-back.
+	 * If writing fails, the items are marked as changed again for the next write-back.
+	 *
+	 * @return the number of items written back.
+	 */
+	public synchronized int flush() throws IOException {
+		long start = System.nanoTime();
+		ArrayList<Item> changed = inventory.takeDirtyItems();
+		if (changed.isEmpty())
+			return 0;
+
+		try {
+			rewrite(changed);
+		} catch (IOException | RuntimeException e) {
+			inventory.restoreDirtyItems(changed);
+			throw e;
+		}
+		flushedCount += changed.size();
+		flushCount++;
+		flushNanos += System.nanoTime() - start;
+		return changed.size();
+	}
+
+	/**
+	 * Returns the number of items written back so far.
+	 *
+	 * @return the number of items written back so far.
+	 */
+	public synchronized long getFlushedCount() {
+		return flushedCount;
+	}
+
+	/**
+	 * Returns the number of write-backs which wrote at least one item so far.
+	 *
+	 * @return the number of write-backs so far.
+	 */
+	public synchronized long getFlushCount() {
+		return flushCount;
+	}
+
+	/**
+	 * Returns the time spent writing back so far.
+	 *
+	 * @return the time spent in write-backs, in nanoseconds.
+	 */
+	public synchronized long getFlushNanos() {
+		return flushNanos;
+	}
+
+	/**
+	 * Stops the periodic write-back and writes back the items changed since the last one.
+	 */
+	public void close() throws IOException {
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+	}
+
+	/**
+	 * Rewrites the items file into a temporary copy with the changed items and moves it over the file.
+	 *
+	 * @param changed the changed items, in the order of the items list.
+	 */
+	private void rewrite(ArrayList<Item> changed) throws IOException {
+		IntIndex changedIndex = new IntIndex(changed.size());
+		for (int i = 0; i < changed.size(); i++) {
+			changedIndex.putIfAbsent(changed.get(i).getId(), i);
+		}
+		boolean[] written = new boolean[changed.size()];
+
+		File file = new File(fileName);
+		File temp = new File(fileName + ".tmp");
+		byte[] newLine = CRLF;
+		boolean endsWithNewLine = true;
+
+		try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+			OutputStream out = new BufferedOutputStream(fileOut, 1 << 16);
+
+			if (file.exists()) {
+				try (InputStream in = new FileInputStream(file)) {
+					byte[] buffer = new byte[1 << 16];
+					byte[] line = new byte[256]; //the start of a line which continues in the next block
+					int lineLength = 0;
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						int start = 0;
+						int copied = 0; //unchanged lines are copied in runs up to the next changed line
+						for (int i = 0; i < read; i++) {
+							if (buffer[i] != '\n')
+								continue;
+
+							if (lineLength > 0) {
+								line = append(line, lineLength, buffer, start, i - start);
+								lineLength += i - start;
+								boolean crlf = line[lineLength - 1] == '\r';
+								newLine = crlf ? CRLF : LF; //keep the line endings of the file
+								writeLine(out, line, 0, crlf ? lineLength - 1 : lineLength, changed, changedIndex, written);
+								out.write(newLine);
+								lineLength = 0;
+								copied = i + 1;
+							} else {
+								boolean crlf = i > start && buffer[i - 1] == '\r';
+								newLine = crlf ? CRLF : LF;
+								int length = crlf ? i - 1 - start : i - start;
+								int position = changedPosition(buffer, start, length, changedIndex);
+								if (position != IntIndex.NOT_FOUND && !written[position]) {
+									written[position] = true; //only the first line of an id is the indexed item
+									out.write(buffer, copied, start - copied);
+									writeWithQty(out, buffer, start, length, changed.get(position).getQty());
+									out.write(newLine);
+									copied = i + 1;
+								}
+							}
+							start = i + 1;
+						}
+						out.write(buffer, copied, start - copied);
+						line = append(line, lineLength, buffer, start, read - start);
+						lineLength += read - start;
+					}
+
+					if (lineLength > 0) { //the last line has no line ending
+						int end = line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+						writeLine(out, line, 0, end, changed, changedIndex, written);
+						out.write(line, end, lineLength - end);
+						endsWithNewLine = false;
+					}
+				}
+			}
+
+			//items which are not in the file yet are added at its end
+			for (int i = 0; i < changed.size(); i++) {
+				if (written[i])
+					continue;
+				if (!endsWithNewLine) {
+					out.write(newLine);
+					endsWithNewLine = true;
+				}
+				Item item = changed.get(i);
+				out.write((item.getId() + ";" + item.getName() + ";" + item.getQty() + ";"
+						+ String.format(Locale.ROOT, "%.2f", item.getPrice()) + ";" + item.getSupplierId())
+						.getBytes(StandardCharsets.UTF_8));
+				out.write(newLine);
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Writes a line of the items file, with its quantity replaced if it is the first line of a changed item.
+	 *
+	 * @param out the stream of the temporary file.
+	 * @param bytes the bytes holding the line.
+	 * @param from the start of the line.
+	 * @param length the length of the line without its line ending.
+	 * @param changed the changed items.
+	 * @param changedIndex the index of changed item ids to their positions inside the changed items.
+	 * @param written which changed items were already written.
+	 */
+	private static void writeLine(OutputStream out, byte[] bytes, int from, int length, ArrayList<Item> changed,
+			IntIndex changedIndex, boolean[] written) throws IOException {
+		int position = changedPosition(bytes, from, length, changedIndex);
+		if (position != IntIndex.NOT_FOUND && !written[position]) {
+			written[position] = true; //only the first line of an id is the indexed item
+			writeWithQty(out, bytes, from, length, changed.get(position).getQty());
+		} else {
+			out.write(bytes, from, length);
+		}
+	}
+
+	/**
+	 * Appends bytes to a line buffer, growing it if needed.
+	 *
+	 * @param line the line buffer.
+	 * @param lineLength the number of bytes in the line buffer.
+	 * @param bytes the bytes to append.
+	 * @param from the start of the bytes to append.
+	 * @param length the number of bytes to append.
+	 * @return the line buffer, or a larger copy of it.
+	 */
+	private static byte[] append(byte[] line, int lineLength, byte[] bytes, int from, int length) {
+		if (lineLength + length > line.length)
+			line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+		System.arraycopy(bytes, from, line, lineLength, length);
+		return line;
+	}
+
+	/**
+	 * Returns the position of the changed item of an item line, found by the id of the line,
+	 * the number before its first separator, with an optional sign as the items file is read.
+	 *
+	 * @param bytes the bytes holding the line.
+	 * @param from the start of the line.
+	 * @param length the length of the line without its line ending.
+	 * @param changedIndex the index of changed item ids to their positions inside the changed items.
+	 * @return the position of the changed item (or IntIndex.NOT_FOUND if the item of the line did
+	 *         not change or the line does not start with a number).
+	 */
+	private static int changedPosition(byte[] bytes, int from, int length, IntIndex changedIndex) {
+		boolean negative = length > 0 && bytes[from] == '-';
+		int i = (length > 0 && (bytes[from] == '-' || bytes[from] == '+')) ? 1 : 0;
+		int digits = i;
+		long id = 0;
+		while (i < length && i - digits < 10 && bytes[from + i] >= '0' && bytes[from + i] <= '9') {
+			id = id * 10 + (bytes[from + i] - '0');
+			i++;
+		}
+		id = negative ? -id : id;
+		if (i == digits || i == length || bytes[from + i] != ';' || id < Integer.MIN_VALUE || id > Integer.MAX_VALUE)
+			return IntIndex.NOT_FOUND;
+		return changedIndex.get((int) id);
+	}
+
+	/**
+	 * Writes an item line with its quantity field (the third one) replaced.
+	 *
+	 * @param out the stream of the temporary file.
+	 * @param bytes the bytes holding the line.
+	 * @param from the start of the line.
+	 * @param length the length of the line without its line ending.
+	 * @param qty the quantity to write.
+	 */
+	private static void writeWithQty(OutputStream out, byte[] bytes, int from, int length, int qty) throws IOException {
+		int end = from + length;
+		int start = from;
+		for (int field = 0; field < 2 && start < end; start++) {
+			if (bytes[start] == ';')
+				field++;
+		}
+		int stop = start;
+		while (stop < end && bytes[stop] != ';') {
+			stop++;
+		}
+
+		out.write(bytes, from, start - from);
+		out.write(Integer.toString(qty).getBytes(StandardCharsets.US_ASCII));
+		out.write(bytes, stop, end - stop);
+	}
+}
@@ -0,0 +1,23 @@
+package retailstore;
+
+/**
+ * Callback receiving the records of an items file one at a time, as they are parsed.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public interface ItemRecordHandler {
+	
+	/**
+	 * Receives one record of an items file.
+	 * 
+	 * @param id the id number of the item.
+	 * @param name the name of the item.
+	 * @param qty the quantity of the item.
+	 * @param price the unit price of the item.
+	 * @param supplierId the supplier id number of the item.
+	 */
+	void accept(int id, String name, int qty, double price, int supplierId);
+}
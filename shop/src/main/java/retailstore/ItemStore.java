@@ -0,0 +1,104 @@
+package retailstore;
+
+import java.util.ArrayList;
+
+/**
+ * Interface of the item stores of the Retail Store.
+ * The operations on items and on the order lines they raise which every kind of inventory has, so
+ * that code written against them runs over any of them: Inventory, CompactInventory for very large
+ * catalogs and ShardedInventory for a shard per core. They follow the rules of Inventory: only the
+ * first item with a given id or name is found, adding an existing id increases its quantity, and a
+ * reduction which would go below zero is ignored but can still raise an order line.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public interface ItemStore {
+
+	/**
+	 * Searches and returns the item by its name, ignoring case.
+	 *
+	 * @param itemName the name of the item to look for.
+	 * @return the item which was found or null if it was not found.
+	 */
+	Item searchItem(String itemName);
+
+	/**
+	 * Searches and returns the item by its id number.
+	 *
+	 * @param itemId the id number of the item to look for.
+	 * @return the item which was found or null if it was not found.
+	 */
+	Item searchItem(int itemId);
+
+	/**
+	 * Returns the quantity of an item.
+	 *
+	 * @param itemId id number of the item to search for.
+	 * @return the quantity of the item found (or 0 if not found).
+	 */
+	int checkQty(int itemId);
+
+	/**
+	 * Adds an item if no item with its id exists, otherwise increases the quantity of the existing item only.
+	 *
+	 * @param itemId id number of the item to add.
+	 * @param itemName name of the item to add.
+	 * @param itemQty quantity of the item to add (for existing items, this is used to increase the actual quantity by).
+	 * @param itemPrice price of the item to add.
+	 * @param itemSupId supplier id number of the item to add.
+	 */
+	void addItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId);
+
+	/**
+	 * Reduces the quantity of an item, capturing the order line it raises if it drops below its reorder level.
+	 *
+	 * @param itemId id number of the item to reduce.
+	 * @param itemQty quantity to reduce from the item.
+	 */
+	void removeItem(int itemId, int itemQty);
+
+	/**
+	 * Returns the number of items stored, including items shadowed by an earlier item with the same id.
+	 *
+	 * @return the number of items stored.
+	 */
+	int getItemCount();
+
+	/**
+	 * Returns the order lines captured so far, without taking them.
+	 *
+	 * @return a list of the order lines captured so far, oldest first.
+	 */
+	ArrayList<OrderLine> getOrderLines();
+
+	/**
+	 * Takes the order lines captured so far and clears the order flags of their items, so that
+	 * they can raise a new line.
+	 *
+	 * @return the order lines taken, oldest first.
+	 */
+	ArrayList<OrderLine> drainOrderLines();
+
+	/**
+	 * Takes the order lines captured so far into an order, which commitOrderLines is called with once
+	 * it is submitted. A store without a journal takes them as drainOrderLines does.
+	 *
+	 * @return the order lines taken, oldest first.
+	 */
+	default ArrayList<OrderLine> takeOrderLines() {
+		return drainOrderLines();
+	}
+
+	/**
+	 * Records order lines taken by takeOrderLines as gone for good, once their order was submitted.
+	 * A store without a journal has nothing to record.
+	 *
+	 * @param orderId the id number of the order submitted.
+	 * @param lines the order lines taken.
+	 */
+	default void commitOrderLines(int orderId, ArrayList<OrderLine> lines) {
+	}
+}
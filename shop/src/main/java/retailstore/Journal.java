@@ -0,0 +1,892 @@
+package retailstore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of the write-ahead journal of stock movements for the Retail Store.
+ * Every change of an inventory attached to the journal (new items, quantities, reorder levels, order
+ * lines raised, order lines taken and orders submitted) is appended as a record, so that the changes made since the last snapshot
+ * can be replayed on top of it when the shop restarts.
+ *
+ * Records are appended to numbered segment files (e.g. shop.jnl.1, shop.jnl.2, ...). A snapshot
+ * remembers the first segment it does not contain, so only the segments after it are replayed.
+ * When a segment grows past its size limit a new one is started, and the full segments are replayed
+ * onto the last snapshot in the background, which keeps the replay at restart bounded.
+ *
+ * Each record is its length, its type and its data followed by the CRC32 of the type and data,
+ * so a record torn by a crash is detected and dropped during replay. Records hold the absolute
+ * quantity of an item rather than the amount changed, so replaying a record twice is harmless.
+ *
+ * Records can also be streamed to follower shops as they are appended, see ReplicationLeader.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class Journal {
+
+	/**
+	 * When the changes appended to the journal are forced to the disk.
+	 */
+	public enum Durability {
+		/** every change is written and forced to the disk before it returns, one fsync per change */
+		SYNC,
+		/** a change waits until it is on the disk, changes waiting at the same time share one fsync */
+		GROUP,
+		/** a change returns at once, changes are forced to the disk in the background every few milliseconds */
+		ASYNC
+	}
+
+	/** the type of a record holding a new item */
+	private static final byte NEW_ITEM = 1;
+
+	/** the type of a record holding the quantity of an item */
+	private static final byte STOCK = 2;
+
+	/** the type of a record holding an order line raised */
+	private static final byte ORDER_LINE = 3;
+
+	/** the type of a record holding the item ids of order lines taken for good, e.g. in an order submitted */
+	private static final byte DRAIN = 4;
+
+	/** the type of a record holding the reorder level and target of an item */
+	private static final byte REORDER_LEVELS = 5;
+
+	/** the type of a record holding the id of an order submitted and the item ids of its order lines */
+	private static final byte SUBMIT = 6;
+
+	/** the size a segment is allowed to grow to before a new one is started */
+	private static final long SEGMENT_SIZE = 64L << 20;
+
+	/** the time between two background writes in asynchronous mode, in milliseconds */
+	private static final long ASYNC_INTERVAL_MS = 10;
+
+	/** the file name segments are numbered after */
+	private final String fileName;
+
+	/** the snapshot file the full segments are compacted into */
+	private final String snapshotFileName;
+
+	/** when changes are forced to the disk */
+	private final Durability durability;
+
+	/** the thread compacting full segments into the snapshot */
+	private final ExecutorService compactor;
+
+	/** held while the snapshot file is written and old segments are deleted */
+	private final Object snapshotLock = new Object();
+
+	/** the records appended but not yet written */
+	private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+
+	/** an empty buffer swapped with the pending one by the thread writing them */
+	private ByteBuffer spare = ByteBuffer.allocate(1 << 16);
+
+	/** the checksum computed over each record */
+	private final CRC32 crc = new CRC32();
+
+	/** the segment records are appended to */
+	private FileChannel channel;
+
+	/** the number of the segment records are appended to */
+	private long segment;
+
+	/** the number of bytes written into the current segment */
+	private long segmentBytes;
+
+	/** the number of records appended so far */
+	private long appendedCount;
+
+	/** the number of records appended so far which are on the disk */
+	private long durableCount;
+
+	/** true while a thread is writing and forcing records, the others wait for it */
+	private boolean flushing;
+
+	/** the number of times records were forced to the disk */
+	private long forceCount;
+
+	/** the error of the last failed write, after which no change can be made durable */
+	private IOException failure;
+
+	/** true once the journal was closed */
+	private boolean closed;
+
+	/** the number of records appended before the last rotation, which a snapshot taken with it contains */
+	private long rotatedCount;
+
+	/** the leader every record appended is handed to (or null if the shop is not replicated) */
+	private ReplicationLeader replication;
+
+	/**
+	 * Journal Class Constructor
+	 * Starts appending into a new segment after the existing ones.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param snapshotFileName the snapshot file the full segments are compacted into.
+	 * @param segment the number of the first segment to append to.
+	 * @param durability when changes are forced to the disk.
+	 */
+	private Journal(String fileName, String snapshotFileName, long segment, Durability durability) throws IOException {
+		this.fileName = fileName;
+		this.snapshotFileName = snapshotFileName;
+		this.durability = durability;
+		this.segment = segment;
+		this.channel = openSegment(segment);
+		this.compactor = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "journal-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		if (durability == Durability.ASYNC) {
+			Thread flusher = new Thread(this::flushPeriodically, "journal-flusher");
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+	}
+
+	/**
+	 * Creates a journal for a shop which has no snapshot yet, deleting any segments left behind.
+	 * The shop is expected to save its snapshot right after the journal is attached.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param snapshotFileName the snapshot file the full segments are compacted into.
+	 * @param durability when changes are forced to the disk.
+	 * @return the new journal.
+	 */
+	public static Journal create(String fileName, String snapshotFileName, Durability durability) throws IOException {
+		ArrayList<Long> segments = listSegments(fileName);
+		for (long existing : segments) {
+			deleteSegment(fileName, existing);
+		}
+		return new Journal(fileName, snapshotFileName, 1, durability);
+	}
+
+	/**
+	 * Opens the journal of a shop restored from its snapshot and replays the segments the
+	 * snapshot does not contain onto the inventory, then starts appending into a new segment.
+	 * The replayed segments are compacted into the snapshot in the background.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param snapshotFileName the snapshot file the inventory was restored from.
+	 * @param firstSegment the first segment the snapshot does not contain.
+	 * @param durability when changes are forced to the disk.
+	 * @param inventory the inventory restored from the snapshot, not yet used by other threads.
+	 * @return the opened journal.
+	 */
+	public static Journal open(String fileName, String snapshotFileName, long firstSegment, Durability durability,
+			Inventory inventory) throws IOException {
+		ArrayList<Long> segments = listSegments(fileName);
+		long last = firstSegment - 1;
+		for (int i = 0; i < segments.size(); i++) {
+			long existing = segments.get(i);
+			if (existing < firstSegment) {
+				deleteSegment(fileName, existing); //already inside the snapshot, left by an interrupted compaction
+				continue;
+			}
+			replaySegment(fileName, existing, inventory, i == segments.size() - 1);
+			last = existing;
+		}
+
+		Journal journal = new Journal(fileName, snapshotFileName, Math.max(last + 1, 1), durability);
+		if (last >= firstSegment)
+			journal.compactInBackground();
+		return journal;
+	}
+
+	/**
+	 * Returns the durability mode of the journal.
+	 *
+	 * @return when changes are forced to the disk.
+	 */
+	public Durability getDurability() {
+		return durability;
+	}
+
+	/**
+	 * Returns the number of times records were forced to the disk so far.
+	 *
+	 * @return the number of fsync calls made by the journal.
+	 */
+	public synchronized long getForceCount() {
+		return forceCount;
+	}
+
+	/**
+	 * Returns the number of records appended so far, the sequence number of the last record.
+	 *
+	 * @return the number of records appended.
+	 */
+	public synchronized long getAppendedCount() {
+		return appendedCount;
+	}
+
+	/**
+	 * Returns the number of records appended before the last rotation. A snapshot taken while the
+	 * journal rotated holds exactly the changes of these records.
+	 *
+	 * @return the number of records before the last rotation.
+	 */
+	public synchronized long getRotatedCount() {
+		return rotatedCount;
+	}
+
+	/**
+	 * Hands every record appended from now on to a replication leader, in the order they are appended.
+	 *
+	 * @param replication the leader (or null to stop).
+	 */
+	public synchronized void setReplication(ReplicationLeader replication) {
+		this.replication = replication;
+	}
+
+	/**
+	 * Appends a new item.
+	 *
+	 * @param item the item added to the inventory.
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	public synchronized long appendNewItem(Item item) {
+		int start = begin(NEW_ITEM);
+		pending.putInt(item.getId());
+		putText(item.getName());
+		pending.putInt(item.getQty());
+		pending.putDouble(item.getPrice());
+		pending.putInt(item.getSupplierId());
+		return end(start);
+	}
+
+	/**
+	 * Appends the quantity of an item after a change, and the order line the change raised if any.
+	 * Must be called while the item is locked, so the records of an item are in the order of its changes.
+	 *
+	 * @param itemId the id number of the item.
+	 * @param qty the quantity of the item after the change.
+	 * @param raised the order line raised by the change (or null).
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	public synchronized long appendStock(int itemId, int qty, OrderLine raised) {
+		int start = begin(STOCK);
+		pending.putInt(itemId);
+		pending.putInt(qty);
+		long count = end(start);
+
+		if (raised != null) {
+			start = begin(ORDER_LINE);
+			pending.putInt(raised.getId());
+			putText(raised.getName());
+			pending.putInt(raised.getQty());
+			pending.putInt(raised.getSupplierId());
+			count = end(start);
+		}
+		return count;
+	}
+
+	/**
+	 * Appends the reorder level and target of an item after they were set.
+	 * Must be called while the item is locked, before the order line the new level raises is appended.
+	 *
+	 * @param itemId the id number of the item.
+	 * @param level the reorder level of the item.
+	 * @param target the reorder target of the item.
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	public synchronized long appendReorderLevels(int itemId, int level, int target) {
+		int start = begin(REORDER_LEVELS);
+		pending.putInt(itemId);
+		pending.putInt(level);
+		pending.putInt(target);
+		return end(start);
+	}
+
+	/**
+	 * Appends the item ids of the order lines taken from the inventory for good.
+	 * Replaying the record removes the oldest pending line of each id, so lines raised for the
+	 * same items after the lines were taken stay pending.
+	 *
+	 * @param drained the order lines taken.
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	public synchronized long appendDrain(ArrayList<OrderLine> drained) {
+		int start = begin(DRAIN);
+		pending.putInt(drained.size());
+		for (OrderLine ol : drained) {
+			ensureCapacity(4);
+			pending.putInt(ol.getId());
+		}
+		return end(start);
+	}
+
+	/**
+	 * Appends the id of an order submitted and the item ids of its order lines, which were taken
+	 * from the inventory for good. Replaying the record removes the lines as a drain record does.
+	 *
+	 * @param orderId the id number of the order.
+	 * @param lines the order lines of the order.
+	 * @return the number of records appended so far, to be passed to sync.
+	 */
+	public synchronized long appendSubmit(int orderId, ArrayList<OrderLine> lines) {
+		int start = begin(SUBMIT);
+		pending.putInt(orderId);
+		pending.putInt(lines.size());
+		for (OrderLine ol : lines) {
+			ensureCapacity(4);
+			pending.putInt(ol.getId());
+		}
+		return end(start);
+	}
+
+	/**
+	 * Waits until the records appended so far (up to the count returned by an append) are
+	 * as durable as the mode of the journal promises. In group mode the first thread to wait
+	 * writes and forces every record appended meanwhile, the others wait for it.
+	 * In asynchronous mode it only reports a failed background write.
+	 *
+	 * @param count the number of records returned by the append.
+	 */
+	public void sync(long count) {
+		if (durability != Durability.GROUP) {
+			synchronized (this) { //already forced in sync mode, forced in the background in asynchronous mode
+				if (failure != null)
+					throw new UncheckedIOException("Could not write the journal", failure);
+			}
+			return;
+		}
+
+		try {
+			flushTo(count);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write the journal", e);
+		}
+	}
+
+	/**
+	 * Writes and forces every record appended so far into the current segment and starts a new one.
+	 * Called while a snapshot of the inventory is taken, with every change held off, so the
+	 * snapshot contains exactly the segments before the new one.
+	 *
+	 * @return the number of the new segment.
+	 */
+	public long rotate() throws IOException {
+		long count;
+		synchronized (this) {
+			count = appendedCount;
+		}
+		flushTo(count);
+
+		synchronized (this) {
+			while (flushing) {
+				waitForFlush();
+			}
+			startNextSegment();
+			rotatedCount = appendedCount;
+			return segment;
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the inventory into the snapshot file of the journal and deletes the
+	 * segments it contains.
+	 *
+	 * @param inventory the inventory attached to the journal.
+	 * @param suppliers the suppliers of the shop.
+	 */
+	public void saveSnapshot(Inventory inventory, ArrayList<Supplier> suppliers) throws IOException {
+		synchronized (snapshotLock) { //not at the same time as a compaction writing the same file
+			long first = SnapshotFile.write(snapshotFileName, inventory, suppliers, 0);
+			deleteSegmentsBefore(first);
+		}
+	}
+
+	/**
+	 * Returns the snapshot file the journal compacts into.
+	 *
+	 * @return the name of the snapshot file.
+	 */
+	public String getSnapshotFileName() {
+		return snapshotFileName;
+	}
+
+	/**
+	 * Writes and forces the records appended so far, closes the current segment and waits
+	 * for a compaction in progress to finish.
+	 */
+	public void close() throws IOException {
+		long count;
+		synchronized (this) {
+			count = appendedCount;
+		}
+		flushTo(count);
+
+		synchronized (this) {
+			while (flushing) {
+				waitForFlush();
+			}
+			closed = true;
+			channel.close();
+			notifyAll();
+		}
+
+		compactor.shutdown();
+		try {
+			compactor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Starts a record of the specified type in the pending buffer, leaving room for its length.
+	 *
+	 * @param type the type of the record.
+	 * @return the position of the record inside the pending buffer.
+	 */
+	private int begin(byte type) {
+		if (closed)
+			throw new IllegalStateException("The journal is closed.");
+		if (failure != null) //e.g. a background write failed, the change could never be made durable
+			throw new UncheckedIOException("Could not write the journal", failure);
+		ensureCapacity(64);
+		int start = pending.position();
+		pending.putInt(0); //length, filled in by end
+		pending.put(type);
+		return start;
+	}
+
+	/**
+	 * Completes the record started at the specified position with its length and checksum.
+	 * In sync mode the record is written and forced before returning.
+	 *
+	 * @param start the position of the record inside the pending buffer.
+	 * @return the number of records appended so far.
+	 */
+	private long end(int start) {
+		int length = pending.position() - start - 4;
+		pending.putInt(start, length);
+
+		crc.reset();
+		crc.update(pending.array(), start + 4, length);
+		ensureCapacity(4);
+		pending.putInt((int) crc.getValue());
+		appendedCount++;
+		if (replication != null)
+			replication.append(appendedCount, pending.array(), start, length + 8); //in the order of the changes, under this lock
+
+		if (durability == Durability.SYNC) {
+			try {
+				writePending(); //one write and one force per record, under the lock of the journal
+				channel.force(false);
+				forceCount++;
+				durableCount = appendedCount;
+				if (segmentBytes >= SEGMENT_SIZE)
+					startNextSegment();
+			} catch (IOException e) {
+				failure = e;
+				throw new UncheckedIOException("Could not write the journal", e);
+			}
+		}
+		return appendedCount;
+	}
+
+	/**
+	 * Writes a text into the pending buffer as its UTF-8 length followed by its bytes, or -1 for null.
+	 *
+	 * @param text the text to write (can be null).
+	 */
+	private void putText(String text) {
+		if (text == null) {
+			pending.putInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(bytes.length + 4);
+		pending.putInt(bytes.length);
+		pending.put(bytes);
+	}
+
+	/**
+	 * Grows the pending buffer if it cannot hold the specified number of bytes more.
+	 *
+	 * @param bytes the number of bytes about to be put.
+	 */
+	private void ensureCapacity(int bytes) {
+		if (pending.remaining() < bytes + 32) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes + 64));
+			pending.flip();
+			grown.put(pending);
+			pending = grown;
+		}
+	}
+
+	/**
+	 * Writes every record in the pending buffer into the current segment, while the lock of the journal is held.
+	 */
+	private void writePending() throws IOException {
+		pending.flip();
+		while (pending.hasRemaining()) {
+			segmentBytes += channel.write(pending);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Makes the records up to the specified count durable. The first waiting thread becomes the
+	 * writer: it takes every pending record, writes and forces them outside the lock and wakes
+	 * the others, which return if their records were among them or take the next turn otherwise.
+	 *
+	 * @param count the number of records to make durable.
+	 */
+	private void flushTo(long count) throws IOException {
+		ByteBuffer batch;
+		FileChannel target;
+		long batchCount;
+
+		synchronized (this) {
+			while (durableCount < count && flushing) {
+				waitForFlush();
+			}
+			if (failure != null)
+				throw failure;
+			if (durableCount >= count || closed)
+				return;
+
+			flushing = true;
+			batch = pending;
+			pending = spare;
+			batchCount = appendedCount;
+			target = channel;
+		}
+
+		try {
+			batch.flip();
+			long written = 0;
+			while (batch.hasRemaining()) {
+				written += target.write(batch);
+			}
+			target.force(false);
+			batch.clear();
+
+			synchronized (this) {
+				spare = batch;
+				forceCount++;
+				durableCount = batchCount;
+				segmentBytes += written;
+				flushing = false;
+				if (segmentBytes >= SEGMENT_SIZE)
+					startNextSegment();
+				notifyAll();
+			}
+		} catch (IOException e) {
+			synchronized (this) {
+				failure = e;
+				flushing = false;
+				notifyAll();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits for the writing thread to finish, while the lock of the journal is held.
+	 */
+	private void waitForFlush() throws IOException {
+		try {
+			wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the journal to be written.");
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Writes the pending records every few milliseconds, used in asynchronous mode.
+	 * A failed write is recorded and stops the thread: the records of the failed batch are lost,
+	 * so the next append or sync throws the failure instead of being taken as journaled.
+	 */
+	private void flushPeriodically() {
+		while (true) {
+			long count;
+			synchronized (this) {
+				if (closed)
+					return;
+				try {
+					wait(ASYNC_INTERVAL_MS);
+				} catch (InterruptedException e) {
+					return;
+				}
+				count = appendedCount;
+			}
+			try {
+				flushTo(count);
+			} catch (IOException e) {
+				System.err.println("Could not write the journal: " + e.getMessage());
+				return; //recorded as the failure by flushTo
+			}
+		}
+	}
+
+	/**
+	 * Closes the current segment and starts appending into the next one, while the lock of the
+	 * journal is held and no write is in progress. The closed segment is compacted in the background.
+	 */
+	private void startNextSegment() throws IOException {
+		writePending(); //records appended by sync or asynchronous callers belong to the closing segment
+		channel.force(false);
+		forceCount++;
+		durableCount = appendedCount;
+		channel.close();
+
+		segment++;
+		segmentBytes = 0;
+		channel = openSegment(segment);
+		compactInBackground();
+	}
+
+	/**
+	 * Opens a segment file for appending, creating it if needed.
+	 *
+	 * @param number the number of the segment.
+	 * @return the channel of the segment.
+	 */
+	private FileChannel openSegment(long number) throws IOException {
+		return FileChannel.open(segmentFile(fileName, number).toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Schedules the full segments to be replayed onto the snapshot in the background.
+	 */
+	private void compactInBackground() {
+		compactor.execute(() -> {
+			try {
+				compact();
+			} catch (IOException | RuntimeException e) {
+				System.err.println("Journal compaction failed: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Replays the full segments onto a copy of the inventory restored from the snapshot, saves the
+	 * copy as the new snapshot and deletes the segments. The inventory in use is not touched.
+	 */
+	private void compact() throws IOException {
+		long current;
+		synchronized (this) {
+			current = segment;
+		}
+
+		synchronized (snapshotLock) {
+			SnapshotFile snapshot = SnapshotFile.read(snapshotFileName);
+			long first = snapshot.getJournalSegment();
+			if (first >= current)
+				return; //nothing full which the snapshot does not contain already
+
+			Inventory inventory = snapshot.restoreInventory(false);
+			for (long number = first; number < current; number++) {
+				if (segmentFile(fileName, number).exists())
+					replaySegment(fileName, number, inventory, false);
+			}
+			SnapshotFile.write(snapshotFileName, inventory, snapshot.getSuppliers(), current);
+			deleteSegmentsBefore(current);
+		}
+	}
+
+	/**
+	 * Deletes the segments before the specified one, which a snapshot already contains.
+	 *
+	 * @param first the first segment to keep.
+	 */
+	private void deleteSegmentsBefore(long first) throws IOException {
+		for (long existing : listSegments(fileName)) {
+			if (existing < first)
+				deleteSegment(fileName, existing);
+		}
+	}
+
+	/**
+	 * Replays the records of a segment onto an inventory. A record torn by a crash can only be
+	 * at the end of the last segment, it is dropped there and the segment is cut before it.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param number the number of the segment.
+	 * @param inventory the inventory to replay the records onto.
+	 * @param last true if this is the last segment written before the restart.
+	 */
+	private static void replaySegment(String fileName, long number, Inventory inventory, boolean last) throws IOException {
+		File file = segmentFile(fileName, number);
+		long valid = 0;
+		CRC32 check = new CRC32();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break; //clean end of the segment
+				}
+				if (length <= 0 || length > SEGMENT_SIZE) {
+					valid = -valid - 1;
+					break;
+				}
+
+				byte[] record = new byte[length];
+				int checksum;
+				try {
+					in.readFully(record);
+					checksum = in.readInt();
+				} catch (EOFException e) {
+					valid = -valid - 1;
+					break;
+				}
+				check.reset();
+				check.update(record, 0, length);
+				if ((int) check.getValue() != checksum) {
+					valid = -valid - 1;
+					break;
+				}
+
+				apply(ByteBuffer.wrap(record), inventory);
+				valid += length + 8;
+			}
+		}
+
+		if (valid < 0) {
+			if (!last)
+				throw new IOException(file.getName() + " is corrupt at byte " + (-valid - 1) + ".");
+			try (FileChannel truncate = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				truncate.truncate(-valid - 1); //drop the torn record so that nothing is appended after it
+			}
+		}
+	}
+
+	/**
+	 * Applies a single record onto an inventory, e.g. a record streamed to a follower shop.
+	 *
+	 * @param record the type and data of the record.
+	 * @param inventory the inventory to apply the record onto.
+	 */
+	static void apply(ByteBuffer record, Inventory inventory) throws IOException {
+		byte type = record.get();
+		switch (type) {
+		case NEW_ITEM:
+			inventory.replayNewItem(record.getInt(), getText(record), record.getInt(), record.getDouble(), record.getInt());
+			break;
+		case STOCK:
+			inventory.replayStock(record.getInt(), record.getInt());
+			break;
+		case ORDER_LINE:
+			OrderLine ol = new OrderLine();
+			ol.setId(record.getInt());
+			ol.setName(getText(record));
+			ol.setQty(record.getInt());
+			ol.setSupplierId(record.getInt());
+			inventory.replayOrderLine(ol);
+			break;
+		case DRAIN:
+			int[] ids = new int[record.getInt()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = record.getInt();
+			}
+			inventory.replayDrain(ids);
+			break;
+		case SUBMIT:
+			int orderId = record.getInt();
+			int[] lineIds = new int[record.getInt()];
+			for (int i = 0; i < lineIds.length; i++) {
+				lineIds[i] = record.getInt();
+			}
+			inventory.replaySubmit(orderId, lineIds);
+			break;
+		case REORDER_LEVELS:
+			inventory.replayReorderLevels(record.getInt(), record.getInt(), record.getInt());
+			break;
+		default:
+			throw new IOException("Unknown journal record type " + type + ".");
+		}
+	}
+
+	/**
+	 * Reads a text written by putText.
+	 *
+	 * @param record the record at the start of the text.
+	 * @return the text read (or null).
+	 */
+	private static String getText(ByteBuffer record) {
+		int length = record.getInt();
+		if (length < 0)
+			return null;
+		String text = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+		record.position(record.position() + length);
+		return text;
+	}
+
+	/**
+	 * Returns the numbers of the existing segments, in ascending order.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @return the numbers of the existing segments.
+	 */
+	private static ArrayList<Long> listSegments(String fileName) {
+		File base = new File(fileName).getAbsoluteFile();
+		String prefix = base.getName() + ".";
+		ArrayList<Long> segments = new ArrayList<Long>();
+
+		String[] names = base.getParentFile().list();
+		for (int i = 0; names != null && i < names.length; i++) {
+			if (!names[i].startsWith(prefix))
+				continue;
+			try {
+				segments.add(Long.parseLong(names[i].substring(prefix.length())));
+			} catch (NumberFormatException e) {
+				//another file sharing the name, not a segment
+			}
+		}
+		Collections.sort(segments);
+		return segments;
+	}
+
+	/**
+	 * Returns the file of a segment.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param number the number of the segment.
+	 * @return the file of the segment.
+	 */
+	private static File segmentFile(String fileName, long number) {
+		return new File(fileName + "." + number);
+	}
+
+	/**
+	 * Deletes the file of a segment.
+	 *
+	 * @param fileName the file name segments are numbered after.
+	 * @param number the number of the segment.
+	 */
+	private static void deleteSegment(String fileName, long number) throws IOException {
+		File file = segmentFile(fileName, number);
+		if (file.exists() && !file.delete())
+			throw new IOException("Could not delete " + file.getName() + ".");
+	}
+}
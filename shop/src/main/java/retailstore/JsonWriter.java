@@ -0,0 +1,315 @@
+package retailstore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Implementation of a JSON encoder for the Retail Store.
+ * Writes objects, arrays and values straight into a reusable UTF-8 byte buffer, adding the commas
+ * itself, so that encoding a response allocates nothing once the buffer has grown to its size.
+ * Numbers are written digit by digit and prices with two decimals are written as they are shown,
+ * without going through strings. A writer is not thread-safe, it encodes one response at a time.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class JsonWriter {
+
+	/** the hexadecimal digits of escaped control characters */
+	private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+	/** the encoded bytes */
+	private byte[] buffer;
+
+	/** the number of encoded bytes */
+	private int size;
+
+	/** true if a comma must be written before the next name or value */
+	private boolean needComma;
+
+	/**
+	 * Default JsonWriter Class Constructor
+	 *
+	 */
+	public JsonWriter() {
+		this.buffer = new byte[512];
+	}
+
+	/**
+	 * Empties the writer, keeping its buffer for the next encoding.
+	 *
+	 * @return this writer.
+	 */
+	public JsonWriter reset() {
+		size = 0;
+		needComma = false;
+		return this;
+	}
+
+	/**
+	 * Starts an object.
+	 *
+	 * @return this writer.
+	 */
+	public JsonWriter beginObject() {
+		separate();
+		put('{');
+		needComma = false;
+		return this;
+	}
+
+	/**
+	 * Ends an object.
+	 *
+	 * @return this writer.
+	 */
+	public JsonWriter endObject() {
+		put('}');
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Starts an array.
+	 *
+	 * @return this writer.
+	 */
+	public JsonWriter beginArray() {
+		separate();
+		put('[');
+		needComma = false;
+		return this;
+	}
+
+	/**
+	 * Ends an array.
+	 *
+	 * @return this writer.
+	 */
+	public JsonWriter endArray() {
+		put(']');
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes the name of the next member of an object.
+	 *
+	 * @param name the name of the member.
+	 * @return this writer.
+	 */
+	public JsonWriter name(String name) {
+		separate();
+		string(name);
+		put(':');
+		needComma = false;
+		return this;
+	}
+
+	/**
+	 * Writes a string value, or null.
+	 *
+	 * @param value the string.
+	 * @return this writer.
+	 */
+	public JsonWriter value(String value) {
+		separate();
+		if (value == null)
+			ascii("null");
+		else
+			string(value);
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes a whole number value.
+	 *
+	 * @param value the number.
+	 * @return this writer.
+	 */
+	public JsonWriter value(long value) {
+		separate();
+		number(value);
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes a number value, numbers with at most two decimals (e.g. prices) are written without a string.
+	 * Values which are not numbers or infinite are written as null.
+	 *
+	 * @param value the number.
+	 * @return this writer.
+	 */
+	public JsonWriter value(double value) {
+		separate();
+		long whole = Math.round(value * 100);
+		if (Math.abs(whole) < 1L << 52 && whole / 100.0 == value) { //the two decimals read back as the same number
+			if (whole < 0) {
+				put('-');
+				whole = -whole;
+			}
+			number(whole / 100);
+			put('.');
+			put((char) ('0' + whole % 100 / 10));
+			put((char) ('0' + whole % 10));
+		} else if (Double.isNaN(value) || Double.isInfinite(value)) {
+			ascii("null");
+		} else {
+			ascii(Double.toString(value));
+		}
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes a boolean value.
+	 *
+	 * @param value the boolean.
+	 * @return this writer.
+	 */
+	public JsonWriter value(boolean value) {
+		separate();
+		ascii(value ? "true" : "false");
+		needComma = true;
+		return this;
+	}
+
+	/**
+	 * Returns the number of encoded bytes.
+	 *
+	 * @return the number of encoded bytes.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the size of the buffer, which grows to the largest encoding so far.
+	 *
+	 * @return the size of the buffer in bytes.
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Writes the encoded bytes to a stream.
+	 *
+	 * @param out the stream to write to.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(buffer, 0, size);
+	}
+
+	/**
+	 * Outputs the encoded JSON.
+	 *
+	 * @return the encoded JSON as a string.
+	 */
+	@Override
+	public String toString() {
+		return new String(buffer, 0, size, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the comma before a name or value, if it follows another one.
+	 */
+	private void separate() {
+		if (needComma)
+			put(',');
+	}
+
+	/**
+	 * Writes a quoted string, escaping quotes, backslashes and control characters and encoding the rest as UTF-8.
+	 */
+	private void string(String value) {
+		ensure(value.length() * 6 + 2); //a char is at most six bytes escaped, a surrogate pair four bytes for two chars
+		buffer[size++] = '"';
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+				buffer[size++] = (byte) c;
+			} else if (c == '"' || c == '\\') {
+				buffer[size++] = '\\';
+				buffer[size++] = (byte) c;
+			} else if (c < 0x20) {
+				buffer[size++] = '\\';
+				buffer[size++] = 'u';
+				buffer[size++] = '0';
+				buffer[size++] = '0';
+				buffer[size++] = HEX[c >> 4];
+				buffer[size++] = HEX[c & 0xF];
+			} else if (c < 0x800) {
+				buffer[size++] = (byte) (0xC0 | c >> 6);
+				buffer[size++] = (byte) (0x80 | c & 0x3F);
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[size++] = (byte) (0xF0 | codePoint >> 18);
+				buffer[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+				buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+				buffer[size++] = (byte) (0x80 | codePoint & 0x3F);
+			} else {
+				buffer[size++] = (byte) (0xE0 | c >> 12); //a lone surrogate is written as it is
+				buffer[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+				buffer[size++] = (byte) (0x80 | c & 0x3F);
+			}
+		}
+		buffer[size++] = '"';
+	}
+
+	/**
+	 * Writes the digits of a whole number.
+	 */
+	private void number(long value) {
+		if (value == Long.MIN_VALUE) {
+			ascii(Long.toString(value));
+			return;
+		}
+		ensure(20);
+		if (value < 0) {
+			buffer[size++] = '-';
+			value = -value;
+		}
+		int digits = 1;
+		for (long rest = value / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+		for (int i = size + digits - 1; i >= size; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		size += digits;
+	}
+
+	/**
+	 * Writes ASCII text as it is.
+	 */
+	private void ascii(String text) {
+		ensure(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			buffer[size++] = (byte) text.charAt(i);
+		}
+	}
+
+	/**
+	 * Writes an ASCII character.
+	 */
+	private void put(char c) {
+		ensure(1);
+		buffer[size++] = (byte) c;
+	}
+
+	/**
+	 * Grows the buffer to hold at least the specified number of bytes more.
+	 */
+	private void ensure(int more) {
+		if (size + more > buffer.length)
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + more));
+	}
+}
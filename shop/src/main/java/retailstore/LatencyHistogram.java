@@ -0,0 +1,177 @@
+package retailstore;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a latency histogram for the Retail Store.
+ * Counts recorded values (e.g. nanoseconds) in buckets whose width grows with the value,
+ * 32 buckets for each power of two, so that any percentile is reported within about 3%
+ * of the recorded value while the histogram stays a fixed size.
+ * A histogram is not thread-safe, each thread records into its own and they are added together.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class LatencyHistogram {
+
+	/** the number of buckets for each power of two, as a power of two */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	/** the number of buckets for each power of two */
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** the number of buckets of a histogram */
+	static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	/** the number of values recorded in each bucket */
+	private final long[] counts = new long[BUCKET_COUNT];
+
+	/** the number of values recorded */
+	private long count;
+
+	/** the sum of the values recorded */
+	private long sum;
+
+	/** the highest value recorded */
+	private long max;
+
+	/**
+	 * Records a value, negative values are recorded as 0.
+	 *
+	 * @param value the value to record.
+	 */
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		counts[bucket(value)]++;
+		count++;
+		sum += value;
+		if (value > max)
+			max = value;
+	}
+
+	/**
+	 * Adds the values recorded by another histogram to this one.
+	 *
+	 * @param other the histogram to add.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Adds values recorded elsewhere into one bucket, e.g. by a recorder shared between threads.
+	 *
+	 * @param bucket the index of the bucket, as returned by bucket.
+	 * @param bucketCount the number of values to add to the bucket.
+	 */
+	void addBucket(int bucket, long bucketCount) {
+		counts[bucket] += bucketCount;
+		count += bucketCount;
+	}
+
+	/**
+	 * Adds the sum and highest value of values added with addBucket.
+	 *
+	 * @param valueSum the sum of the values.
+	 * @param valueMax the highest of the values.
+	 */
+	void addTotals(long valueSum, long valueMax) {
+		sum += valueSum;
+		max = Math.max(max, valueMax);
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @return the number of values recorded.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the highest value recorded.
+	 *
+	 * @return the highest value recorded (or 0 if none was recorded).
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the mean of the values recorded.
+	 *
+	 * @return the mean of the values recorded (or 0 if none was recorded).
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * Returns the value below or at which the specified percentage of the recorded values are.
+	 *
+	 * @param percent the percentage, from 0 to 100.
+	 * @return the highest value of the bucket holding the percentile, at most the highest value recorded.
+	 */
+	public long getPercentile(double percent) {
+		if (count == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percent / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target)
+				return Math.min(highestValue(i), max);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the bucket of a value.
+	 *
+	 * @param value the value, not negative.
+	 * @return the index of the bucket counting the value.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value; //small values are counted exactly
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * Returns the highest value counted in a bucket.
+	 *
+	 * @param bucket the index of the bucket.
+	 * @return the highest value of the bucket.
+	 */
+	private static long highestValue(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,375 @@
+package retailstore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load driver for the Retail Store.
+ * Runs a mix of searches, decrements, restocks and order creations against a shop from several
+ * threads and reports the throughput and latency percentiles of each kind of operation.
+ * Items are picked with a Zipf distribution over a random popularity ranking of the catalog.
+ * In a closed loop each thread issues its next operation as soon as the previous one returned,
+ * which measures the highest throughput. In an open loop operations arrive at a target rate
+ * whether or not earlier ones returned, and latency is measured from the time an operation was
+ * due, so that time spent queued behind slow operations is counted too.
+ * Usage: java retailstore.LoadDriver [items file] [suppliers file] [closed|open] [threads] [seconds] [rate] [mix] [skew]
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class LoadDriver {
+
+	/** the default mix of operations, as weights of each operation */
+	public static final String DEFAULT_MIX = "search=35,name=10,check=20,decrement=25,restock=8,order=2";
+
+	/**
+	 * The kinds of operations of the mix.
+	 */
+	private enum Operation {
+		/** searching an item by id */
+		SEARCH,
+		/** searching an item by name */
+		NAME,
+		/** checking the quantity of an item */
+		CHECK,
+		/** decreasing the quantity of an item by 1 to 3, which may raise an order line */
+		DECREMENT,
+		/** increasing the quantity of an item by 10 to 50 */
+		RESTOCK,
+		/** creating an order from the raised order lines and submitting it */
+		ORDER
+	}
+
+	/** the shop the operations run against */
+	private final Shop shop;
+
+	/** the id numbers of the items, most popular first */
+	private final int[] itemIds;
+
+	/** the names of the items, at the same positions as their id numbers */
+	private final String[] itemNames;
+
+	/** the running total of the weights of the operations, in the order of the operations */
+	private final int[] mixTotals;
+
+	/** the exponent of the Zipf distribution of item popularity */
+	private final double skew;
+
+	/**
+	 * LoadDriver Class Constructor
+	 * Ranks the items of the shop by popularity in a random order.
+	 *
+	 * @param shop the shop the operations run against.
+	 * @param mix the weights of the operations, e.g. "search=35,decrement=25,order=2".
+	 * @param skew the exponent of the Zipf distribution of item popularity (0 for uniform).
+	 * @param seed the seed of the random popularity ranking.
+	 */
+	public LoadDriver(Shop shop, String mix, double skew, long seed) {
+		this.shop = shop;
+		this.skew = skew;
+		this.mixTotals = parseMix(mix);
+
+		Inventory inventory = shop.getInventory();
+		int count = inventory.getItemCount();
+		this.itemIds = new int[count];
+		this.itemNames = new String[count];
+		for (int offset = 0; offset < count;) {
+			ArrayList<Item> page = inventory.listItems(offset, 4096);
+			for (Item item : page) {
+				itemIds[offset] = item.getId();
+				itemNames[offset] = item.getName();
+				offset++;
+			}
+		}
+
+		Random random = new Random(seed);
+		for (int i = count - 1; i > 0; i--) { //popularity does not follow the order of the file
+			int j = random.nextInt(i + 1);
+			int id = itemIds[i];
+			itemIds[i] = itemIds[j];
+			itemIds[j] = id;
+			String name = itemNames[i];
+			itemNames[i] = itemNames[j];
+			itemNames[j] = name;
+		}
+	}
+
+	/**
+	 * Runs the mix in a closed loop, each thread issuing operations back to back.
+	 *
+	 * @param threads the number of threads issuing operations.
+	 * @param millis how long the threads run for.
+	 * @return the latencies of each kind of operation, in nanoseconds, and the time it took.
+	 */
+	public Result runClosed(int threads, long millis) {
+		return run(threads, millis, 0);
+	}
+
+	/**
+	 * Runs the mix in an open loop, operations arriving at random times at the target rate over all threads.
+	 *
+	 * @param threads the number of threads issuing operations.
+	 * @param millis how long operations arrive for.
+	 * @param rate the target number of operations per second over all threads.
+	 * @return the latencies of each kind of operation from the time they were due, in nanoseconds, and the time it took.
+	 */
+	public Result runOpen(int threads, long millis, double rate) {
+		return run(threads, millis, threads * 1e9 / rate);
+	}
+
+	/**
+	 * The latencies measured by a run.
+	 */
+	public static final class Result {
+
+		/** the latencies of each kind of operation, in the order of the operations */
+		private final LatencyHistogram[] latencies;
+
+		/** the time the run took, in nanoseconds */
+		private final long elapsed;
+
+		/**
+		 * Result Class Constructor
+		 *
+		 * @param latencies the latencies of each kind of operation.
+		 * @param elapsed the time the run took, in nanoseconds.
+		 */
+		Result(LatencyHistogram[] latencies, long elapsed) {
+			this.latencies = latencies;
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * Returns the number of operations run per second over all threads.
+		 *
+		 * @return the throughput of the run.
+		 */
+		public double getThroughput() {
+			return total().getCount() * 1e9 / elapsed;
+		}
+
+		/**
+		 * Returns the latencies of all operations together.
+		 *
+		 * @return the latencies of all operations, in nanoseconds.
+		 */
+		public LatencyHistogram total() {
+			LatencyHistogram total = new LatencyHistogram();
+			for (LatencyHistogram latency : latencies) {
+				total.add(latency);
+			}
+			return total;
+		}
+
+		/**
+		 * Outputs a table of the throughput and latency percentiles of each kind of operation.
+		 *
+		 * @return the table, one line per kind of operation and one for all of them.
+		 */
+		@Override
+		public String toString() {
+			StringBuilder out = new StringBuilder();
+			out.append("operation | ops       | ops/s      | p50 us   | p90 us   | p99 us   | p99.9 us | max us\n");
+			for (Operation operation : Operation.values()) {
+				appendRow(out, operation.name().toLowerCase(Locale.ROOT), latencies[operation.ordinal()]);
+			}
+			appendRow(out, "all", total());
+			return out.toString();
+		}
+
+		/**
+		 * Appends the line of a kind of operation to the table.
+		 *
+		 * @param out the table.
+		 * @param name the name of the kind of operation.
+		 * @param latency the latencies of the operations, in nanoseconds.
+		 */
+		private void appendRow(StringBuilder out, String name, LatencyHistogram latency) {
+			out.append(String.format(Locale.ROOT, "%-9s | %9d | %10.0f | %8.1f | %8.1f | %8.1f | %8.1f | %.1f%n", name,
+					latency.getCount(), latency.getCount() * 1e9 / elapsed, latency.getPercentile(50) / 1e3,
+					latency.getPercentile(90) / 1e3, latency.getPercentile(99) / 1e3,
+					latency.getPercentile(99.9) / 1e3, latency.getMax() / 1e3));
+		}
+	}
+
+	/**
+	 * Runs the mix from several threads and adds up their latencies.
+	 *
+	 * @param threads the number of threads issuing operations.
+	 * @param millis how long the threads run for.
+	 * @param meanInterval the mean time between operations of a thread in nanoseconds (or 0 for a closed loop).
+	 * @return the latencies of each kind of operation and the time the run took.
+	 */
+	private Result run(int threads, long millis, double meanInterval) {
+		LatencyHistogram[][] latencies = new LatencyHistogram[threads][];
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+		long deadline = start + millis * 1_000_000L;
+
+		for (int t = 0; t < threads; t++) {
+			final LatencyHistogram[] latency = latencies[t] = new LatencyHistogram[Operation.values().length];
+			for (int i = 0; i < latency.length; i++) {
+				latency[i] = new LatencyHistogram();
+			}
+			final Random random = new Random(t);
+			workers[t] = new Thread(() -> work(random, deadline, meanInterval, latency), "load-driver-" + t);
+			workers[t].start();
+		}
+
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		LatencyHistogram[] total = new LatencyHistogram[Operation.values().length];
+		for (int i = 0; i < total.length; i++) {
+			total[i] = new LatencyHistogram();
+			for (LatencyHistogram[] latency : latencies) {
+				total[i].add(latency[i]);
+			}
+		}
+		return new Result(total, elapsed);
+	}
+
+	/**
+	 * Issues operations of the mix on one thread until the deadline.
+	 *
+	 * @param random the random number generator of the thread.
+	 * @param deadline the time to stop issuing operations at.
+	 * @param meanInterval the mean time between operations in nanoseconds (or 0 for a closed loop).
+	 * @param latency the latencies of each kind of operation, recorded by the thread.
+	 */
+	private void work(Random random, long deadline, double meanInterval, LatencyHistogram[] latency) {
+		ZipfDistribution popularity = new ZipfDistribution(itemIds.length, skew, random);
+		Inventory inventory = shop.getInventory();
+		double due = System.nanoTime();
+
+		while (true) {
+			long start;
+			if (meanInterval > 0) {
+				due += -Math.log(1 - random.nextDouble()) * meanInterval; //random arrivals at the target rate
+				start = (long) due;
+				if (start >= deadline)
+					return;
+				long wait;
+				while ((wait = start - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(wait);
+				}
+			} else {
+				start = System.nanoTime();
+				if (start >= deadline)
+					return;
+			}
+
+			Operation operation = pick(random.nextInt(mixTotals[mixTotals.length - 1]));
+			int rank = popularity.next() - 1;
+			switch (operation) {
+			case SEARCH:
+				inventory.searchItem(itemIds[rank]);
+				break;
+			case NAME:
+				inventory.searchItem(itemNames[rank]);
+				break;
+			case CHECK:
+				inventory.checkQty(itemIds[rank]);
+				break;
+			case DECREMENT:
+				inventory.removeItem(itemIds[rank], 1 + random.nextInt(3));
+				break;
+			case RESTOCK:
+				inventory.addItem(itemIds[rank], null, 10 + random.nextInt(41), 0, 0);
+				break;
+			case ORDER:
+				shop.createOrder();
+				shop.submitOrder();
+				break;
+			}
+			latency[operation.ordinal()].record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Returns the operation of the mix a random number falls on.
+	 *
+	 * @param value a random number from 0 to the total weight of the mix.
+	 * @return the operation whose weight covers the number.
+	 */
+	private Operation pick(int value) {
+		int i = 0;
+		while (value >= mixTotals[i]) {
+			i++;
+		}
+		return Operation.values()[i];
+	}
+
+	/**
+	 * Parses a mix of operations into the running total of their weights.
+	 *
+	 * @param mix the weights of the operations, e.g. "search=35,decrement=25,order=2", missing operations weigh 0.
+	 * @return the running total of the weights, in the order of the operations.
+	 */
+	private static int[] parseMix(String mix) {
+		int[] weights = new int[Operation.values().length];
+		for (String part : mix.split(",")) {
+			String[] pair = part.trim().split("=");
+			if (pair.length != 2)
+				throw new IllegalArgumentException("Mix entry must be operation=weight: " + part);
+			weights[Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)).ordinal()] = Integer.parseInt(pair[1].trim());
+		}
+
+		int[] totals = new int[weights.length];
+		int total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			if (weights[i] < 0)
+				throw new IllegalArgumentException("Mix weights must not be negative.");
+			total += weights[i];
+			totals[i] = total;
+		}
+		if (total == 0)
+			throw new IllegalArgumentException("Mix must have at least one operation.");
+		return totals;
+	}
+
+	/**
+	 * Main method, loads the shop from the files named in the arguments and runs the mix against it.
+	 *
+	 * @param args the items file, the suppliers file, closed or open, the number of threads, the number of seconds,
+	 * the target rate of an open loop, the mix and the skew, all optional.
+	 */
+	public static void main(String[] args) throws IOException {
+		String itemsFileName = args.length > 0 ? args[0] : "items_generated.txt";
+		String suppliersFileName = args.length > 1 ? args[1] : "suppliers_generated.txt";
+		String mode = args.length > 2 ? args[2] : "closed";
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+		int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+		double rate = args.length > 5 ? Double.parseDouble(args[5]) : 100_000;
+		String mix = args.length > 6 ? args[6] : DEFAULT_MIX;
+		double skew = args.length > 7 ? Double.parseDouble(args[7]) : 1.0;
+
+		Shop shop = new Shop(itemsFileName, suppliersFileName, true);
+		LoadDriver driver = new LoadDriver(shop, mix, skew, 42);
+		driver.runClosed(threads, 1000); //warms up the shop before the measured run
+
+		Result result;
+		if (mode.equals("open")) {
+			result = driver.runOpen(threads, seconds * 1000L, rate);
+			System.out.printf("open loop, %d threads, %d s, skew %.2f, target %.0f ops/s: %.0f ops/s%n", threads, seconds,
+					skew, rate, result.getThroughput());
+		} else {
+			result = driver.runClosed(threads, seconds * 1000L);
+			System.out.printf("closed loop, %d threads, %d s, skew %.2f: %.0f ops/s%n", threads, seconds, skew,
+					result.getThroughput());
+		}
+		System.out.print(result);
+	}
+}
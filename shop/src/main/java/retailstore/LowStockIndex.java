@@ -0,0 +1,346 @@
+package retailstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Implementation of the low-stock index of the Retail Store.
+ * Keeps the items of an inventory ordered by how far their quantity is above their reorder level,
+ * so that the items below their reorder level and the items closest to running out are found
+ * without looking at the rest of the catalog.
+ *
+ * Items are kept in buckets of this distance on both sides of the level, log-linear like the buckets
+ * of LatencyHistogram but coarser: one per unit up to 16 away from the level and wider ones further away
+ * (each 1/8 of its power of two). A quantity change moves an item only when it crosses into another
+ * bucket, which is most changes near the level and a few in a hundred far above it, and a move takes
+ * constant time. A query reads the buckets in order, skipping the empty ones with a bitmap, and sorts
+ * only the items read; from the last bucket it reads, only the items it still needs are selected.
+ *
+ * In concurrent mode each bucket is locked on its own while items are added, removed or read. An item
+ * is moved only by the thread changing it, which holds the lock of the item in a concurrent inventory,
+ * so the moves of an item happen in the order of its changes.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class LowStockIndex {
+
+	/** the number of bits of a distance kept by its bucket, each power of two is split into 1 << SUB_BUCKET_BITS buckets */
+	private static final int SUB_BUCKET_BITS = 3;
+
+	/** the number of buckets on each side of the reorder level, the buckets below it come first */
+	private static final int SIDE_BUCKETS = (32 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+	/** orders items by id, to break ties between items as far above their reorder level */
+	private static final Comparator<Item> BY_ID = Comparator.comparingInt(Item::getId);
+
+	/**
+	 * The items whose distance above their reorder level falls into the same range.
+	 */
+	private static final class Bucket {
+
+		/** the items of the bucket, in no order */
+		Item[] members = new Item[4];
+
+		/** the number of items of the bucket */
+		int size;
+	}
+
+	/** the buckets, in the order of the distance of their items above the reorder level */
+	private final Bucket[] buckets = new Bucket[2 * SIDE_BUCKETS];
+
+	/** one bit per bucket, set while the bucket holds items */
+	private final AtomicLongArray occupied = new AtomicLongArray(2 * SIDE_BUCKETS / 64 + 1);
+
+	/** true if items are moved and read by several threads at the same time */
+	private final boolean concurrent;
+
+	/**
+	 * LowStockIndex Class Constructor
+	 *
+	 * @param concurrent true if the index will be used by several threads at the same time.
+	 */
+	public LowStockIndex(boolean concurrent) {
+		this.concurrent = concurrent;
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * Adds an item to the index, or moves it to the bucket of its current quantity and reorder level.
+	 * Called after every change of the quantity or reorder level of the item, by the thread making it.
+	 *
+	 * @param item the item changed.
+	 */
+	public void update(Item item) {
+		int bucket = bucket(item.getQty() - item.getReorderLevel());
+		int old = item.lowStockBucket;
+		if (bucket == old)
+			return; //the common case far above the reorder level
+
+		if (old >= 0) {
+			if (!concurrent) {
+				remove(buckets[old], item);
+			} else {
+				synchronized (buckets[old]) {
+					remove(buckets[old], item);
+				}
+			}
+		}
+		if (!concurrent) {
+			insert(buckets[bucket], item, bucket);
+		} else {
+			synchronized (buckets[bucket]) {
+				insert(buckets[bucket], item, bucket);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of items below their reorder level.
+	 *
+	 * @return the number of items below their reorder level.
+	 */
+	public int countBelowLevel() {
+		int count = 0;
+		for (int i = nextOccupied(0); i < SIDE_BUCKETS; i = nextOccupied(i + 1)) {
+			if (!concurrent) {
+				count += buckets[i].size;
+			} else {
+				synchronized (buckets[i]) {
+					count += buckets[i].size;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the items below their reorder level, furthest below first.
+	 *
+	 * @return the items below their reorder level (empty if none).
+	 */
+	public ArrayList<Item> belowLevel() {
+		ArrayList<Item> found = new ArrayList<Item>();
+		for (int i = nextOccupied(0); i < SIDE_BUCKETS; i = nextOccupied(i + 1)) {
+			copy(buckets[i], found);
+		}
+		return sorted(found, found.size());
+	}
+
+	/**
+	 * Returns the items closest to running out: those furthest below their reorder level first,
+	 * then those closest above it. Items as far above their level are ordered by id.
+	 *
+	 * @param count the number of items to return.
+	 * @return at most count items, closest to running out first.
+	 */
+	public ArrayList<Item> closest(int count) {
+		ArrayList<Item> found = new ArrayList<Item>(Math.min(count, 1024));
+		for (int i = nextOccupied(0); i < buckets.length && found.size() < count; i = nextOccupied(i + 1)) {
+			select(buckets[i], count - found.size(), found);
+		}
+		return sorted(found, count);
+	}
+
+	/**
+	 * Returns the bucket of a distance above the reorder level.
+	 *
+	 * @param margin the quantity less the reorder level.
+	 * @return the index of the bucket.
+	 */
+	private static int bucket(int margin) {
+		if (margin < 0)
+			return SIDE_BUCKETS - 1 - sideBucket(-(margin + 1)); //furthest below the level first
+		return SIDE_BUCKETS + sideBucket(margin);
+	}
+
+	/**
+	 * Returns the bucket of a distance from the reorder level on one side of it.
+	 *
+	 * @param distance the distance, not negative.
+	 * @return the index of the bucket on its side.
+	 */
+	private static int sideBucket(int distance) {
+		if (distance < 1 << SUB_BUCKET_BITS)
+			return distance;
+		int shift = 31 - Integer.numberOfLeadingZeros(distance) - SUB_BUCKET_BITS;
+		return (shift + 1 << SUB_BUCKET_BITS) + (distance >>> shift & (1 << SUB_BUCKET_BITS) - 1);
+	}
+
+	/**
+	 * Returns the first bucket from the specified one on which holds items.
+	 *
+	 * @param from the index of the first bucket to look at.
+	 * @return the index of the bucket (or the number of buckets if none holds items).
+	 */
+	private int nextOccupied(int from) {
+		for (int word = from >>> 6; word < occupied.length(); word++) {
+			long bits = occupied.get(word);
+			if (word == from >>> 6)
+				bits &= -1L << from;
+			if (bits != 0)
+				return Math.min(word << 6 | Long.numberOfTrailingZeros(bits), buckets.length);
+		}
+		return buckets.length;
+	}
+
+	/**
+	 * Sets or clears the bit of a bucket, called while the bucket is locked in concurrent mode.
+	 *
+	 * @param index the index of the bucket.
+	 * @param holdsItems true if the bucket holds items.
+	 */
+	private void setOccupied(int index, boolean holdsItems) {
+		long bit = 1L << index;
+		if (!concurrent)
+			occupied.lazySet(index >>> 6, holdsItems ? occupied.get(index >>> 6) | bit : occupied.get(index >>> 6) & ~bit);
+		else if (holdsItems)
+			occupied.getAndAccumulate(index >>> 6, bit, (bits, set) -> bits | set); //other buckets share the word
+		else
+			occupied.getAndAccumulate(index >>> 6, ~bit, (bits, mask) -> bits & mask);
+	}
+
+	/**
+	 * Adds an item to a bucket, called while the bucket is locked in concurrent mode.
+	 */
+	private void insert(Bucket bucket, Item item, int index) {
+		if (bucket.size == bucket.members.length)
+			bucket.members = Arrays.copyOf(bucket.members, bucket.size * 2);
+		if (bucket.size == 0)
+			setOccupied(index, true);
+		item.lowStockSlot = bucket.size;
+		bucket.members[bucket.size++] = item;
+		item.lowStockBucket = index;
+	}
+
+	/**
+	 * Removes an item from a bucket, moving the last item of the bucket into its slot.
+	 * Called while the bucket is locked in concurrent mode.
+	 */
+	private void remove(Bucket bucket, Item item) {
+		int slot = item.lowStockSlot;
+		Item last = bucket.members[--bucket.size];
+		bucket.members[slot] = last;
+		last.lowStockSlot = slot;
+		bucket.members[bucket.size] = null;
+		if (bucket.size == 0)
+			setOccupied(item.lowStockBucket, false);
+	}
+
+	/**
+	 * Copies the items of a bucket to a list.
+	 */
+	private void copy(Bucket bucket, ArrayList<Item> found) {
+		if (!concurrent) {
+			found.addAll(Arrays.asList(bucket.members).subList(0, bucket.size));
+			return;
+		}
+		synchronized (bucket) {
+			found.addAll(Arrays.asList(bucket.members).subList(0, bucket.size));
+		}
+	}
+
+	/**
+	 * Adds the items of a bucket to a list, or only the specified number of them closest to running
+	 * out if the bucket holds more.
+	 */
+	private void select(Bucket bucket, int limit, ArrayList<Item> found) {
+		if (!concurrent) {
+			selectHolding(bucket, limit, found);
+			return;
+		}
+		synchronized (bucket) {
+			selectHolding(bucket, limit, found);
+		}
+	}
+
+	/**
+	 * Adds the items of a bucket to a list, called while the bucket is locked in concurrent mode.
+	 * If the bucket holds more items than needed, they are passed through a max-heap of the limit
+	 * closest to running out instead of being copied and sorted, so a wide bucket far above the
+	 * reorder level costs a pass over it and no more memory than the items returned.
+	 *
+	 * @param bucket the bucket.
+	 * @param limit the number of items still needed.
+	 * @param found the list receiving the items.
+	 */
+	private static void selectHolding(Bucket bucket, int limit, ArrayList<Item> found) {
+		if (bucket.size <= limit) {
+			found.addAll(Arrays.asList(bucket.members).subList(0, bucket.size));
+			return;
+		}
+
+		long[] keys = new long[limit]; //the root holds the furthest from running out of the items kept
+		Item[] kept = new Item[limit];
+		for (int i = 0; i < bucket.size; i++) {
+			Item item = bucket.members[i];
+			long key = key(item);
+			if (i < limit) {
+				int slot = i;
+				while (slot > 0 && keys[(slot - 1) >>> 1] < key) { //sift up
+					keys[slot] = keys[(slot - 1) >>> 1];
+					kept[slot] = kept[(slot - 1) >>> 1];
+					slot = (slot - 1) >>> 1;
+				}
+				keys[slot] = key;
+				kept[slot] = item;
+			} else if (key < keys[0]) {
+				int slot = 0;
+				while (2 * slot + 1 < limit) { //sift the replaced root down
+					int child = 2 * slot + 1;
+					if (child + 1 < limit && keys[child + 1] > keys[child])
+						child++;
+					if (keys[child] <= key)
+						break;
+					keys[slot] = keys[child];
+					kept[slot] = kept[child];
+					slot = child;
+				}
+				keys[slot] = key;
+				kept[slot] = item;
+			}
+		}
+		found.addAll(Arrays.asList(kept));
+	}
+
+	/**
+	 * Returns the rank of an item among those closest to running out: its distance above the
+	 * reorder level, then its id.
+	 *
+	 * @param item the item.
+	 * @return the key, lower for the items closer to running out.
+	 */
+	private static long key(Item item) {
+		return (long) (item.getQty() - item.getReorderLevel()) << 32 | ((item.getId() & 0xFFFFFFFFL) ^ 0x80000000L);
+	}
+
+	/**
+	 * Orders items by their distance above the reorder level as read once for each item,
+	 * since quantities keep changing while the items are sorted.
+	 *
+	 * @param found the items read from the buckets.
+	 * @param count the number of items to return.
+	 * @return the first count items in order.
+	 */
+	private static ArrayList<Item> sorted(ArrayList<Item> found, int count) {
+		found.sort(BY_ID); //ids do not change, ties in the keys below keep this order
+		long[] keys = new long[found.size()];
+		for (int i = 0; i < keys.length; i++) {
+			Item item = found.get(i);
+			keys[i] = (long) (item.getQty() - item.getReorderLevel()) << 32 | i;
+		}
+		Arrays.sort(keys);
+
+		ArrayList<Item> ranked = new ArrayList<Item>(Math.min(count, keys.length));
+		for (int i = 0; i < keys.length && i < count; i++) {
+			ranked.add(found.get((int) keys[i]));
+		}
+		return ranked;
+	}
+}
@@ -0,0 +1,431 @@
+package retailstore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Implementation of a case-insensitive name index for the Retail Store.
+ * Maps names to positions (e.g. the position of an item inside the inventory list).
+ * Exact matches are answered from a hash table and prefix matches from an array of positions
+ * kept sorted by name, both compare characters ignoring case without creating lower case copies.
+ * Names added since the last prefix search are sorted into a short run of their own, which prefix
+ * searches look into as well, and merged into the sorted positions only once the run grows long,
+ * so a search after a few additions does not move or copy every position.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class NameIndex {
+
+	/** the value stored in empty slots of the hash table */
+	public static final int NOT_FOUND = -1;
+
+	/** the number of positions the sorted run may hold before it is merged into the sorted head */
+	private static final int MAX_RUN = 4096;
+
+	/** the names indexed so far, stored at their positions */
+	private String[] names;
+
+	/** the hash table of positions, the first position added for a name is kept */
+	private int[] table;
+
+	/** the case-insensitive hash of the name stored at the same slot of the table */
+	private int[] tableHashes;
+
+	/** the number of slots of the table in use */
+	private int tableSize;
+
+	/** the positions of all names, the first sortedCount of them ordered by name, then a run up to runEnd ordered by name */
+	private int[] order;
+
+	/** the number of positions inside the order array */
+	private int orderCount;
+
+	/** the number of positions at the start of the order array which are sorted by name */
+	private int sortedCount;
+
+	/** the end of the run of positions after the sorted head which are sorted by name among themselves */
+	private int runEnd;
+
+	/** a scratch array kept for sorting and merging short runs */
+	private int[] scratch = new int[0];
+
+	/**
+	 * Default NameIndex Class Constructor
+	 * Initializes an empty index.
+	 */
+	public NameIndex() {
+		this(16);
+	}
+
+	/**
+	 * Overloaded NameIndex Class Constructor
+	 * Initializes an empty index sized to hold the expected number of names without growing.
+	 *
+	 * @param expectedSize the number of names expected to be stored.
+	 */
+	public NameIndex(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		this.names = new String[Math.max(expectedSize, 16)];
+		this.table = newTable(capacity);
+		this.tableHashes = new int[capacity];
+		this.order = new int[Math.max(expectedSize, 16)];
+	}
+
+	/**
+	 * Restores an index written into a snapshot by writeTo, copying its tables in bulk
+	 * instead of hashing and sorting the names again.
+	 *
+	 * @param buffer the contents of the snapshot file at the start of the index.
+	 * @param names the names stored at each position, as they were when the index was written.
+	 * @return the restored index.
+	 */
+	static NameIndex readFrom(ByteBuffer buffer, String[] names) {
+		int orderCount = buffer.getInt();
+		int tableSize = buffer.getInt();
+		int capacity = buffer.getInt();
+		if (capacity < 16 || Integer.bitCount(capacity) != 1 || tableSize < 0 || tableSize > capacity / 2
+				|| orderCount < tableSize || orderCount > names.length)
+			throw new IllegalArgumentException("Invalid index of " + orderCount + " names in " + capacity + " slots");
+
+		NameIndex index = new NameIndex(0);
+		index.names = names;
+		index.table = SnapshotFile.readInts(buffer, capacity);
+		index.tableHashes = SnapshotFile.readInts(buffer, capacity);
+		index.tableSize = tableSize;
+		index.order = SnapshotFile.readInts(buffer, orderCount);
+		index.orderCount = orderCount;
+		index.sortedCount = orderCount; //written sorted, the first prefix search does not sort again
+		index.runEnd = orderCount;
+		return index;
+	}
+
+	/**
+	 * Copies the tables of the index, sorting the pending names first, e.g. so they can be written
+	 * into a snapshot while the index keeps changing. The names are shared with the copy, which
+	 * is only meant to be written.
+	 *
+	 * @return the copy.
+	 */
+	NameIndex copy() {
+		mergePending();
+
+		NameIndex index = new NameIndex(0);
+		index.names = names;
+		index.table = table.clone();
+		index.tableHashes = tableHashes.clone();
+		index.tableSize = tableSize;
+		index.order = Arrays.copyOf(order, orderCount);
+		index.orderCount = orderCount;
+		index.sortedCount = orderCount;
+		index.runEnd = orderCount;
+		return index;
+	}
+
+	/**
+	 * Writes the tables of the index into a snapshot, sorting the pending names first,
+	 * so that it can be restored without hashing and sorting the names again.
+	 *
+	 * @param out the stream of the snapshot file.
+	 */
+	void writeTo(DataOutputStream out) throws IOException {
+		mergePending();
+
+		out.writeInt(orderCount);
+		out.writeInt(tableSize);
+		out.writeInt(table.length);
+		SnapshotFile.writeInts(out, table, table.length);
+		SnapshotFile.writeInts(out, tableHashes, tableHashes.length);
+		SnapshotFile.writeInts(out, order, orderCount);
+	}
+
+	/**
+	 * Adds a name into the index at the specified position.
+	 * Null names are ignored.
+	 *
+	 * @param name the name to add.
+	 * @param position the position the name is stored at, cannot be negative.
+	 */
+	public void add(String name, int position) {
+		if (name == null)
+			return;
+
+		if (position >= names.length)
+			names = Arrays.copyOf(names, Math.max(position + 1, names.length * 2));
+		names[position] = name;
+
+		//the hash table keeps only the first position of a name, same as a search over a list would find
+		int hash = hash(name);
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != NOT_FOUND) {
+			if (tableHashes[slot] == hash && names[table[slot]].equalsIgnoreCase(name))
+				break;
+			slot = (slot + 1) & mask;
+		}
+		if (table[slot] == NOT_FOUND) {
+			table[slot] = position;
+			tableHashes[slot] = hash;
+			tableSize++;
+			if (tableSize * 2 > table.length)
+				resizeTable(table.length << 1);
+		}
+
+		//new positions are appended unsorted and merged in on the next prefix search
+		if (orderCount == order.length)
+			order = Arrays.copyOf(order, order.length * 2);
+		order[orderCount++] = position;
+	}
+
+	/**
+	 * Returns the first position added for a name, ignoring case.
+	 *
+	 * @param name the name to look for.
+	 * @return the position of the name (or NOT_FOUND if the name is not in the index).
+	 */
+	public int get(String name) {
+		int hash = hash(name);
+		int mask = table.length - 1;
+		for (int slot = hash & mask; table[slot] != NOT_FOUND; slot = (slot + 1) & mask) {
+			if (tableHashes[slot] == hash && names[table[slot]].equalsIgnoreCase(name))
+				return table[slot];
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * Returns the positions of all names starting with the specified prefix, ignoring case.
+	 * Positions are returned in name order, positions with equal names in the order they were added.
+	 *
+	 * @param prefix the prefix to look for.
+	 * @param limit the maximum number of positions to return.
+	 * @return the positions of the matching names.
+	 */
+	public int[] findPrefix(String prefix, int limit) {
+		sortPending();
+
+		//names sharing the prefix are next to each other in the sorted head and in the run
+		int i = firstNotBefore(0, sortedCount, prefix);
+		int iEnd = matchesEnd(i, sortedCount, prefix, limit);
+		int j = firstNotBefore(sortedCount, runEnd, prefix);
+		int jEnd = matchesEnd(j, runEnd, prefix, limit);
+
+		int[] found = new int[Math.max(Math.min(limit, (iEnd - i) + (jEnd - j)), 0)];
+		for (int k = 0; k < found.length; k++) {
+			found[k] = j >= jEnd || (i < iEnd && compare(order[i], order[j]) < 0) ? order[i++] : order[j++];
+		}
+		return found;
+	}
+
+	/**
+	 * Binary searches a sorted range of the order array for the first name which is not ordered before the prefix.
+	 *
+	 * @param from the first index of the range (inclusive).
+	 * @param to the last index of the range (exclusive).
+	 * @param prefix the prefix to look for.
+	 * @return the index of the name (or the range end if all names are ordered before the prefix).
+	 */
+	private int firstNotBefore(int from, int to, String prefix) {
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (String.CASE_INSENSITIVE_ORDER.compare(names[order[mid]], prefix) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the end of the names starting with the prefix from an index of a sorted range, at most limit of them.
+	 *
+	 * @param from the index of the first name not ordered before the prefix.
+	 * @param to the last index of the range (exclusive).
+	 * @param prefix the prefix to look for.
+	 * @param limit the maximum number of names to count.
+	 * @return the index after the last matching name.
+	 */
+	private int matchesEnd(int from, int to, String prefix, int limit) {
+		int end = from;
+		while (end < to && end - from < limit
+				&& names[order[end]].regionMatches(true, 0, prefix, 0, prefix.length())) {
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * Returns the number of names stored in the index.
+	 *
+	 * @return the number of names stored in the index.
+	 */
+	public int size() {
+		return orderCount;
+	}
+
+	/**
+	 * Sorts the positions added since the last prefix search and merges them into the sorted run.
+	 * The run is merged into the sorted head once it is longer than MAX_RUN or than the head.
+	 */
+	private void sortPending() {
+		if (runEnd < orderCount) {
+			mergeSort(order, runEnd, orderCount, scratch(orderCount - runEnd));
+			merge(sortedCount, runEnd, orderCount);
+			runEnd = orderCount;
+		}
+		if (runEnd - sortedCount > Math.min(MAX_RUN, sortedCount)) {
+			merge(0, sortedCount, runEnd);
+			sortedCount = runEnd;
+		}
+	}
+
+	/**
+	 * Sorts every position added and merges them into the sorted head, e.g. before the order array is written.
+	 */
+	private void mergePending() {
+		sortPending();
+		if (sortedCount < runEnd) {
+			merge(0, sortedCount, runEnd);
+			sortedCount = runEnd;
+		}
+	}
+
+	/**
+	 * Merges two adjacent sorted ranges of the order array in place. Only the second range is
+	 * copied out, the merge runs from the end so the first range is moved at most once.
+	 *
+	 * @param from the first index of the first range (inclusive).
+	 * @param mid the end of the first range and start of the second one.
+	 * @param to the last index of the second range (exclusive).
+	 */
+	private void merge(int from, int mid, int to) {
+		if (from == mid || mid == to || compare(order[mid - 1], order[mid]) <= 0)
+			return; //ranges are already in order
+
+		int[] buffer = scratch(to - mid);
+		System.arraycopy(order, mid, buffer, 0, to - mid);
+		int i = mid - 1;
+		int j = to - mid - 1;
+		for (int k = to - 1; j >= 0; k--) {
+			order[k] = i >= from && compare(order[i], buffer[j]) > 0 ? order[i--] : buffer[j--];
+		}
+	}
+
+	/**
+	 * Returns a scratch array of at least the specified length. Arrays up to twice MAX_RUN long
+	 * are kept for the next sort or merge, longer ones only follow bulk additions and are not kept.
+	 *
+	 * @param length the number of positions the array must hold.
+	 * @return the scratch array.
+	 */
+	private int[] scratch(int length) {
+		if (length <= scratch.length)
+			return scratch;
+		int[] buffer = new int[length];
+		if (length <= 2 * MAX_RUN)
+			scratch = buffer;
+		return buffer;
+	}
+
+	/**
+	 * Sorts a range of positions by name using a stable merge sort.
+	 *
+	 * @param a the array of positions to sort.
+	 * @param from the first index of the range (inclusive).
+	 * @param to the last index of the range (exclusive).
+	 * @param buffer a scratch array at least as long as the range.
+	 */
+	private void mergeSort(int[] a, int from, int to, int[] buffer) {
+		if (to - from < 2)
+			return;
+
+		int mid = (from + to) >>> 1;
+		mergeSort(a, from, mid, buffer);
+		mergeSort(a, mid, to, buffer);
+
+		if (compare(a[mid - 1], a[mid]) <= 0)
+			return; //halves are already in order
+
+		System.arraycopy(a, from, buffer, 0, to - from);
+		int i = 0;
+		int j = mid - from;
+		for (int k = from; k < to; k++) {
+			if (j >= to - from || (i < mid - from && compare(buffer[i], buffer[j]) <= 0))
+				a[k] = buffer[i++];
+			else
+				a[k] = buffer[j++];
+		}
+	}
+
+	/**
+	 * Compares two positions by their names ignoring case, then by position.
+	 *
+	 * @param a the first position.
+	 * @param b the second position.
+	 * @return a negative number, zero or a positive number as the first position is ordered before, same or after the second.
+	 */
+	private int compare(int a, int b) {
+		int result = String.CASE_INSENSITIVE_ORDER.compare(names[a], names[b]);
+		return result != 0 ? result : Integer.compare(a, b);
+	}
+
+	/**
+	 * Moves all positions of the hash table into a new table with the specified number of slots.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 */
+	private void resizeTable(int capacity) {
+		int[] newTable = newTable(capacity);
+		int[] newHashes = new int[capacity];
+		int mask = capacity - 1;
+
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] != NOT_FOUND) {
+				int slot = tableHashes[i] & mask;
+				while (newTable[slot] != NOT_FOUND) {
+					slot = (slot + 1) & mask;
+				}
+				newTable[slot] = table[i];
+				newHashes[slot] = tableHashes[i];
+			}
+		}
+		this.table = newTable;
+		this.tableHashes = newHashes;
+	}
+
+	/**
+	 * Allocates an empty hash table.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 * @return the empty table.
+	 */
+	private static int[] newTable(int capacity) {
+		int[] newTable = new int[capacity];
+		Arrays.fill(newTable, NOT_FOUND);
+		return newTable;
+	}
+
+	/**
+	 * Computes a hash of a name which is the same for names differing only in case,
+	 * folding each character the same way String.equalsIgnoreCase does.
+	 *
+	 * @param name the name to hash.
+	 * @return the case-insensitive hash of the name.
+	 */
+	static int hash(String name) {
+		int h = 0;
+		for (int i = 0; i < name.length(); i++) {
+			h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+		}
+		return h ^ (h >>> 16);
+	}
+}
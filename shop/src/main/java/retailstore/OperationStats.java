@@ -0,0 +1,398 @@
+package retailstore;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implementation of the statistics of one kind of operation for the Retail Store.
+ * Counts every operation and times one in every few of them into a latency histogram.
+ * Each thread records into one of a fixed number of recorders, picked by its thread id, with
+ * atomic adds and no locks, so recording costs a few nanoseconds and threads seldom contend.
+ * The recorders are created on first use and never more than twice the processors, so
+ * short-lived threads, e.g. a virtual thread per request, add no memory. Reading the
+ * statistics adds up the recorders.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class OperationStats {
+
+	/** the position of the sum of the timed latencies inside a recorder */
+	private static final int SUM = 0;
+
+	/** the position of the highest timed latency inside a recorder */
+	private static final int MAX = 1;
+
+	/** the position of the first latency bucket inside a recorder */
+	private static final int BUCKETS = 2;
+
+	/** the number of recorders of an operation, a power of two of at least twice the processors */
+	private static final int RECORDER_COUNT = Math.min(Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 2 - 1, 1)) << 1, 64);
+
+	/** true if operations are recorded, false to measure the shop without statistics */
+	private static volatile boolean enabled = true;
+
+	/**
+	 * The counts and latencies recorded by the threads whose ids map to it.
+	 */
+	private static final class Recorder {
+
+		/** the handle adding to the operation count atomically */
+		private static final VarHandle COUNT;
+
+		static {
+			try {
+				COUNT = MethodHandles.lookup().findVarHandle(Recorder.class, "count", long.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		/** the operation count, a field of its own as it is written by every operation */
+		private long count;
+
+		/** the latency sum, highest latency and latency buckets of the timed operations */
+		final AtomicLongArray values = new AtomicLongArray(BUCKETS + LatencyHistogram.BUCKET_COUNT);
+
+		/**
+		 * Adds to the operation count.
+		 *
+		 * @param delta the number of operations.
+		 * @return the new operation count.
+		 */
+		long count(long delta) {
+			return (long) COUNT.getAndAdd(this, delta) + delta;
+		}
+
+		/**
+		 * Returns the operation count, called by any thread.
+		 *
+		 * @return the operation count.
+		 */
+		long getCount() {
+			return (long) COUNT.getAcquire(this);
+		}
+
+		/**
+		 * Records a timed latency.
+		 *
+		 * @param nanos the latency in nanoseconds.
+		 */
+		void record(long nanos) {
+			if (nanos < 0)
+				nanos = 0;
+			values.getAndIncrement(BUCKETS + LatencyHistogram.bucket(nanos));
+			values.getAndAdd(SUM, nanos);
+			long max = values.get(MAX);
+			while (nanos > max && !values.compareAndSet(MAX, max, nanos)) { //seldom more than once, the highest latency is seldom beaten
+				max = values.get(MAX);
+			}
+		}
+
+		/**
+		 * Adds the values of this recorder to a histogram.
+		 *
+		 * @param histogram the histogram of the timed latencies.
+		 * @return the operation count of this recorder.
+		 */
+		long addTo(LatencyHistogram histogram) {
+			for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+				long bucketCount = values.get(BUCKETS + i);
+				if (bucketCount != 0)
+					histogram.addBucket(i, bucketCount);
+			}
+			histogram.addTotals(values.get(SUM), values.get(MAX));
+			return getCount();
+		}
+	}
+
+	/** the name of the operation */
+	private final String name;
+
+	/** one less than the number of operations per timed operation, a power of two less one */
+	private final int sampleMask;
+
+	/** the recorders, each created by the first thread mapped to it (or null until then) */
+	private final AtomicReferenceArray<Recorder> recorders = new AtomicReferenceArray<Recorder>(RECORDER_COUNT);
+
+	/** the time the statistics started, in nanoseconds */
+	private final long startTime = System.nanoTime();
+
+	/** the operation count at the previous summary */
+	private long lastCount;
+
+	/** the time of the previous summary, in nanoseconds */
+	private long lastTime = startTime;
+
+	/**
+	 * OperationStats Class Constructor
+	 *
+	 * @param name the name of the operation.
+	 * @param sampleEvery the number of operations per timed operation, a power of two (1 times every operation).
+	 */
+	public OperationStats(String name, int sampleEvery) {
+		if (Integer.bitCount(sampleEvery) != 1)
+			throw new IllegalArgumentException("Operations must be timed once every power of two: " + sampleEvery);
+		this.name = name;
+		this.sampleMask = sampleEvery - 1;
+	}
+
+	/**
+	 * Counts an operation which is starting.
+	 * Call end with the value returned once the operation is done.
+	 *
+	 * @return the start time if this operation is timed (or 0 if it is not).
+	 */
+	public long begin() {
+		if (!enabled)
+			return 0;
+		long count = recorder().count(1);
+		return (count & sampleMask) == (1 & sampleMask) ? System.nanoTime() : 0; //the first operation of a recorder is timed
+	}
+
+	/**
+	 * Records the latency of an operation which is done, if it was timed.
+	 *
+	 * @param start the value returned by begin.
+	 */
+	public void end(long start) {
+		if (start != 0)
+			recorder().record(System.nanoTime() - start);
+	}
+
+	/**
+	 * Counts events which are not timed, e.g. order lines raised.
+	 *
+	 * @param events the number of events.
+	 */
+	public void count(long events) {
+		if (enabled)
+			recorder().count(events);
+	}
+
+	/**
+	 * Returns the name of the operation.
+	 *
+	 * @return the name of the operation.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of operations counted so far over all threads.
+	 *
+	 * @return the number of operations counted.
+	 */
+	public synchronized long getCount() {
+		return collect(null);
+	}
+
+	/**
+	 * Returns the latencies of the timed operations so far over all threads.
+	 *
+	 * @return a histogram of the latencies, in nanoseconds.
+	 */
+	public synchronized LatencyHistogram getLatencies() {
+		LatencyHistogram latencies = new LatencyHistogram();
+		collect(latencies);
+		return latencies;
+	}
+
+	/**
+	 * Summarizes the statistics so far over all threads.
+	 * The recent rate is over the time since the previous summary.
+	 *
+	 * @return the summary of the statistics.
+	 */
+	public synchronized Summary summarize() {
+		LatencyHistogram latencies = new LatencyHistogram();
+		long count = collect(latencies);
+		long now = System.nanoTime();
+		double rate = count * 1e9 / Math.max(now - startTime, 1);
+		double recentRate = (count - lastCount) * 1e9 / Math.max(now - lastTime, 1);
+		lastCount = count;
+		lastTime = now;
+		return new Summary(name, count, rate, recentRate, latencies);
+	}
+
+	/**
+	 * Adds up the recorders.
+	 *
+	 * @param latencies the histogram receiving the latencies (or null if only the count is needed).
+	 * @return the number of operations counted.
+	 */
+	private long collect(LatencyHistogram latencies) {
+		long count = 0;
+		for (int i = 0; i < RECORDER_COUNT; i++) {
+			Recorder next = recorders.get(i);
+			if (next == null)
+				continue;
+			if (latencies != null)
+				count += next.addTo(latencies);
+			else
+				count += next.getCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the recorder of the current thread, creating it if no thread mapped to it recorded yet.
+	 *
+	 * @return the recorder of the current thread.
+	 */
+	private Recorder recorder() {
+		long id = Thread.currentThread().getId();
+		int index = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (RECORDER_COUNT - 1); //ids of threads started one after the other spread over the recorders
+		Recorder found = recorders.get(index);
+		if (found == null) {
+			recorders.compareAndSet(index, null, new Recorder());
+			found = recorders.get(index);
+		}
+		return found;
+	}
+
+	/**
+	 * Turns recording on or off for all operations, e.g. to measure the cost of the statistics.
+	 *
+	 * @param on true to record operations.
+	 */
+	public static void setEnabled(boolean on) {
+		enabled = on;
+	}
+
+	/**
+	 * Returns whether operations are recorded.
+	 *
+	 * @return true if operations are recorded.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * The statistics of an operation at one time, in the units shown to users.
+	 */
+	public static final class Summary {
+
+		/** the name of the operation */
+		private final String name;
+
+		/** the number of operations counted */
+		private final long count;
+
+		/** the operations per second since the statistics started */
+		private final double rate;
+
+		/** the operations per second since the previous summary */
+		private final double recentRate;
+
+		/** the median latency of the timed operations, in microseconds */
+		private final double p50Micros;
+
+		/** the 99th percentile latency, in microseconds */
+		private final double p99Micros;
+
+		/** the 99.9th percentile latency, in microseconds */
+		private final double p999Micros;
+
+		/** the highest latency, in microseconds */
+		private final double maxMicros;
+
+		/**
+		 * Summary Class Constructor
+		 *
+		 * @param name the name of the operation.
+		 * @param count the number of operations counted.
+		 * @param rate the operations per second since the statistics started.
+		 * @param recentRate the operations per second since the previous summary.
+		 * @param latencies the latencies of the timed operations, in nanoseconds.
+		 */
+		Summary(String name, long count, double rate, double recentRate, LatencyHistogram latencies) {
+			this.name = name;
+			this.count = count;
+			this.rate = rate;
+			this.recentRate = recentRate;
+			this.p50Micros = latencies.getPercentile(50) / 1e3;
+			this.p99Micros = latencies.getPercentile(99) / 1e3;
+			this.p999Micros = latencies.getPercentile(99.9) / 1e3;
+			this.maxMicros = latencies.getMax() / 1e3;
+		}
+
+		/**
+		 * Returns the name of the operation.
+		 *
+		 * @return the name of the operation.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the number of operations counted.
+		 *
+		 * @return the number of operations counted.
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the operations per second since the statistics started.
+		 *
+		 * @return the operations per second since the statistics started.
+		 */
+		public double getRate() {
+			return rate;
+		}
+
+		/**
+		 * Returns the operations per second since the previous summary.
+		 *
+		 * @return the operations per second since the previous summary.
+		 */
+		public double getRecentRate() {
+			return recentRate;
+		}
+
+		/**
+		 * Returns the median latency, in microseconds.
+		 *
+		 * @return the median latency, in microseconds.
+		 */
+		public double getP50Micros() {
+			return p50Micros;
+		}
+
+		/**
+		 * Returns the 99th percentile latency, in microseconds.
+		 *
+		 * @return the 99th percentile latency, in microseconds.
+		 */
+		public double getP99Micros() {
+			return p99Micros;
+		}
+
+		/**
+		 * Returns the 99.9th percentile latency, in microseconds.
+		 *
+		 * @return the 99.9th percentile latency, in microseconds.
+		 */
+		public double getP999Micros() {
+			return p999Micros;
+		}
+
+		/**
+		 * Returns the highest latency, in microseconds.
+		 *
+		 * @return the highest latency, in microseconds.
+		 */
+		public double getMaxMicros() {
+			return maxMicros;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+package retailstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of the Order Class for the Retail Store.
+ * Order lines are grouped by supplier as they are added, one supplier order each, and the number
+ * of lines, the quantity and the cost of the order and of each supplier order are kept up to date,
+ * so that a supplier's lines and the totals are read without going over the other lines.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 9th, 2020
+ */
+
+public class Order {
+
+	/** the id number of the last order created without an id, so that no two of them share one */
+	private static final AtomicInteger LAST_ID = new AtomicInteger();
+	
+	/** the id number of the order */
+	private int id;
+	
+	/** the date stamp of the order */
+	private Date date;
+	
+	/** the order lines associated with the order, in the order they were added */
+	private ArrayList<OrderLine> orderLines;
+	
+	/** the supplier orders, in the order their first line was added */
+	private ArrayList<SupplierOrder> supplierOrders;
+	
+	/** the position of the supplier order of each supplier id inside the supplier orders */
+	private IntIndex supplierIndex;
+	
+	/** the quantity of all order lines */
+	private long totalQty;
+	
+	/** the cost of all order lines, in cents */
+	private long totalCents;
+	
+	/**
+	 * Order Class Constructor
+	 * The order is given the next id number of the orders created this way, a shop keeping an order
+	 * history numbers its orders after the ones in the history instead.
+	 * @param ol an ArrayList of OrderLine can be passed to set the member order lines for this object.
+	 */
+	public Order(ArrayList<OrderLine> ol) {
+		this.id = LAST_ID.incrementAndGet();
+		
+		Date today = new Date();
+		this.date = today; //add today's time stamp to the order
+		
+		this.setOrderLines(ol);
+	}
+	
+	/**
+	 * Overloaded Order Class Constructor
+	 * Creates an empty order with a known id and date, e.g. an order read back from the order history
+	 * or numbered by its shop.
+	 * @param id the id number of the order.
+	 * @param date the date stamp of the order.
+	 */
+	public Order(int id, Date date) {
+		this.id = id;
+		this.date = date;
+		this.clearOrderLines();
+	}
+	
+	/**
+	 * Sets the order lines for the order.
+	 * @param orderLines an ArrayList of OrderLine which will be set as the member order lines for this object.
+	 */
+	public void setOrderLines(ArrayList<OrderLine> orderLines) {
+		this.clearOrderLines();
+		this.addOrderLines(orderLines);
+	}
+	
+	/**
+	 * Adds more order lines at the end of the order.
+	 * @param ol an ArrayList of OrderLine to be added to the member order lines for this object.
+	 */
+	public void addOrderLines(ArrayList<OrderLine> ol) {
+		this.orderLines.ensureCapacity(this.orderLines.size() + ol.size());
+		for (int i = 0; i < ol.size(); i++) {
+			this.addOrderLine(ol.get(i));
+		}
+	}
+	
+	/**
+	 * Adds an order line at the end of the order and of the supplier order of its supplier,
+	 * and adds it to the totals.
+	 * @param ol the OrderLine to be added to the member order lines for this object.
+	 */
+	public void addOrderLine(OrderLine ol) {
+		int position = this.supplierIndex.get(ol.getSupplierId());
+		if (position == IntIndex.NOT_FOUND) {
+			position = this.supplierOrders.size();
+			this.supplierOrders.add(new SupplierOrder(ol.getSupplierId(), ol.getSupplierName()));
+			this.supplierIndex.put(ol.getSupplierId(), position);
+		}
+		this.supplierOrders.get(position).addOrderLine(ol);
+		
+		this.orderLines.add(ol);
+		this.totalQty += ol.getQty();
+		this.totalCents += SupplierOrder.costCents(ol);
+	}
+	
+	/**
+	 * Returns the order lines for this order, which must not be changed.
+	 * @return orderLines of this object.
+	 */
+	public ArrayList<OrderLine> getOrderLines() {
+		return this.orderLines;
+	}
+	
+	/**
+	 * Returns the part of this order sent to one supplier.
+	 * @param supplierId the supplier id number.
+	 * @return the supplier order (or null if the order has no lines for the supplier).
+	 */
+	public SupplierOrder getSupplierOrder(int supplierId) {
+		int position = this.supplierIndex.get(supplierId);
+		return position != IntIndex.NOT_FOUND ? this.supplierOrders.get(position) : null;
+	}
+	
+	/**
+	 * Returns the parts of this order sent to each supplier, which must not be changed.
+	 * @return the supplier orders, in the order their first line was added.
+	 */
+	public ArrayList<SupplierOrder> getSupplierOrders() {
+		return this.supplierOrders;
+	}
+	
+	/**
+	 * Returns the number of order lines of this order.
+	 * @return the number of order lines.
+	 */
+	public int getLineCount() {
+		return this.orderLines.size();
+	}
+	
+	/**
+	 * Returns the quantity of all order lines of this order.
+	 * @return the quantity ordered.
+	 */
+	public long getTotalQty() {
+		return this.totalQty;
+	}
+	
+	/**
+	 * Returns the cost of all order lines of this order.
+	 * @return the cost of the order.
+	 */
+	public double getTotalCost() {
+		return this.totalCents / 100.0;
+	}
+	
+	/**
+	 * Returns the id number for this order.
+	 * @return id number for this order.
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Returns the date for this order.
+	 * @return date for this order.
+	 */
+	public Date getDate() {
+		return date;
+	}
+	
+	/**
+	 * Clears the order lines from order when order is submit.
+	 */
+	public void clearOrderLines() {
+		this.orderLines = new ArrayList<OrderLine>();
+		this.supplierOrders = new ArrayList<SupplierOrder>();
+		this.supplierIndex = new IntIndex();
+		this.totalQty = 0;
+		this.totalCents = 0;
+	}
+
+	/**
+	 * Writes this order out, in the same format as its string representation.
+	 * Lines are written grouped by supplier, one purchase order each, followed by the totals.
+	 * 
+	 * @param out where the order is written to
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		if (this.getOrderLines().size() == 0) {
+			out.append("No order lines are present.");
+			return;
+		}
+		
+		out.append("*********************************\n");
+		
+		out.append("ORDER ID: ").append(String.valueOf(getId())).append('\n');
+		out.append("Date Ordered: ").append(getDate().toString()).append('\n');
+		out.append('\n');
+		
+		//add order-lines by iterating over the supplier orders
+		for (SupplierOrder so : this.supplierOrders) {
+			out.append("Supplier: ").append(so.getSupplierName()).append('\n');
+			out.append('\n');
+			for (OrderLine ol : so.getOrderLines()) {
+				out.append("Item description: ").append(ol.getName()).append('\n');
+				out.append("Amount ordered: ").append(String.valueOf(ol.getQty())).append('\n');
+				out.append("Cost: ").append(String.format(Locale.ROOT, "%.2f", SupplierOrder.costCents(ol) / 100.0)).append('\n');
+				out.append('\n');
+			}
+			out.append("Supplier total: ").append(String.valueOf(so.getLineCount())).append(" lines, ")
+					.append(String.valueOf(so.getTotalQty())).append(" items, ")
+					.append(String.format(Locale.ROOT, "%.2f", so.getTotalCost())).append('\n');
+			out.append('\n');
+		}
+		out.append("Order total: ").append(String.valueOf(getLineCount())).append(" lines, ")
+				.append(String.valueOf(getTotalQty())).append(" items, ")
+				.append(String.format(Locale.ROOT, "%.2f", getTotalCost())).append('\n');
+		out.append("*********************************\n");
+	}
+
+	/**
+	 * Outputs a string representation of this order.
+	 * 
+	 * @return String representation of the order.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder st = new StringBuilder();
+		try {
+			this.writeTo(st);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e); //a StringBuilder never throws
+		}
+		return st.toString();
+	}
+
+}
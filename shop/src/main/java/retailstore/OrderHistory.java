@@ -0,0 +1,608 @@
+package retailstore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of the order history of the Retail Store.
+ * Keeps the orders submitted by a shop, e.g. one per day. Every order is appended to a file and
+ * forced to the disk as it is added, so an order submitted is never lost. The most recent orders
+ * also stay in memory while their estimated heap size is within a budget, older ones are only in
+ * the file. Orders can be found by date range, by order id and by supplier; orders only in the file
+ * are found through small indexes kept in memory (their dates, ids, file offsets and the orders of
+ * each supplier) and only the orders found are read back from the file, one record at a time.
+ *
+ * The file starts with a magic number and a format version, followed by one record per order in the
+ * order they were added. Each record is its length, its data and the CRC32 of its data, so a record
+ * torn by a crash is dropped when the file is opened again. The data is the order date and id
+ * followed by one section per supplier, each preceded by its supplier id and length, so the lines of
+ * one supplier are read without decoding the others. Numbers are big-endian, texts are their UTF-8
+ * length followed by their bytes (length -1 for null).
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class OrderHistory {
+
+	/** the first four bytes of every history file ("RHST") */
+	public static final int MAGIC = 0x52485354;
+
+	/** the version of the format written by this class */
+	public static final int VERSION = 1;
+
+	/** the size of the header (magic number and version) in bytes */
+	private static final int HEADER_SIZE = 8;
+
+	/** the largest record accepted when the file is opened, larger lengths mean the file is corrupt */
+	private static final int MAX_RECORD_SIZE = 1 << 30;
+
+	/** the estimated heap size of an order without its lines and suppliers, in bytes */
+	private static final long ORDER_BYTES = 160;
+
+	/** the estimated heap size of a supplier order without its lines, in bytes */
+	private static final long SUPPLIER_ORDER_BYTES = 120;
+
+	/** the estimated heap size of an order line, its name and supplier name are shared with the item and supplier */
+	private static final long LINE_BYTES = 64;
+
+	/** the name of the history file */
+	private String fileName;
+
+	/** the history file, read and appended to at explicit positions */
+	private FileChannel channel;
+
+	/** the length of the valid records of the file, where the next record is appended */
+	private long fileSize;
+
+	/** the estimated heap size the orders kept in memory may take, in bytes */
+	private long memoryBudget;
+
+	/** the orders kept in memory, the newest orders of the file, oldest first */
+	private ArrayDeque<Order> recent;
+
+	/** the estimated heap size of the orders kept in memory, in bytes */
+	private long recentBytes;
+
+	/** the number of orders in the file, the orders kept in memory included */
+	private int fileCount;
+
+	/** the dates of the orders in the file in milliseconds, never decreasing */
+	private long[] spilledDates;
+
+	/** the offsets of the records in the file, at the same position as their dates */
+	private long[] spilledOffsets;
+
+	/** the position of the last order in the file with each order id */
+	private IntIndex spilledIdIndex;
+
+	/** the highest order id in the history, new orders are numbered after it */
+	private int lastOrderId;
+
+	/** the position of the order list of each supplier id inside supplierOrders */
+	private IntIndex supplierIndex;
+
+	/** the positions of the orders in the file with lines for each supplier, in the order they were added */
+	private ArrayList<int[]> supplierOrders;
+
+	/** the number of positions used in each array of supplierOrders */
+	private int[] supplierOrderCounts;
+
+	/** the data of the record being written, reused between records */
+	private ByteBuffer record;
+
+	/** the checksum of the records */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * OrderHistory Class Constructor
+	 * Opens the history file, creating it if it does not exist, and indexes the orders already in it.
+	 * A record torn at the end of the file by a crash is dropped.
+	 *
+	 * @param fileName the name of the history file.
+	 * @param memoryBudget the estimated heap size the most recent orders may take in memory, in bytes.
+	 */
+	public OrderHistory(String fileName, long memoryBudget) throws IOException {
+		if (memoryBudget < 0)
+			throw new IllegalArgumentException("The memory budget must not be negative.");
+		this.fileName = fileName;
+		this.memoryBudget = memoryBudget;
+		this.recent = new ArrayDeque<Order>();
+		this.spilledDates = new long[16];
+		this.spilledOffsets = new long[16];
+		this.spilledIdIndex = new IntIndex();
+		this.supplierIndex = new IntIndex();
+		this.supplierOrders = new ArrayList<int[]>();
+		this.supplierOrderCounts = new int[16];
+		this.record = ByteBuffer.allocate(1 << 12);
+
+		File file = new File(fileName);
+		boolean exists = file.exists() && file.length() > 0;
+		if (exists)
+			this.fileSize = this.indexFile(file);
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if (!exists) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+			header.flip();
+			this.writeFully(header, 0);
+			this.fileSize = HEADER_SIZE;
+		}
+		this.channel.truncate(this.fileSize); //drops a torn record, so that nothing is appended after it
+	}
+
+	/**
+	 * Adds an order to the history, newest. The order is appended to the file and forced to the disk
+	 * before it returns, then kept in memory; the oldest orders kept in memory are dropped from it
+	 * while they take more than the memory budget. The order must not be changed afterwards.
+	 *
+	 * @param order the order to add.
+	 */
+	public synchronized void add(Order order) throws IOException {
+		this.append(order);
+		this.channel.force(false);
+		this.recent.addLast(order);
+		this.recentBytes += estimateBytes(order);
+		while (this.recentBytes > this.memoryBudget && !this.recent.isEmpty()) {
+			this.recentBytes -= estimateBytes(this.recent.removeFirst()); //still in the file
+		}
+	}
+
+	/**
+	 * Returns the newest order of the history.
+	 *
+	 * @return the order added last (or null if the history is empty).
+	 */
+	public synchronized Order getLastOrder() throws IOException {
+		if (!this.recent.isEmpty())
+			return this.recent.getLast();
+		return this.fileCount > 0 ? this.readOrder(this.fileCount - 1, 0, false) : null;
+	}
+
+	/**
+	 * Returns the orders dated within a range, oldest first. Only the orders found are read from the file.
+	 *
+	 * @param from the first date of the range, included.
+	 * @param to the end of the range, excluded.
+	 * @return the orders found (empty if none).
+	 */
+	public synchronized ArrayList<Order> findOrders(Date from, Date to) throws IOException {
+		ArrayList<Order> found = new ArrayList<Order>();
+		int cached = this.firstCached();
+		for (int i = this.firstSpilled(from.getTime()); i < cached && this.spilledDates[i] < to.getTime(); i++) {
+			Order order = this.readOrder(i, 0, false);
+			if (!order.getDate().before(from))
+				found.add(order);
+		}
+		for (Order order : this.recent) {
+			if (!order.getDate().before(from) && order.getDate().before(to))
+				found.add(order);
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the order with an order id, the most recent one if several orders had the same id.
+	 *
+	 * @param orderId the id number of the order.
+	 * @return the order (or null if no order in the history has the id).
+	 */
+	public synchronized Order findOrder(int orderId) throws IOException {
+		for (Iterator<Order> it = this.recent.descendingIterator(); it.hasNext();) {
+			Order order = it.next();
+			if (order.getId() == orderId)
+				return order;
+		}
+		int position = this.spilledIdIndex.get(orderId); //an older order with the id if the newest is kept in memory
+		return position != IntIndex.NOT_FOUND ? this.readOrder(position, 0, false) : null;
+	}
+
+	/**
+	 * Returns the parts of the orders dated within a range sent to one supplier, oldest first.
+	 * Each order returned holds the lines of the supplier only. Only the orders with lines for the
+	 * supplier are read from the file, and only the lines of the supplier are decoded.
+	 *
+	 * @param supplierId the supplier id number.
+	 * @param from the first date of the range, included.
+	 * @param to the end of the range, excluded.
+	 * @return the orders found, with the lines of the supplier (empty if none).
+	 */
+	public synchronized ArrayList<Order> findSupplierOrders(int supplierId, Date from, Date to) throws IOException {
+		ArrayList<Order> found = new ArrayList<Order>();
+		int list = this.supplierIndex.get(supplierId);
+		if (list != IntIndex.NOT_FOUND) {
+			int[] positions = this.supplierOrders.get(list);
+			int count = this.supplierOrderCounts[list];
+			int first = this.firstSpilled(from.getTime());
+			int cached = this.firstCached();
+			//positions are in date order, so the ones in range are found by a binary search too
+			int start = Arrays.binarySearch(positions, 0, count, first);
+			for (int i = start >= 0 ? start : -start - 1; i < count && positions[i] < cached
+					&& this.spilledDates[positions[i]] < to.getTime(); i++) {
+				Order order = this.readOrder(positions[i], supplierId, true);
+				if (!order.getDate().before(from))
+					found.add(order);
+			}
+		}
+		for (Order order : this.recent) {
+			SupplierOrder so = order.getSupplierOrder(supplierId);
+			if (so != null && !order.getDate().before(from) && order.getDate().before(to)) {
+				Order part = new Order(order.getId(), order.getDate());
+				part.addOrderLines(so.getOrderLines());
+				found.add(part);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the number of orders in the history.
+	 *
+	 * @return the number of orders, all of them in the file.
+	 */
+	public synchronized int getOrderCount() {
+		return this.fileCount;
+	}
+
+	/**
+	 * Returns the highest order id in the history. Order ids are given out in increasing order after
+	 * it, so they stay unique across restarts and findOrder finds the order they were given to.
+	 *
+	 * @return the highest order id (or 0 if the history is empty).
+	 */
+	public synchronized int getLastOrderId() {
+		return this.lastOrderId;
+	}
+
+	/**
+	 * Returns the number of orders which are only in the file, not kept in memory.
+	 *
+	 * @return the number of orders read back from the file when they are found.
+	 */
+	public synchronized int getSpilledCount() {
+		return this.fileCount - this.recent.size();
+	}
+
+	/**
+	 * Returns the estimated heap size of the orders kept in memory.
+	 *
+	 * @return the estimated size, in bytes.
+	 */
+	public synchronized long getMemoryBytes() {
+		return this.recentBytes;
+	}
+
+	/**
+	 * Returns the name of the history file.
+	 *
+	 * @return the name of the history file.
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Drops the orders kept in memory and closes the file, every order is already on the disk.
+	 *
+	 */
+	public synchronized void close() throws IOException {
+		this.recent.clear();
+		this.recentBytes = 0;
+		this.channel.close();
+	}
+
+	/**
+	 * Returns the estimated heap size of an order.
+	 *
+	 * @param order the order.
+	 * @return the estimated size, in bytes.
+	 */
+	static long estimateBytes(Order order) {
+		return ORDER_BYTES + order.getSupplierOrders().size() * SUPPLIER_ORDER_BYTES + order.getLineCount() * LINE_BYTES;
+	}
+
+	/**
+	 * Appends an order to the file and indexes it.
+	 *
+	 * @param order the order to append.
+	 */
+	private void append(Order order) throws IOException {
+		record.clear();
+		record.putInt(0); //length, filled in below
+		record.putLong(order.getDate().getTime());
+		record.putInt(order.getId());
+		record.putInt(order.getSupplierOrders().size());
+		for (SupplierOrder so : order.getSupplierOrders()) {
+			ensureCapacity(16);
+			record.putInt(so.getSupplierId());
+			int sectionStart = record.position();
+			record.putInt(0); //length of the section, filled in below
+			putText(so.getSupplierName());
+			ensureCapacity(4);
+			record.putInt(so.getLineCount());
+			for (OrderLine ol : so.getOrderLines()) {
+				putText(ol.getName());
+				ensureCapacity(16);
+				record.putInt(ol.getId());
+				record.putInt(ol.getQty());
+				record.putDouble(ol.getPrice());
+			}
+			record.putInt(sectionStart, record.position() - sectionStart - 4);
+		}
+		int length = record.position() - 4;
+		record.putInt(0, length);
+		crc.reset();
+		crc.update(record.array(), 4, length);
+		ensureCapacity(4);
+		record.putInt((int) crc.getValue());
+
+		record.flip();
+		long offset = this.fileSize;
+		this.writeFully(record, offset);
+		this.fileSize += length + 8;
+		this.index(order.getDate().getTime(), order.getId(), offset, order.getSupplierOrders());
+	}
+
+	/**
+	 * Adds an order of the file to the indexes.
+	 *
+	 * @param date the date of the order, in milliseconds.
+	 * @param orderId the id number of the order.
+	 * @param offset the offset of its record in the file.
+	 * @param suppliers the supplier orders of the order.
+	 */
+	private void index(long date, int orderId, long offset, ArrayList<SupplierOrder> suppliers) {
+		int position = this.indexOrder(date, orderId, offset);
+		for (SupplierOrder so : suppliers) {
+			this.indexSupplier(so.getSupplierId(), position);
+		}
+	}
+
+	/**
+	 * Adds the date, id and offset of an order of the file to the indexes.
+	 *
+	 * @return the position of the order in the indexes.
+	 */
+	private int indexOrder(long date, int orderId, long offset) {
+		if (this.fileCount == this.spilledDates.length) {
+			this.spilledDates = Arrays.copyOf(this.spilledDates, this.fileCount * 2);
+			this.spilledOffsets = Arrays.copyOf(this.spilledOffsets, this.fileCount * 2);
+		}
+		int position = this.fileCount++;
+		//an order dated before the previous one (the clock was set back) is indexed at the previous date
+		this.spilledDates[position] = position > 0 ? Math.max(date, this.spilledDates[position - 1]) : date;
+		this.spilledOffsets[position] = offset;
+		this.spilledIdIndex.put(orderId, position);
+		this.lastOrderId = Math.max(this.lastOrderId, orderId);
+		return position;
+	}
+
+	/**
+	 * Adds an order of the file to the order list of a supplier.
+	 *
+	 * @param supplierId the supplier id number.
+	 * @param position the position of the order in the indexes.
+	 */
+	private void indexSupplier(int supplierId, int position) {
+		int list = this.supplierIndex.get(supplierId);
+		if (list == IntIndex.NOT_FOUND) {
+			list = this.supplierOrders.size();
+			this.supplierOrders.add(new int[4]);
+			this.supplierIndex.put(supplierId, list);
+			if (list == this.supplierOrderCounts.length)
+				this.supplierOrderCounts = Arrays.copyOf(this.supplierOrderCounts, list * 2);
+		}
+		int[] positions = this.supplierOrders.get(list);
+		int count = this.supplierOrderCounts[list];
+		if (count == positions.length) {
+			positions = Arrays.copyOf(positions, count * 2);
+			this.supplierOrders.set(list, positions);
+		}
+		positions[count] = position;
+		this.supplierOrderCounts[list] = count + 1;
+	}
+
+	/**
+	 * Returns the position of the first order of the file which is also kept in memory.
+	 *
+	 * @return the position (or the number of orders in the file if none is kept in memory).
+	 */
+	private int firstCached() {
+		return this.fileCount - this.recent.size();
+	}
+
+	/**
+	 * Returns the position of the first order of the file dated at or after a date.
+	 *
+	 * @param date the date, in milliseconds.
+	 * @return the position (or the number of orders in the file if there is none).
+	 */
+	private int firstSpilled(long date) {
+		int low = 0, high = this.fileCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.spilledDates[middle] < date)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Reads an order from the file.
+	 *
+	 * @param position the position of the order in the indexes.
+	 * @param supplierId the supplier whose lines are read, if onlySupplier is true.
+	 * @param onlySupplier true to read the lines of one supplier only.
+	 * @return the order read.
+	 */
+	private Order readOrder(int position, int supplierId, boolean onlySupplier) throws IOException {
+		long offset = this.spilledOffsets[position];
+		ByteBuffer length = ByteBuffer.allocate(4);
+		this.readFully(length, offset);
+		ByteBuffer data = ByteBuffer.allocate(length.getInt(0));
+		this.readFully(data, offset + 4);
+		data.flip();
+
+		Date date = new Date(data.getLong());
+		Order order = new Order(data.getInt(), date);
+		int supplierCount = data.getInt();
+		for (int s = 0; s < supplierCount; s++) {
+			int id = data.getInt();
+			int sectionLength = data.getInt();
+			if (onlySupplier && id != supplierId) {
+				data.position(data.position() + sectionLength);
+				continue;
+			}
+			String supplierName = getText(data);
+			int lineCount = data.getInt();
+			for (int i = 0; i < lineCount; i++) {
+				OrderLine ol = new OrderLine();
+				ol.setName(getText(data));
+				ol.setId(data.getInt());
+				ol.setQty(data.getInt());
+				ol.setPrice(data.getDouble());
+				ol.setSupplierId(id);
+				ol.setSupplierName(supplierName);
+				order.addOrderLine(ol);
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Reads the records of an existing file and indexes them, without keeping their lines.
+	 *
+	 * @param file the history file.
+	 * @return the length of the valid records of the file.
+	 * @throws IOException if the file is not a history file.
+	 */
+	private long indexFile(File file) throws IOException {
+		long valid = HEADER_SIZE;
+		CRC32 check = new CRC32();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException(file.getName() + " is not an order history file.");
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException(file.getName() + " has unsupported order history version " + version + ".");
+
+			while (true) {
+				int length;
+				byte[] data;
+				try {
+					length = in.readInt();
+					if (length < 16 || length > MAX_RECORD_SIZE)
+						break;
+					data = new byte[length];
+					in.readFully(data);
+					check.reset();
+					check.update(data, 0, length);
+					if ((int) check.getValue() != in.readInt())
+						break;
+				} catch (EOFException e) {
+					break; //the end of the file, or a record torn by a crash
+				}
+
+				ByteBuffer buffer = ByteBuffer.wrap(data);
+				try {
+					int position = this.indexOrder(buffer.getLong(), buffer.getInt(), valid);
+					int supplierCount = buffer.getInt();
+					for (int s = 0; s < supplierCount; s++) {
+						this.indexSupplier(buffer.getInt(), position);
+						int sectionLength = buffer.getInt();
+						buffer.position(buffer.position() + sectionLength);
+					}
+				} catch (BufferUnderflowException | IllegalArgumentException e) {
+					throw new IOException(file.getName() + " has a record running past its end at byte " + valid + ".");
+				}
+				valid += length + 8;
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Writes a buffer into the file at a position.
+	 */
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += this.channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Reads from the file at a position until a buffer is full.
+	 */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = this.channel.read(buffer, position);
+			if (read < 0)
+				throw new EOFException(fileName + " ends inside a record.");
+			position += read;
+		}
+	}
+
+	/**
+	 * Writes a text into the record as its UTF-8 length followed by its bytes, or -1 for null.
+	 *
+	 * @param text the text to write (can be null).
+	 */
+	private void putText(String text) {
+		ensureCapacity(4);
+		if (text == null) {
+			record.putInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(bytes.length + 4);
+		record.putInt(bytes.length);
+		record.put(bytes);
+	}
+
+	/**
+	 * Reads a text written by putText.
+	 *
+	 * @param data the record at the start of the text.
+	 * @return the text read (or null).
+	 */
+	private static String getText(ByteBuffer data) {
+		int length = data.getInt();
+		if (length < 0)
+			return null;
+		String text = new String(data.array(), data.position(), length, StandardCharsets.UTF_8);
+		data.position(data.position() + length);
+		return text;
+	}
+
+	/**
+	 * Grows the record buffer if it cannot hold the specified number of bytes more.
+	 *
+	 * @param bytes the number of bytes about to be put.
+	 */
+	private void ensureCapacity(int bytes) {
+		if (record.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+			record.flip();
+			grown.put(record);
+			record = grown;
+		}
+	}
+}
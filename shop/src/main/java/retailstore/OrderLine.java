@@ -1,3 +1,5 @@
+package retailstore;
+
 /**
  * Implementation of the Order Line Class for the Retail Store.
  * 
@@ -17,6 +19,9 @@ public class OrderLine {
 	/** the quantity of the item to be ordered */
 	private int qty;
 
+	/** the unit price of the item to be ordered */
+	private double price;
+
 	/** the supplier Id of the item to be ordered */
 	private int supplierId;
 	
@@ -50,6 +55,15 @@ public class OrderLine {
 		return qty;
 	}
 	
+	/**
+	 * Returns the unit price of the item to be ordered.
+	 * 
+	 * @return the unit price of the item to be ordered.
+	 */
+	public double getPrice() {
+		return price;
+	}
+	
 	/**
 	 * Returns the supplier id of the item to be ordered.
 	 * 
@@ -95,6 +109,15 @@ public class OrderLine {
 		this.qty = qty;
 	}
 	
+	/**
+	 * Sets the unit price for the item.
+	 * 
+	 * @param price unit price to be set for the item.
+	 */
+	public void setPrice(double price) {
+		this.price = price;
+	}
+	
 	/**
 	 * Sets the supplier Id for the item.
 	 * 
@@ -0,0 +1,101 @@
+package retailstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of a lock-free queue of pending order lines for the Retail Store.
+ * Any number of threads can push order lines without blocking (a single compare-and-set
+ * of the head), and one call to drain atomically takes every line pushed so far, so no
+ * line is lost or taken twice while other threads keep pushing.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class OrderLineQueue {
+
+	/**
+	 * A link of the queue, newest first. Links are never changed once pushed.
+	 */
+	private static final class Node {
+
+		/** the order line held by this link */
+		final OrderLine line;
+
+		/** the link pushed before this one (or null if this is the oldest) */
+		final Node next;
+
+		/** the number of links from this one to the oldest, inclusive */
+		final int count;
+
+		Node(OrderLine line, Node next) {
+			this.line = line;
+			this.next = next;
+			this.count = next == null ? 1 : next.count + 1;
+		}
+	}
+
+	/** the newest link of the queue (or null if the queue is empty) */
+	private final AtomicReference<Node> head = new AtomicReference<Node>();
+
+	/**
+	 * Adds an order line to the queue.
+	 *
+	 * @param line the order line to add.
+	 */
+	public void push(OrderLine line) {
+		Node current;
+		Node node;
+		do {
+			current = head.get();
+			node = new Node(line, current);
+		} while (!head.compareAndSet(current, node));
+	}
+
+	/**
+	 * Takes all order lines from the queue at once, leaving it empty.
+	 *
+	 * @return the order lines taken, oldest first (empty if there were none).
+	 */
+	public ArrayList<OrderLine> drain() {
+		return toList(head.getAndSet(null));
+	}
+
+	/**
+	 * Returns the order lines in the queue without taking them.
+	 *
+	 * @return the order lines in the queue at the time of the call, oldest first.
+	 */
+	public ArrayList<OrderLine> peekAll() {
+		return toList(head.get());
+	}
+
+	/**
+	 * Returns the number of order lines in the queue.
+	 *
+	 * @return the number of order lines in the queue.
+	 */
+	public int size() {
+		Node current = head.get();
+		return current == null ? 0 : current.count;
+	}
+
+	/**
+	 * Copies a chain of links into a list, oldest line first.
+	 *
+	 * @param newest the newest link of the chain.
+	 * @return the list of order lines.
+	 */
+	private static ArrayList<OrderLine> toList(Node newest) {
+		int count = newest == null ? 0 : newest.count;
+		OrderLine[] lines = new OrderLine[count];
+		for (Node node = newest; node != null; node = node.next) {
+			lines[--count] = node.line;
+		}
+
+		return new ArrayList<OrderLine>(Arrays.asList(lines));
+	}
+}
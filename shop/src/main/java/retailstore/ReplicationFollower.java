@@ -0,0 +1,317 @@
+package retailstore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of the follower side of the replication of the Retail Store.
+ * Keeps the inventory of a shop a copy of the inventory of a leader shop, see ReplicationLeader, so
+ * that the shop can serve reads of the shared inventory view. One thread connects to the leader,
+ * applies the records it streams onto the (concurrent) inventory in order, and reconnects after a
+ * failure, resuming after the last record applied. When it is sent a snapshot, e.g. the first time or
+ * after falling too far behind, it writes the snapshot into its own file and replaces the inventory
+ * and suppliers of the shop with it.
+ *
+ * The shop must not be changed other than by the follower, changes are made on the leader.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ReplicationFollower {
+
+	/** the time waited before connecting again after the connection failed, in milliseconds */
+	private static final long RETRY_MS = 1000;
+
+	/** the time without any message from the leader after which the connection is dropped, in milliseconds, long enough for a snapshot to be written */
+	private static final int READ_TIMEOUT_MS = 60_000;
+
+	/** the shop kept a copy of the leader */
+	private final Shop shop;
+
+	/** the host of the leader */
+	private final String host;
+
+	/** the port of the leader */
+	private final int port;
+
+	/** the file the snapshots sent by the leader are written into */
+	private final String snapshotFileName;
+
+	/** the thread applying the records */
+	private final Thread applier;
+
+	/** the run of the leader the records applied come from (0 before the first snapshot) */
+	private volatile long epoch;
+
+	/** the sequence number of the last record applied */
+	private volatile long appliedSequence;
+
+	/** the sequence number of the last record of the leader, as of its last message */
+	private volatile long leaderSequence;
+
+	/** the time from the leader sending the last batch to it being applied, in nanoseconds */
+	private volatile long lagNanos;
+
+	/** the number of snapshots received */
+	private volatile long snapshotCount;
+
+	/** true while connected to the leader */
+	private volatile boolean connected;
+
+	/** the connection to the leader (or null) */
+	private volatile Socket socket;
+
+	/** true once the follower was closed */
+	private volatile boolean closed;
+
+	/** the checksum of the records */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * ReplicationFollower Class Constructor
+	 * Starts following a leader, the inventory of the shop is replaced by the first snapshot received.
+	 *
+	 * @param shop the shop to keep a copy of the leader.
+	 * @param host the host of the leader.
+	 * @param port the port of the leader.
+	 * @param snapshotFileName the file the snapshots sent by the leader are written into.
+	 */
+	public ReplicationFollower(Shop shop, String host, int port, String snapshotFileName) {
+		this.shop = shop;
+		this.host = host;
+		this.port = port;
+		this.snapshotFileName = snapshotFileName;
+		this.applier = new Thread(this::follow, "replication-follower");
+		this.applier.setDaemon(true);
+		this.applier.start();
+	}
+
+	/**
+	 * Returns the sequence number of the last record applied.
+	 *
+	 * @return the last sequence number applied (0 before the first snapshot).
+	 */
+	public long getAppliedSequence() {
+		return appliedSequence;
+	}
+
+	/**
+	 * Returns the sequence number of the last record of the leader, as of its last message.
+	 *
+	 * @return the last sequence number of the leader.
+	 */
+	public long getLeaderSequence() {
+		return leaderSequence;
+	}
+
+	/**
+	 * Returns the number of records the follower is behind the leader, as of its last message.
+	 *
+	 * @return the number of records not applied yet.
+	 */
+	public long getRecordLag() {
+		return Math.max(leaderSequence - appliedSequence, 0);
+	}
+
+	/**
+	 * Returns the time from the leader sending the last batch of records to the batch being applied.
+	 * Both sides read the monotonic clock of the host, so the time is only meaningful on one host.
+	 *
+	 * @return the lag of the last batch, in nanoseconds.
+	 */
+	public long getLagNanos() {
+		return lagNanos;
+	}
+
+	/**
+	 * Returns the number of snapshots received from the leader.
+	 *
+	 * @return the number of snapshots received.
+	 */
+	public long getSnapshotCount() {
+		return snapshotCount;
+	}
+
+	/**
+	 * Returns whether the follower is connected to the leader.
+	 *
+	 * @return true while connected.
+	 */
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * Drops the connection to the leader, as a network failure would. The follower connects again
+	 * after a moment and resumes after the last record applied.
+	 */
+	void disconnect() {
+		Socket current = socket;
+		if (current != null) {
+			try {
+				current.close();
+			} catch (IOException e) {
+				//dropped anyway
+			}
+		}
+	}
+
+	/**
+	 * Stops following the leader, keeping the inventory as it is.
+	 */
+	public void close() {
+		closed = true;
+		Socket current = socket;
+		if (current != null) {
+			try {
+				current.close();
+			} catch (IOException e) {
+				//closing anyway
+			}
+		}
+		applier.interrupt();
+		try {
+			applier.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Connects to the leader and applies what it sends, connecting again after a failure, until closed.
+	 */
+	private void follow() {
+		while (!closed) {
+			try (Socket connection = new Socket()) {
+				socket = connection;
+				connection.connect(new InetSocketAddress(host, port));
+				connection.setTcpNoDelay(true);
+				connection.setSoTimeout(READ_TIMEOUT_MS);
+				connected = true;
+				this.receive(connection);
+			} catch (IOException e) {
+				if (!closed)
+					System.err.println("Replication from " + host + ":" + port + " interrupted: " + e.getMessage());
+			} finally {
+				connected = false;
+				socket = null;
+			}
+			if (closed)
+				return;
+			try {
+				Thread.sleep(RETRY_MS);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Says which records the follower holds and applies the messages of the leader until the connection ends.
+	 *
+	 * @param connection the connection to the leader.
+	 */
+	private void receive(Socket connection) throws IOException {
+		DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+		out.writeInt(ReplicationLeader.MAGIC);
+		out.writeLong(epoch);
+		out.writeLong(appliedSequence);
+		out.flush();
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), 1 << 16));
+		byte[] batch = new byte[1 << 16];
+		while (!closed) {
+			byte type;
+			try {
+				type = in.readByte();
+			} catch (EOFException e) {
+				return; //the leader closed the connection
+			}
+
+			switch (type) {
+			case ReplicationLeader.SNAPSHOT: {
+				long snapshotEpoch = in.readLong();
+				long sequence = in.readLong();
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				this.restore(bytes);
+				epoch = snapshotEpoch;
+				appliedSequence = sequence;
+				leaderSequence = sequence;
+				snapshotCount++;
+				break;
+			}
+			case ReplicationLeader.RECORDS: {
+				long first = in.readLong();
+				int count = in.readInt();
+				long last = in.readLong();
+				long sent = in.readLong();
+				int length = in.readInt();
+				if (first != appliedSequence + 1)
+					throw new IOException("Records from " + first + " sent after record " + appliedSequence + ".");
+				if (length > batch.length)
+					batch = new byte[Math.max(length, batch.length * 2)];
+				in.readFully(batch, 0, length);
+				this.apply(batch, length, count);
+				appliedSequence = first + count - 1;
+				leaderSequence = last;
+				lagNanos = System.nanoTime() - sent;
+				break;
+			}
+			case ReplicationLeader.HEARTBEAT:
+				leaderSequence = in.readLong();
+				in.readLong();
+				break;
+			default:
+				throw new IOException("Unknown replication message " + type + ".");
+			}
+		}
+	}
+
+	/**
+	 * Applies a batch of records onto the inventory of the shop, checking each record first.
+	 *
+	 * @param batch the records, each its length, type and data and CRC32.
+	 * @param length the length of the records.
+	 * @param count the number of records.
+	 */
+	private void apply(byte[] batch, int length, int count) throws IOException {
+		Inventory inventory = shop.getInventory();
+		ByteBuffer records = ByteBuffer.wrap(batch, 0, length);
+		for (int i = 0; i < count; i++) {
+			int recordLength = records.getInt();
+			int start = records.position();
+			crc.reset();
+			crc.update(batch, start, recordLength);
+			if ((int) crc.getValue() != records.getInt(start + recordLength))
+				throw new IOException("Replicated record " + (appliedSequence + 1) + " is corrupt.");
+
+			Journal.apply(ByteBuffer.wrap(batch, start, recordLength), inventory); //not sliced, texts are read at their position in the array
+			records.position(start + recordLength + 4);
+			appliedSequence++; //so that a failure resumes after the last record applied
+		}
+	}
+
+	/**
+	 * Writes a snapshot sent by the leader into the snapshot file and replaces the state of the shop with it.
+	 *
+	 * @param bytes the snapshot file.
+	 */
+	private void restore(byte[] bytes) throws IOException {
+		try (FileOutputStream file = new FileOutputStream(snapshotFileName)) {
+			file.write(bytes);
+		}
+		SnapshotFile snapshot = SnapshotFile.read(snapshotFileName);
+		shop.replaceState(snapshot.restoreInventory(true), snapshot.getSuppliers());
+	}
+}
@@ -0,0 +1,416 @@
+package retailstore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implementation of the leader side of the replication of the Retail Store.
+ * Streams every change of the inventory of a shop to follower shops over TCP, so that several store
+ * processes share one inventory view. The changes are the records of the journal of the shop, handed
+ * over as they are appended, so they arrive in the order the changes were made and hold absolute
+ * quantities, reorder levels and the order lines raised and taken.
+ *
+ * The latest records are kept in memory, in chunks up to a size. A follower connecting (or reconnecting)
+ * says which records it holds: if the records after them are still kept it is sent those, otherwise it is
+ * sent a snapshot of the shop first, which is written while the journal rotates so that it holds exactly
+ * the records before a known sequence number. Each follower is then sent the records appended since, in
+ * batches of everything appended while the previous batch was being written, so followers keep up by
+ * sending larger batches rather than more of them. An idle connection is sent a heartbeat holding the
+ * last sequence number, from which a follower knows how far behind it is.
+ *
+ * Records are streamed as soon as they are appended, before the journal forces them to the disk.
+ *
+ * Messages, numbers big-endian:
+ *   follower hello:  int MAGIC, long epoch, long sequence held (0 for none)
+ *   snapshot:        byte 'S', long epoch, long sequence, int length, the snapshot file
+ *   records:         byte 'R', long first sequence, int count, long last sequence, long leader nanoTime, int length,
+ *                    the journal records (each its length, type and data and CRC32)
+ *   heartbeat:       byte 'H', long last sequence, long leader nanoTime
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ReplicationLeader {
+
+	/** the first four bytes of every follower hello ("RPLC") */
+	public static final int MAGIC = 0x52504C43;
+
+	/** the message holding a snapshot */
+	static final byte SNAPSHOT = 'S';
+
+	/** the message holding records */
+	static final byte RECORDS = 'R';
+
+	/** the message holding the last sequence number of an idle leader */
+	static final byte HEARTBEAT = 'H';
+
+	/** the size of a chunk of kept records, a larger record gets a chunk of its own */
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/** the most bytes sent to a follower in one batch */
+	private static final int MAX_BATCH = 1 << 20;
+
+	/** the time between two heartbeats of an idle connection, in milliseconds */
+	static final long HEARTBEAT_MS = 500;
+
+	/**
+	 * A chunk of consecutive records, appended to until it is full.
+	 */
+	private static final class Chunk {
+
+		/** the records, one after the other */
+		final byte[] bytes;
+
+		/** the number of bytes used */
+		int used;
+
+		/** the sequence number of the first record */
+		final long firstSequence;
+
+		/** the number of records */
+		int count;
+
+		Chunk(int size, long firstSequence) {
+			this.bytes = new byte[size];
+			this.firstSequence = firstSequence;
+		}
+	}
+
+	/** the shop replicated */
+	private final Shop shop;
+
+	/** the socket followers connect to */
+	private final ServerSocket serverSocket;
+
+	/** the thread accepting followers */
+	private final Thread acceptor;
+
+	/** the number identifying this run of the leader, sequence numbers are only valid within one run */
+	private final long epoch;
+
+	/** the total size of the chunks kept, the oldest chunks are dropped above it */
+	private final long backlogSize;
+
+	/** the records kept, oldest first */
+	private final ArrayDeque<Chunk> chunks = new ArrayDeque<Chunk>();
+
+	/** the total size of the chunks kept */
+	private long keptBytes;
+
+	/** the sequence number of the last record appended */
+	private long lastSequence;
+
+	/** the number of follower threads waiting for records */
+	private int waiting;
+
+	/** the sockets of the connected followers */
+	private final ArrayList<Socket> followers = new ArrayList<Socket>();
+
+	/** the number of snapshots sent to followers */
+	private long snapshotCount;
+
+	/** the name of the snapshot files written for followers, numbered after it */
+	private final String snapshotFileName;
+
+	/** true once the leader was closed */
+	private volatile boolean closed;
+
+	/**
+	 * ReplicationLeader Class Constructor
+	 * Starts accepting followers and keeping the records appended to the journal of the shop from now on.
+	 *
+	 * @param shop the shop to replicate, with a journal.
+	 * @param port the port to listen on (or 0 for any free port).
+	 * @param backlogSize the size of the records kept for followers which fall behind or reconnect, in bytes.
+	 * @param snapshotFileName the name of the snapshot files written for followers.
+	 */
+	public ReplicationLeader(Shop shop, int port, long backlogSize, String snapshotFileName) throws IOException {
+		Journal journal = shop.getInventory().getJournal();
+		if (journal == null)
+			throw new IllegalStateException("Only a shop with a journal can be replicated.");
+		this.shop = shop;
+		this.backlogSize = backlogSize;
+		this.snapshotFileName = snapshotFileName;
+		this.epoch = new Random().nextLong() & Long.MAX_VALUE | 1; //never 0, the epoch of a follower holding nothing
+		this.serverSocket = new ServerSocket();
+		this.serverSocket.bind(new InetSocketAddress(port));
+
+		synchronized (this) {
+			this.lastSequence = journal.getAppendedCount();
+		}
+		journal.setReplication(this);
+
+		this.acceptor = new Thread(this::accept, "replication-leader");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+
+	/**
+	 * Keeps a record appended to the journal. Called by the journal under its lock, in the order of the records.
+	 *
+	 * @param sequence the sequence number of the record.
+	 * @param bytes the buffer holding the record.
+	 * @param offset the position of the record in the buffer.
+	 * @param length the length of the record.
+	 */
+	synchronized void append(long sequence, byte[] bytes, int offset, int length) {
+		Chunk last = chunks.peekLast();
+		if (last == null || last.used + length > last.bytes.length || sequence != last.firstSequence + last.count) {
+			last = new Chunk(Math.max(CHUNK_SIZE, length), sequence);
+			chunks.addLast(last);
+			keptBytes += last.bytes.length;
+			while (keptBytes > backlogSize && chunks.size() > 1) {
+				keptBytes -= chunks.removeFirst().bytes.length;
+			}
+		}
+		System.arraycopy(bytes, offset, last.bytes, last.used, length);
+		last.used += length;
+		last.count++;
+		lastSequence = sequence;
+		if (waiting > 0)
+			notifyAll();
+	}
+
+	/**
+	 * Returns the port followers connect to.
+	 *
+	 * @return the port of the leader.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Returns the sequence number of the last record appended.
+	 *
+	 * @return the last sequence number.
+	 */
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Returns the number of followers connected.
+	 *
+	 * @return the number of followers.
+	 */
+	public synchronized int getFollowerCount() {
+		return followers.size();
+	}
+
+	/**
+	 * Returns the number of snapshots sent to followers which held no records or fell too far behind.
+	 *
+	 * @return the number of snapshots sent.
+	 */
+	public synchronized long getSnapshotCount() {
+		return snapshotCount;
+	}
+
+	/**
+	 * Stops streaming records and disconnects the followers.
+	 */
+	public void close() throws IOException {
+		closed = true;
+		Journal journal = shop.getInventory().getJournal();
+		if (journal != null)
+			journal.setReplication(null);
+		serverSocket.close();
+		synchronized (this) {
+			for (Socket follower : followers) {
+				follower.close();
+			}
+			notifyAll();
+		}
+		try {
+			acceptor.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Accepts followers, each served by a thread of its own, until the leader is closed.
+	 */
+	private void accept() {
+		int number = 0;
+		while (!closed) {
+			Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (IOException e) {
+				if (!closed)
+					System.err.println("Replication stopped accepting followers: " + e.getMessage());
+				return;
+			}
+			synchronized (this) {
+				followers.add(socket);
+			}
+			Thread sender = new Thread(() -> this.serve(socket), "replication-follower-" + ++number);
+			sender.setDaemon(true);
+			sender.start();
+		}
+	}
+
+	/**
+	 * Serves a follower until it disconnects: answers its hello, then streams the records.
+	 *
+	 * @param socket the connection of the follower.
+	 */
+	private void serve(Socket socket) {
+		try (Socket connection = socket) {
+			connection.setTcpNoDelay(true);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), 1 << 16));
+			if (in.readInt() != MAGIC)
+				return;
+			long followerEpoch = in.readLong();
+			long position = in.readLong();
+
+			byte[] batch = new byte[CHUNK_SIZE];
+			while (!closed) {
+				long first;
+				int count;
+				int length;
+				long last;
+				synchronized (this) {
+					if (followerEpoch != epoch || !this.holdsAfter(position)) {
+						position = -1; //a snapshot is sent outside the lock below
+					} else {
+						long waitStart = System.currentTimeMillis();
+						while (!closed && lastSequence == position && System.currentTimeMillis() - waitStart < HEARTBEAT_MS) {
+							waiting++;
+							try {
+								wait(HEARTBEAT_MS);
+							} catch (InterruptedException e) {
+								return;
+							} finally {
+								waiting--;
+							}
+						}
+						if (!this.holdsAfter(position))
+							position = -1; //fell behind while waiting
+					}
+
+					first = position + 1;
+					count = 0;
+					length = 0;
+					last = lastSequence;
+					if (position >= 0) {
+						//copy the records after the position, chunk by chunk, up to the size of a batch
+						for (Chunk chunk : chunks) {
+							long chunkEnd = chunk.firstSequence + chunk.count;
+							if (chunkEnd <= first + count)
+								continue;
+							int start = offsetOf(chunk, first + count);
+							int size = chunk.used - start;
+							if (length > 0 && length + size > MAX_BATCH)
+								break;
+							if (length + size > batch.length)
+								batch = Arrays.copyOf(batch, Math.max(batch.length * 2, length + size));
+							System.arraycopy(chunk.bytes, start, batch, length, size);
+							length += size;
+							count += (int) (chunkEnd - (first + count));
+						}
+					}
+				}
+
+				if (position < 0) {
+					position = this.sendSnapshot(out);
+					followerEpoch = epoch;
+				} else if (count == 0) {
+					out.writeByte(HEARTBEAT);
+					out.writeLong(last);
+					out.writeLong(System.nanoTime());
+				} else {
+					out.writeByte(RECORDS);
+					out.writeLong(first);
+					out.writeInt(count);
+					out.writeLong(last);
+					out.writeLong(System.nanoTime());
+					out.writeInt(length);
+					out.write(batch, 0, length);
+					position = first + count - 1;
+				}
+				out.flush();
+			}
+		} catch (IOException e) {
+			//the follower disconnected, it resumes from what it holds when it connects again
+		} finally {
+			synchronized (this) {
+				followers.remove(socket);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the records after a sequence number are all kept, called while the leader is locked.
+	 *
+	 * @param position the sequence number of the last record a follower holds.
+	 * @return true if the follower can be sent the records after it.
+	 */
+	private boolean holdsAfter(long position) {
+		if (position >= lastSequence)
+			return position == lastSequence; //a follower of this run never holds more than was appended
+		Chunk oldest = chunks.peekFirst();
+		return oldest != null && oldest.firstSequence <= position + 1;
+	}
+
+	/**
+	 * Returns the offset of a record inside a chunk, found by stepping over the records before it.
+	 *
+	 * @param chunk the chunk holding the record.
+	 * @param sequence the sequence number of the record.
+	 * @return the offset of the record.
+	 */
+	private static int offsetOf(Chunk chunk, long sequence) {
+		int offset = 0;
+		for (long s = chunk.firstSequence; s < sequence; s++) {
+			int length = (chunk.bytes[offset] & 0xFF) << 24 | (chunk.bytes[offset + 1] & 0xFF) << 16
+					| (chunk.bytes[offset + 2] & 0xFF) << 8 | chunk.bytes[offset + 3] & 0xFF;
+			offset += length + 8;
+		}
+		return offset;
+	}
+
+	/**
+	 * Writes a snapshot of the shop and sends it to a follower.
+	 *
+	 * @param out the stream of the follower.
+	 * @return the sequence number of the last record the snapshot holds.
+	 */
+	private long sendSnapshot(DataOutputStream out) throws IOException {
+		String fileName = snapshotFileName + "." + Thread.currentThread().getId();
+		long sequence = shop.writeReplicaSnapshot(fileName);
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(new File(fileName).toPath());
+		} finally {
+			new File(fileName).delete();
+		}
+		synchronized (this) {
+			snapshotCount++;
+		}
+
+		out.writeByte(SNAPSHOT);
+		out.writeLong(epoch);
+		out.writeLong(sequence);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+		return sequence;
+	}
+}
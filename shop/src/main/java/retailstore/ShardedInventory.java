@@ -0,0 +1,611 @@
+package retailstore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Implementation of a sharded Inventory for the Retail Store, without locks on the items.
+ * The items are partitioned by id into shards, each a plain (not concurrent) Inventory owned by one
+ * thread. Other threads never touch the items of a shard: they send requests into the inbox of the
+ * shard, a lock-free queue, and its owner runs them one at a time in the order they arrived.
+ *
+ * It is an ItemStore, so a Shop can keep its items in it and route its item operations to the shards.
+ *
+ * Changes (addItem, removeItem) are sent without waiting for them, reads (checkQty, searchItem) wait
+ * for the answer. The requests a thread sends to a shard run in the order it sent them, so a read
+ * sees the changes the same thread made before it. A thread sending changes faster than the shard
+ * runs them waits for its change once the inbox holds INBOX_LIMIT requests.
+ *
+ * Operations over the whole catalog (item counts, listings, order lines, low stock) are sent to every
+ * shard at once and their answers merged. Items are listed shard after shard, each in the order its
+ * items were added, and order lines are taken shard after shard.
+ *
+ * An item returned is still owned by its shard, its fields read from another thread show the item as
+ * it was at some point, not necessarily its latest change.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ShardedInventory implements ItemStore {
+
+	/** the number of requests waiting in an inbox above which senders wait for their changes to run */
+	private static final int INBOX_LIMIT = 4096;
+
+	/** the number of times an idle thread checks for work (or an answer) before it parks */
+	private static final int SPIN_LIMIT = 200;
+
+	/** a request adding an item or increasing its quantity */
+	private static final int ADD_ITEM = 1;
+
+	/** a request reducing the quantity of an item */
+	private static final int REMOVE_ITEM = 2;
+
+	/** a request for the quantity of an item */
+	private static final int CHECK_QTY = 3;
+
+	/** a request for an item */
+	private static final int SEARCH_ITEM = 4;
+
+	/** a request for an item by its name */
+	private static final int SEARCH_NAME = 5;
+
+	/** a request for the number of items of a shard */
+	private static final int ITEM_COUNT = 6;
+
+	/** a request for a page of the items of a shard */
+	private static final int LIST_ITEMS = 7;
+
+	/** a request taking the order lines of a shard */
+	private static final int DRAIN_ORDER_LINES = 8;
+
+	/** a request for the order lines of a shard without taking them */
+	private static final int GET_ORDER_LINES = 9;
+
+	/** a request for the items of a shard closest to running out */
+	private static final int CLOSEST_TO_STOCK_OUT = 10;
+
+	/** a request for the number of items of a shard below their reorder level */
+	private static final int BELOW_LEVEL_COUNT = 11;
+
+	/** a request stopping the owner of a shard */
+	private static final int STOP = 12;
+
+	/** orders items by how far their quantity is above their reorder level, then by id */
+	private static final Comparator<Item> CLOSER = Comparator.comparingInt((Item item) -> item.getQty() - item.getReorderLevel())
+			.thenComparingInt(Item::getId);
+
+	/**
+	 * A request sent to a shard, and its answer. Requests are also the links of the inbox.
+	 */
+	private static final class Request {
+
+		/** the kind of request */
+		final int op;
+
+		/** the item id of the request */
+		int itemId;
+
+		/** the quantity to add or reduce */
+		int qty;
+
+		/** the position of the first item of a page */
+		int offset;
+
+		/** the maximum number of items answered */
+		int limit;
+
+		/** the supplier id number of an item to add */
+		int supplierId;
+
+		/** the name of an item to add or to search for */
+		String name;
+
+		/** the price of an item to add */
+		double price;
+
+		/** the thread waiting for the answer (or null if no thread waits) */
+		Thread waiter;
+
+		/** the answer to a read */
+		Object result;
+
+		/** the number answered to a count */
+		int count;
+
+		/** the exception thrown while running the request (or null) */
+		RuntimeException failure;
+
+		/** true once the request has run */
+		volatile boolean done;
+
+		/** the request sent after this one (or null if it is the last) */
+		volatile Request next;
+
+		Request(int op) {
+			this.op = op;
+		}
+	}
+
+	/**
+	 * A shard: its items, its inbox and the thread owning them.
+	 */
+	private static final class Shard implements Runnable {
+
+		/** the items of the shard, only used by its owner */
+		final Inventory inventory;
+
+		/** the last request of the inbox, where senders append */
+		final AtomicReference<Request> tail;
+
+		/** the request of the inbox run last, the next one to run follows it (only used by the owner) */
+		Request head;
+
+		/** the number of requests sent and not run yet */
+		final AtomicInteger pending = new AtomicInteger();
+
+		/** true while the owner is parked or about to park */
+		volatile boolean parked;
+
+		/** the thread owning the shard */
+		Thread owner;
+
+		Shard(ArrayList<Item> items) {
+			this.inventory = new Inventory(items, false);
+			this.head = new Request(0);
+			this.tail = new AtomicReference<Request>(this.head);
+		}
+
+		/**
+		 * Appends a request to the inbox and wakes the owner if it is parked.
+		 * Two senders appending at the same time each swap the tail once, neither waits for the other.
+		 */
+		void send(Request request) {
+			pending.incrementAndGet();
+			Request previous = tail.getAndSet(request);
+			previous.next = request; //the owner sees the request once it is linked
+			if (parked)
+				LockSupport.unpark(owner);
+		}
+
+		/**
+		 * Runs the requests of the inbox as they arrive, parking while it is empty, until stopped.
+		 */
+		@Override
+		public void run() {
+			int idle = 0;
+			while (true) {
+				Request request = head.next;
+				if (request == null) {
+					if (++idle < SPIN_LIMIT) {
+						Thread.onSpinWait();
+						continue;
+					}
+					parked = true;
+					if (head.next == null) //checked again after the flag is set, so a request sent meanwhile is not missed
+						LockSupport.park(this);
+					parked = false;
+					idle = 0;
+					continue;
+				}
+				head = request;
+				idle = 0;
+				pending.decrementAndGet();
+				if (request.op == STOP) {
+					answer(request);
+					return;
+				}
+				try {
+					runRequest(request);
+				} catch (RuntimeException e) {
+					request.failure = e;
+				}
+				answer(request);
+			}
+		}
+
+		/**
+		 * Runs one request against the items of the shard.
+		 */
+		private void runRequest(Request request) {
+			switch (request.op) {
+			case ADD_ITEM:
+				inventory.addItem(request.itemId, request.name, request.qty, request.price, request.supplierId);
+				break;
+			case REMOVE_ITEM:
+				inventory.removeItem(request.itemId, request.qty);
+				break;
+			case CHECK_QTY:
+				request.count = inventory.checkQty(request.itemId);
+				break;
+			case SEARCH_ITEM:
+				request.result = inventory.searchItem(request.itemId);
+				break;
+			case SEARCH_NAME:
+				request.result = inventory.searchItem(request.name);
+				break;
+			case ITEM_COUNT:
+				request.count = inventory.getItemCount();
+				break;
+			case LIST_ITEMS:
+				request.result = inventory.listItems(request.offset, request.limit);
+				break;
+			case DRAIN_ORDER_LINES:
+				request.result = inventory.drainOrderLines();
+				break;
+			case GET_ORDER_LINES:
+				request.result = inventory.getOrderLines();
+				break;
+			case CLOSEST_TO_STOCK_OUT:
+				request.result = inventory.getItemsClosestToStockOut(request.limit);
+				break;
+			case BELOW_LEVEL_COUNT:
+				request.count = inventory.getBelowReorderLevelCount();
+				break;
+			default:
+				throw new IllegalStateException("Unknown request " + request.op);
+			}
+		}
+
+		/**
+		 * Marks a request as run and wakes the thread waiting for it.
+		 */
+		private static void answer(Request request) {
+			request.done = true;
+			if (request.waiter != null)
+				LockSupport.unpark(request.waiter);
+		}
+	}
+
+	/** the shards, chosen by item id */
+	private final Shard[] shards;
+
+	/**
+	 * ShardedInventory Class Constructor
+	 * Partitions the items into the shards and starts the thread owning each shard.
+	 *
+	 * @param items the list of items to be passed into the constructor.
+	 * @param shardCount the number of shards, e.g. the number of cores.
+	 */
+	public ShardedInventory(ArrayList<Item> items, int shardCount) {
+		if (shardCount <= 0)
+			throw new IllegalArgumentException("The number of shards must be positive.");
+		ArrayList<ArrayList<Item>> parts = new ArrayList<ArrayList<Item>>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			parts.add(new ArrayList<Item>(items.size() / shardCount + 1));
+		}
+		for (Item item : items) {
+			parts.get(shardIndex(item.getId(), shardCount)).add(item);
+		}
+
+		this.shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard(parts.get(i));
+			Thread owner = new Thread(shards[i], "inventory-shard-" + i);
+			owner.setDaemon(true);
+			shards[i].owner = owner;
+		}
+		for (Shard shard : shards) {
+			shard.owner.start(); //the items were handed over before the owner starts
+		}
+	}
+
+	/**
+	 * Adds an item or increases the quantity of an existing item, as Inventory.addItem does.
+	 * Returns once the change is sent to the shard of the item, not once it has run.
+	 *
+	 * @param itemId id number of the item to add.
+	 * @param itemName name of the item to add.
+	 * @param itemQty quantity of the item to add (for existing items, this is used to increase the actual quantity by).
+	 * @param itemPrice price of the item to add.
+	 * @param itemSupId supplier id number of the item to add.
+	 */
+	@Override
+	public void addItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		Request request = new Request(ADD_ITEM);
+		request.itemId = itemId;
+		request.name = itemName;
+		request.qty = itemQty;
+		request.price = itemPrice;
+		request.supplierId = itemSupId;
+		this.sendChange(shardOf(itemId), request);
+	}
+
+	/**
+	 * Reduces the quantity of an item, as Inventory.removeItem does, capturing the order line it raises.
+	 * Returns once the change is sent to the shard of the item, not once it has run.
+	 *
+	 * @param itemId id number of the item to reduce.
+	 * @param itemQty quantity to reduce from the item.
+	 */
+	@Override
+	public void removeItem(int itemId, int itemQty) {
+		Request request = new Request(REMOVE_ITEM);
+		request.itemId = itemId;
+		request.qty = itemQty;
+		this.sendChange(shardOf(itemId), request);
+	}
+
+	/**
+	 * Returns the quantity of an item, after the changes sent to it before by the calling thread.
+	 *
+	 * @param itemId id number of the item to search for.
+	 * @return the quantity of the item found (or 0 if not found).
+	 */
+	@Override
+	public int checkQty(int itemId) {
+		Request request = new Request(CHECK_QTY);
+		request.itemId = itemId;
+		return this.call(shardOf(itemId), request).count;
+	}
+
+	/**
+	 * Searches an item by its id number, after the changes sent to it before by the calling thread.
+	 *
+	 * @param itemId id number of the item to search for.
+	 * @return the item found (or null if it was not found).
+	 */
+	@Override
+	public Item searchItem(int itemId) {
+		Request request = new Request(SEARCH_ITEM);
+		request.itemId = itemId;
+		return (Item) this.call(shardOf(itemId), request).result;
+	}
+
+	/**
+	 * Searches an item by its name, ignoring case, in every shard at once. An item's name can be in any
+	 * shard, if several items have the name the one of the lowest shard is returned.
+	 *
+	 * @param itemName the name of the item to look for.
+	 * @return the item found (or null if it was not found).
+	 */
+	@Override
+	public Item searchItem(String itemName) {
+		Request[] requests = new Request[shards.length];
+		for (int i = 0; i < shards.length; i++) {
+			requests[i] = new Request(SEARCH_NAME);
+			requests[i].name = itemName;
+			this.send(shards[i], requests[i], true);
+		}
+		Item found = null;
+		for (Request request : requests) {
+			Item item = (Item) this.await(request).result;
+			if (found == null)
+				found = item;
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the number of items of all shards.
+	 *
+	 * @return the number of items in the inventory.
+	 */
+	@Override
+	public int getItemCount() {
+		int count = 0;
+		for (Request request : this.callAll(ITEM_COUNT, 0)) {
+			count += request.count;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a page of the items, shard after shard and in the order they were added within a shard.
+	 * Items added while pages are read may shift the later shards, as they would in a listing of one
+	 * inventory if items were inserted in the middle.
+	 *
+	 * @param offset the position of the first item to return.
+	 * @param limit the maximum number of items to return.
+	 * @return the list of items in the page (empty if offset is past the last item).
+	 */
+	public ArrayList<Item> listItems(int offset, int limit) {
+		if (offset < 0 || limit < 0)
+			throw new IllegalArgumentException("Offset and limit must not be negative.");
+
+		Request[] counts = this.callAll(ITEM_COUNT, 0);
+		Request[] pages = new Request[shards.length];
+		long start = 0;
+		long end = (long) offset + limit;
+		for (int i = 0; i < shards.length && start < end; i++) {
+			long next = start + counts[i].count;
+			if (next > offset) {
+				pages[i] = new Request(LIST_ITEMS);
+				pages[i].offset = (int) Math.max(offset - start, 0);
+				pages[i].limit = (int) Math.min(end - Math.max(start, offset), Integer.MAX_VALUE);
+				this.send(shards[i], pages[i], true);
+			}
+			start = next;
+		}
+
+		ArrayList<Item> page = new ArrayList<Item>();
+		for (Request request : pages) {
+			if (request != null)
+				page.addAll(resultOf(this.await(request)));
+		}
+		return page;
+	}
+
+	/**
+	 * Returns the order lines of all shards, without taking them.
+	 *
+	 * @return the order lines captured so far, shard after shard and oldest first within a shard.
+	 */
+	@Override
+	public ArrayList<OrderLine> getOrderLines() {
+		return this.mergeLines(this.callAll(GET_ORDER_LINES, 0));
+	}
+
+	/**
+	 * Takes the order lines of all shards, as Inventory.drainOrderLines does for each shard.
+	 * Lines raised while the shards are drained are either taken or left for the next call.
+	 *
+	 * @return the order lines taken, shard after shard and oldest first within a shard.
+	 */
+	@Override
+	public ArrayList<OrderLine> drainOrderLines() {
+		return this.mergeLines(this.callAll(DRAIN_ORDER_LINES, 0));
+	}
+
+	/**
+	 * Returns the items closest to running out over all shards, as Inventory.getItemsClosestToStockOut does.
+	 * Each shard finds its own closest items and the lists are merged.
+	 *
+	 * @param count the number of items to return.
+	 * @return at most count items, closest to running out first.
+	 */
+	public ArrayList<Item> getItemsClosestToStockOut(int count) {
+		ArrayList<Item> found = new ArrayList<Item>();
+		for (Request request : this.callAll(CLOSEST_TO_STOCK_OUT, count)) {
+			found.addAll(ShardedInventory.<Item>resultOf(request));
+		}
+		found.sort(CLOSER);
+		return new ArrayList<Item>(found.subList(0, Math.min(count, found.size())));
+	}
+
+	/**
+	 * Returns the number of items below their reorder level over all shards.
+	 *
+	 * @return the number of items below their reorder level.
+	 */
+	public int getBelowReorderLevelCount() {
+		int count = 0;
+		for (Request request : this.callAll(BELOW_LEVEL_COUNT, 0)) {
+			count += request.count;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of shards.
+	 *
+	 * @return the number of shards.
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Runs the requests sent so far and stops the threads owning the shards.
+	 * The inventory must not be used afterwards.
+	 */
+	public void close() {
+		this.callAll(STOP, 0);
+		for (Shard shard : shards) {
+			try {
+				shard.owner.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the shard of an item id.
+	 *
+	 * @param itemId the id number of the item.
+	 * @return the shard of the item.
+	 */
+	private Shard shardOf(int itemId) {
+		return shards[shardIndex(itemId, shards.length)];
+	}
+
+	/**
+	 * Returns the position of the shard of an item id. Ids are mixed first, so that ids given out
+	 * in steps (e.g. one range per supplier) still spread evenly over the shards.
+	 *
+	 * @param itemId the id number of the item.
+	 * @param shardCount the number of shards.
+	 * @return the position of the shard.
+	 */
+	private static int shardIndex(int itemId, int shardCount) {
+		int h = itemId * 0x9E3779B9;
+		return (int) (((h ^ h >>> 16) & 0xFFFFFFFFL) % shardCount);
+	}
+
+	/**
+	 * Sends a change to a shard, waiting for it to run only if the inbox of the shard is full.
+	 */
+	private void sendChange(Shard shard, Request request) {
+		boolean full = shard.pending.get() >= INBOX_LIMIT;
+		this.send(shard, request, full);
+		if (full)
+			this.await(request);
+	}
+
+	/**
+	 * Sends a request to a shard and waits for its answer.
+	 */
+	private Request call(Shard shard, Request request) {
+		this.send(shard, request, true);
+		return this.await(request);
+	}
+
+	/**
+	 * Sends the same kind of request to every shard at once and waits for all answers.
+	 *
+	 * @param op the kind of request.
+	 * @param limit the limit of the request (if it has one).
+	 * @return the answered requests, by shard.
+	 */
+	private Request[] callAll(int op, int limit) {
+		Request[] requests = new Request[shards.length];
+		for (int i = 0; i < shards.length; i++) {
+			requests[i] = new Request(op);
+			requests[i].limit = limit;
+			this.send(shards[i], requests[i], true);
+		}
+		for (Request request : requests) {
+			this.await(request);
+		}
+		return requests;
+	}
+
+	/**
+	 * Sends a request to a shard.
+	 */
+	private void send(Shard shard, Request request, boolean wait) {
+		if (wait)
+			request.waiter = Thread.currentThread();
+		shard.send(request);
+	}
+
+	/**
+	 * Waits for a request to run, spinning briefly before parking, and rethrows what it threw.
+	 */
+	private Request await(Request request) {
+		for (int i = 0; !request.done && i < SPIN_LIMIT; i++) {
+			Thread.onSpinWait();
+		}
+		while (!request.done) {
+			LockSupport.park(this);
+		}
+		if (request.failure != null)
+			throw request.failure;
+		return request;
+	}
+
+	/**
+	 * Joins the order lines answered by each shard, shard after shard.
+	 */
+	private ArrayList<OrderLine> mergeLines(Request[] requests) {
+		ArrayList<OrderLine> lines = new ArrayList<OrderLine>();
+		for (Request request : requests) {
+			lines.addAll(ShardedInventory.<OrderLine>resultOf(request));
+		}
+		return lines;
+	}
+
+	/**
+	 * Returns the list answered to a request.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> ArrayList<T> resultOf(Request request) {
+		return (ArrayList<T>) request.result;
+	}
+}
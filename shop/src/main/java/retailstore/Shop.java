@@ -0,0 +1,646 @@
+package retailstore;
+
+/**
+ * Implementation of the Shop Class for the Retail Store.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 9th, 2020
+ */
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+public class Shop {
+	
+	/** the items belonging to this shop, an Inventory unless another store was given, replaced when a follower shop catches up from a snapshot */
+	private volatile ItemStore store;
+	
+	/** the suppliers belonging to this shop with their indexes, replaced as a whole when they change */
+	private volatile Suppliers suppliers;
+	
+	/** the active order for the day */
+	private Order order;
+	
+	/** the id number of the last order created, orders are numbered after it and after the orders in the history */
+	private int lastOrderId;
+	
+	/** the orders submitted so far (or null if they are not kept) */
+	private OrderHistory history;
+	
+	/** the write-back keeping the items file current with the inventory (or null if it is not kept current) */
+	private ItemFileFlusher itemsWriteBack;
+	
+	/** the leader streaming the changes of the inventory to follower shops (or null if the shop is not replicated) */
+	private ReplicationLeader replication;
+	
+	/**
+	 * The suppliers list with its id and name indexes. It is never changed once built, so the
+	 * three are always read together without a lock; a change builds and publishes a new one.
+	 */
+	private static final class Suppliers {
+		
+		/** the suppliers list */
+		final ArrayList<Supplier> list;
+		
+		/** the index of supplier id numbers to their positions inside the suppliers list */
+		final IntIndex idIndex;
+		
+		/** the case-insensitive index of supplier names to their positions inside the suppliers list */
+		final NameIndex nameIndex;
+		
+		/**
+		 * Builds the id and name indexes over a copy of the suppliers list.
+		 * When several suppliers share an id or a name, the first one in the list is indexed.
+		 * 
+		 * @param suppliers the suppliers list
+		 */
+		Suppliers(ArrayList<Supplier> suppliers) {
+			this.list = new ArrayList<Supplier>(suppliers);
+			this.idIndex = new IntIndex(this.list.size());
+			this.nameIndex = new NameIndex(this.list.size());
+			
+			for (int i = 0; i < this.list.size(); i++) {
+				this.idIndex.putIfAbsent(this.list.get(i).getId(), i);
+				this.nameIndex.add(this.list.get(i).getName(), i);
+			}
+		}
+	}
+	
+	/**
+	 * Default Shop Class Constructor
+	 * 
+	 * Initializes inventory and suppliers as blank.
+	 * 
+	 */
+	public Shop() {
+		this.store = new Inventory();
+		this.suppliers = new Suppliers(new ArrayList<Supplier>());
+	}
+	
+	/**
+	 * Overloaded Shop Class Constructor
+	 * 
+	 * Imports items and suppliers files into inventory and shop.
+	 * 
+	 * @param itemsFileName the file name to be read when importing items list externally
+	 * @param supFileName the file name to be read when importing suppliers list externally
+	 */
+	public Shop(String itemsFileName, String supFileName) throws IOException {
+		this(itemsFileName, supFileName, false);
+	}
+	
+	/**
+	 * Overloaded Shop Class Constructor
+	 * 
+	 * Imports items and suppliers files into inventory and shop.
+	 * 
+	 * @param itemsFileName the file name to be read when importing items list externally
+	 * @param supFileName the file name to be read when importing suppliers list externally
+	 * @param concurrent true if the inventory will be used by several threads (e.g. several tills) at the same time
+	 */
+	public Shop(String itemsFileName, String supFileName, boolean concurrent) throws IOException {
+		
+		//suppliers are read in the background while the items file is split and read in parallel
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		Future<ArrayList<Supplier>> suppliersTask = pool.submit(() -> this.importSuppliers(supFileName, pool));
+		this.store = new Inventory(this.importItems(itemsFileName, pool), concurrent);
+		ArrayList<Supplier> imported = FileHandler.await(suppliersTask);
+		
+		if (imported == null)
+			imported = new ArrayList<Supplier>(); //suppliers file could not be read, start with no suppliers
+		this.suppliers = new Suppliers(imported);
+	}
+	
+	/**
+	 * Overloaded Shop Class Constructor
+	 * 
+	 * Initializes the shop from items and suppliers list which were already loaded.
+	 * The items can be kept in any store, e.g. a ShardedInventory; journaling, snapshots,
+	 * write-back and replication need an Inventory.
+	 * 
+	 * @param store the items of the shop
+	 * @param suppliers the suppliers list of the shop
+	 */
+	public Shop(ItemStore store, ArrayList<Supplier> suppliers) {
+		this.store = store;
+		this.suppliers = new Suppliers(suppliers);
+	}
+	
+	/**
+	 * Restores a shop from a snapshot file written by saveSnapshot, including item quantities,
+	 * order flags and the order lines which were pending when it was saved.
+	 * 
+	 * @param fileName the name of the snapshot file
+	 * @param concurrent true if the inventory will be used by several threads (e.g. several tills) at the same time
+	 * @return the restored shop
+	 */
+	public static Shop loadSnapshot(String fileName, boolean concurrent) throws IOException {
+		SnapshotFile snapshot = SnapshotFile.read(fileName);
+		return new Shop(snapshot.restoreInventory(concurrent), snapshot.getSuppliers());
+	}
+	
+	/**
+	 * Restores a shop from its snapshot file and replays the changes journaled since the snapshot
+	 * was saved, then journals every following change of the inventory.
+	 * 
+	 * @param snapshotFileName the name of the snapshot file
+	 * @param journalFileName the file name the journal segments are numbered after
+	 * @param durability when journaled changes are forced to the disk
+	 * @param concurrent true if the inventory will be used by several threads (e.g. several tills) at the same time
+	 * @return the restored shop
+	 */
+	public static Shop recover(String snapshotFileName, String journalFileName, Journal.Durability durability,
+			boolean concurrent) throws IOException {
+		SnapshotFile snapshot = SnapshotFile.read(snapshotFileName);
+		Inventory inventory = snapshot.restoreInventory(concurrent);
+		
+		inventory.setJournal(Journal.open(journalFileName, snapshotFileName, snapshot.getJournalSegment(), durability, inventory));
+		return new Shop(inventory, snapshot.getSuppliers());
+	}
+	
+	/**
+	 * Starts journaling every change of the inventory, e.g. after the shop was imported from the text files.
+	 * Saves the snapshot the journal is replayed on top of at the same time.
+	 * 
+	 * @param snapshotFileName the name of the snapshot file
+	 * @param journalFileName the file name the journal segments are numbered after
+	 * @param durability when journaled changes are forced to the disk
+	 */
+	public synchronized void startJournal(String snapshotFileName, String journalFileName, Journal.Durability durability) throws IOException {
+		this.inventory().setJournal(Journal.create(journalFileName, snapshotFileName, durability));
+		this.saveSnapshot(snapshotFileName);
+	}
+	
+	/**
+	 * Writes the changes journaled so far to the disk and stops journaling.
+	 */
+	public synchronized void closeJournal() throws IOException {
+		Inventory inventory = this.getInventory();
+		Journal journal = inventory != null ? inventory.getJournal() : null;
+		if (journal != null) {
+			journal.close();
+			inventory.setJournal(null);
+		}
+	}
+	
+	/**
+	 * Starts writing the changed items back into an items file every period, e.g. the file the shop was imported from.
+	 * Only the items changed since the previous write-back are written, in the background.
+	 * 
+	 * @param itemsFileName the name of the items file
+	 * @param periodMillis the time between two write-backs, in milliseconds
+	 */
+	public synchronized void startItemsWriteBack(String itemsFileName, long periodMillis) throws IOException {
+		this.stopItemsWriteBack();
+		this.itemsWriteBack = new ItemFileFlusher(this.inventory(), itemsFileName, periodMillis);
+	}
+	
+	/**
+	 * Writes the items changed since the last write-back into the items file and stops writing them back.
+	 */
+	public synchronized void stopItemsWriteBack() throws IOException {
+		if (this.itemsWriteBack != null) {
+			ItemFileFlusher writeBack = this.itemsWriteBack;
+			this.itemsWriteBack = null;
+			writeBack.close();
+		}
+	}
+	
+	/**
+	 * Starts keeping the orders submitted from now on in an order history, together with the orders
+	 * already in its file. Every order is in the file, the most recent ones are kept in memory within the budget.
+	 * If the shop stopped after its last order was added to the history but before the inventory
+	 * journaled its lines as submitted, the lines are taken out of the pending ones again.
+	 * 
+	 * @param historyFileName the name of the order history file
+	 * @param memoryBudget the estimated heap size the most recent orders may take in memory, in bytes
+	 */
+	public synchronized void openOrderHistory(String historyFileName, long memoryBudget) throws IOException {
+		this.closeOrderHistory();
+		this.history = new OrderHistory(historyFileName, memoryBudget);
+		this.lastOrderId = Math.max(this.lastOrderId, this.history.getLastOrderId());
+		Inventory inventory = this.getInventory();
+		if (inventory != null)
+			inventory.resumeOrderHistory(this.history.getLastOrder());
+	}
+	
+	/**
+	 * Submits the active order into the order history, so that it is not lost, and closes the history.
+	 */
+	public synchronized void closeOrderHistory() throws IOException {
+		if (this.history != null) {
+			OrderHistory closing = this.history;
+			if (this.order != null && this.order.getLineCount() > 0) {
+				closing.add(this.order); //on the disk before the lines are committed
+				Order submitted = this.order;
+				this.order = null;
+				this.store.commitOrderLines(submitted.getId(), submitted.getOrderLines());
+			}
+			this.order = null;
+			this.history = null;
+			closing.close();
+		}
+	}
+	
+	/**
+	 * Returns the order history of the shop.
+	 * 
+	 * @return the order history (or null if orders are not kept).
+	 */
+	public OrderHistory getOrderHistory() {
+		return this.history;
+	}
+	
+	/**
+	 * Saves the inventory and suppliers of the shop into a snapshot file, replacing the previous one.
+	 * If it is the snapshot file of the journal, the journal segments it contains are deleted.
+	 * 
+	 * @param fileName the name of the snapshot file
+	 */
+	public synchronized void saveSnapshot(String fileName) throws IOException {
+		Inventory inventory = this.inventory();
+		Journal journal = inventory.getJournal();
+		if (journal != null && journal.getSnapshotFileName().equals(fileName)) {
+			journal.saveSnapshot(inventory, this.suppliers.list);
+		} else {
+			SnapshotFile.write(fileName, inventory, this.suppliers.list, 0);
+		}
+	}
+	
+	/**
+	 * Starts streaming every change of the inventory to follower shops connecting on a port.
+	 * The shop must journal its changes, the records of the journal are what is streamed.
+	 * 
+	 * @param port the port followers connect to (or 0 for any free port)
+	 * @param backlogSize the size of the latest changes kept for followers which fall behind, in bytes
+	 * @param snapshotFileName the name of the snapshot files written for followers which fall further behind
+	 * @return the replication leader
+	 */
+	public synchronized ReplicationLeader startReplication(int port, long backlogSize, String snapshotFileName) throws IOException {
+		this.stopReplication();
+		this.replication = new ReplicationLeader(this, port, backlogSize, snapshotFileName);
+		return this.replication;
+	}
+	
+	/**
+	 * Stops streaming changes to follower shops and disconnects them.
+	 */
+	public synchronized void stopReplication() throws IOException {
+		if (this.replication != null) {
+			ReplicationLeader leader = this.replication;
+			this.replication = null;
+			leader.close();
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of the shop for a follower, while the journal rotates.
+	 * 
+	 * @param fileName the name of the snapshot file
+	 * @return the number of journal records whose changes the snapshot holds
+	 */
+	synchronized long writeReplicaSnapshot(String fileName) throws IOException {
+		Inventory inventory = this.inventory();
+		SnapshotFile.write(fileName, inventory, this.suppliers.list, 0); //no other snapshot rotates the journal meanwhile
+		return inventory.getJournal().getRotatedCount();
+	}
+	
+	/**
+	 * Replaces the inventory and suppliers of the shop, e.g. with a snapshot sent to a follower shop by its leader.
+	 * 
+	 * @param inventory the new inventory of the shop
+	 * @param suppliers the new suppliers list of the shop
+	 */
+	synchronized void replaceState(Inventory inventory, ArrayList<Supplier> suppliers) {
+		this.suppliers = new Suppliers(suppliers);
+		this.order = null;
+		this.store = inventory; //published last, readers see the suppliers of the new inventory
+	}
+	
+	/**
+	 * Searches and returns the supplier among the suppliers list by its name, ignoring case.
+	 * 
+	 * @param name the name of the supplier to look for
+	 * @return the supplier which was found or null if it was not found
+	 */
+	public Supplier searchSupplier(String name) {
+		Suppliers current = this.suppliers; //the list and its index are read from the same holder
+		int position = current.nameIndex.get(name);
+		if (position != NameIndex.NOT_FOUND)
+			return current.list.get(position); //matching name found in the index, return the supplier at that position.
+		
+		return null; //supplier not found, return null
+	}
+	
+	/**
+	 * Searches and returns the supplier among the suppliers list by its id.
+	 * 
+	 * @param id the id number of the supplier to look for
+	 * @return the supplier which was found or null if it was not found
+	 */
+	public Supplier searchSupplier(int id) {
+		Suppliers current = this.suppliers;
+		int position = current.idIndex.get(id);
+		if (position != IntIndex.NOT_FOUND)
+			return current.list.get(position); //matching id found in the index, return the supplier at that position.
+		
+		return null; //supplier not found, return null
+	}
+	
+	/**
+	 * Searches the suppliers list and adds a supplier to it if no supplier with specified id found.
+	 * If supplier already exists, then does nothing (prints a msg to console).
+	 * The suppliers are copied with the new one and published at once, searches carry on meanwhile.
+	 * 
+	 * @param id id number of the supplier to add.
+	 * @param name name of the supplier to add.
+	 * @param address address of the supplier to add.
+	 * @param contact contact of the item to add.
+	 */
+	public synchronized void addSupplier(int id, String name, String address, String contact) {
+		Supplier foundSupplier = this.searchSupplier(id);
+		
+		if (foundSupplier == null) {
+			//supplier id does not exist, therefore we can add it as a new supplier
+			Supplier sup = new Supplier(id, name, address, contact);
+			ArrayList<Supplier> added = new ArrayList<Supplier>(this.suppliers.list);
+			added.add(sup);
+			this.suppliers = new Suppliers(added);
+		} else {
+			System.out.println("Supplier already exists, cannot add!");
+		}
+	}
+	
+	/**
+	 * Returns the inventory associated with the shop.
+	 * 
+	 * @return the inventory object associated with the shop (or null if its items are kept in another store).
+	 */
+	public Inventory getInventory() {
+		ItemStore current = this.store;
+		return current instanceof Inventory ? (Inventory) current : null;
+	}
+	
+	/**
+	 * Returns the items associated with the shop, whichever store keeps them.
+	 * 
+	 * @return the item store of the shop.
+	 */
+	public ItemStore getItemStore() {
+		return store;
+	}
+	
+	/**
+	 * Returns the inventory of the shop, for the features which need one.
+	 * 
+	 * @return the inventory of the shop.
+	 * @throws IllegalStateException if the items of the shop are kept in another store.
+	 */
+	private Inventory inventory() {
+		Inventory inventory = this.getInventory();
+		if (inventory == null)
+			throw new IllegalStateException("The items of the shop are not kept in an Inventory.");
+		return inventory;
+	}
+	
+	/**
+	 * Searches and returns the item by its id number, from the store of the shop.
+	 * 
+	 * @param itemId the id number of the item to look for
+	 * @return the item which was found or null if it was not found
+	 */
+	public Item searchItem(int itemId) {
+		return this.store.searchItem(itemId);
+	}
+	
+	/**
+	 * Returns the quantity of an item, from the store of the shop.
+	 * 
+	 * @param itemId id number of the item to search for
+	 * @return the quantity of the item found (or 0 if not found)
+	 */
+	public int checkQty(int itemId) {
+		return this.store.checkQty(itemId);
+	}
+	
+	/**
+	 * Adds an item or increases the quantity of an existing item, in the store of the shop.
+	 * 
+	 * @param itemId id number of the item to add
+	 * @param itemName name of the item to add
+	 * @param itemQty quantity of the item to add (for existing items, this is used to increase the actual quantity by)
+	 * @param itemPrice price of the item to add
+	 * @param itemSupId supplier id number of the item to add
+	 */
+	public void addItem(int itemId, String itemName, int itemQty, double itemPrice, int itemSupId) {
+		this.store.addItem(itemId, itemName, itemQty, itemPrice, itemSupId);
+	}
+	
+	/**
+	 * Reduces the quantity of an item in the store of the shop, capturing the order line it raises.
+	 * 
+	 * @param itemId id number of the item to reduce
+	 * @param itemQty quantity to reduce from the item
+	 */
+	public void removeItem(int itemId, int itemQty) {
+		this.store.removeItem(itemId, itemQty);
+	}
+	
+	/**
+	 * Takes the order lines from the inventory and submits them as the active order.
+	 * Also adds supplier name to the order by checking item supplier id from supplier list.
+	 * Lines are taken from the inventory in one atomic step, so sales can continue meanwhile.
+	 * They are journaled as taken only once the order is submitted, until then snapshots and
+	 * a recovery hold them as pending.
+	 * If the order was already created today, the lines raised since then are added to it.
+	 * A new order is numbered after the last one, and after the orders in the history if it is kept.
+	 * An order created on an earlier day is submitted first, so each day has an order of its own.
+	 */
+	public synchronized void createOrder() {
+		long sample = ShopStats.CREATE_ORDER.begin();
+		if (this.order != null && !sameDay(this.order.getDate(), new Date()))
+			this.submitOrder();
+		ArrayList<OrderLine> ol = this.store.takeOrderLines();
+		this.addSupplierNames(ol);
+		
+		if (this.order == null) {
+			Inventory inventory = this.getInventory();
+			if (inventory != null) //numbered after the orders journaled too, in case the history was started afresh
+				this.lastOrderId = Math.max(this.lastOrderId, inventory.getLastSubmittedOrder());
+			this.order = new Order(++this.lastOrderId, new Date());
+			this.order.addOrderLines(ol);
+		} else {
+			this.order.addOrderLines(ol);
+		}
+		ShopStats.CREATE_ORDER.end(sample);
+	}
+	
+	/**
+	 * Returns a copy of today's order as createOrder would make it, without taking the pending
+	 * order lines from the inventory. The copy is not changed by later calls, so it can be read
+	 * while other threads create and submit orders, e.g. on a server, or on a follower shop whose
+	 * order lines are only taken by its leader.
+	 * 
+	 * @return a copy of the active order of today (or a new order) with the pending order lines added
+	 */
+	public synchronized Order previewOrder() {
+		Order preview;
+		if (this.order != null && sameDay(this.order.getDate(), new Date())) {
+			preview = new Order(this.order.getId(), this.order.getDate());
+			preview.addOrderLines(this.order.getOrderLines());
+		} else {
+			preview = new Order(this.lastOrderId + 1, new Date()); //the id createOrder would give it
+		}
+		
+		ArrayList<OrderLine> ol = this.store.getOrderLines();
+		this.addSupplierNames(ol);
+		preview.addOrderLines(ol);
+		return preview;
+	}
+	
+	/**
+	 * Adds the supplier names to order lines in a single pass over them.
+	 * 
+	 * @param ol the order lines
+	 */
+	private void addSupplierNames(ArrayList<OrderLine> ol) {
+		for (int i = 0; i < ol.size(); i++) {
+			//set supplier name by looking up the supplier id inside order line from the supplier index
+			Supplier supplier = this.searchSupplier(ol.get(i).getSupplierId());
+			
+			if (supplier != null) {
+				ol.get(i).setSupplierName(supplier.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Takes the active order out of the shop, e.g. once it was sent to the suppliers,
+	 * and adds it to the order history if orders are kept. The next createOrder starts a new order.
+	 * An order without lines is dropped rather than submitted.
+	 * The order is on the disk in the history before its lines are journaled as taken, so a crash
+	 * in between is resolved when the history is opened again. If the history cannot be written,
+	 * the order stays active and its lines stay held for it.
+	 * 
+	 * @return the order submitted (or null if there was no active order with lines)
+	 */
+	public synchronized Order submitOrder() {
+		Order submitted = this.order;
+		if (submitted == null || submitted.getLineCount() == 0) {
+			this.order = null;
+			return null;
+		}
+		if (this.history != null) {
+			try {
+				this.history.add(submitted);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not write the order history", e);
+			}
+		}
+		this.order = null;
+		this.store.commitOrderLines(submitted.getId(), submitted.getOrderLines());
+		return submitted;
+	}
+	
+	/**
+	 * Returns whether two dates are on the same day, in the time zone of the shop.
+	 * 
+	 * @param first the first date
+	 * @param second the second date
+	 * @return true if both dates are on the same day
+	 */
+	private static boolean sameDay(Date first, Date second) {
+		ZoneId zone = ZoneId.systemDefault();
+		return LocalDate.ofInstant(first.toInstant(), zone).equals(LocalDate.ofInstant(second.toInstant(), zone));
+	}
+	
+	/**
+	 * Returns the active order for this inventory.
+	 * 
+	 * @return the active order
+	 */
+	public Order getOrder() {
+		return this.order;
+	}
+	
+	/**
+	 * Reads the specified file and returns a list of items read from the file.
+	 * 
+	 * @param fileName name of the file to be read.
+	 * @return list of items read from the file
+	 */
+	public ArrayList<Item> importItems(String fileName) throws IOException {
+		FileHandler fh = new FileHandler();
+		return fh.readItems(fileName);
+	}
+	
+	/**
+	 * Reads the specified file in parallel chunks and returns a list of items read from the file.
+	 * Items are listed in file order, so the first of several items with the same id is the one indexed.
+	 * 
+	 * @param fileName name of the file to be read.
+	 * @param pool the pool to read the chunks of the file on.
+	 * @return list of items read from the file
+	 */
+	public ArrayList<Item> importItems(String fileName, ForkJoinPool pool) throws IOException {
+		FileHandler fh = new FileHandler();
+		return fh.readItems(fileName, pool);
+	}
+	
+	/**
+	 * Reads the specified file and returns a list of suppliers read from the file.
+	 * 
+	 * @param fileName name of the file to be read.
+	 * @return list of suppliers read from the file
+	 */
+	public ArrayList<Supplier> importSuppliers(String fileName) throws IOException {
+		FileHandler fh = new FileHandler();
+		return fh.readSuppliers(fileName);
+	}
+	
+	/**
+	 * Reads the specified file in parallel chunks and returns a list of suppliers read from the file.
+	 * 
+	 * @param fileName name of the file to be read.
+	 * @param pool the pool to read the chunks of the file on.
+	 * @return list of suppliers read from the file
+	 */
+	public ArrayList<Supplier> importSuppliers(String fileName, ForkJoinPool pool) throws IOException {
+		FileHandler fh = new FileHandler();
+		return fh.readSuppliers(fileName, pool);
+	}
+	
+	/**
+	 * Returns list of suppliers in string format.
+	 * 
+	 * @return list of suppliers in string format.
+	 */
+	public String outputSuppliers() {
+		ArrayList<Supplier> list = this.suppliers.list;
+		StringBuilder outString = new StringBuilder();
+		for (int i = 0; i < list.size(); i++) {
+			outString.append(list.get(i).toString()).append('\n');
+		}
+		return outString.toString();
+	}
+	
+	/**
+	 * Writes the list of suppliers out one supplier per line, in the same format as outputSuppliers.
+	 * 
+	 * @param out where the suppliers are written to
+	 */
+	public void writeSuppliers(Appendable out) throws IOException {
+		ArrayList<Supplier> list = this.suppliers.list;
+		for (int i = 0; i < list.size(); i++) {
+			out.append(list.get(i).toString()).append('\n');
+		}
+	}
+	
+}
@@ -0,0 +1,542 @@
+package retailstore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Implementation of the HTTP interface of the Retail Store.
+ * Serves the shop as JSON over the HTTP server of the JDK, for tills and the web storefront:
+ *   GET  /items/{id}                  the item
+ *   GET  /items?name={prefix}         the items whose name starts with the prefix
+ *   GET  /items/{id}/qty              the quantity of the item
+ *   POST /items/{id}/decrease?qty={n} reduces the quantity of the item
+ *   POST /items/{id}/restock?qty={n}  increases the quantity of the item
+ *   POST /items/{id}/levels?level={n}&target={n}  sets the reorder level and target of the item
+ *   GET  /lowstock                    the items below their reorder level
+ *   GET  /lowstock?limit={n}          the n items closest to running out
+ *   GET  /suppliers/{id}              the supplier
+ *   GET  /order                       today's order with the order lines raised so far, with its totals and
+ *                                     the totals of each supplier, without taking the lines
+ *   GET  /order/suppliers/{id}        the lines and totals of today's order for one supplier
+ *   POST /order/submit                submits today's order into the order history
+ *   GET  /orders?from={date}&to={date}  the submitted orders of the days from and to (yyyy-mm-dd), both included
+ *   GET  /orders?from={date}&to={date}&supplier={id}  the lines of those orders for one supplier
+ *   GET  /orders/{id}                 the submitted order
+ * Each request runs on a virtual thread when the JVM has them (Java 21 and later), otherwise on a fixed
+ * pool of platform threads, over the concurrent inventory. Responses have a length, so connections are
+ * kept alive between requests. Errors are answered with a status and an object holding the message.
+ * A read-only server, e.g. of a follower shop kept a copy of its leader, answers changes with 403.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ShopServer {
+
+	/** the maximum number of items answered for a name search */
+	private static final int MAX_SEARCH_RESULTS = 20;
+
+	/** the maximum number of items answered for a low-stock query with a limit */
+	private static final int MAX_LOW_STOCK_RESULTS = 1000;
+
+	/** the number of platform threads serving requests when the JVM has no virtual threads */
+	private static final int POOL_THREADS = 64;
+
+	/** the number of connections waiting to be accepted before new ones are refused */
+	private static final int BACKLOG = 1024;
+
+	/** the time stop waits for the requests being served, in seconds */
+	private static final int STOP_DELAY = 1;
+
+	/** the property of the JDK server which sends small responses at once instead of waiting for the previous segment to be acknowledged */
+	private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+	/** the number of JSON encoders kept for the next requests, as many as the requests usually served at once */
+	private static final int POOLED_WRITERS = 64;
+
+	/** the largest buffer of a JSON encoder kept for the next requests, in bytes, the encoder of a larger answer is dropped */
+	private static final int MAX_POOLED_BUFFER = 1 << 20;
+
+	/** the shop served */
+	private Shop shop;
+
+	/** the HTTP server of the JDK */
+	private HttpServer server;
+
+	/** the threads running the requests */
+	private ExecutorService executor;
+
+	/** true if the requests run on virtual threads */
+	private boolean virtualThreads;
+
+	/** true if only reads are served */
+	private boolean readOnly;
+
+	/** the JSON encoders of the requests served, reused by the next requests on any thread (a thread local would not be on virtual threads) */
+	private final ArrayBlockingQueue<JsonWriter> writers = new ArrayBlockingQueue<JsonWriter>(POOLED_WRITERS);
+
+	/**
+	 * ShopServer Class Constructor
+	 *
+	 * @param shop the shop to serve, with a concurrent inventory.
+	 * @param port the port to listen on (or 0 for any free port).
+	 */
+	public ShopServer(Shop shop, int port) throws IOException {
+		this(shop, port, false);
+	}
+
+	/**
+	 * Overloaded ShopServer Class Constructor
+	 *
+	 * @param shop the shop to serve, with a concurrent inventory.
+	 * @param port the port to listen on (or 0 for any free port).
+	 * @param readOnly true to serve only reads, e.g. of a follower shop.
+	 */
+	public ShopServer(Shop shop, int port, boolean readOnly) throws IOException {
+		this.readOnly = readOnly;
+		if (System.getProperty(NO_DELAY_PROPERTY) == null)
+			System.setProperty(NO_DELAY_PROPERTY, "true"); //headers and body are separate writes, read when the first server is created
+		this.shop = shop;
+		this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+		this.server.createContext("/", this::handle);
+		this.executor = newVirtualThreadExecutor();
+		this.virtualThreads = executor != null;
+		if (executor == null)
+			this.executor = Executors.newFixedThreadPool(POOL_THREADS);
+		this.server.setExecutor(executor);
+	}
+
+	/**
+	 * Starts serving requests.
+	 *
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops serving requests, waiting a moment for those being served.
+	 *
+	 */
+	public void stop() {
+		server.stop(STOP_DELAY);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(STOP_DELAY, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the port the server listens on.
+	 *
+	 * @return the port number.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns whether requests run on virtual threads.
+	 *
+	 * @return true for virtual threads, false for a pool of platform threads.
+	 */
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Creates an executor running each task on a new virtual thread, found by reflection so that the
+	 * shop still builds and runs on JVMs without them.
+	 *
+	 * @return the executor (or null if the JVM has no virtual threads).
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Serves one request and closes the exchange, leaving the connection open for the next request.
+	 *
+	 * @param exchange the request and its response.
+	 */
+	private void handle(HttpExchange exchange) throws IOException {
+		long sample = ShopStats.HTTP_REQUEST.begin();
+		JsonWriter json = writers.poll();
+		json = json != null ? json.reset() : new JsonWriter();
+		try {
+			int status = route(exchange, json);
+			respond(exchange, status, json);
+		} catch (NumberFormatException e) {
+			respond(exchange, 400, error(json.reset(), "Invalid number: " + e.getMessage()));
+		} catch (DateTimeParseException e) {
+			respond(exchange, 400, error(json.reset(), "Invalid date: " + e.getParsedString()));
+		} catch (IOException | RuntimeException e) {
+			respond(exchange, 500, error(json.reset(), e.toString()));
+		} finally {
+			exchange.close();
+			if (json.capacity() <= MAX_POOLED_BUFFER)
+				writers.offer(json); //dropped if the pool is full
+			ShopStats.HTTP_REQUEST.end(sample);
+		}
+	}
+
+	/**
+	 * Runs a request and encodes its answer.
+	 *
+	 * @param exchange the request.
+	 * @param json the encoder of the answer.
+	 * @return the status of the answer.
+	 * @throws NumberFormatException if an id or quantity is not a number.
+	 * @throws DateTimeParseException if a date is not valid.
+	 * @throws IOException if the order history could not be read or written.
+	 */
+	private int route(HttpExchange exchange, JsonWriter json) throws IOException {
+		String method = exchange.getRequestMethod();
+		String[] path = exchange.getRequestURI().getRawPath().split("/"); //the first part is empty, the path starts with /
+		String query = exchange.getRequestURI().getRawQuery();
+		Inventory inventory = shop.getInventory();
+
+		if (readOnly && !method.equals("GET"))
+			return forbidden(json, "This shop is a read-only replica, changes are made on its leader.");
+
+		if (path.length == 2 && path[1].equals("items")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			String prefix = parameter(query, "name");
+			if (prefix == null || prefix.isEmpty())
+				return badRequest(json, "Missing name parameter.");
+			ArrayList<Item> found = inventory.searchItemsByPrefix(prefix, MAX_SEARCH_RESULTS);
+			json.beginObject().name("items").beginArray();
+			for (Item item : found) {
+				item(json, item);
+			}
+			json.endArray().endObject();
+			return 200;
+		}
+
+		if (path.length >= 3 && path.length <= 4 && path[1].equals("items")) {
+			int id = Integer.parseInt(path[2]);
+			String action = path.length == 4 ? path[3] : "";
+			boolean post = action.equals("decrease") || action.equals("restock") || action.equals("levels");
+			if (!post && !action.isEmpty() && !action.equals("qty"))
+				return notFound(json, "No such resource.");
+			if (!method.equals(post ? "POST" : "GET"))
+				return methodNotAllowed(exchange, json, post ? "POST" : "GET");
+
+			Item item = inventory.searchItem(id);
+			if (item == null)
+				return notFound(json, "No item found with ID: " + id);
+
+			if (action.isEmpty()) {
+				item(json, item);
+				return 200;
+			}
+			if (action.equals("levels")) {
+				String levelParameter = parameter(query, "level");
+				String targetParameter = parameter(query, "target");
+				if (levelParameter == null || targetParameter == null)
+					return badRequest(json, "Missing level or target parameter.");
+				int level = Integer.parseInt(levelParameter);
+				int target = Integer.parseInt(targetParameter);
+				if (level < 0 || target < level)
+					return badRequest(json, "The level must not be negative or above the target.");
+				inventory.setReorderLevels(id, level, target);
+				item(json, item);
+				return 200;
+			}
+			boolean raised = false;
+			if (post) {
+				String qtyParameter = parameter(query, "qty");
+				int qty = qtyParameter != null ? Integer.parseInt(qtyParameter) : 1;
+				if (qty <= 0)
+					return badRequest(json, "The quantity must be positive.");
+				if (action.equals("decrease"))
+					raised = !inventory.removeItems(new int[] { id }, new int[] { qty }).isEmpty();
+				else
+					inventory.addItems(new int[] { id }, new int[] { qty });
+			}
+			json.beginObject().name("id").value(id).name("qty").value(inventory.checkQty(id));
+			if (action.equals("decrease"))
+				json.name("orderLineRaised").value(raised);
+			json.endObject();
+			return 200;
+		}
+
+		if (path.length == 3 && path[1].equals("suppliers")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			int id = Integer.parseInt(path[2]);
+			Supplier supplier = shop.searchSupplier(id);
+			if (supplier == null)
+				return notFound(json, "No supplier found with ID: " + id);
+			json.beginObject().name("id").value(supplier.getId()).name("name").value(supplier.getName())
+					.name("address").value(supplier.getAddress()).name("contact").value(supplier.getContact()).endObject();
+			return 200;
+		}
+
+		if (path.length == 2 && path[1].equals("lowstock")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			String limit = parameter(query, "limit");
+			ArrayList<Item> found;
+			if (limit == null) {
+				found = inventory.getItemsBelowReorderLevel();
+			} else {
+				int count = Integer.parseInt(limit);
+				if (count <= 0 || count > MAX_LOW_STOCK_RESULTS)
+					return badRequest(json, "The limit must be between 1 and " + MAX_LOW_STOCK_RESULTS + ".");
+				found = inventory.getItemsClosestToStockOut(count);
+			}
+			json.beginObject().name("belowLevel").value(inventory.getBelowReorderLevelCount()).name("items").beginArray();
+			for (Item item : found) {
+				item(json, item);
+			}
+			json.endArray().endObject();
+			return 200;
+		}
+
+		if (path.length == 2 && path[1].equals("order")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			order(json, shop.previewOrder());
+			return 200;
+		}
+
+		if (path.length == 3 && path[1].equals("order") && path[2].equals("submit")) {
+			if (!method.equals("POST"))
+				return methodNotAllowed(exchange, json, "POST");
+			shop.createOrder();
+			Order submitted = shop.submitOrder();
+			if (submitted == null)
+				return notFound(json, "No order to submit.");
+			order(json, submitted);
+			return 200;
+		}
+
+		if (path.length >= 2 && path.length <= 3 && path[1].equals("orders")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			OrderHistory history = shop.getOrderHistory();
+			if (history == null)
+				return notFound(json, "Orders are not kept.");
+			if (path.length == 3) {
+				int id = Integer.parseInt(path[2]);
+				Order found = history.findOrder(id);
+				if (found == null)
+					return notFound(json, "No order found with ID: " + id);
+				order(json, found);
+				return 200;
+			}
+
+			String fromParameter = parameter(query, "from");
+			if (fromParameter == null)
+				return badRequest(json, "Missing from parameter.");
+			String toParameter = parameter(query, "to");
+			LocalDate fromDay = LocalDate.parse(fromParameter);
+			LocalDate toDay = toParameter != null ? LocalDate.parse(toParameter) : fromDay;
+			Date from = Date.from(fromDay.atStartOfDay(ZoneId.systemDefault()).toInstant());
+			Date to = Date.from(toDay.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+			String supplier = parameter(query, "supplier");
+			ArrayList<Order> found = supplier != null ? history.findSupplierOrders(Integer.parseInt(supplier), from, to)
+					: history.findOrders(from, to);
+			json.beginObject().name("orders").beginArray();
+			for (Order order : found) {
+				order(json, order);
+			}
+			json.endArray().endObject();
+			return 200;
+		}
+
+		if (path.length == 4 && path[1].equals("order") && path[2].equals("suppliers")) {
+			if (!method.equals("GET"))
+				return methodNotAllowed(exchange, json, "GET");
+			int id = Integer.parseInt(path[3]);
+			Order current = shop.previewOrder();
+			SupplierOrder so = current.getSupplierOrder(id);
+			if (so == null)
+				return notFound(json, "No order lines for supplier ID: " + id);
+			json.beginObject().name("orderId").value(current.getId());
+			supplierTotals(json, so);
+			json.name("lines").beginArray();
+			for (OrderLine ol : so.getOrderLines()) {
+				orderLine(json, ol);
+			}
+			json.endArray().endObject();
+			return 200;
+		}
+
+		return notFound(json, "No such resource.");
+	}
+
+	/**
+	 * Encodes an item, with its quantity read under the lock of the item.
+	 *
+	 * @param json the encoder.
+	 * @param item the item.
+	 */
+	private void item(JsonWriter json, Item item) {
+		json.beginObject().name("id").value(item.getId()).name("name").value(item.getName())
+				.name("qty").value(shop.getInventory().checkQty(item.getId())).name("price").value(item.getPrice())
+				.name("supplierId").value(item.getSupplierId()).name("reorderLevel").value(item.getReorderLevel())
+				.name("reorderTarget").value(item.getReorderTarget()).endObject();
+	}
+
+	/**
+	 * Encodes an order with its order lines.
+	 *
+	 * @param json the encoder.
+	 * @param order the order.
+	 */
+	private static void order(JsonWriter json, Order order) {
+		json.beginObject().name("id").value(order.getId()).name("date").value(order.getDate().getTime())
+				.name("lineCount").value(order.getLineCount()).name("totalQty").value(order.getTotalQty())
+				.name("totalCost").value(order.getTotalCost());
+		json.name("suppliers").beginArray();
+		for (SupplierOrder so : order.getSupplierOrders()) {
+			json.beginObject();
+			supplierTotals(json, so);
+			json.endObject();
+		}
+		json.endArray();
+		json.name("lines").beginArray();
+		for (OrderLine ol : order.getOrderLines()) {
+			orderLine(json, ol);
+		}
+		json.endArray().endObject();
+	}
+
+	/**
+	 * Encodes the supplier and the totals of a supplier order, as members of the current object.
+	 *
+	 * @param json the encoder.
+	 * @param so the supplier order.
+	 */
+	private static void supplierTotals(JsonWriter json, SupplierOrder so) {
+		json.name("supplierId").value(so.getSupplierId()).name("supplier").value(so.getSupplierName())
+				.name("lineCount").value(so.getLineCount()).name("totalQty").value(so.getTotalQty())
+				.name("totalCost").value(so.getTotalCost());
+	}
+
+	/**
+	 * Encodes an order line.
+	 *
+	 * @param json the encoder.
+	 * @param ol the order line.
+	 */
+	private static void orderLine(JsonWriter json, OrderLine ol) {
+		json.beginObject().name("itemId").value(ol.getId()).name("item").value(ol.getName())
+				.name("qty").value(ol.getQty()).name("price").value(ol.getPrice())
+				.name("supplierId").value(ol.getSupplierId()).name("supplier").value(ol.getSupplierName()).endObject();
+	}
+
+	/**
+	 * Encodes an error message.
+	 *
+	 * @param json the encoder.
+	 * @param message the message.
+	 * @return the encoder.
+	 */
+	private static JsonWriter error(JsonWriter json, String message) {
+		return json.beginObject().name("error").value(message).endObject();
+	}
+
+	/**
+	 * Encodes an answer to a request which is not valid.
+	 *
+	 * @return the status of the answer.
+	 */
+	private static int badRequest(JsonWriter json, String message) {
+		error(json, message);
+		return 400;
+	}
+
+	/**
+	 * Encodes an answer to a request for something which does not exist.
+	 *
+	 * @return the status of the answer.
+	 */
+	private static int notFound(JsonWriter json, String message) {
+		error(json, message);
+		return 404;
+	}
+
+	/**
+	 * Encodes an answer to a request which is not allowed on this server.
+	 *
+	 * @return the status of the answer.
+	 */
+	private static int forbidden(JsonWriter json, String message) {
+		error(json, message);
+		return 403;
+	}
+
+	/**
+	 * Encodes an answer to a request with the wrong method.
+	 *
+	 * @return the status of the answer.
+	 */
+	private static int methodNotAllowed(HttpExchange exchange, JsonWriter json, String allowed) {
+		exchange.getResponseHeaders().set("Allow", allowed);
+		error(json, "Use " + allowed + ".");
+		return 405;
+	}
+
+	/**
+	 * Sends an answer with its length, so that the connection can be kept alive.
+	 *
+	 * @param exchange the request.
+	 * @param status the status of the answer.
+	 * @param json the encoded answer.
+	 */
+	private static void respond(HttpExchange exchange, int status, JsonWriter json) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, json.size());
+		OutputStream body = exchange.getResponseBody();
+		json.writeTo(body);
+		body.close();
+	}
+
+	/**
+	 * Returns the value of a parameter of a query.
+	 *
+	 * @param query the raw query (or null if there is none).
+	 * @param name the name of the parameter.
+	 * @return the decoded value (or null if the parameter is missing).
+	 */
+	private static String parameter(String query, String name) {
+		if (query == null)
+			return null;
+		for (int start = 0; start <= query.length();) {
+			int end = query.indexOf('&', start);
+			if (end < 0)
+				end = query.length();
+			if (query.startsWith(name, start) && start + name.length() < end && query.charAt(start + name.length()) == '=')
+				return URLDecoder.decode(query.substring(start + name.length() + 1, end), StandardCharsets.UTF_8);
+			start = end + 1;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,156 @@
+package retailstore;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Implementation of the statistics of the Retail Store.
+ * Holds the statistics of the operations of the inventory, the shop, the file handler and the HTTP
+ * interface, which record into them as they run, and exposes them over JMX and as a table for the
+ * front end.
+ * Fast operations are timed once every few calls, so that timing them costs little; slow ones
+ * every call.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ShopStats implements ShopStatsMXBean {
+
+	/** the name the statistics are registered under with the platform MBean server */
+	public static final String OBJECT_NAME = "RetailStore:type=ShopStats";
+
+	/** the number of fast operations per timed operation, reading the clock costs as much as a fast operation */
+	private static final int FAST_SAMPLE = 256;
+
+	/** searching an item by id */
+	public static final OperationStats SEARCH_BY_ID = new OperationStats("searchById", FAST_SAMPLE);
+
+	/** searching an item by name */
+	public static final OperationStats SEARCH_BY_NAME = new OperationStats("searchByName", FAST_SAMPLE);
+
+	/** searching items by the start of their names */
+	public static final OperationStats SEARCH_BY_PREFIX = new OperationStats("searchByPrefix", 1);
+
+	/** searching items by the similarity of their names */
+	public static final OperationStats SEARCH_BY_SIMILARITY = new OperationStats("searchBySimilarity", 1);
+
+	/** checking the quantity of an item */
+	public static final OperationStats CHECK_QTY = new OperationStats("checkQty", FAST_SAMPLE);
+
+	/** adding an item or increasing its quantity */
+	public static final OperationStats ADD_ITEM = new OperationStats("addItem", FAST_SAMPLE);
+
+	/** decreasing the quantity of an item */
+	public static final OperationStats REMOVE_ITEM = new OperationStats("removeItem", FAST_SAMPLE);
+
+	/** decreasing the quantities of a batch of items */
+	public static final OperationStats REMOVE_ITEMS = new OperationStats("removeItems", 8);
+
+	/** increasing the quantities of a batch of items */
+	public static final OperationStats ADD_ITEMS = new OperationStats("addItems", 8);
+
+	/** taking the pending order lines from the inventory */
+	public static final OperationStats DRAIN_ORDER_LINES = new OperationStats("drainOrderLines", 1);
+
+	/** creating the order from the pending order lines */
+	public static final OperationStats CREATE_ORDER = new OperationStats("createOrder", 1);
+
+	/** reading an items file */
+	public static final OperationStats READ_ITEMS = new OperationStats("readItems", 1);
+
+	/** reading a suppliers file */
+	public static final OperationStats READ_SUPPLIERS = new OperationStats("readSuppliers", 1);
+
+	/** serving a request of the HTTP interface */
+	public static final OperationStats HTTP_REQUEST = new OperationStats("httpRequest", 1);
+
+	/** the order lines raised by decreases, counted but not timed */
+	public static final OperationStats REORDER_LINES = new OperationStats("reorderLines", 1);
+
+	/** the timed operations, in the order they are shown */
+	private static final OperationStats[] OPERATIONS = { SEARCH_BY_ID, SEARCH_BY_NAME, SEARCH_BY_PREFIX, SEARCH_BY_SIMILARITY,
+			CHECK_QTY, ADD_ITEM, REMOVE_ITEM, REMOVE_ITEMS, ADD_ITEMS, DRAIN_ORDER_LINES, CREATE_ORDER, READ_ITEMS,
+			READ_SUPPLIERS, HTTP_REQUEST };
+
+	/** the statistics registered with the platform MBean server (or null until they are registered) */
+	private static ShopStats registered;
+
+	/**
+	 * Registers the statistics with the platform MBean server, once.
+	 *
+	 * @return the registered statistics (or statistics which are not registered if JMX refused them).
+	 */
+	public static synchronized ShopStats register() {
+		if (registered != null)
+			return registered;
+
+		registered = new ShopStats();
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			server.registerMBean(registered, new ObjectName(OBJECT_NAME));
+		} catch (JMException e) {
+			System.err.println("Could not register the shop statistics: " + e.getMessage());
+		}
+		return registered;
+	}
+
+	@Override
+	public List<OperationStats.Summary> getOperations() {
+		List<OperationStats.Summary> summaries = new ArrayList<OperationStats.Summary>(OPERATIONS.length);
+		for (OperationStats operation : OPERATIONS) {
+			summaries.add(operation.summarize());
+		}
+		return summaries;
+	}
+
+	@Override
+	public long getReorderLinesRaised() {
+		return REORDER_LINES.getCount();
+	}
+
+	@Override
+	public double getReorderLineRate() {
+		return REORDER_LINES.summarize().getRate();
+	}
+
+	@Override
+	public boolean isRecording() {
+		return OperationStats.isEnabled();
+	}
+
+	@Override
+	public void setRecording(boolean recording) {
+		OperationStats.setEnabled(recording);
+	}
+
+	/**
+	 * Outputs a table of the operations which ran so far, with the recent rates over the time since
+	 * the previous call, followed by the order lines raised.
+	 *
+	 * @return the table of statistics.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append("operation          | count      | ops/s      | recent/s   | p50 us   | p99 us   | p99.9 us | max us\n");
+		for (OperationStats.Summary summary : getOperations()) {
+			if (summary.getCount() == 0)
+				continue;
+			out.append(String.format(Locale.ROOT, "%-18s | %10d | %10.1f | %10.1f | %8.1f | %8.1f | %8.1f | %.1f%n",
+					summary.getName(), summary.getCount(), summary.getRate(), summary.getRecentRate(),
+					summary.getP50Micros(), summary.getP99Micros(), summary.getP999Micros(), summary.getMaxMicros()));
+		}
+		OperationStats.Summary lines = REORDER_LINES.summarize();
+		out.append(String.format(Locale.ROOT, "Reorder lines raised: %d (%.2f per second, %.2f recently)%n",
+				lines.getCount(), lines.getRate(), lines.getRecentRate()));
+		return out.toString();
+	}
+}
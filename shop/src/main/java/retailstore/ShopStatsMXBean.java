@@ -0,0 +1,50 @@
+package retailstore;
+
+import java.util.List;
+
+/**
+ * Management interface of the statistics of the Retail Store, registered with the platform MBean server
+ * as RetailStore:type=ShopStats so that JConsole or any JMX client can read them.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public interface ShopStatsMXBean {
+
+	/**
+	 * Returns the statistics of each kind of operation, with the recent rates over the time since the previous call.
+	 *
+	 * @return the statistics of each kind of operation.
+	 */
+	List<OperationStats.Summary> getOperations();
+
+	/**
+	 * Returns the number of order lines raised by decreases so far.
+	 *
+	 * @return the number of order lines raised.
+	 */
+	long getReorderLinesRaised();
+
+	/**
+	 * Returns the number of order lines raised per second since the statistics started.
+	 *
+	 * @return the rate of order lines raised.
+	 */
+	double getReorderLineRate();
+
+	/**
+	 * Returns whether operations are recorded.
+	 *
+	 * @return true if operations are recorded.
+	 */
+	boolean isRecording();
+
+	/**
+	 * Turns recording of operations on or off, recording costs a few nanoseconds per operation.
+	 *
+	 * @param recording true to record operations.
+	 */
+	void setRecording(boolean recording);
+}
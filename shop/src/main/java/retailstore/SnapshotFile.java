@@ -0,0 +1,384 @@
+package retailstore;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Implementation of the binary snapshot file of the Retail Store.
+ * A snapshot holds the full state of a shop (items with their quantities and order flags,
+ * the pending order lines and the suppliers) so that the shop can restart from it
+ * without parsing the text files again.
+ *
+ * The file starts with a magic number and a format version, followed by the items (with their
+ * reorder levels from version 3 on), the tables of the item id and name indexes, the pending order
+ * lines, the id of the last order submitted (from version 4 on), the suppliers and the first journal
+ * segment the snapshot does not contain (from version 2 on). Records are preceded
+ * by their count, numbers are written big-endian and texts as their UTF-8 length followed by
+ * their bytes (length -1 for null). The file ends with the CRC32 of every byte before it.
+ * Restoring copies the index tables in bulk, so no key is hashed and no name sorted again.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class SnapshotFile {
+
+	/** the first four bytes of every snapshot file ("RSNP") */
+	public static final int MAGIC = 0x52534E50;
+
+	/** the version of the format written by this class, version 1 files (without a journal segment), version 2 files (without reorder levels) and version 3 files (without the last order) can still be read */
+	public static final int VERSION = 4;
+
+	/** the size of the header (magic number and version) in bytes */
+	private static final int HEADER_SIZE = 8;
+
+	/** the size of the trailing checksum in bytes */
+	private static final int CHECKSUM_SIZE = 8;
+
+	/** the items read from the snapshot */
+	private final ArrayList<Item> items;
+
+	/** the index of item id numbers read from the snapshot */
+	private final IntIndex itemIndex;
+
+	/** the index of item names read from the snapshot */
+	private final NameIndex nameIndex;
+
+	/** the pending order lines read from the snapshot, oldest first */
+	private final ArrayList<OrderLine> orderLines;
+
+	/** the id of the last order submitted read from the snapshot (or Inventory.UNKNOWN_ORDER) */
+	private final int lastSubmittedOrder;
+
+	/** the suppliers read from the snapshot */
+	private final ArrayList<Supplier> suppliers;
+
+	/** the first journal segment the snapshot does not contain */
+	private final long journalSegment;
+
+	/**
+	 * SnapshotFile Class Constructor
+	 *
+	 * @param items the items read from the snapshot.
+	 * @param itemIndex the index of item id numbers read from the snapshot.
+	 * @param nameIndex the index of item names read from the snapshot.
+	 * @param orderLines the pending order lines read from the snapshot.
+	 * @param lastSubmittedOrder the id of the last order submitted read from the snapshot.
+	 * @param suppliers the suppliers read from the snapshot.
+	 * @param journalSegment the first journal segment the snapshot does not contain.
+	 */
+	private SnapshotFile(ArrayList<Item> items, IntIndex itemIndex, NameIndex nameIndex, ArrayList<OrderLine> orderLines,
+			int lastSubmittedOrder, ArrayList<Supplier> suppliers, long journalSegment) {
+		this.items = items;
+		this.itemIndex = itemIndex;
+		this.nameIndex = nameIndex;
+		this.orderLines = orderLines;
+		this.lastSubmittedOrder = lastSubmittedOrder;
+		this.suppliers = suppliers;
+		this.journalSegment = journalSegment;
+	}
+
+	/**
+	 * Returns the items read from the snapshot, in the order they were stored in the inventory.
+	 *
+	 * @return the items read from the snapshot.
+	 */
+	public ArrayList<Item> getItems() {
+		return items;
+	}
+
+	/**
+	 * Builds an inventory over the items, indexes and pending order lines read from the snapshot.
+	 * The indexes are used as they were saved, so only one inventory should be built from a snapshot.
+	 *
+	 * @param concurrent true if the inventory will be used by several threads at the same time.
+	 * @return the restored inventory.
+	 */
+	public Inventory restoreInventory(boolean concurrent) {
+		Inventory inventory = new Inventory(items, itemIndex, nameIndex, concurrent);
+		inventory.restoreOrderLines(orderLines);
+		inventory.setLastSubmittedOrder(lastSubmittedOrder);
+		return inventory;
+	}
+
+	/**
+	 * Returns the pending order lines read from the snapshot, oldest first.
+	 *
+	 * @return the pending order lines read from the snapshot.
+	 */
+	public ArrayList<OrderLine> getOrderLines() {
+		return orderLines;
+	}
+
+	/**
+	 * Returns the suppliers read from the snapshot.
+	 *
+	 * @return the suppliers read from the snapshot.
+	 */
+	public ArrayList<Supplier> getSuppliers() {
+		return suppliers;
+	}
+
+	/**
+	 * Returns the first journal segment the snapshot does not contain, the segments from it
+	 * on are replayed on top of the snapshot.
+	 *
+	 * @return the first journal segment to replay (0 if the snapshot was saved without a journal).
+	 */
+	public long getJournalSegment() {
+		return journalSegment;
+	}
+
+	/**
+	 * Writes a snapshot of an inventory and a suppliers list into the specified file.
+	 * The snapshot is written to a temporary file first and moved over the old one only when
+	 * complete, so a crash while saving leaves the previous snapshot in place.
+	 * If a journal is attached to the inventory, it starts a new segment while the snapshot is
+	 * taken and the snapshot records that segment instead of the one specified.
+	 *
+	 * @param fileName the name of the snapshot file.
+	 * @param inventory the inventory to save.
+	 * @param suppliers the suppliers to save.
+	 * @param journalSegment the first journal segment the snapshot does not contain.
+	 * @return the first journal segment recorded in the snapshot.
+	 */
+	public static long write(String fileName, Inventory inventory, ArrayList<Supplier> suppliers, long journalSegment) throws IOException {
+		File file = new File(fileName);
+		File temp = new File(fileName + ".tmp");
+
+		try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+			CRC32 crc = new CRC32();
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 1 << 16));
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			long rotated = inventory.writeSnapshot(out); //items, indexes, pending order lines and the last order
+			if (rotated >= 0)
+				journalSegment = rotated;
+			out.writeInt(suppliers.size());
+			for (Supplier supplier : suppliers) {
+				out.writeInt(supplier.getId());
+				writeText(out, supplier.getName());
+				writeText(out, supplier.getAddress());
+				writeText(out, supplier.getContact());
+			}
+			out.writeLong(journalSegment);
+			out.flush();
+
+			new DataOutputStream(fileOut).writeLong(crc.getValue()); //the checksum does not cover itself
+			fileOut.getFD().sync();
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return journalSegment;
+	}
+
+	/**
+	 * Reads a snapshot file in one piece and checks its checksum before decoding it.
+	 *
+	 * @param fileName the name of the snapshot file.
+	 * @return the contents of the snapshot.
+	 */
+	public static SnapshotFile read(String fileName) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(new File(fileName).toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE + CHECKSUM_SIZE)
+				throw new IOException(fileName + " is not a snapshot file.");
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(fileName + " is too large to be read in one piece.");
+
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0)
+					throw new IOException(fileName + " ended while it was being read.");
+			}
+			buffer.flip();
+		}
+
+		if (buffer.getInt(0) != MAGIC)
+			throw new IOException(fileName + " is not a snapshot file.");
+		int version = buffer.getInt(4);
+		if (version < 1 || version > VERSION)
+			throw new IOException(fileName + " has unsupported snapshot version " + buffer.getInt(4) + ".");
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.limit() - CHECKSUM_SIZE);
+		if (crc.getValue() != buffer.getLong(buffer.limit() - CHECKSUM_SIZE))
+			throw new IOException(fileName + " is corrupt (checksum mismatch).");
+
+		buffer.position(HEADER_SIZE);
+		buffer.limit(buffer.limit() - CHECKSUM_SIZE);
+		try {
+			int itemCount = readCount(buffer);
+			ArrayList<Item> items = new ArrayList<Item>(itemCount);
+			String[] names = new String[Math.max(itemCount, 16)];
+			for (int i = 0; i < itemCount; i++) {
+				Item item = new Item();
+				item.setId(buffer.getInt());
+				item.setName(names[i] = readText(buffer));
+				item.setQty(buffer.getInt());
+				item.setPrice(buffer.getDouble());
+				item.setSupplierId(buffer.getInt());
+				if (buffer.get() != 0)
+					item.setOrderFlag();
+				if (version >= 3)
+					item.setReorderLevels(buffer.getInt(), buffer.getInt());
+				items.add(item);
+			}
+			IntIndex itemIndex = IntIndex.readFrom(buffer);
+			NameIndex nameIndex = NameIndex.readFrom(buffer, names);
+
+			int lineCount = readCount(buffer);
+			ArrayList<OrderLine> orderLines = new ArrayList<OrderLine>(lineCount);
+			for (int i = 0; i < lineCount; i++) {
+				OrderLine ol = new OrderLine();
+				ol.setId(buffer.getInt());
+				ol.setName(readText(buffer));
+				ol.setQty(buffer.getInt());
+				ol.setSupplierId(buffer.getInt());
+				ol.setSupplierName(readText(buffer));
+				orderLines.add(ol);
+			}
+			int lastSubmittedOrder = version >= 4 ? buffer.getInt() : Inventory.UNKNOWN_ORDER;
+
+			int supplierCount = readCount(buffer);
+			ArrayList<Supplier> suppliers = new ArrayList<Supplier>(supplierCount);
+			for (int i = 0; i < supplierCount; i++) {
+				suppliers.add(new Supplier(buffer.getInt(), readText(buffer), readText(buffer), readText(buffer)));
+			}
+
+			long journalSegment = version >= 2 ? buffer.getLong() : 0;
+			if (buffer.hasRemaining())
+				throw new IOException(fileName + " has unexpected data after its last record.");
+			return new SnapshotFile(items, itemIndex, nameIndex, orderLines, lastSubmittedOrder, suppliers, journalSegment);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException(fileName + " has a record running past its end.");
+		}
+	}
+
+	/**
+	 * Writes an item record of the snapshot.
+	 *
+	 * @param out the stream of the snapshot file.
+	 * @param item the item to write.
+	 */
+	static void writeItem(DataOutputStream out, Item item) throws IOException {
+		out.writeInt(item.getId());
+		writeText(out, item.getName());
+		out.writeInt(item.getQty());
+		out.writeDouble(item.getPrice());
+		out.writeInt(item.getSupplierId());
+		out.writeByte(item.isOrderActive() ? 1 : 0);
+		out.writeInt(item.getReorderLevel());
+		out.writeInt(item.getReorderTarget());
+	}
+
+	/**
+	 * Writes an order line record of the snapshot.
+	 *
+	 * @param out the stream of the snapshot file.
+	 * @param ol the order line to write.
+	 */
+	static void writeOrderLine(DataOutputStream out, OrderLine ol) throws IOException {
+		out.writeInt(ol.getId());
+		writeText(out, ol.getName());
+		out.writeInt(ol.getQty());
+		out.writeInt(ol.getSupplierId());
+		writeText(out, ol.getSupplierName());
+	}
+
+	/**
+	 * Writes the first values of an int array, converting them to bytes a block at a time.
+	 *
+	 * @param out the stream of the snapshot file.
+	 * @param values the array to write.
+	 * @param count the number of values to write.
+	 */
+	static void writeInts(DataOutputStream out, int[] values, int count) throws IOException {
+		ByteBuffer block = ByteBuffer.allocate(1 << 16);
+		for (int from = 0; from < count; from += block.capacity() / 4) {
+			int length = Math.min(count - from, block.capacity() / 4);
+			block.clear();
+			block.asIntBuffer().put(values, from, length);
+			out.write(block.array(), 0, length * 4);
+		}
+	}
+
+	/**
+	 * Reads an int array written by writeInts in bulk.
+	 *
+	 * @param buffer the contents of the snapshot file at the start of the array.
+	 * @param count the number of values to read.
+	 * @return the array read.
+	 */
+	static int[] readInts(ByteBuffer buffer, int count) {
+		if (count < 0 || count > buffer.remaining() / 4)
+			throw new BufferUnderflowException();
+
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + count * 4);
+		return values;
+	}
+
+	/**
+	 * Writes a text as its UTF-8 length followed by its bytes, or -1 for null.
+	 *
+	 * @param out the stream of the snapshot file.
+	 * @param text the text to write (can be null).
+	 */
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		if (text == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a text written by writeText.
+	 *
+	 * @param buffer the contents of the snapshot file at the start of the text.
+	 * @return the text read (or null).
+	 */
+	private static String readText(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0)
+			return null;
+		if (length > buffer.remaining())
+			throw new BufferUnderflowException();
+
+		String text = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return text;
+	}
+
+	/**
+	 * Reads the number of records of a section, which must fit in the rest of the file.
+	 *
+	 * @param buffer the contents of the snapshot file at the start of the section.
+	 * @return the number of records of the section.
+	 */
+	private static int readCount(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0 || count > buffer.remaining())
+			throw new IllegalArgumentException("Invalid record count " + count);
+		return count;
+	}
+}
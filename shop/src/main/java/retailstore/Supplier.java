@@ -1,3 +1,5 @@
+package retailstore;
+
 /**
  * Implementation of the Supplier Class for the Retail Store.
  * 
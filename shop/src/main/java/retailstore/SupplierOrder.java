@@ -0,0 +1,122 @@
+package retailstore;
+
+import java.util.ArrayList;
+
+/**
+ * Implementation of the SupplierOrder Class for the Retail Store.
+ * The part of an order sent to one supplier: its order lines in the order they were added, with
+ * the number of lines, the quantity and the cost of the lines kept up to date as lines are added,
+ * so that the totals are read without going over the lines. Costs are kept in cents, so the totals
+ * do not drift however many lines are added.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class SupplierOrder {
+
+	/** the supplier id number of the lines */
+	private int supplierId;
+
+	/** the supplier name of the lines (or null if the supplier is not known) */
+	private String supplierName;
+
+	/** the order lines of the supplier, in the order they were added */
+	private ArrayList<OrderLine> orderLines;
+
+	/** the quantity of all lines */
+	private long totalQty;
+
+	/** the cost of all lines, in cents */
+	private long totalCents;
+
+	/**
+	 * SupplierOrder Class Constructor
+	 *
+	 * @param supplierId the supplier id number of the lines.
+	 * @param supplierName the supplier name of the lines (or null if the supplier is not known).
+	 */
+	public SupplierOrder(int supplierId, String supplierName) {
+		this.supplierId = supplierId;
+		this.supplierName = supplierName;
+		this.orderLines = new ArrayList<OrderLine>();
+	}
+
+	/**
+	 * Adds an order line of the supplier and adds it to the totals.
+	 *
+	 * @param ol the order line to add.
+	 */
+	public void addOrderLine(OrderLine ol) {
+		this.orderLines.add(ol);
+		this.totalQty += ol.getQty();
+		this.totalCents += costCents(ol);
+		if (this.supplierName == null)
+			this.supplierName = ol.getSupplierName();
+	}
+
+	/**
+	 * Returns the cost of an order line in cents, its unit price rounded to the cent times its quantity.
+	 *
+	 * @param ol the order line.
+	 * @return the cost of the order line, in cents.
+	 */
+	static long costCents(OrderLine ol) {
+		return Math.round(ol.getPrice() * 100) * ol.getQty();
+	}
+
+	/**
+	 * Returns the supplier id number of the lines.
+	 *
+	 * @return the supplier id number.
+	 */
+	public int getSupplierId() {
+		return supplierId;
+	}
+
+	/**
+	 * Returns the supplier name of the lines.
+	 *
+	 * @return the supplier name (or null if the supplier is not known).
+	 */
+	public String getSupplierName() {
+		return supplierName;
+	}
+
+	/**
+	 * Returns the order lines of the supplier, which must not be changed.
+	 *
+	 * @return the order lines of the supplier, in the order they were added.
+	 */
+	public ArrayList<OrderLine> getOrderLines() {
+		return orderLines;
+	}
+
+	/**
+	 * Returns the number of order lines of the supplier.
+	 *
+	 * @return the number of order lines.
+	 */
+	public int getLineCount() {
+		return orderLines.size();
+	}
+
+	/**
+	 * Returns the quantity of all order lines of the supplier.
+	 *
+	 * @return the quantity ordered from the supplier.
+	 */
+	public long getTotalQty() {
+		return totalQty;
+	}
+
+	/**
+	 * Returns the cost of all order lines of the supplier.
+	 *
+	 * @return the cost of the order lines.
+	 */
+	public double getTotalCost() {
+		return totalCents / 100.0;
+	}
+}
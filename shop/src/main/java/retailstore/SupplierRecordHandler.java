@@ -0,0 +1,22 @@
+package retailstore;
+
+/**
+ * Callback receiving the records of a suppliers file one at a time, as they are parsed.
+ * 
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public interface SupplierRecordHandler {
+	
+	/**
+	 * Receives one record of a suppliers file.
+	 * 
+	 * @param id the id number of the supplier.
+	 * @param name the name of the supplier.
+	 * @param address the address of the supplier.
+	 * @param contact the contact name of the supplier.
+	 */
+	void accept(int id, String name, String address, String contact);
+}
@@ -0,0 +1,625 @@
+package retailstore;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a fuzzy name index for the Retail Store.
+ * Maps the trigrams of names (each run of three characters of a word, ignoring case, with the word
+ * padded by a space on both sides) to the positions of the names holding them, e.g. the
+ * positions of items inside the inventory list. A search ranks names by their Dice similarity to the
+ * query: twice the number of trigrams they share over the number of trigrams of both, so "gromet"
+ * still finds "Grommets". The positions of a trigram are kept ascending as variable-length deltas
+ * in a byte array, a position is added at the end of the lists of its trigrams.
+ *
+ * A search counts how many lists of the query trigrams hold each name, shortest lists first, leaving
+ * out the longest ones, which a name similar enough to be ranked cannot depend on alone. The names are
+ * then scored most counted first, checking their trigrams against the whole query, until no name left
+ * could be ranked.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class TrigramIndex {
+
+	/** the lowest similarity of a name found by a search, the names then share about 0.3 of all their distinct trigrams */
+	public static final double MIN_SIMILARITY = 0.45;
+
+	/** the value stored in empty slots of the hash table, not a valid trigram */
+	private static final long EMPTY = -1L;
+
+	/** the number of candidates scored per name to rank while probing for a threshold, the rest are left to the search */
+	private static final int PROBE_SCORES = 4;
+
+	/** the number of bytes a posting list starts with */
+	private static final int MIN_POSTING_BYTES = 4;
+
+	/** the names indexed so far, stored at their positions */
+	private String[] names;
+
+	/** the number of distinct trigrams of the name stored at the same position */
+	private short[] gramCounts;
+
+	/** the hash table of trigrams, each packed into a long */
+	private long[] grams;
+
+	/** the posting list of the trigram at the same slot: positions ascending, as variable-length deltas */
+	private byte[][] postings;
+
+	/** the number of bytes used in the posting list at the same slot */
+	private int[] postingBytes;
+
+	/** the number of positions in the posting list at the same slot */
+	private int[] postingCounts;
+
+	/** the last position added to the posting list at the same slot */
+	private int[] lastPositions;
+
+	/** the number of slots of the table in use */
+	private int gramCount;
+
+	/** the number of positions covered, one more than the highest position added */
+	private int size;
+
+	/**
+	 * Default TrigramIndex Class Constructor
+	 * Initializes an empty index.
+	 */
+	public TrigramIndex() {
+		this(16);
+	}
+
+	/**
+	 * Overloaded TrigramIndex Class Constructor
+	 * Initializes an empty index sized to hold the expected number of names without growing.
+	 *
+	 * @param expectedSize the number of names expected to be stored.
+	 */
+	public TrigramIndex(int expectedSize) {
+		this.names = new String[Math.max(expectedSize, 16)];
+		this.gramCounts = new short[this.names.length];
+		this.allocateTable(1024);
+	}
+
+	/**
+	 * Adds a name into the index at the specified position.
+	 * Positions must be added in ascending order, null names are ignored.
+	 *
+	 * @param name the name to add.
+	 * @param position the position the name is stored at, above every position added before.
+	 */
+	public void add(String name, int position) {
+		if (position < size)
+			throw new IllegalArgumentException("Position " + position + " added after position " + (size - 1) + ".");
+		size = position + 1;
+		if (name == null)
+			return;
+
+		if (position >= names.length) {
+			int capacity = Math.max(position + 1, names.length * 2);
+			names = Arrays.copyOf(names, capacity);
+			gramCounts = Arrays.copyOf(gramCounts, capacity);
+		}
+		names[position] = name;
+
+		long[] nameGrams = new long[maxGrams(name)];
+		int count = distinctGrams(name, nameGrams);
+		gramCounts[position] = (short) Math.min(count, Short.MAX_VALUE);
+		for (int i = 0; i < count; i++) {
+			int slot = this.slotOf(nameGrams[i]);
+			if (grams[slot] == EMPTY) {
+				grams[slot] = nameGrams[i];
+				postings[slot] = new byte[MIN_POSTING_BYTES];
+				lastPositions[slot] = -1;
+				if (++gramCount * 2 > grams.length) {
+					this.resizeTable(grams.length << 1);
+					slot = this.slotOf(nameGrams[i]);
+				}
+			}
+			this.append(slot, position);
+		}
+	}
+
+	/**
+	 * Returns the positions of the names most similar to the query, ignoring case.
+	 * Positions are returned most similar first, positions with equal similarity in the order they were added.
+	 *
+	 * @param query the name to look for, possibly misspelled.
+	 * @param limit the maximum number of positions to return.
+	 * @return the positions of the most similar names, at least MIN_SIMILARITY similar to the query.
+	 */
+	public int[] findSimilar(String query, int limit) {
+		long[] queryGrams = new long[maxGrams(query)];
+		int queryCount = distinctGrams(query, queryGrams);
+		if (queryCount == 0 || limit <= 0)
+			return new int[0];
+
+		//the lists of the query trigrams, shortest first, trigrams of no name have none
+		long[] lists = new long[queryCount];
+		for (int i = 0; i < queryCount; i++) {
+			int slot = this.slotOf(queryGrams[i]);
+			int length = grams[slot] == EMPTY ? 0 : postingCounts[slot];
+			lists[i] = ((long) length << 32) | slot;
+		}
+		Arrays.sort(lists);
+
+		//a name as similar as the threshold shares enough trigrams to be in one of the shorter lists,
+		//so the longest ones (e.g. of a word most names have) are not read; once half of the
+		//lists needed are read, the names counted most are ranked to raise the threshold
+		int read = listsNeeded(MIN_SIMILARITY, queryCount);
+		long expected = 0;
+		for (int i = 0; i < read; i++) {
+			expected += lists[i] >>> 32;
+		}
+		Search search = new Search(queryGrams, queryCount, limit, expected);
+		int probe = (read + 1) / 2;
+		int j = 0;
+		long postingsRead = 0;
+		while (j < read) {
+			postingsRead += lists[j] >>> 32;
+			this.countPositions((int) lists[j++], search);
+			if (j == probe && j < read) {
+				search.rank(this.unreadGrams(lists, j), true);
+				read = Math.max(Math.min(read, search.listsNeeded()), j);
+			}
+		}
+
+		//a list no longer than those read so far is still read: each list read leaves a name held by
+		//one list fewer to be scored, which costs more than counting the list
+		while (j < queryCount && (lists[j] >>> 32) <= postingsRead) {
+			postingsRead += lists[j] >>> 32;
+			this.countPositions((int) lists[j++], search);
+		}
+		return search.rank(this.unreadGrams(lists, j), false);
+	}
+
+	/**
+	 * Returns the number of the shortest lists of the query trigrams a name as similar as the
+	 * threshold is in at least one of.
+	 *
+	 * @param threshold the lowest similarity of a name.
+	 * @param queryCount the number of distinct trigrams of the query.
+	 * @return the number of lists to read.
+	 */
+	private static int listsNeeded(double threshold, int queryCount) {
+		//a name of n trigrams sharing s of them is at most 2s / (q + s) similar, as n >= s
+		int required = (int) Math.ceil(threshold * queryCount / (2 - threshold) - 1e-9);
+		return queryCount - Math.max(required, 1) + 1;
+	}
+
+	/**
+	 * Returns the trigrams of the lists not read by a search.
+	 *
+	 * @param lists the lists of the query trigrams, each its length and slot, in the order they are read.
+	 * @param read the number of lists read.
+	 * @return the trigrams of the other lists.
+	 */
+	private long[] unreadGrams(long[] lists, int read) {
+		long[] unread = new long[lists.length - read];
+		for (int i = 0; i < unread.length; i++) {
+			unread[i] = grams[(int) lists[read + i]];
+		}
+		return unread;
+	}
+
+	/**
+	 * Decodes a posting list and counts each of its positions as a candidate of a search.
+	 *
+	 * @param slot the slot of the trigram.
+	 * @param search the search.
+	 */
+	private void countPositions(int slot, Search search) {
+		byte[] posting = postings[slot];
+		int end = postingBytes[slot];
+		int position = -1;
+		for (int offset = 0; offset < end;) {
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = posting[offset++];
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			position += delta;
+			search.count(position);
+		}
+	}
+
+	/**
+	 * The state of one search: the candidate names counted so far and the best names ranked.
+	 */
+	private final class Search {
+
+		/** the distinct trigrams of the query, sorted */
+		private final long[] queryGrams;
+
+		/** the number of distinct trigrams of the query */
+		private final int queryCount;
+
+		/** the hash table of candidate positions, empty slots holding -1 */
+		private int[] candidates;
+
+		/** the number of lists read holding the candidate at the same slot */
+		private int[] counts;
+
+		/** the number of candidates in the table */
+		private int candidateCount;
+
+		/** the best positions ranked so far, most similar first */
+		private final int[] best;
+
+		/** the similarity of the position at the same index of best */
+		private final double[] bestScores;
+
+		/** the lowest similarity a name needs to be ranked */
+		private double threshold = MIN_SIMILARITY;
+
+		/** a buffer for the trigrams of a candidate name */
+		private long[] nameGrams = new long[16];
+
+		Search(long[] queryGrams, int queryCount, int limit, long expectedPositions) {
+			int capacity = 16;
+			while (capacity < expectedPositions * 2 && capacity < (1 << 30)) {
+				capacity <<= 1;
+			}
+			this.candidates = newCandidates(capacity);
+			this.counts = new int[capacity];
+			this.queryGrams = queryGrams;
+			this.queryCount = queryCount;
+			this.best = new int[Math.min(limit, Math.max(size, 1))];
+			this.bestScores = new double[best.length];
+		}
+
+		/**
+		 * Returns the number of lists to read for the current threshold.
+		 *
+		 * @return the number of lists to read.
+		 */
+		int listsNeeded() {
+			return TrigramIndex.listsNeeded(threshold, queryCount);
+		}
+
+		/**
+		 * Counts a position found in a list of the query trigrams.
+		 *
+		 * @param position the position.
+		 */
+		void count(int position) {
+			int mask = candidates.length - 1;
+			int h = position * 0x9E3779B9;
+			int at = (h ^ (h >>> 16)) & mask;
+			while (candidates[at] != -1 && candidates[at] != position) {
+				at = (at + 1) & mask;
+			}
+			if (candidates[at] == -1) {
+				candidates[at] = position;
+				if (++candidateCount * 2 > candidates.length) {
+					this.grow();
+					this.count(position);
+					return;
+				}
+			}
+			counts[at]++;
+		}
+
+		/**
+		 * Scores the candidates counted most first and ranks the best of them, until no candidate
+		 * left could be ranked. Raises the threshold to the similarity of the last name ranked once
+		 * the ranking is full.
+		 *
+		 * @param unreadGrams the trigrams of the query whose lists were not read, all in some list.
+		 * @param probe true to score only the candidates counted most, only to raise the threshold.
+		 * @return the best positions, most similar first.
+		 */
+		int[] rank(long[] unreadGrams, boolean probe) {
+			int unread = unreadGrams.length;
+			int read = queryCount - unread;
+			int[] starts = new int[read + 2];
+			for (int i = 0; i < candidates.length; i++) {
+				if (candidates[i] != -1)
+					starts[read - counts[i] + 1]++;
+			}
+			for (int c = 1; c < starts.length; c++) {
+				starts[c] += starts[c - 1];
+			}
+			int[] ordered = new int[candidateCount];
+			for (int i = 0; i < candidates.length; i++) {
+				if (candidates[i] != -1)
+					ordered[starts[read - counts[i]]++] = i;
+			}
+
+			int found = 0;
+			int scored = 0;
+			for (int slot : ordered) {
+				int position = candidates[slot];
+				int most = counts[slot] + unread;
+				if (2.0 * most / (queryCount + most) < threshold)
+					break; //no candidate held by fewer of the lists read can be ranked either
+
+				int nameCount = gramCounts[position];
+				if (2.0 * Math.min(most, nameCount) / (queryCount + nameCount) < threshold)
+					continue;
+
+				if (probe && ++scored > PROBE_SCORES * best.length)
+					break;
+				int shared = counts[slot];
+				if (unread > 0)
+					shared += this.unreadShared(names[position], unreadGrams);
+				double score = 2.0 * shared / (queryCount + nameCount);
+				if (score < threshold || (found == best.length && !ranksBefore(score, position, bestScores[found - 1], best[found - 1])))
+					continue;
+
+				//insert into the ranking, the candidates are not in position order
+				int at = found < best.length ? found++ : found - 1;
+				while (at > 0 && ranksBefore(score, position, bestScores[at - 1], best[at - 1])) {
+					best[at] = best[at - 1];
+					bestScores[at] = bestScores[at - 1];
+					at--;
+				}
+				best[at] = position;
+				bestScores[at] = score;
+				if (found == best.length)
+					threshold = Math.max(threshold, bestScores[found - 1]);
+			}
+			return Arrays.copyOf(best, found);
+		}
+
+		/**
+		 * Counts the trigrams of a name among the trigrams whose lists were not read.
+		 *
+		 * @param name the name of a candidate.
+		 * @param unreadGrams the trigrams whose lists were not read.
+		 * @return the number of those trigrams the name has.
+		 */
+		private int unreadShared(String name, long[] unreadGrams) {
+			if (maxGrams(name) > nameGrams.length)
+				nameGrams = new long[maxGrams(name)];
+			if (unreadGrams.length > 64) { //too many for a bit each, only for very long queries
+				long[] sorted = unreadGrams.clone();
+				Arrays.sort(sorted);
+				return sharedGrams(sorted, sorted.length, nameGrams, distinctGrams(name, nameGrams));
+			}
+
+
+			long matched = 0; //a bit per unread trigram, a trigram repeated in the name counts once
+			int count = grams(name, nameGrams);
+			for (int i = 0; i < count; i++) {
+				for (int u = 0; u < unreadGrams.length; u++) {
+					if (nameGrams[i] == unreadGrams[u])
+						matched |= 1L << u;
+				}
+			}
+			return Long.bitCount(matched);
+		}
+
+		/**
+		 * Moves the candidates into a table twice as large.
+		 */
+		private void grow() {
+			int[] oldCandidates = candidates;
+			int[] oldCounts = counts;
+			candidates = newCandidates(oldCandidates.length << 1);
+			counts = new int[candidates.length];
+			int mask = candidates.length - 1;
+			for (int i = 0; i < oldCandidates.length; i++) {
+				if (oldCandidates[i] != -1) {
+					int h = oldCandidates[i] * 0x9E3779B9;
+					int at = (h ^ (h >>> 16)) & mask;
+					while (candidates[at] != -1) {
+						at = (at + 1) & mask;
+					}
+					candidates[at] = oldCandidates[i];
+					counts[at] = oldCounts[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Allocates an empty table of candidates.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 * @return the empty table.
+	 */
+	private static int[] newCandidates(int capacity) {
+		int[] candidates = new int[capacity];
+		Arrays.fill(candidates, -1);
+		return candidates;
+	}
+
+	/**
+	 * Returns whether a name is ranked before another: more similar, or as similar and added earlier.
+	 *
+	 * @param score the similarity of the first name.
+	 * @param position the position of the first name.
+	 * @param otherScore the similarity of the other name.
+	 * @param otherPosition the position of the other name.
+	 * @return true if the first name is ranked before the other.
+	 */
+	private static boolean ranksBefore(double score, int position, double otherScore, int otherPosition) {
+		return score > otherScore || (score == otherScore && position < otherPosition);
+	}
+
+	/**
+	 * Returns the number of positions covered by the index, one more than the highest position added.
+	 *
+	 * @return the number of positions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of bytes of the posting lists in use, a measure of how well they are compressed.
+	 *
+	 * @return the number of bytes used by the posting lists.
+	 */
+	public long getPostingBytes() {
+		long total = 0;
+		for (int slot = 0; slot < grams.length; slot++) {
+			if (grams[slot] != EMPTY)
+				total += postingBytes[slot];
+		}
+		return total;
+	}
+
+	/**
+	 * Appends a position to a posting list as the variable-length delta from the last position.
+	 *
+	 * @param slot the slot of the trigram.
+	 * @param position the position, above the last position of the list.
+	 */
+	private void append(int slot, int position) {
+		int delta = position - lastPositions[slot];
+		byte[] posting = postings[slot];
+		int length = postingBytes[slot];
+		if (length + 5 > posting.length)
+			posting = postings[slot] = Arrays.copyOf(posting, Math.max(posting.length * 2, length + 5));
+
+		while ((delta & ~0x7F) != 0) {
+			posting[length++] = (byte) ((delta & 0x7F) | 0x80);
+			delta >>>= 7;
+		}
+		posting[length++] = (byte) delta;
+		postingBytes[slot] = length;
+		postingCounts[slot]++;
+		lastPositions[slot] = position;
+	}
+
+	/**
+	 * Returns the slot of a trigram in the hash table, or the empty slot it would be stored at.
+	 *
+	 * @param gram the trigram.
+	 * @return the slot of the trigram.
+	 */
+	private int slotOf(long gram) {
+		int mask = grams.length - 1;
+		long h = gram * 0x9E3779B97F4A7C15L;
+		int slot = (int) (h ^ (h >>> 32)) & mask;
+		while (grams[slot] != EMPTY && grams[slot] != gram) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Moves all trigrams of the hash table into a new table with the specified number of slots.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 */
+	private void resizeTable(int capacity) {
+		long[] oldGrams = grams;
+		byte[][] oldPostings = postings;
+		int[] oldBytes = postingBytes;
+		int[] oldCounts = postingCounts;
+		int[] oldLast = lastPositions;
+		this.allocateTable(capacity);
+
+		for (int i = 0; i < oldGrams.length; i++) {
+			if (oldGrams[i] != EMPTY) {
+				int slot = this.slotOf(oldGrams[i]);
+				grams[slot] = oldGrams[i];
+				postings[slot] = oldPostings[i];
+				postingBytes[slot] = oldBytes[i];
+				postingCounts[slot] = oldCounts[i];
+				lastPositions[slot] = oldLast[i];
+			}
+		}
+	}
+
+	/**
+	 * Allocates an empty hash table.
+	 *
+	 * @param capacity the number of slots, must be a power of two.
+	 */
+	private void allocateTable(int capacity) {
+		grams = new long[capacity];
+		Arrays.fill(grams, EMPTY);
+		postings = new byte[capacity][];
+		postingBytes = new int[capacity];
+		postingCounts = new int[capacity];
+		lastPositions = new int[capacity];
+	}
+
+	/**
+	 * Returns the most trigrams a name can have, one per character and one for the end of the last word.
+	 *
+	 * @param name the name.
+	 * @return the size of an array able to hold the trigrams of the name.
+	 */
+	private static int maxGrams(String name) {
+		return name.length() + 1;
+	}
+
+	/**
+	 * Collects the distinct trigrams of a name, sorted. Each character is folded the same way
+	 * String.equalsIgnoreCase does and words are the runs of letters and digits. A word of one
+	 * letter has a trigram of its own, the letter between two spaces.
+	 *
+	 * @param name the name.
+	 * @param out the array receiving the trigrams, at least maxGrams(name) long.
+	 * @return the number of distinct trigrams.
+	 */
+	static int distinctGrams(String name, long[] out) {
+		int count = grams(name, out);
+		Arrays.sort(out, 0, count);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinct == 0 || out[distinct - 1] != out[i])
+				out[distinct++] = out[i];
+		}
+		return distinct;
+	}
+
+	/**
+	 * Collects the trigrams of a name in the order they appear, a trigram repeated in the name is collected again.
+	 *
+	 * @param name the name.
+	 * @param out the array receiving the trigrams, at least maxGrams(name) long.
+	 * @return the number of trigrams.
+	 */
+	private static int grams(String name, long[] out) {
+		int count = 0;
+		char previous = ' ';
+		char beforePrevious = ' ';
+		for (int i = 0; i <= name.length(); i++) {
+			char c = i < name.length() ? name.charAt(i) : ' ';
+			c = Character.isLetterOrDigit(c) ? Character.toLowerCase(Character.toUpperCase(c)) : ' ';
+			if (c == ' ' && previous == ' ')
+				continue; //separators between words add nothing, a word ends with a single space
+
+			if (previous != ' ' || beforePrevious != ' ')
+				out[count++] = ((long) beforePrevious << 32) | ((long) previous << 16) | c; //the first letter of a word alone is too common to tell names apart
+			beforePrevious = previous;
+			previous = c;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the trigrams two sorted sets of trigrams share.
+	 *
+	 * @param a the first set, sorted.
+	 * @param aCount the number of trigrams of the first set.
+	 * @param b the second set, sorted.
+	 * @param bCount the number of trigrams of the second set.
+	 * @return the number of shared trigrams.
+	 */
+	private static int sharedGrams(long[] a, int aCount, long[] b, int bCount) {
+		int shared = 0;
+		for (int i = 0, j = 0; i < aCount && j < bCount;) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				shared++;
+				i++;
+				j++;
+			}
+		}
+		return shared;
+	}
+}
@@ -0,0 +1,130 @@
+package retailstore;
+
+import java.util.Random;
+
+/**
+ * Implementation of a Zipf distribution for the Retail Store test data.
+ * Draws ranks from 1 to n where rank k is drawn with a probability proportional to 1 / k^exponent,
+ * so that a few ranks (popular items, common words, big suppliers) are drawn most of the time.
+ * Uses rejection-inversion sampling (Hormann and Derflinger), which needs no table and takes
+ * constant time for any n. A distribution is not thread-safe, each thread uses its own.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+public class ZipfDistribution {
+
+	/** the number of ranks */
+	private final int n;
+
+	/** the exponent of the distribution, 0 draws every rank with the same probability */
+	private final double exponent;
+
+	/** the random number generator drawing the ranks */
+	private final Random random;
+
+	/** the integral of the hat function from 1.5 minus 1 */
+	private final double hIntegralX1;
+
+	/** the integral of the hat function up to n + 0.5 */
+	private final double hIntegralN;
+
+	/** the width around a rank within which a draw is accepted without the rejection test */
+	private final double s;
+
+	/**
+	 * ZipfDistribution Class Constructor
+	 *
+	 * @param n the number of ranks, at least 1.
+	 * @param exponent the exponent of the distribution, not negative (about 1 for popularity and word frequencies).
+	 * @param random the random number generator drawing the ranks.
+	 */
+	public ZipfDistribution(int n, double exponent, Random random) {
+		if (n < 1 || exponent < 0)
+			throw new IllegalArgumentException("Zipf distribution needs at least 1 rank and an exponent of at least 0.");
+
+		this.n = n;
+		this.exponent = exponent;
+		this.random = random;
+		this.hIntegralX1 = hIntegral(1.5) - 1;
+		this.hIntegralN = hIntegral(n + 0.5);
+		this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+	}
+
+	/**
+	 * Draws a rank.
+	 *
+	 * @return a rank from 1 to n.
+	 */
+	public int next() {
+		if (exponent == 0)
+			return 1 + random.nextInt(n);
+
+		while (true) {
+			double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+			double x = hIntegralInverse(u);
+			int k = (int) (x + 0.5);
+			if (k < 1)
+				k = 1;
+			else if (k > n)
+				k = n;
+
+			if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+				return k;
+		}
+	}
+
+	/**
+	 * Returns the number of ranks.
+	 *
+	 * @return the number of ranks.
+	 */
+	public int getN() {
+		return n;
+	}
+
+	/**
+	 * The hat function, 1 / x^exponent.
+	 */
+	private double h(double x) {
+		return Math.exp(-exponent * Math.log(x));
+	}
+
+	/**
+	 * The integral of the hat function, (x^(1 - exponent) - 1) / (1 - exponent), or log x for an exponent of 1.
+	 */
+	private double hIntegral(double x) {
+		double logX = Math.log(x);
+		return helper2((1 - exponent) * logX) * logX;
+	}
+
+	/**
+	 * The inverse of the integral of the hat function.
+	 */
+	private double hIntegralInverse(double x) {
+		double t = x * (1 - exponent);
+		if (t < -1)
+			t = -1; //limits rounding errors at the lowest ranks
+		return Math.exp(helper1(t) * x);
+	}
+
+	/**
+	 * Returns log(1 + x) / x, accurate for x near 0.
+	 */
+	private static double helper1(double x) {
+		if (Math.abs(x) > 1e-8)
+			return Math.log1p(x) / x;
+		return 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+	}
+
+	/**
+	 * Returns (exp(x) - 1) / x, accurate for x near 0.
+	 */
+	private static double helper2(double x) {
+		if (Math.abs(x) > 1e-8)
+			return Math.expm1(x) / x;
+		return 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+	}
+}
@@ -0,0 +1,108 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Implementation of the tests of the inventory snapshots of the Retail Store.
+ * A snapshot must keep reading the inventory as it was when it was opened, whatever changes
+ * are made after it, and must see every change made before it whole.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class InventorySnapshotTest {
+
+	@Test
+	void snapshotKeepsReadingTheInventoryAsItWasOpened() {
+		Inventory inventory = new Inventory(TestCatalog.items(1000), true);
+		InventorySnapshot snapshot = inventory.openSnapshot();
+		try {
+			inventory.removeItem(1000, 10);
+			inventory.removeItem(1000, 10);
+			inventory.addItem(1001, "Item 1", 25, 2.25, 8002);
+			inventory.addItem(7000, "Later Item", 3, 1.0, 8001);
+			inventory.setReorderLevels(1002, 70, 90);
+
+			assertEquals(80, inventory.checkQty(1000));
+			assertEquals(TestCatalog.QTY, snapshot.checkQty(1000));
+			assertEquals(TestCatalog.QTY, snapshot.checkQty(1001));
+			assertEquals(Item.REORDER_LEVEL, snapshot.searchItem(1002).getReorderLevel());
+			assertNull(snapshot.searchItem(7000));
+			assertEquals(1000, snapshot.getItemCount());
+			assertEquals(1000, snapshot.listItems(0, 2000).size());
+		} finally {
+			snapshot.close();
+		}
+
+		InventorySnapshot later = inventory.openSnapshot();
+		try {
+			assertTrue(later.getVersion() > snapshot.getVersion());
+			assertEquals(80, later.checkQty(1000));
+			assertEquals(3, later.checkQty(7000));
+			assertEquals(1001, later.getItemCount());
+		} finally {
+			later.close();
+		}
+	}
+
+	@Test
+	void snapshotsSeeConsistentStatesWhileTheInventoryChanges() throws InterruptedException {
+		int size = 2000;
+		Inventory inventory = new Inventory(TestCatalog.items(size), true);
+		AtomicBoolean stop = new AtomicBoolean();
+
+		//adds one unit to every item in id order, round after round, so any consistent state is a staircase
+		Thread writer = new Thread(() -> {
+			while (!stop.get()) {
+				for (int i = 0; i < size; i++) {
+					inventory.addItem(TestCatalog.FIRST_ID + i, null, 1, 0, 0);
+				}
+			}
+		});
+		writer.start();
+		try {
+			for (int round = 0; round < 50; round++) {
+				InventorySnapshot snapshot = inventory.openSnapshot();
+				try {
+					ArrayList<Item> first = snapshot.listItems(0, size);
+					assertStaircase(first);
+					Thread.yield();
+					ArrayList<Item> again = snapshot.listItems(0, size);
+					for (int i = 0; i < size; i++) {
+						assertEquals(first.get(i).getQty(), again.get(i).getQty(), "re-read of item " + first.get(i).getId());
+						assertEquals(first.get(i).getQty(), snapshot.checkQty(first.get(i).getId()));
+					}
+				} finally {
+					snapshot.close();
+				}
+			}
+		} finally {
+			stop.set(true);
+			writer.join();
+		}
+	}
+
+	/**
+	 * Checks that the quantities of the items, in id order, only drop by one at the item the writer was at.
+	 *
+	 * @param items the items read from a snapshot.
+	 */
+	private static void assertStaircase(ArrayList<Item> items) {
+		int steps = 0;
+		for (int i = 1; i < items.size(); i++) {
+			int drop = items.get(i - 1).getQty() - items.get(i).getQty();
+			assertTrue(drop == 0 || drop == 1, "item " + items.get(i).getId() + " changed out of order");
+			steps += drop;
+		}
+		assertTrue(steps <= 1, "the snapshot saw " + steps + " writer positions at once");
+	}
+}
@@ -0,0 +1,123 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Implementation of the tests of the items file write-back of the Retail Store.
+ * Only the quantity of the lines of changed items may change when the file is rewritten, every
+ * other byte is kept, and items which are not in the file yet are added at its end.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class ItemFileFlusherTest {
+
+	/** a period long enough for the write-back to run only when flushed by the test */
+	private static final long PERIOD_MS = 3_600_000;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Writes an items file and returns an inventory holding the same items.
+	 *
+	 * @param contents the contents of the items file.
+	 * @return the inventory.
+	 */
+	private Inventory writeItemsFile(String contents) throws IOException {
+		Files.write(directory.resolve("items.txt"), contents.getBytes(StandardCharsets.UTF_8));
+		ArrayList<Item> items = new ArrayList<Item>();
+		for (String line : contents.split("\r?\n")) {
+			String[] fields = line.split(";");
+			Item item = new Item();
+			item.setId(Integer.parseInt(fields[0]));
+			item.setName(fields[1]);
+			item.setQty(Integer.parseInt(fields[2]));
+			item.setPrice(Double.parseDouble(fields[3]));
+			item.setSupplierId(Integer.parseInt(fields[4]));
+			items.add(item);
+		}
+		return new Inventory(items, true);
+	}
+
+	/**
+	 * Returns the contents of the items file.
+	 *
+	 * @return the contents.
+	 */
+	private String readItemsFile() throws IOException {
+		return new String(Files.readAllBytes(directory.resolve("items.txt")), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void flushRewritesOnlyTheQuantitiesOfChangedItems() throws IOException {
+		Inventory inventory = writeItemsFile("1000;Knock Bits;88;12.67;8015\r\n"
+				+ "1001;Widget;100;1.5;8001\r\n"
+				+ "1002;Gadget;7;3.00;8002\r\n");
+		ItemFileFlusher flusher = new ItemFileFlusher(inventory, directory.resolve("items.txt").toString(), PERIOD_MS);
+		try {
+			inventory.removeItem(1000, 8);
+			inventory.addItem(1002, null, 1000, 0, 0);
+			assertEquals(2, flusher.flush());
+			assertEquals("1000;Knock Bits;80;12.67;8015\r\n"
+					+ "1001;Widget;100;1.5;8001\r\n"
+					+ "1002;Gadget;1007;3.00;8002\r\n", readItemsFile());
+
+			assertEquals(0, flusher.flush(), "nothing changed since the last write-back");
+			assertEquals(2, flusher.getFlushedCount());
+		} finally {
+			flusher.close();
+		}
+	}
+
+	@Test
+	void flushAddsNewItemsAtTheEndWithTheLineEndingsOfTheFile() throws IOException {
+		Inventory inventory = writeItemsFile("1000;Knock Bits;88;12.67;8015\n"
+				+ "1001;Widget;100;1.5;8001");
+		ItemFileFlusher flusher = new ItemFileFlusher(inventory, directory.resolve("items.txt").toString(), PERIOD_MS);
+		try {
+			inventory.removeItem(1001, 1);
+			inventory.addItem(1002, "Gadget", 5, 3.0, 8002);
+			assertEquals(2, flusher.flush());
+			assertEquals("1000;Knock Bits;88;12.67;8015\n"
+					+ "1001;Widget;99;1.5;8001\n"
+					+ "1002;Gadget;5;3.00;8002\n", readItemsFile());
+		} finally {
+			flusher.close();
+		}
+	}
+
+	@Test
+	void closeWritesBackTheItemsChangedSinceTheLastFlush() throws IOException {
+		StringBuilder contents = new StringBuilder();
+		for (Item item : TestCatalog.items(5000)) {
+			contents.append(item.getId()).append(';').append(item.getName()).append(';').append(item.getQty())
+					.append(';').append("1.25").append(';').append(item.getSupplierId()).append("\r\n");
+		}
+		Inventory inventory = writeItemsFile(contents.toString());
+		ItemFileFlusher flusher = new ItemFileFlusher(inventory, directory.resolve("items.txt").toString(), PERIOD_MS);
+		for (int i = 0; i < 5000; i += 17) {
+			inventory.removeItem(TestCatalog.FIRST_ID + i, 1 + i % 50);
+		}
+		flusher.close();
+
+		String[] lines = readItemsFile().split("\r\n");
+		assertEquals(5000, lines.length);
+		for (int i = 0; i < 5000; i++) {
+			int expected = i % 17 == 0 ? TestCatalog.QTY - 1 - i % 50 : TestCatalog.QTY;
+			assertEquals(expected, Integer.parseInt(lines[i].split(";")[2]), lines[i]);
+			assertEquals(expected, inventory.checkQty(TestCatalog.FIRST_ID + i));
+		}
+	}
+}
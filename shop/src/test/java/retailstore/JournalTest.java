@@ -0,0 +1,182 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Implementation of the tests of the journal of the Retail Store.
+ * Changes are journaled, the shop is recovered from its snapshot and journal, and the recovered
+ * inventory is compared with the changes made, also after a torn or corrupt record.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class JournalTest {
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Returns the path of a file inside the temporary directory.
+	 *
+	 * @param name the name of the file.
+	 * @return the path of the file.
+	 */
+	private String file(String name) {
+		return directory.resolve(name).toString();
+	}
+
+	/**
+	 * Returns the last segment of the journal in the temporary directory.
+	 *
+	 * @return the segment with the highest number.
+	 */
+	private File lastSegment() {
+		File last = null;
+		long lastNumber = -1;
+		for (File segment : directory.toFile().listFiles()) {
+			String name = segment.getName();
+			if (!name.startsWith("shop.jnl."))
+				continue;
+			long number = Long.parseLong(name.substring("shop.jnl.".length()));
+			if (number > lastNumber) {
+				last = segment;
+				lastNumber = number;
+			}
+		}
+		assertNotNull(last, "no journal segment was written");
+		return last;
+	}
+
+	/**
+	 * Journals a few changes of every kind and closes the journal.
+	 *
+	 * @return the shop the changes were made on.
+	 */
+	private Shop journalChanges() throws IOException {
+		Shop shop = TestCatalog.shop(100);
+		shop.startJournal(file("shop.dat"), file("shop.jnl"), Journal.Durability.SYNC);
+		shop.removeItem(1000, 60); //40 left, not below the reorder level
+		shop.removeItem(1001, 70); //30 left, raises a line for 20
+		shop.addItem(5000, "New Item", 12, 3.5, 8002);
+		shop.getInventory().setReorderLevels(1002, 90, 120);
+		shop.closeJournal();
+		return shop;
+	}
+
+	@Test
+	void recoverReplaysTheChangesMadeSinceTheSnapshot() throws IOException {
+		journalChanges();
+
+		Shop recovered = Shop.recover(file("shop.dat"), file("shop.jnl"), Journal.Durability.SYNC, true);
+		try {
+			assertEquals(40, recovered.checkQty(1000));
+			assertEquals(30, recovered.checkQty(1001));
+			assertEquals(12, recovered.checkQty(5000));
+			assertEquals("New Item", recovered.searchItem(5000).getName());
+			assertEquals(90, recovered.searchItem(1002).getReorderLevel());
+			assertEquals(120, recovered.searchItem(1002).getReorderTarget());
+
+			ArrayList<OrderLine> lines = recovered.getInventory().getOrderLines();
+			assertEquals(1, lines.size());
+			assertEquals(1001, lines.get(0).getId());
+			assertEquals(20, lines.get(0).getQty());
+		} finally {
+			recovered.closeJournal();
+		}
+	}
+
+	@Test
+	void recoverKeepsTheOrderLinesOfSubmittedOrdersTaken() throws IOException {
+		Shop shop = TestCatalog.shop(100);
+		shop.startJournal(file("shop.dat"), file("shop.jnl"), Journal.Durability.GROUP);
+		shop.removeItem(1003, 80);
+		shop.removeItem(1004, 80);
+		shop.createOrder();
+		Order submitted = shop.submitOrder();
+		shop.removeItem(1005, 80); //raised after the order, still pending
+		shop.closeJournal();
+
+		Shop recovered = Shop.recover(file("shop.dat"), file("shop.jnl"), Journal.Durability.GROUP, true);
+		try {
+			assertEquals(submitted.getId(), recovered.getInventory().getLastSubmittedOrder());
+			ArrayList<OrderLine> lines = recovered.getInventory().getOrderLines();
+			assertEquals(1, lines.size());
+			assertEquals(1005, lines.get(0).getId());
+
+			recovered.createOrder();
+			assertTrue(recovered.getOrder().getId() > submitted.getId(), "order ids must not be reused");
+		} finally {
+			recovered.closeJournal();
+		}
+	}
+
+	@Test
+	void recoverDropsATornRecordAtTheEndOfTheLastSegment() throws IOException {
+		journalChanges();
+		File segment = lastSegment();
+		long length = segment.length();
+
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(segment, true))) {
+			out.writeInt(40); //a record of 40 bytes cut short by a crash
+			out.writeByte(2);
+			out.writeInt(1000);
+		}
+
+		Shop recovered = Shop.recover(file("shop.dat"), file("shop.jnl"), Journal.Durability.SYNC, true);
+		try {
+			assertEquals(40, recovered.checkQty(1000));
+			assertEquals(30, recovered.checkQty(1001));
+			assertEquals(12, recovered.checkQty(5000));
+			assertTrue(!segment.exists() || segment.length() == length, "the torn record must be cut off");
+
+			recovered.removeItem(1000, 5);
+		} finally {
+			recovered.closeJournal();
+		}
+
+		Shop again = Shop.recover(file("shop.dat"), file("shop.jnl"), Journal.Durability.SYNC, true);
+		try {
+			assertEquals(35, again.checkQty(1000));
+			assertEquals(30, again.checkQty(1001));
+		} finally {
+			again.closeJournal();
+		}
+	}
+
+	@Test
+	void recoverRejectsACorruptRecordBeforeTheLastSegment() throws IOException {
+		journalChanges();
+		File segment = lastSegment();
+		long number = Long.parseLong(segment.getName().substring("shop.jnl.".length()));
+		Files.copy(segment.toPath(), new File(file("shop.jnl." + (number + 1))).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		try (RandomAccessFile corrupt = new RandomAccessFile(segment, "rw")) {
+			corrupt.seek(6); //inside the data of the first record
+			int b = corrupt.read();
+			corrupt.seek(6);
+			corrupt.write(b ^ 0xFF);
+		}
+
+		IOException e = assertThrows(IOException.class,
+				() -> Shop.recover(file("shop.dat"), file("shop.jnl"), Journal.Durability.SYNC, true));
+		assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+	}
+}
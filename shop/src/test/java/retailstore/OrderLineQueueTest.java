@@ -0,0 +1,136 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Implementation of the tests of the order line handoff of the Retail Store.
+ * Order lines pushed by several threads while another thread keeps draining them must each
+ * be drained exactly once, both on the queue itself and through a concurrent inventory.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class OrderLineQueueTest {
+
+	/** the number of threads pushing order lines */
+	private static final int THREADS = 4;
+
+	/**
+	 * Creates an order line for an item.
+	 *
+	 * @param id the id of the item.
+	 * @return the order line.
+	 */
+	private static OrderLine line(int id) {
+		OrderLine line = new OrderLine();
+		line.setId(id);
+		line.setQty(1);
+		return line;
+	}
+
+	@Test
+	void drainTakesTheLinesOldestFirst() {
+		OrderLineQueue queue = new OrderLineQueue();
+		for (int i = 0; i < 5; i++) {
+			queue.push(line(i));
+		}
+		assertEquals(5, queue.size());
+		assertEquals(5, queue.peekAll().size());
+
+		ArrayList<OrderLine> drained = queue.drain();
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i, drained.get(i).getId());
+		}
+		assertEquals(0, queue.size());
+		assertTrue(queue.drain().isEmpty());
+	}
+
+	@Test
+	void linesPushedWhileDrainingAreTakenExactlyOnce() throws InterruptedException {
+		int perThread = 50_000;
+		OrderLineQueue queue = new OrderLineQueue();
+		Thread[] pushers = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int first = t * perThread;
+			pushers[t] = new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					queue.push(line(first + i));
+				}
+			});
+			pushers[t].start();
+		}
+
+		int[] seen = drainWhile(pushers, queue::drain, THREADS * perThread, 0);
+		for (int i = 0; i < seen.length; i++) {
+			assertEquals(1, seen[i], "order line " + i);
+		}
+	}
+
+	@Test
+	void inventoryRaisesEachLineOnceWhileItIsDrained() throws InterruptedException {
+		int size = 100_000;
+		ArrayList<Item> items = TestCatalog.items(size);
+		for (Item item : items) {
+			item.setQty(45);
+		}
+		Inventory inventory = new Inventory(items, true);
+
+		Thread[] sellers = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			final int first = t;
+			sellers[t] = new Thread(() -> {
+				for (int i = first; i < size; i += THREADS) {
+					inventory.removeItem(TestCatalog.FIRST_ID + i, 10); //below the level, raises a line
+				}
+			});
+			sellers[t].start();
+		}
+
+		int[] seen = drainWhile(sellers, inventory::drainOrderLines, size, TestCatalog.FIRST_ID);
+		for (int i = 0; i < seen.length; i++) {
+			assertEquals(1, seen[i], "order line of item " + (TestCatalog.FIRST_ID + i));
+		}
+		assertTrue(inventory.getOrderLines().isEmpty());
+	}
+
+	/**
+	 * A source of drained order lines.
+	 */
+	private interface Drain {
+		ArrayList<OrderLine> drain();
+	}
+
+	/**
+	 * Keeps draining order lines while the threads run and once more after they finished.
+	 *
+	 * @param threads the threads raising the order lines.
+	 * @param drain the source to drain.
+	 * @param count the number of distinct ids expected.
+	 * @param firstId the lowest id expected.
+	 * @return the number of times each id was drained.
+	 */
+	private static int[] drainWhile(Thread[] threads, Drain drain, int count, int firstId) throws InterruptedException {
+		int[] seen = new int[count];
+		boolean running = true;
+		while (running) {
+			running = false;
+			for (Thread thread : threads) {
+				running |= thread.isAlive();
+			}
+			for (OrderLine line : drain.drain()) { //the last pass runs after every thread finished
+				seen[line.getId() - firstId]++;
+			}
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return seen;
+	}
+}
@@ -0,0 +1,175 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Implementation of the tests of the replication of the Retail Store.
+ * A follower shop must catch up with the inventory of its leader, from the records streamed
+ * as they are appended, after reconnecting, and from a snapshot once it fell too far behind.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class ReplicationTest {
+
+	/** the number of items of the leader */
+	private static final int SIZE = 500;
+
+	/** the longest time a follower is given to catch up, in milliseconds */
+	private static final long TIMEOUT_MS = 20_000;
+
+	@TempDir
+	Path directory;
+
+	/** the shop streaming its changes */
+	private Shop leaderShop;
+
+	/** the follower under test (or null) */
+	private ReplicationFollower follower;
+
+	/**
+	 * Returns the path of a file inside the temporary directory.
+	 *
+	 * @param name the name of the file.
+	 * @return the path of the file.
+	 */
+	private String file(String name) {
+		return directory.resolve(name).toString();
+	}
+
+	/**
+	 * Starts a journaled leader shop streaming its changes.
+	 *
+	 * @param backlogSize the size of the changes kept for followers, in bytes.
+	 * @return the replication leader.
+	 */
+	private ReplicationLeader startLeader(long backlogSize) throws IOException {
+		leaderShop = TestCatalog.shop(SIZE);
+		leaderShop.startJournal(file("leader.dat"), file("leader.jnl"), Journal.Durability.ASYNC);
+		return leaderShop.startReplication(0, backlogSize, file("leader.dat.follower"));
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		if (follower != null)
+			follower.close();
+		if (leaderShop != null) {
+			leaderShop.stopReplication();
+			leaderShop.closeJournal();
+		}
+	}
+
+	/**
+	 * Sells and restocks items of the leader, raising some order lines.
+	 *
+	 * @param round the number of the round, which picks the items.
+	 */
+	private void changeLeader(int round) {
+		for (int i = round % 7; i < SIZE; i += 7) {
+			leaderShop.removeItem(TestCatalog.FIRST_ID + i, 1 + (i + round) % 30);
+			if (i % 3 == 0)
+				leaderShop.addItem(TestCatalog.FIRST_ID + i, null, 5, 0, 0);
+		}
+		leaderShop.addItem(20_000 + round, "Round " + round, round, 1.0, TestCatalog.FIRST_SUPPLIER);
+		leaderShop.getInventory().setReorderLevels(TestCatalog.FIRST_ID + round % SIZE, 60, 75);
+	}
+
+	/**
+	 * Waits until the follower applied every record of the leader, then compares both inventories.
+	 *
+	 * @param leader the replication leader.
+	 * @param followerShop the shop kept by the follower.
+	 */
+	private void assertCaughtUp(ReplicationLeader leader, Shop followerShop) throws InterruptedException {
+		long last = leader.getLastSequence();
+		await(() -> follower.getAppliedSequence() >= last);
+
+		Inventory expected = leaderShop.getInventory();
+		Inventory actual = followerShop.getInventory();
+		assertEquals(expected.getItemCount(), actual.getItemCount());
+		for (Item item : expected.listItems(0, expected.getItemCount())) {
+			Item copy = actual.searchItem(item.getId());
+			assertEquals(item.getQty(), copy.getQty(), "quantity of item " + item.getId());
+			assertEquals(item.getName(), copy.getName());
+			assertEquals(item.getReorderLevel(), copy.getReorderLevel());
+		}
+		assertEquals(expected.getOrderLines().size(), actual.getOrderLines().size());
+	}
+
+	/**
+	 * Waits until a condition holds, failing after TIMEOUT_MS.
+	 *
+	 * @param condition the condition to wait for.
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void followerCatchesUpWithTheRecordsStreamed() throws IOException, InterruptedException {
+		ReplicationLeader leader = startLeader(16L << 20);
+		Shop followerShop = new Shop();
+		follower = new ReplicationFollower(followerShop, "localhost", leader.getPort(), file("follower.dat"));
+		await(() -> follower.getSnapshotCount() == 1);
+
+		for (int round = 0; round < 20; round++) {
+			changeLeader(round);
+		}
+		assertCaughtUp(leader, followerShop);
+		assertEquals(1, follower.getSnapshotCount(), "the records streamed must do without another snapshot");
+		assertEquals(0, follower.getRecordLag());
+	}
+
+	@Test
+	void followerResumesAfterTheLastRecordAppliedWhenItReconnects() throws IOException, InterruptedException {
+		ReplicationLeader leader = startLeader(16L << 20);
+		Shop followerShop = new Shop();
+		follower = new ReplicationFollower(followerShop, "localhost", leader.getPort(), file("follower.dat"));
+		changeLeader(0);
+		assertCaughtUp(leader, followerShop);
+
+		follower.disconnect();
+		for (int round = 1; round < 10; round++) {
+			changeLeader(round);
+		}
+		assertCaughtUp(leader, followerShop);
+		assertEquals(1, follower.getSnapshotCount(), "the kept records must do without another snapshot");
+	}
+
+	@Test
+	void followerCatchesUpFromASnapshotOnceTheRecordsItNeedsAreDropped() throws IOException, InterruptedException {
+		ReplicationLeader leader = startLeader(1); //keeps only the chunk being appended to
+		Shop followerShop = new Shop();
+		follower = new ReplicationFollower(followerShop, "localhost", leader.getPort(), file("follower.dat"));
+		changeLeader(0);
+		assertCaughtUp(leader, followerShop);
+		assertEquals(1, follower.getSnapshotCount());
+
+		follower.disconnect(); //reconnects after a second, by then the records after it are dropped
+		for (int round = 1; round < 200; round++) {
+			changeLeader(round);
+		}
+		assertCaughtUp(leader, followerShop);
+		assertEquals(2, follower.getSnapshotCount());
+
+		for (int round = 200; round < 220; round++) {
+			changeLeader(round);
+		}
+		assertCaughtUp(leader, followerShop);
+	}
+}
@@ -0,0 +1,89 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Implementation of the scaling tests of the Retail Store.
+ * Runs the same workload on catalogs from a few dozen to half a million items, from 1 to 16
+ * threads, on a concurrent Inventory and on a ShardedInventory, and checks that no update is lost
+ * and that each item raises exactly one order line however many threads sell it at once.
+ * The time per operation as the catalog and the number of threads grow is measured by the
+ * scaling and concurrent scenarios of the benchmarks, not here.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class ScalingTest {
+
+	/** the number of random sales and restocks each thread makes */
+	private static final int OPERATIONS = 20_000;
+
+	@ParameterizedTest(name = "{0} items, {1} threads, sharded {2}")
+	@CsvSource({
+		"40, 1, false", "40, 4, false", "40, 16, false",
+		"5000, 1, false", "5000, 4, false", "5000, 16, false",
+		"500000, 1, false", "500000, 4, false", "500000, 16, false",
+		"40, 1, true", "40, 4, true", "40, 16, true",
+		"5000, 1, true", "5000, 4, true", "5000, 16, true",
+		"500000, 1, true", "500000, 4, true", "500000, 16, true"
+	})
+	void workloadKeepsEveryUpdateAtAnyScale(int size, int threads, boolean sharded) throws InterruptedException {
+		//every thread sells one unit of every item, which leaves each item just below its reorder level,
+		//and the sales in progress at the same time can never take an item to 0
+		int startQty = 4 * threads + 10;
+		int level = startQty - threads + 1;
+		ArrayList<Item> items = TestCatalog.items(size);
+		for (Item item : items) {
+			item.setQty(startQty);
+			item.setReorderLevels(level, level + 10);
+		}
+		ItemStore store = sharded ? new ShardedInventory(items, 4) : new Inventory(items, true);
+		try {
+			Thread[] workers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				final long seed = t;
+				workers[t] = new Thread(() -> {
+					for (int i = 0; i < size; i++) {
+						store.removeItem(TestCatalog.FIRST_ID + i, 1);
+					}
+
+					//then sales each followed by a restock of the same amount, which leave the quantities as they were
+					Random random = new Random(seed);
+					for (int i = 0; i < OPERATIONS; i++) {
+						int id = TestCatalog.FIRST_ID + random.nextInt(size);
+						int qty = 1 + random.nextInt(3);
+						store.removeItem(id, qty);
+						store.addItem(id, null, qty, 0, 0);
+					}
+				});
+				workers[t].start();
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+
+			for (int i = 0; i < size; i++) {
+				assertEquals(startQty - threads, store.checkQty(TestCatalog.FIRST_ID + i), "quantity of item " + (TestCatalog.FIRST_ID + i));
+			}
+
+			int[] raised = new int[size];
+			for (OrderLine line : store.drainOrderLines()) {
+				raised[line.getId() - TestCatalog.FIRST_ID]++;
+			}
+			for (int i = 0; i < size; i++) {
+				assertEquals(1, raised[i], "order lines of item " + (TestCatalog.FIRST_ID + i));
+			}
+		} finally {
+			if (sharded)
+				((ShardedInventory) store).close();
+		}
+	}
+}
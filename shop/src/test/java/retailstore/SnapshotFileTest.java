@@ -0,0 +1,219 @@
+package retailstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Implementation of the tests of the snapshot files of the Retail Store.
+ * Checks that a snapshot restores the inventory it was saved from, that a damaged file is
+ * rejected by its checksum and that the files of every earlier version can still be read.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+class SnapshotFileTest {
+
+	/** the first four bytes of a snapshot file ("RSNP") */
+	private static final int MAGIC = 0x52534E50;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Returns the path of a file inside the temporary directory.
+	 *
+	 * @param name the name of the file.
+	 * @return the path of the file.
+	 */
+	private String file(String name) {
+		return directory.resolve(name).toString();
+	}
+
+	@Test
+	void snapshotRestoresTheInventorySavedInIt() throws IOException {
+		Shop shop = TestCatalog.shop(500);
+		shop.removeItem(1000, 70);
+		shop.addItem(9000, "Late Item", 5, 2.0, 8001);
+		shop.getInventory().setReorderLevels(1001, 75, 90);
+		shop.saveSnapshot(file("shop.dat"));
+
+		SnapshotFile snapshot = SnapshotFile.read(file("shop.dat"));
+		assertEquals(501, snapshot.getItems().size());
+		assertEquals(TestCatalog.SUPPLIER_COUNT, snapshot.getSuppliers().size());
+		assertEquals(1, snapshot.getOrderLines().size());
+		assertEquals(1000, snapshot.getOrderLines().get(0).getId());
+
+		Inventory restored = snapshot.restoreInventory(true);
+		assertEquals(30, restored.checkQty(1000));
+		assertEquals(5, restored.checkQty(9000));
+		assertEquals(9000, restored.searchItem("Late Item").getId());
+		assertEquals(75, restored.searchItem(1001).getReorderLevel());
+		assertEquals(90, restored.searchItem(1001).getReorderTarget());
+		assertEquals(1, restored.getOrderLines().size());
+	}
+
+	@Test
+	void snapshotKeepsTheLastSubmittedOrder() throws IOException {
+		Shop shop = TestCatalog.shop(50);
+		shop.removeItem(1000, 80);
+		shop.createOrder();
+		Order submitted = shop.submitOrder();
+		shop.saveSnapshot(file("shop.dat"));
+
+		Inventory restored = SnapshotFile.read(file("shop.dat")).restoreInventory(false);
+		assertEquals(submitted.getId(), restored.getLastSubmittedOrder());
+		assertTrue(restored.getOrderLines().isEmpty());
+	}
+
+	@Test
+	void readRejectsASnapshotWithAFlippedByte() throws IOException {
+		TestCatalog.shop(200).saveSnapshot(file("shop.dat"));
+		long length = Files.size(directory.resolve("shop.dat"));
+
+		try (RandomAccessFile corrupt = new RandomAccessFile(file("shop.dat"), "rw")) {
+			long position = length / 2;
+			corrupt.seek(position);
+			int b = corrupt.read();
+			corrupt.seek(position);
+			corrupt.write(b ^ 0x01);
+		}
+
+		IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(file("shop.dat")));
+		assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+	}
+
+	@Test
+	void readAcceptsVersion1Files() throws IOException {
+		SnapshotFile snapshot = readLegacy(1);
+		assertLegacyContents(snapshot);
+		assertEquals(0, snapshot.getJournalSegment());
+		assertEquals(Item.REORDER_LEVEL, snapshot.getItems().get(0).getReorderLevel());
+		assertEquals(Item.REORDER_TARGET, snapshot.getItems().get(0).getReorderTarget());
+	}
+
+	@Test
+	void readAcceptsVersion2Files() throws IOException {
+		SnapshotFile snapshot = readLegacy(2);
+		assertLegacyContents(snapshot);
+		assertEquals(7, snapshot.getJournalSegment());
+		assertEquals(Item.REORDER_LEVEL, snapshot.getItems().get(0).getReorderLevel());
+	}
+
+	@Test
+	void readAcceptsVersion3Files() throws IOException {
+		SnapshotFile snapshot = readLegacy(3);
+		assertLegacyContents(snapshot);
+		assertEquals(7, snapshot.getJournalSegment());
+		assertEquals(60, snapshot.getItems().get(0).getReorderLevel());
+		assertEquals(80, snapshot.getItems().get(0).getReorderTarget());
+	}
+
+	/**
+	 * Checks the contents written by writeLegacy, which are the same in every version.
+	 *
+	 * @param snapshot the snapshot read.
+	 */
+	private void assertLegacyContents(SnapshotFile snapshot) {
+		assertEquals(3, snapshot.getItems().size());
+		assertEquals(1, snapshot.getOrderLines().size());
+		assertEquals(1, snapshot.getSuppliers().size());
+		assertEquals("Acme", snapshot.getSuppliers().get(0).getName());
+
+		Inventory restored = snapshot.restoreInventory(false);
+		assertEquals(Inventory.UNKNOWN_ORDER, restored.getLastSubmittedOrder());
+		assertEquals(10, restored.checkQty(1));
+		assertEquals(3, restored.searchItem("Gamma").getId());
+		assertEquals(1, restored.getOrderLines().size());
+		assertEquals("Alpha", restored.searchItem(1).getName());
+	}
+
+	/**
+	 * Writes a snapshot file in the layout of an earlier version and reads it back.
+	 *
+	 * @param version the version of the layout, 1 to 3.
+	 * @return the snapshot read.
+	 */
+	private SnapshotFile readLegacy(int version) throws IOException {
+		String[] names = { "Alpha", "Beta", "Gamma" };
+		int[] qtys = { 10, 45, 99 };
+		IntIndex itemIndex = new IntIndex();
+		NameIndex nameIndex = new NameIndex();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(version);
+		out.writeInt(names.length);
+		for (int i = 0; i < names.length; i++) {
+			out.writeInt(i + 1);
+			writeText(out, names[i]);
+			out.writeInt(qtys[i]);
+			out.writeDouble(1.5 * (i + 1));
+			out.writeInt(8001);
+			out.writeByte(i == 0 ? 1 : 0);
+			if (version >= 3) {
+				out.writeInt(60);
+				out.writeInt(80);
+			}
+			itemIndex.put(i + 1, i);
+			nameIndex.add(names[i], i);
+		}
+		itemIndex.writeTo(out);
+		nameIndex.writeTo(out);
+
+		out.writeInt(1); //the pending order line of the first item
+		out.writeInt(1);
+		writeText(out, "Alpha");
+		out.writeInt(40);
+		out.writeInt(8001);
+		writeText(out, "Acme");
+
+		out.writeInt(1);
+		out.writeInt(8001);
+		writeText(out, "Acme");
+		writeText(out, "1 Main Street");
+		writeText(out, null);
+		if (version >= 2)
+			out.writeLong(7);
+		out.flush();
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		out.writeLong(crc.getValue());
+		out.flush();
+
+		Files.write(directory.resolve("legacy.dat"), bytes.toByteArray());
+		return SnapshotFile.read(file("legacy.dat"));
+	}
+
+	/**
+	 * Writes a text as snapshot files do, its UTF-8 length followed by its bytes, or -1 for null.
+	 *
+	 * @param out the stream of the snapshot file.
+	 * @param text the text to write (can be null).
+	 */
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		if (text == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
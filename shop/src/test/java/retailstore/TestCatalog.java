@@ -0,0 +1,73 @@
+package retailstore;
+
+import java.util.ArrayList;
+
+/**
+ * Implementation of the catalogs the tests of the Retail Store run against.
+ * Items are numbered from FIRST_ID, each with QTY units and one of a few suppliers.
+ *
+ * @author B.Gulseren
+ * @version 1.0
+ * @since October 18th, 2026
+ */
+
+final class TestCatalog {
+
+	/** the id of the first item of a catalog */
+	static final int FIRST_ID = 1000;
+
+	/** the quantity every item of a catalog starts with */
+	static final int QTY = 100;
+
+	/** the id of the first supplier */
+	static final int FIRST_SUPPLIER = 8001;
+
+	/** the number of suppliers */
+	static final int SUPPLIER_COUNT = 4;
+
+	private TestCatalog() {
+	}
+
+	/**
+	 * Generates a catalog of items numbered from FIRST_ID.
+	 *
+	 * @param size the number of items.
+	 * @return the items.
+	 */
+	static ArrayList<Item> items(int size) {
+		ArrayList<Item> items = new ArrayList<Item>(size);
+		for (int i = 0; i < size; i++) {
+			Item item = new Item();
+			item.setId(FIRST_ID + i);
+			item.setName("Item " + i);
+			item.setQty(QTY);
+			item.setPrice(1.25 + i % 100);
+			item.setSupplierId(FIRST_SUPPLIER + i % SUPPLIER_COUNT);
+			items.add(item);
+		}
+		return items;
+	}
+
+	/**
+	 * Generates the suppliers of the items of a catalog.
+	 *
+	 * @return the suppliers.
+	 */
+	static ArrayList<Supplier> suppliers() {
+		ArrayList<Supplier> suppliers = new ArrayList<Supplier>();
+		for (int i = 0; i < SUPPLIER_COUNT; i++) {
+			suppliers.add(new Supplier(FIRST_SUPPLIER + i, "Supplier " + i, "Street " + i, "Contact " + i));
+		}
+		return suppliers;
+	}
+
+	/**
+	 * Creates a concurrent shop holding a catalog.
+	 *
+	 * @param size the number of items.
+	 * @return the shop.
+	 */
+	static Shop shop(int size) {
+		return new Shop(new Inventory(items(size), true), suppliers());
+	}
+}